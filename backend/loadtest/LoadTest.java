@@ -0,0 +1,130 @@
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Closed-loop HTTP load generator for the Wiz Khalubernetes backend.
+ * Each client loops for the given duration, sending a mix of GET /api/quotes/latest (40%),
+ * GET /api/quotes?limit=50 (40%) and POST /api/quotes (20%), and records per-request latency
+ * after a short warm-up. Prints one TSV line: label, clients, requests/sec, p50 ms, p99 ms,
+ * non-2xx count and the status histogram.
+ *
+ * Usage: java LoadTest.java [baseUrl] [clients] [seconds] [label]
+ */
+public class LoadTest {
+    private static final int MAX_SAMPLES_PER_CLIENT = 1 << 20;
+
+    public static void main(String[] args) throws Exception {
+        String base = args.length > 0 ? args[0] : "http://localhost:8080";
+        int clients = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 30;
+        String label = args.length > 3 ? args[3] : "run";
+
+        HttpClient http = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .version(HttpClient.Version.HTTP_1_1)
+            .build();
+        long warmupEnd = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        long end = warmupEnd + Duration.ofSeconds(seconds).toNanos();
+
+        List<Client> all = new ArrayList<>();
+        for (int c = 0; c < clients; c++) {
+            Client client = new Client(http, base, warmupEnd, end);
+            all.add(client);
+            client.thread.start();
+        }
+        int total = 0;
+        for (Client client : all) {
+            client.thread.join();
+            total += client.count;
+        }
+
+        long[] latencies = new long[total];
+        int pos = 0;
+        Map<Integer, Integer> statuses = new TreeMap<>();
+        for (Client client : all) {
+            System.arraycopy(client.latencies, 0, latencies, pos, client.count);
+            pos += client.count;
+            client.statuses.forEach((status, n) -> statuses.merge(status, n, Integer::sum));
+        }
+        Arrays.sort(latencies);
+        int errors = 0;
+        for (Map.Entry<Integer, Integer> entry : statuses.entrySet()) {
+            if (entry.getKey() < 200 || entry.getKey() >= 300) {
+                errors += entry.getValue();
+            }
+        }
+        System.out.printf("%s\t%d\t%.0f\t%.2f\t%.2f\t%d\t%s%n", label, clients, total / (double) seconds,
+            percentileMillis(latencies, 0.50), percentileMillis(latencies, 0.99), errors, statuses);
+    }
+
+    private static final class Client implements Runnable {
+        final HttpClient http;
+        final String base;
+        final long warmupEnd;
+        final long end;
+        long[] latencies = new long[1024];
+        final Map<Integer, Integer> statuses = new TreeMap<>();
+        final Thread thread = new Thread(this);
+        int count;
+
+        Client(HttpClient http, String base, long warmupEnd, long end) {
+            this.http = http;
+            this.base = base;
+            this.warmupEnd = warmupEnd;
+            this.end = end;
+        }
+
+        @Override
+        public void run() {
+            while (System.nanoTime() < end) {
+                HttpRequest request = nextRequest(base);
+                long start = System.nanoTime();
+                int status;
+                try {
+                    status = http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                } catch (Exception e) {
+                    status = -1;
+                }
+                long done = System.nanoTime();
+                if (start >= warmupEnd && count < MAX_SAMPLES_PER_CLIENT) {
+                    if (count == latencies.length) {
+                        // Grown on demand: hundreds of clients preallocating the maximum would not fit the heap
+                        latencies = Arrays.copyOf(latencies, Math.min(MAX_SAMPLES_PER_CLIENT, count * 2));
+                    }
+                    latencies[count++] = done - start;
+                    statuses.merge(status, 1, Integer::sum);
+                }
+            }
+        }
+    }
+
+    private static HttpRequest nextRequest(String base) {
+        int pick = ThreadLocalRandom.current().nextInt(10);
+        if (pick < 2) {
+            return HttpRequest.newBuilder(URI.create(base + "/api/quotes"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"quote\":\"load test " + System.nanoTime() + "\"}"))
+                .timeout(Duration.ofSeconds(30))
+                .build();
+        }
+        String path = pick < 6 ? "/api/quotes/latest" : "/api/quotes?limit=50";
+        return HttpRequest.newBuilder(URI.create(base + path)).timeout(Duration.ofSeconds(30)).GET().build();
+    }
+
+    private static double percentileMillis(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))] / 1_000_000.0;
+    }
+}
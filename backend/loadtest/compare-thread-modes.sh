@@ -0,0 +1,50 @@
+#!/bin/bash
+# Compares requests/sec and p99 latency of the platform-thread and virtual-thread modes.
+# Starts the backend jar once per mode (same DB settings), runs LoadTest.java against it and
+# prints one TSV line per mode. Needs Java 21 for the virtual mode.
+#
+# Usage: loadtest/compare-thread-modes.sh [clients] [seconds]
+# DB selection is inherited from the environment, e.g.:
+#   REMOTE_DB=true MONGODB_URI=mongodb://host:27017/wizquotes loadtest/compare-thread-modes.sh 400 60
+set -euo pipefail
+cd "$(dirname "$0")/.."
+
+CLIENTS=${1:-200}
+SECONDS_PER_RUN=${2:-30}
+PORT=${PORT:-8080}
+JAR=$(ls target/wiz-khalubernetes-backend-*.jar 2>/dev/null | head -1 || true)
+if [ -z "$JAR" ]; then
+  mvn -B -q package -DskipTests
+  JAR=$(ls target/wiz-khalubernetes-backend-*.jar | head -1)
+fi
+
+run_mode() {
+  local label=$1 virtual=$2
+  # Another server on the port would be measured instead of this one
+  if curl -s -o /dev/null "http://localhost:$PORT/"; then
+    echo "port $PORT is already in use" >&2
+    exit 1
+  fi
+  # Caches off so reads actually reach the DB; quieter logging so the log appender is not the bottleneck;
+  # no per-client rate limit, since every load test client has the same address
+  VIRTUAL_THREADS=$virtual QUOTES_CACHE_ENABLED=false QUOTES_RATE_LIMIT_ENABLED=false LOGGING_LEVEL_COM_WIZKHALUBERNETES=WARN \
+    java -jar "$JAR" --server.port="$PORT" > "target/loadtest-$label.log" 2>&1 &
+  local pid=$!
+  trap "kill $pid 2>/dev/null || true" EXIT
+  for _ in $(seq 1 90); do
+    curl -sf "http://localhost:$PORT/api/dbstatus" > /dev/null && break
+    sleep 1
+  done
+  java loadtest/LoadTest.java "http://localhost:$PORT" "$CLIENTS" "$SECONDS_PER_RUN" "$label"
+  kill "$pid"
+  wait "$pid" 2>/dev/null || true
+  trap - EXIT
+}
+
+echo -e "mode\tclients\treq_per_sec\tp50_ms\tp99_ms\terrors\tstatuses"
+run_mode platform false
+if [ "$(java -XshowSettings:properties -version 2>&1 | sed -n 's/.*java.specification.version = //p')" -ge 21 ]; then
+  run_mode virtual true
+else
+  echo "virtual mode skipped: needs Java 21+" >&2
+fi
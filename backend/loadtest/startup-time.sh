@@ -0,0 +1,85 @@
+#!/bin/bash
+# Measures cold-start time: milliseconds from launching the JVM to the first successful (2xx)
+# GET /api/quotes/latest, plus Spring's own "Started ... in" time. Starts the backend [runs] times
+# and prints one TSV line per run and a median line.
+#
+# Usage: loadtest/startup-time.sh [runs]
+# DB and profile selection is inherited from the environment; LAUNCH picks how the JVM is started:
+#   LAUNCH=jar   java -jar (default)
+#   LAUNCH=cds   unpacked jar with a CDS archive trained first, as the Docker image runs it
+# JAVA_OPTS is passed to the JVM. Examples:
+#   loadtest/startup-time.sh 5
+#   SPRING_PROFILES_ACTIVE=fast-startup LAUNCH=cds loadtest/startup-time.sh 5
+#   mvn -Pfast-startup package -Daot.remote-db=false
+#   SPRING_PROFILES_ACTIVE=fast-startup LAUNCH=cds JAVA_OPTS=-Dspring.aot.enabled=true loadtest/startup-time.sh 5
+set -euo pipefail
+cd "$(dirname "$0")/.."
+
+RUNS=${1:-5}
+PORT=${PORT:-8080}
+LAUNCH=${LAUNCH:-jar}
+JAVA_OPTS=${JAVA_OPTS:-}
+JAR=$(ls target/wiz-khalubernetes-backend-*.jar 2>/dev/null | head -1 || true)
+if [ -z "$JAR" ]; then
+  mvn -B -q package -DskipTests
+  JAR=$(ls target/wiz-khalubernetes-backend-*.jar | head -1)
+fi
+
+case "$LAUNCH" in
+  jar)
+    LAUNCH_ARGS=(-jar "$JAR")
+    ;;
+  cds)
+    # Same layout as the Dockerfile: plain jars on the class path in classpath.idx order, so that
+    # application and library classes can be archived, not only JDK classes
+    DIR=target/startup-cds
+    rm -rf "$DIR" && mkdir -p "$DIR"
+    (cd "$DIR" && jar -xf "../../$JAR" BOOT-INF/lib BOOT-INF/classpath.idx)
+    jar -cf "$DIR/application.jar" -C target/classes .
+    echo "-cp application.jar:$(sed -n 's/^- "\(.*\)"$/\1/p' "$DIR/BOOT-INF/classpath.idx" | paste -sd: -)" > "$DIR/app.args"
+    echo "com.wizkhalubernetes.WizKhalubernetesApplication" >> "$DIR/app.args"
+    # Training run: refresh the context, then exit and dump the classes loaded so far
+    (cd "$DIR" && java -XX:ArchiveClassesAtExit=app.jsa -Dspring.context.exit=onRefresh $JAVA_OPTS @app.args \
+      > ../startup-cds-training.log 2>&1)
+    LAUNCH_ARGS=(-XX:SharedArchiveFile=app.jsa @app.args)
+    cd "$DIR"
+    ;;
+  *)
+    echo "unknown LAUNCH=$LAUNCH (jar or cds)" >&2
+    exit 1
+    ;;
+esac
+
+now_ms() { date +%s%3N; }
+
+echo -e "run\tlaunch\tfirst_latest_ms\tspring_started_s"
+results=()
+for run in $(seq 1 "$RUNS"); do
+  log=$(mktemp)
+  start=$(now_ms)
+  java $JAVA_OPTS "${LAUNCH_ARGS[@]}" --server.port="$PORT" > "$log" 2>&1 &
+  pid=$!
+  elapsed=""
+  while kill -0 "$pid" 2>/dev/null; do
+    if curl -sf -o /dev/null "http://localhost:$PORT/api/quotes/latest"; then
+      elapsed=$(( $(now_ms) - start ))
+      break
+    fi
+    if [ $(( $(now_ms) - start )) -gt 180000 ]; then
+      break
+    fi
+    sleep 0.05
+  done
+  kill "$pid" 2>/dev/null || true
+  wait "$pid" 2>/dev/null || true
+  if [ -z "$elapsed" ]; then
+    echo "run $run: no successful /api/quotes/latest; log: $log" >&2
+    exit 1
+  fi
+  started=$(sed -n 's/.*Started WizKhalubernetesApplication in \([0-9.]*\) seconds.*/\1/p' "$log" | head -1)
+  rm -f "$log"
+  echo -e "$run\t$LAUNCH\t$elapsed\t${started:-?}"
+  results+=("$elapsed")
+done
+median=$(printf '%s\n' "${results[@]}" | sort -n | awk '{a[NR]=$1} END {print a[int((NR+1)/2)]}')
+echo -e "median\t$LAUNCH\t$median\t"
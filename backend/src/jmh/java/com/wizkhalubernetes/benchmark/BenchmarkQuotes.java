@@ -0,0 +1,67 @@
+package com.wizkhalubernetes.benchmark;
+
+/**
+ * Deterministic seed data for the benchmarks: quotes of varying length and a spread of client IPs,
+ * so every run and every backend sees the same rows.
+ */
+final class BenchmarkQuotes {
+    private static final String[] WORDS = {
+        "young", "wild", "free", "work", "hard", "stay", "humble", "rolling", "papers", "taylor",
+        "gang", "black", "yellow", "smoke", "see", "again", "success", "dream", "grind", "focus"
+    };
+
+    private static final int SEARCH_VOCABULARY = 50_000;
+
+    private BenchmarkQuotes() {
+    }
+
+    /**
+     * Returns the text of seed quote n: 4 to 19 words picked from a fixed vocabulary.
+     */
+    static String text(int n) {
+        int words = 4 + n % 16;
+        StringBuilder sb = new StringBuilder(words * 7);
+        for (int i = 0; i < words; i++) {
+            if (i > 0) {
+                sb.append(' ');
+            }
+            sb.append(WORDS[(n * 31 + i * 7) % WORDS.length]);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Returns the text of search seed quote n: 4 to 19 words from a 50,000-word vocabulary with a
+     * Zipf-like distribution (log-uniform rank), so the first words are in a large share of the
+     * quotes and most words in very few, as in natural text. The fixed vocabulary above holds the
+     * most frequent ranks.
+     */
+    static String searchText(int n) {
+        int words = 4 + n % 16;
+        long seed = n * 0x9E3779B97F4A7C15L;
+        StringBuilder sb = new StringBuilder(words * 7);
+        for (int i = 0; i < words; i++) {
+            if (i > 0) {
+                sb.append(' ');
+            }
+            seed = seed * 6364136223846793005L + 1442695040888963407L;
+            double u = (seed >>> 11) * 0x1.0p-53;
+            sb.append(searchWord((int) Math.pow(SEARCH_VOCABULARY, u) - 1));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Returns the word of the given frequency rank in the search vocabulary.
+     */
+    static String searchWord(int rank) {
+        return rank < WORDS.length ? WORDS[rank] : "w" + Integer.toString(rank, 36);
+    }
+
+    /**
+     * Returns the submitter IP of seed quote n (one of 65,536 addresses).
+     */
+    static String ip(int n) {
+        return "10.0." + ((n >> 8) & 0xff) + "." + (n & 0xff);
+    }
+}
@@ -0,0 +1,156 @@
+package com.wizkhalubernetes.benchmark;
+
+import com.wizkhalubernetes.ratelimit.ClientRateLimiter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-client rate limit admission with 100k and 1M distinct client addresses: the striped
+ * {@link ClientRateLimiter} table (262144 slots, so 1M clients keep evicting) against the same
+ * token buckets held as one AtomicLong per address in a ConcurrentHashMap, the obvious alternative.
+ * <ul>
+ * <li>*DistinctClients: every call is the next of the known clients, as in steady state.</li>
+ * <li>*NewClientEveryCall: every call is an address never seen before, as under a scan or an
+ * address-rotating client. The map has to copy the address into a key and add a node and a
+ * bucket, and drops the client seen {@code clients} calls earlier to stay bounded.</li>
+ * <li>stripedHotClient: one client over its limit, so nearly every call is a rejection.</li>
+ * </ul>
+ * Add -prof gc for bytes/op and -t 4 for contention:
+ * mvn -Pjmh verify -Djmh.args="-prof gc ClientRateLimiterBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class ClientRateLimiterBenchmark {
+    private static final double RATE = 10;
+    private static final int BURST = 20;
+    private static final long INTERVAL_NANOS = (long) (1_000_000_000 / RATE);
+
+    @Param({"100000", "1000000"})
+    public int clients;
+
+    private String[] addresses;
+    private ClientRateLimiter limiter;
+    private ConcurrentHashMap<String, AtomicLong> mapBuckets;
+
+    /**
+     * Per-thread position in the address list, and the buffer new addresses are formatted into.
+     */
+    @State(Scope.Thread)
+    public static class Cursor {
+        private static final AtomicLong THREADS = new AtomicLong();
+
+        final StringBuilder address = new StringBuilder(16);
+        int thread;
+        int next;
+        long fresh;
+
+        @Setup
+        public void setUp(ClientRateLimiterBenchmark benchmark) {
+            thread = (int) THREADS.incrementAndGet();
+            next = thread * 7919 % benchmark.clients;
+        }
+
+        String advance(String[] addresses) {
+            String address = addresses[next];
+            next = next + 1 == addresses.length ? 0 : next + 1;
+            return address;
+        }
+
+        /**
+         * Formats the n-th new address of this thread (thread.a.b.c) into the reused buffer.
+         */
+        StringBuilder format(long n) {
+            address.setLength(0);
+            address.append(thread).append('.').append(n >>> 16 & 0xffff).append('.')
+                .append(n >>> 8 & 0xff).append('.').append(n & 0xff);
+            return address;
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        addresses = new String[clients];
+        for (int i = 0; i < clients; i++) {
+            addresses[i] = "10." + (i >>> 16 & 0xff) + "." + (i >>> 8 & 0xff) + "." + (i & 0xff);
+        }
+        limiter = new ClientRateLimiter(RATE, BURST, 262144);
+        mapBuckets = new ConcurrentHashMap<>();
+        // Insert in random order: nodes allocated in walk order would make the map walk sequential in memory
+        int[] order = new int[clients];
+        Random random = new Random(42);
+        for (int i = 0; i < clients; i++) {
+            int j = random.nextInt(i + 1);
+            order[i] = order[j];
+            order[j] = i;
+        }
+        for (int i : order) {
+            mapAcquire(addresses[i]);
+        }
+    }
+
+    @Benchmark
+    public long stripedDistinctClients(Cursor cursor) {
+        return limiter.tryAcquire(cursor.advance(addresses));
+    }
+
+    @Benchmark
+    public long concurrentHashMapDistinctClients(Cursor cursor) {
+        return mapAcquire(cursor.advance(addresses));
+    }
+
+    @Benchmark
+    public long stripedNewClientEveryCall(Cursor cursor) {
+        return limiter.tryAcquire(cursor.format(cursor.fresh++));
+    }
+
+    @Benchmark
+    public long concurrentHashMapNewClientEveryCall(Cursor cursor) {
+        long n = cursor.fresh++;
+        long wait = mapAcquire(cursor.format(n).toString());
+        if (n >= clients) {
+            mapBuckets.remove(cursor.format(n - clients).toString());
+        }
+        return wait;
+    }
+
+    @Benchmark
+    public long stripedHotClient() {
+        return limiter.tryAcquire(addresses[0]);
+    }
+
+    /**
+     * The same GCRA bucket as ClientRateLimiter, one AtomicLong per address.
+     */
+    private long mapAcquire(String address) {
+        AtomicLong bucket = mapBuckets.computeIfAbsent(address, a -> new AtomicLong(Long.MIN_VALUE));
+        long now = System.nanoTime();
+        while (true) {
+            long tat = bucket.get();
+            long next = Math.max(tat, now) + INTERVAL_NANOS;
+            long wait = next - now - INTERVAL_NANOS * BURST;
+            if (wait > 0) {
+                return wait;
+            }
+            if (bucket.compareAndSet(tat, next)) {
+                return 0;
+            }
+        }
+    }
+}
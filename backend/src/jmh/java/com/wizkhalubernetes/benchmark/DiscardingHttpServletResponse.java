@@ -0,0 +1,49 @@
+package com.wizkhalubernetes.benchmark;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+/**
+ * Servlet response whose body is counted and thrown away, so streaming a million quotes measures
+ * the cursor and the JSON encoding rather than a growing in-memory buffer.
+ */
+class DiscardingHttpServletResponse extends MockHttpServletResponse {
+    private final CountingOutputStream out = new CountingOutputStream();
+
+    @Override
+    public ServletOutputStream getOutputStream() {
+        return out;
+    }
+
+    /**
+     * Returns the number of body bytes written so far.
+     */
+    long bytesWritten() {
+        return out.count;
+    }
+
+    private static final class CountingOutputStream extends ServletOutputStream {
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.wizkhalubernetes.benchmark;
+
+import com.wizkhalubernetes.model.mongo.QuoteMongo;
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Repository calls through a MongoDB client with one quotes.mongo.client.* knob changed per run
+ * (see {@link MongoClientState}), from 16 threads so the pool size knob sees contention.
+ * Compare each knob against "baseline" within the same benchmark.
+ * Run with: mvn -Pjmh verify -Djmh.args="MongoClientBenchmark"
+ * Against a real MongoDB: add -Dbenchmark.mongo.uri=mongodb://host:27017 to the JMH fork, e.g.
+ * -Djmh.args="-jvmArgsAppend -Dbenchmark.mongo.uri=mongodb://host:27017 MongoClientBenchmark"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@Threads(16)
+public class MongoClientBenchmark {
+    private static final Sort PAGE_SORT = Sort.by("quoteNumber", "id");
+    private static final ObjectId MIN_OBJECT_ID = new ObjectId("000000000000000000000000");
+
+    @Benchmark
+    public QuoteMongo findLatest(MongoClientState state) {
+        return state.repository.findTopByOrderByQuoteNumberDesc().orElse(null);
+    }
+
+    /**
+     * A 50-quote keyset page.
+     */
+    @Benchmark
+    public List<QuoteMongo> findPage(MongoClientState state) {
+        return state.repository.findPageAfter(0, MIN_OBJECT_ID, PageRequest.of(0, 50, PAGE_SORT));
+    }
+
+    /**
+     * The whole collection from a server-side cursor: the call whose
+     * response size wire compression is meant for.
+     */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public long streamAll(MongoClientState state) {
+        try (Stream<QuoteMongo> quotes = state.repository.streamAllByOrderByQuoteNumberAscIdAsc()) {
+            return quotes.count();
+        }
+    }
+
+    /**
+     * One insert; grows the collection by a few thousand documents per run.
+     */
+    @Benchmark
+    public QuoteMongo insert(MongoClientState state) {
+        return state.repository.insert(MongoClientState.quote(state.quotes + 1, Instant.now().toString()));
+    }
+}
@@ -0,0 +1,119 @@
+package com.wizkhalubernetes.benchmark;
+
+import com.mongodb.ConnectionString;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.wizkhalubernetes.config.mongo.MongoClientProperties;
+import com.wizkhalubernetes.config.mongo.MongoClientSettingsFactory;
+import com.wizkhalubernetes.model.mongo.QuoteMongo;
+import com.wizkhalubernetes.repository.mongo.QuoteMongoRepository;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.SimpleMongoClientDatabaseFactory;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.repository.support.MongoRepositoryFactory;
+import java.net.InetSocketAddress;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A MongoDB client built by {@link MongoClientSettingsFactory} with the defaults of
+ * application.properties plus one changed knob, and the QuoteMongoRepository on top of it.
+ * The knob is bound the way Spring binds quotes.mongo.client.* ("compressors=none",
+ * "pool.max-size=10", ...); "baseline" changes nothing.
+ * The database is an in-memory mongo-java-server unless -Dbenchmark.mongo.uri points at a real
+ * MongoDB. The in-memory server negotiates no compression and has no secondaries, so the
+ * compressors and read-preference knobs only show their effect against a real deployment. It also
+ * rejects unacknowledged writes, so pass -p knob=write-concern=unacknowledged only with a real MongoDB.
+ */
+@State(Scope.Benchmark)
+public class MongoClientState {
+    private static final String DATABASE = "wizquotes_benchmark";
+
+    @Param({"baseline", "pool.max-size=4", "pool.max-size=500", "compressors=none", "compressors=snappy",
+        "compressors=zstd", "compressors=zlib", "read-preference=secondaryPreferred",
+        "write-concern=majority"})
+    public String knob;
+
+    @Param({"10000"})
+    public int quotes;
+
+    MongoClient client;
+    QuoteMongoRepository repository;
+    private MongoServer mongoServer;
+
+    @Setup(Level.Trial)
+    public void start() {
+        String uri = System.getProperty("benchmark.mongo.uri");
+        if (uri == null || uri.isEmpty()) {
+            mongoServer = new MongoServer(new MemoryBackend());
+            InetSocketAddress address = mongoServer.bind();
+            uri = "mongodb://" + address.getHostString() + ":" + address.getPort();
+        }
+        client = MongoClients.create(MongoClientSettingsFactory.create(new ConnectionString(uri), properties(knob),
+            new SimpleMeterRegistry()));
+        MongoTemplate template = new MongoTemplate(new SimpleMongoClientDatabaseFactory(client, DATABASE));
+        if (mongoServer == null) {
+            template.dropCollection(QuoteMongo.class);
+        }
+        repository = new MongoRepositoryFactory(template).getRepository(QuoteMongoRepository.class);
+        String timestamp = Instant.now().toString();
+        List<QuoteMongo> seed = new ArrayList<>(quotes);
+        for (int n = 1; n <= quotes; n++) {
+            seed.add(quote(n, timestamp));
+        }
+        template.insert(seed, QuoteMongo.class);
+        template.indexOps(QuoteMongo.class).ensureIndex(new Index("quoteNumber", Sort.Direction.ASC));
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        if (client != null) {
+            if (mongoServer == null) {
+                client.getDatabase(DATABASE).drop();
+            }
+            client.close();
+        }
+        if (mongoServer != null) {
+            mongoServer.shutdownNow();
+        }
+    }
+
+    static QuoteMongo quote(int n, String timestamp) {
+        QuoteMongo quote = new QuoteMongo();
+        quote.setQuote(BenchmarkQuotes.text(n));
+        quote.setTimestamp(timestamp);
+        quote.setIp(BenchmarkQuotes.ip(n));
+        quote.setQuoteNumber(n);
+        return quote;
+    }
+
+    private static MongoClientProperties properties(String knob) {
+        MongoClientProperties properties = new MongoClientProperties();
+        if ("baseline".equals(knob)) {
+            return properties;
+        }
+        int eq = knob.indexOf('=');
+        if (eq < 0) {
+            throw new IllegalArgumentException("Knob must be baseline or key=value: " + knob);
+        }
+        Map<String, String> source = Map.of("quotes.mongo.client." + knob.substring(0, eq), knob.substring(eq + 1));
+        new Binder(new MapConfigurationPropertySource(source))
+            .bind("quotes.mongo.client", Bindable.ofInstance(properties));
+        return properties;
+    }
+}
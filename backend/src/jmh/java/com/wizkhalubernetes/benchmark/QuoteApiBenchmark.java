@@ -0,0 +1,73 @@
+package com.wizkhalubernetes.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.ResponseEntity;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Controller-level benchmarks for the quote hot paths against H2 and the in-memory Mongo stand-in,
+ * at 1k/100k/1M seeded quotes (see {@link QuoteApiState}).
+ * addQuote grows the table during the run by a few thousand rows, which is small next to the seed.
+ * Run with: mvn -Pjmh verify (JSON results in target/jmh-result.json)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class QuoteApiBenchmark {
+
+    @Benchmark
+    public ResponseEntity<?> addQuote(QuoteApiState state) {
+        return state.controller.addQuote(state.payload, state.request);
+    }
+
+    @Benchmark
+    public ResponseEntity<?> getLatestQuote(QuoteApiState state) {
+        return state.controller.getLatestQuote();
+    }
+
+    /**
+     * GET /api/quotes without paging: the whole table streamed as one JSON array.
+     */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 2, time = 5)
+    public long getAllQuotes(QuoteApiState state) {
+        DiscardingHttpServletResponse response = new DiscardingHttpServletResponse();
+        state.controller.getAllQuotes(null, null, null, null, null, response);
+        return response.bytesWritten();
+    }
+
+    /**
+     * GET /api/quotes?limit=50: the first keyset page.
+     */
+    @Benchmark
+    public ResponseEntity<?> getQuotesPage(QuoteApiState state) {
+        return state.controller.getAllQuotes(null, 50, null, null, null, new DiscardingHttpServletResponse());
+    }
+
+    /**
+     * The controller's getNextQuoteNumber(): served from the reserved block, with one sequence
+     * round trip every quotes.sequence.block-size calls.
+     */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public long getNextQuoteNumber(QuoteApiState state) {
+        return state.allocator.next();
+    }
+
+    /**
+     * The sequence round trip behind a block refill (H2 NEXT VALUE / Mongo findAndModify).
+     */
+    @Benchmark
+    public long reserveQuoteNumberBlock(QuoteApiState state) {
+        return state.sequenceBackend.reserveBlock(50);
+    }
+}
@@ -0,0 +1,145 @@
+package com.wizkhalubernetes.benchmark;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.client.MongoCollection;
+import com.wizkhalubernetes.WizKhalubernetesApplication;
+import com.wizkhalubernetes.controller.QuoteController;
+import com.wizkhalubernetes.model.QuoteCodec;
+import com.wizkhalubernetes.sequence.QuoteNumberAllocator;
+import com.wizkhalubernetes.sequence.QuoteSequenceBackend;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import org.bson.Document;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.Banner;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import java.net.InetSocketAddress;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Boots the application against one backend, seeds it and hands the benchmarks a wired
+ * QuoteController. "h2" uses the embedded H2 database, "mongo" an in-memory MongoDB wire-protocol
+ * server (mongo-java-server) so no external database is needed.
+ * The web server is not started: benchmarks call the controller methods directly, which keeps
+ * Tomcat and the network out of the numbers. The root logger is raised to WARN so Spring's own
+ * startup and shutdown chatter stays out of the JMH output; application logging is left as shipped.
+ */
+@State(Scope.Benchmark)
+public class QuoteApiState {
+    private static final int SEED_BATCH = 10_000;
+
+    @Param({"h2", "mongo"})
+    public String backend;
+
+    @Param({"1000", "100000", "1000000"})
+    public int quotes;
+
+    /** "true" measures cache hits for latest/page reads; "false" measures the DB path. */
+    @Param({"false"})
+    public boolean cache;
+
+    ConfigurableApplicationContext context;
+    QuoteController controller;
+    QuoteNumberAllocator allocator;
+    QuoteSequenceBackend sequenceBackend;
+    MockHttpServletRequest request;
+    Map<String, String> payload;
+    private MongoServer mongoServer;
+
+    @Setup(Level.Trial)
+    public void start() {
+        List<String> args = new ArrayList<>(List.of(
+            "--quotes.cache.enabled=" + cache,
+            // Measured on its own in QuoteSearchBenchmark; a background build would skew these numbers
+            "--quotes.search.index.enabled=false",
+            "--logging.level.root=WARN"));
+        if ("mongo".equals(backend)) {
+            MemoryBackend memoryBackend = new MemoryBackend();
+            mongoServer = new MongoServer(memoryBackend);
+            InetSocketAddress address = mongoServer.bind();
+            String uri = "mongodb://" + address.getHostString() + ":" + address.getPort() + "/wizquotes";
+            seedMongo(uri);
+            // Enabled after seeding so the change-stream invalidation bus can run without the
+            // oplog holding a second copy of the seed data
+            memoryBackend.enableOplog();
+            args.add("--REMOTE_DB=true");
+            args.add("--spring.data.mongodb.uri=" + uri);
+        } else if ("h2".equals(backend)) {
+            args.add("--REMOTE_DB=false");
+        } else {
+            throw new IllegalArgumentException("Unknown backend: " + backend);
+        }
+
+        context = new SpringApplicationBuilder(WizKhalubernetesApplication.class)
+            .web(WebApplicationType.NONE)
+            .bannerMode(Banner.Mode.OFF)
+            .run(args.toArray(new String[0]));
+        if ("h2".equals(backend)) {
+            seedH2(context.getBean(JdbcTemplate.class));
+        }
+
+        // Wired like the servlet stack wires it: field injection, @Value and @PersistenceContext
+        controller = new QuoteController();
+        context.getAutowireCapableBeanFactory().autowireBean(controller);
+        allocator = context.getBean(QuoteNumberAllocator.class);
+        sequenceBackend = context.getBean(QuoteSequenceBackend.class);
+        request = new MockHttpServletRequest("POST", "/api/quotes");
+        request.setRemoteAddr("10.0.0.1");
+        payload = Map.of("quote", "Benchmark quote from JMH");
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        if (context != null) {
+            context.close();
+        }
+        if (mongoServer != null) {
+            mongoServer.shutdownNow();
+        }
+    }
+
+    private void seedH2(JdbcTemplate jdbcTemplate) {
+        long createdAt = Instant.now().toEpochMilli();
+        for (int from = 0; from < quotes; from += SEED_BATCH) {
+            int to = Math.min(quotes, from + SEED_BATCH);
+            List<Object[]> rows = new ArrayList<>(to - from);
+            for (int n = from + 1; n <= to; n++) {
+                rows.add(new Object[]{BenchmarkQuotes.text(n), createdAt, QuoteCodec.pack(BenchmarkQuotes.ip(n)), n});
+            }
+            // Ids come from the entity's own sequence so later Hibernate inserts never collide
+            jdbcTemplate.batchUpdate("INSERT INTO quotes (id, quote, created_at, ip_addr, quote_number) "
+                + "VALUES (NEXT VALUE FOR quotes_id_seq, ?, ?, ?, ?)", rows);
+        }
+    }
+
+    private void seedMongo(String uri) {
+        long createdAt = Instant.now().toEpochMilli();
+        try (MongoClient client = MongoClients.create(uri)) {
+            MongoCollection<Document> collection = client.getDatabase("wizquotes").getCollection("quotes");
+            for (int from = 0; from < quotes; from += SEED_BATCH) {
+                int to = Math.min(quotes, from + SEED_BATCH);
+                List<Document> documents = new ArrayList<>(to - from);
+                for (int n = from + 1; n <= to; n++) {
+                    documents.add(new Document("quote", BenchmarkQuotes.text(n))
+                        .append("ts", createdAt)
+                        .append("addr", QuoteCodec.pack(BenchmarkQuotes.ip(n)))
+                        .append("quoteNumber", n));
+                }
+                collection.insertMany(documents);
+            }
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.wizkhalubernetes.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.wizkhalubernetes.model.QuotePage;
+import com.wizkhalubernetes.model.h2.QuoteH2;
+import com.wizkhalubernetes.model.mongo.QuoteMongo;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON encoding cost of the quote responses, independent of any database: a single QuoteMongo /
+ * QuoteH2 (POST and GET latest), a 50-quote keyset page, and decoding the POST body.
+ * Uses an ObjectMapper built like Spring Boot's default one.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QuoteJsonBenchmark {
+    private static final int PAGE_SIZE = 50;
+
+    private ObjectMapper objectMapper;
+    private ObjectReader payloadReader;
+    private QuoteMongo mongoQuote;
+    private QuoteH2 h2Quote;
+    private QuotePage<QuoteMongo> mongoPage;
+    private QuotePage<QuoteH2> h2Page;
+    private byte[] payload;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        payloadReader = objectMapper.readerFor(Map.class);
+        String timestamp = Instant.now().toString();
+        List<QuoteMongo> mongoItems = new ArrayList<>(PAGE_SIZE);
+        List<QuoteH2> h2Items = new ArrayList<>(PAGE_SIZE);
+        for (int n = 1; n <= PAGE_SIZE; n++) {
+            QuoteMongo mongo = new QuoteMongo();
+            mongo.setId(String.format("65f0a1b2c3d4e5f6a7b8%04x", n));
+            mongo.setQuote(BenchmarkQuotes.text(n));
+            mongo.setTimestamp(timestamp);
+            mongo.setIp(BenchmarkQuotes.ip(n));
+            mongo.setQuoteNumber(n);
+            mongoItems.add(mongo);
+            QuoteH2 h2 = new QuoteH2();
+            h2.setId((long) n);
+            h2.setQuote(BenchmarkQuotes.text(n));
+            h2.setTimestamp(timestamp);
+            h2.setIp(BenchmarkQuotes.ip(n));
+            h2.setQuoteNumber(n);
+            h2Items.add(h2);
+        }
+        mongoQuote = mongoItems.get(0);
+        h2Quote = h2Items.get(0);
+        mongoPage = new QuotePage<>(mongoItems, "50:" + mongoItems.get(PAGE_SIZE - 1).getId());
+        h2Page = new QuotePage<>(h2Items, "50:50");
+        payload = "{\"quote\":\"Benchmark quote from JMH\"}".getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public byte[] serializeQuoteMongo() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(mongoQuote);
+    }
+
+    @Benchmark
+    public byte[] serializeQuoteH2() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(h2Quote);
+    }
+
+    @Benchmark
+    public byte[] serializeMongoPage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(mongoPage);
+    }
+
+    @Benchmark
+    public byte[] serializeH2Page() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(h2Page);
+    }
+
+    @Benchmark
+    public Map<String, String> deserializeAddQuotePayload() throws IOException {
+        return payloadReader.readValue(payload);
+    }
+}
@@ -0,0 +1,119 @@
+package com.wizkhalubernetes.benchmark;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import com.wizkhalubernetes.cache.LoopbackQuoteInvalidationBus;
+import com.wizkhalubernetes.cache.QuoteJsonCache;
+import com.wizkhalubernetes.model.h2.QuoteH2;
+import com.wizkhalubernetes.prometheus.QuoteMetricsService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.util.unit.DataSize;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encoding cost of a full-list response (GET /api/quotes) of 10k quotes, independent of any
+ * database: Jackson writing each entity per request (reflective accessors, and with the Blackbird
+ * module) against copying the bytes held by {@link QuoteJsonCache}, as QuoteJsonStreams does.
+ * Add -prof gc for bytes/op:
+ * mvn -Pjmh verify -Djmh.args="-prof gc QuoteListJsonBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QuoteListJsonBenchmark {
+
+    @Param({"10000"})
+    public int quotes;
+
+    private ObjectMapper reflectiveMapper;
+    private ObjectMapper blackbirdMapper;
+    private QuoteJsonCache jsonCache;
+    private List<QuoteH2> items;
+
+    @Setup
+    public void setUp() throws IOException {
+        reflectiveMapper = Jackson2ObjectMapperBuilder.json().build();
+        blackbirdMapper = Jackson2ObjectMapperBuilder.json().modulesToInstall(new BlackbirdModule()).build();
+        jsonCache = new QuoteJsonCache(blackbirdMapper, new QuoteMetricsService(new SimpleMeterRegistry()),
+            new LoopbackQuoteInvalidationBus(), true, DataSize.ofMegabytes(64));
+        String timestamp = Instant.now().toString();
+        items = new ArrayList<>(quotes);
+        for (int n = 1; n <= quotes; n++) {
+            QuoteH2 quote = new QuoteH2();
+            quote.setId((long) n);
+            quote.setQuote(BenchmarkQuotes.text(n));
+            quote.setTimestamp(timestamp);
+            quote.setIp(BenchmarkQuotes.ip(n));
+            quote.setQuoteNumber(n);
+            items.add(quote);
+            jsonCache.encode(quote.getId(), quote);
+        }
+    }
+
+    /**
+     * The previous list path: one JsonGenerator, writeObject per quote, reflective accessors.
+     */
+    @Benchmark
+    public long jacksonReflective() throws IOException {
+        return writeWithGenerator(reflectiveMapper);
+    }
+
+    @Benchmark
+    public long jacksonBlackbird() throws IOException {
+        return writeWithGenerator(blackbirdMapper);
+    }
+
+    /**
+     * Every quote served from the cache: only byte copies into the response buffer.
+     */
+    @Benchmark
+    public long preEncoded() throws IOException {
+        DiscardingHttpServletResponse response = new DiscardingHttpServletResponse();
+        OutputStream out = new BufferedOutputStream(response.getOutputStream(), 16 * 1024);
+        out.write('[');
+        for (int i = 0; i < items.size(); i++) {
+            if (i > 0) {
+                out.write(',');
+            }
+            QuoteH2 quote = items.get(i);
+            out.write(jsonCache.encode(quote.getId(), quote));
+        }
+        out.write(']');
+        out.flush();
+        return response.bytesWritten();
+    }
+
+    private long writeWithGenerator(ObjectMapper objectMapper) throws IOException {
+        DiscardingHttpServletResponse response = new DiscardingHttpServletResponse();
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(response.getOutputStream());
+        generator.writeStartArray();
+        for (QuoteH2 quote : items) {
+            generator.writeObject(quote);
+        }
+        generator.writeEndArray();
+        generator.close();
+        return response.bytesWritten();
+    }
+}
@@ -0,0 +1,69 @@
+package com.wizkhalubernetes.benchmark;
+
+import com.wizkhalubernetes.search.QuoteSearchIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The in-memory quote search index at 100k and 1M quotes (see {@link QuoteSearchState}): full
+ * build time, and query latency for a common term, a rare term, two terms that must both match and
+ * a prefix. The index footprint is printed by the state's setup.
+ * Run with: mvn -Pjmh verify -Djmh.args="-p quotes=1000000 QuoteSearchBenchmark"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class QuoteSearchBenchmark {
+    private static final int LIMIT = 20;
+    private static final String COMMON = BenchmarkQuotes.searchWord(0);
+    private static final String RARE = BenchmarkQuotes.searchWord(20_000);
+
+    /**
+     * Indexes every seed quote into a fresh index, as the startup build does.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 5)
+    public QuoteSearchIndex build(QuoteSearchState state) {
+        return QuoteSearchState.index(state.texts);
+    }
+
+    /**
+     * A term found in a large share of the quotes: cost is dominated by scoring every match.
+     */
+    @Benchmark
+    public QuoteSearchIndex.Hits searchCommonTerm(QuoteSearchState state) {
+        return state.index.search(COMMON, LIMIT);
+    }
+
+    @Benchmark
+    public QuoteSearchIndex.Hits searchRareTerm(QuoteSearchState state) {
+        return state.index.search(RARE, LIMIT);
+    }
+
+    /**
+     * A common and a rarer term that must both match: the rarer one bounds the candidates.
+     */
+    @Benchmark
+    public QuoteSearchIndex.Hits searchTwoTerms(QuoteSearchState state) {
+        return state.index.search(COMMON + " " + BenchmarkQuotes.searchWord(100), LIMIT);
+    }
+
+    /**
+     * A prefix expanding to about a thousand tail terms.
+     */
+    @Benchmark
+    public QuoteSearchIndex.Hits searchPrefix(QuoteSearchState state) {
+        return state.index.search("w1*", LIMIT);
+    }
+}
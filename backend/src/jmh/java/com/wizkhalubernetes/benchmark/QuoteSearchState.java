@@ -0,0 +1,61 @@
+package com.wizkhalubernetes.benchmark;
+
+import com.wizkhalubernetes.search.QuoteSearchIndex;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+
+/**
+ * Seed texts and a built {@link QuoteSearchIndex} for {@link QuoteSearchBenchmark}, no database
+ * involved. Setup prints the footprint of the built index once per trial: the heap it retains
+ * (used heap after GC, before vs. after the build) next to the index's own estimate.
+ */
+@State(Scope.Benchmark)
+public class QuoteSearchState {
+    @Param({"100000", "1000000"})
+    public int quotes;
+
+    String[] texts;
+    QuoteSearchIndex index;
+
+    @Setup(Level.Trial)
+    public void build() throws InterruptedException {
+        texts = new String[quotes];
+        for (int n = 1; n <= quotes; n++) {
+            texts[n - 1] = BenchmarkQuotes.searchText(n);
+        }
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        long heapBefore = usedHeapAfterGc(memory);
+        long start = System.nanoTime();
+        index = index(texts);
+        long buildMillis = (System.nanoTime() - start) / 1_000_000;
+        long heapAfter = usedHeapAfterGc(memory);
+        System.out.println();
+        System.out.println("quotes\tterms\tpostings\tbuild_ms\tretained_heap_bytes\testimated_bytes\tbytes_per_quote");
+        System.out.println(quotes + "\t" + index.termCount() + "\t" + index.postingCount() + "\t" + buildMillis
+            + "\t" + (heapAfter - heapBefore) + "\t" + index.estimatedBytes() + "\t" + (heapAfter - heapBefore) / quotes);
+    }
+
+    /**
+     * Indexes the texts as quotes 1..n, in quote number order like the startup build.
+     */
+    static QuoteSearchIndex index(String[] texts) {
+        QuoteSearchIndex index = new QuoteSearchIndex();
+        for (int n = 1; n <= texts.length; n++) {
+            index.add(n, texts[n - 1]);
+        }
+        return index;
+    }
+
+    private static long usedHeapAfterGc(MemoryMXBean memory) throws InterruptedException {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(200);
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+}
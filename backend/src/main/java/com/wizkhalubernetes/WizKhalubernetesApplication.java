@@ -20,8 +20,14 @@ class WizKhalubernetesConfigSelector implements ImportSelector, EnvironmentAware
     }
     public @NonNull String[] selectImports(@NonNull AnnotationMetadata importingClassMetadata) {
         String remoteDb = environment != null ? environment.getProperty("REMOTE_DB", "false") : "false";
-        if ("true".equalsIgnoreCase(remoteDb)) {
+        String reactive = environment != null ? environment.getProperty("REACTIVE", "false") : "false";
+        if ("true".equalsIgnoreCase(remoteDb) && "true".equalsIgnoreCase(reactive)) {
+            return new String[]{"com.wizkhalubernetes.config.mongo.MongoConfig",
+                "com.wizkhalubernetes.config.reactive.ReactiveMongoConfig"};
+        } else if ("true".equalsIgnoreCase(remoteDb)) {
             return new String[]{"com.wizkhalubernetes.config.mongo.MongoConfig"};
+        } else if ("local-mmap".equalsIgnoreCase(remoteDb)) {
+            return new String[]{"com.wizkhalubernetes.config.mmap.MmapConfig"};
         } else {
             return new String[]{"com.wizkhalubernetes.config.h2.H2Config"};
         }
@@ -29,7 +35,8 @@ class WizKhalubernetesConfigSelector implements ImportSelector, EnvironmentAware
 }
 /**
  * Main Spring Boot application class for Wiz Khalubernetes.
- * Dynamically imports MongoDB or H2 config based on REMOTE_DB flag.
+ * Dynamically imports MongoDB, H2 or local mmap config based on REMOTE_DB flag (true, false or
+ * local-mmap), plus the reactive MongoDB config when REACTIVE is also true (WebFlux stack).
  */
 @SpringBootApplication
 @Import(WizKhalubernetesConfigSelector.class)
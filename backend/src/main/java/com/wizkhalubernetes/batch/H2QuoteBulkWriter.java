@@ -0,0 +1,43 @@
+package com.wizkhalubernetes.batch;
+
+import com.wizkhalubernetes.model.QuoteBatchItemResult;
+import com.wizkhalubernetes.model.h2.QuoteH2;
+import com.wizkhalubernetes.repository.h2.QuoteH2Repository;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bulk writer that inserts all quotes with one saveAll in a single transaction.
+ * QuoteH2 ids come from a pooled sequence, so Hibernate can group the inserts into JDBC batches
+ * (hibernate.jdbc.batch_size); the write is all-or-nothing, so failures are thrown, not per item.
+ */
+public class H2QuoteBulkWriter implements QuoteBulkWriter {
+    private final QuoteH2Repository repository;
+
+    /**
+     * @param repository H2 quote repository
+     */
+    public H2QuoteBulkWriter(QuoteH2Repository repository) {
+        this.repository = repository;
+    }
+
+    @Override
+    public List<QuoteBatchItemResult> insertAll(List<NewQuote> quotes) {
+        List<QuoteH2> entities = new ArrayList<>(quotes.size());
+        for (NewQuote quote : quotes) {
+            QuoteH2 entity = new QuoteH2();
+            entity.setQuote(quote.getQuote());
+            entity.setTimestamp(quote.getTimestamp());
+            entity.setIp(quote.getIp());
+            entity.setQuoteNumber(quote.getQuoteNumber());
+            entities.add(entity);
+        }
+        List<QuoteH2> saved = repository.saveAll(entities);
+        List<QuoteBatchItemResult> results = new ArrayList<>(saved.size());
+        for (int i = 0; i < saved.size(); i++) {
+            QuoteH2 entity = saved.get(i);
+            results.add(QuoteBatchItemResult.created(i, entity.getId(), entity.getQuoteNumber(), entity));
+        }
+        return results;
+    }
+}
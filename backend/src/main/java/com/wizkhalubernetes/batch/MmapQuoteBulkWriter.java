@@ -0,0 +1,38 @@
+package com.wizkhalubernetes.batch;
+
+import com.wizkhalubernetes.model.QuoteBatchItemResult;
+import com.wizkhalubernetes.model.mmap.QuoteMmap;
+import com.wizkhalubernetes.repository.mmap.QuoteMmapRepository;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bulk writer for the local mmap store: all quotes are appended to the log under one lock
+ * acquisition (and flushed once when writes are forced). The append is all-or-nothing for
+ * encoding errors, so failures are thrown, not reported per item.
+ */
+public class MmapQuoteBulkWriter implements QuoteBulkWriter {
+    private final QuoteMmapRepository repository;
+
+    /**
+     * @param repository mmap quote repository
+     */
+    public MmapQuoteBulkWriter(QuoteMmapRepository repository) {
+        this.repository = repository;
+    }
+
+    @Override
+    public List<QuoteBatchItemResult> insertAll(List<NewQuote> quotes) {
+        List<QuoteMmap> entities = new ArrayList<>(quotes.size());
+        for (NewQuote quote : quotes) {
+            entities.add(new QuoteMmap(quote.getQuote(), quote.getTimestamp(), quote.getIp(), quote.getQuoteNumber()));
+        }
+        List<QuoteMmap> saved = repository.saveAll(entities);
+        List<QuoteBatchItemResult> results = new ArrayList<>(saved.size());
+        for (int i = 0; i < saved.size(); i++) {
+            QuoteMmap entity = saved.get(i);
+            results.add(QuoteBatchItemResult.created(i, entity.getId(), entity.getQuoteNumber(), entity));
+        }
+        return results;
+    }
+}
@@ -0,0 +1,64 @@
+package com.wizkhalubernetes.batch;
+
+import com.mongodb.bulk.BulkWriteError;
+import com.wizkhalubernetes.model.QuoteBatchItemResult;
+import com.wizkhalubernetes.model.mongo.QuoteMongo;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bulk writer that sends all quotes in one unordered MongoDB bulkWrite.
+ * Ids are assigned client-side so every result can carry its id; with an unordered bulk a
+ * failing document does not stop the others, and its error is reported at its own index.
+ */
+public class MongoQuoteBulkWriter implements QuoteBulkWriter {
+    private final MongoTemplate mongoTemplate;
+
+    /**
+     * @param mongoTemplate MongoTemplate bean
+     */
+    public MongoQuoteBulkWriter(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public List<QuoteBatchItemResult> insertAll(List<NewQuote> quotes) {
+        List<QuoteMongo> documents = new ArrayList<>(quotes.size());
+        for (NewQuote quote : quotes) {
+            QuoteMongo document = new QuoteMongo();
+            document.setId(new ObjectId().toHexString());
+            document.setQuote(quote.getQuote());
+            document.setTimestamp(quote.getTimestamp());
+            document.setIp(quote.getIp());
+            document.setQuoteNumber(quote.getQuoteNumber());
+            documents.add(document);
+        }
+        Map<Integer, String> errors = new HashMap<>();
+        if (!documents.isEmpty()) {
+            try {
+                mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, QuoteMongo.class)
+                    .insert(documents)
+                    .execute();
+            } catch (BulkOperationException e) {
+                for (BulkWriteError error : e.getErrors()) {
+                    errors.put(error.getIndex(), error.getMessage());
+                }
+            }
+        }
+        List<QuoteBatchItemResult> results = new ArrayList<>(documents.size());
+        for (int i = 0; i < documents.size(); i++) {
+            QuoteMongo document = documents.get(i);
+            String error = errors.get(i);
+            results.add(error == null
+                ? QuoteBatchItemResult.created(i, document.getId(), document.getQuoteNumber(), document)
+                : QuoteBatchItemResult.failed(i, error));
+        }
+        return results;
+    }
+}
@@ -0,0 +1,34 @@
+package com.wizkhalubernetes.batch;
+
+/**
+ * A quote that has been validated and numbered but not yet written to the active DB.
+ * Backend-neutral input for {@link QuoteBulkWriter}.
+ */
+public final class NewQuote {
+    private final String quote;
+    private final String timestamp;
+    private final String ip;
+    private final int quoteNumber;
+
+    /**
+     * @param quote quote text
+     * @param timestamp submission timestamp (ISO-8601)
+     * @param ip IP address of the submitter
+     * @param quoteNumber quote number reserved for this quote
+     */
+    public NewQuote(String quote, String timestamp, String ip, int quoteNumber) {
+        this.quote = quote;
+        this.timestamp = timestamp;
+        this.ip = ip;
+        this.quoteNumber = quoteNumber;
+    }
+
+    /** @return quote text */
+    public String getQuote() { return quote; }
+    /** @return submission timestamp */
+    public String getTimestamp() { return timestamp; }
+    /** @return IP address of the submitter */
+    public String getIp() { return ip; }
+    /** @return reserved quote number */
+    public int getQuoteNumber() { return quoteNumber; }
+}
@@ -0,0 +1,18 @@
+package com.wizkhalubernetes.batch;
+
+import com.wizkhalubernetes.model.QuoteBatchItemResult;
+import java.util.List;
+
+/**
+ * Writes many quotes to the active DB in as few round trips as the backend allows.
+ * Implementations report one result per input quote, in input order.
+ */
+public interface QuoteBulkWriter {
+    /**
+     * Inserts all quotes. Failures that only affect single quotes are reported per item; failures
+     * that affect the whole write (e.g. a lost connection) are thrown.
+     * @param quotes quotes to insert
+     * @return one result per quote, at the same position as the quote in the input list
+     */
+    List<QuoteBatchItemResult> insertAll(List<NewQuote> quotes);
+}
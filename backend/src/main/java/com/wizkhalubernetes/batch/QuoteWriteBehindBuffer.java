@@ -0,0 +1,215 @@
+package com.wizkhalubernetes.batch;
+
+import com.wizkhalubernetes.model.QuoteBatchItemResult;
+import com.wizkhalubernetes.prometheus.QuoteMetricsService;
+import com.wizkhalubernetes.sequence.QuoteNumberAllocator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind buffer that coalesces single quote inserts into micro-batches.
+ * Request threads enqueue into a bounded queue and wait on a future; one flusher thread takes
+ * up to max-batch quotes, waiting at most max-wait after the first one, numbers them with a
+ * single sequence reservation and writes them with one {@link QuoteBulkWriter} call.
+ * A full queue rejects immediately (backpressure); on shutdown the queue is drained before the
+ * flusher exits. Enabled with quotes.write-behind.enabled=true.
+ */
+@Component
+@ConditionalOnProperty(name = "quotes.write-behind.enabled", havingValue = "true")
+public class QuoteWriteBehindBuffer implements SmartLifecycle {
+    private static final Logger logger = LoggerFactory.getLogger(QuoteWriteBehindBuffer.class);
+
+    private final QuoteBulkWriter writer;
+    private final QuoteNumberAllocator allocator;
+    private final QuoteMetricsService metrics;
+    private final BlockingQueue<Pending> queue;
+    private final int maxBatch;
+    private final long maxWaitNanos;
+    private volatile boolean accepting;
+    private volatile boolean running;
+    private Thread flusher;
+
+    /**
+     * @param writer bulk writer for the active DB
+     * @param allocator quote number allocator
+     * @param metrics metrics service (queue depth, batch size, rejections)
+     * @param capacity maximum number of queued quotes
+     * @param maxBatch maximum quotes per bulk write
+     * @param maxWait how long the flusher waits for a batch to fill after its first quote
+     */
+    public QuoteWriteBehindBuffer(QuoteBulkWriter writer, QuoteNumberAllocator allocator, QuoteMetricsService metrics,
+                                  @Value("${quotes.write-behind.capacity:10000}") int capacity,
+                                  @Value("${quotes.write-behind.max-batch:200}") int maxBatch,
+                                  @Value("${quotes.write-behind.max-wait:5ms}") Duration maxWait) {
+        if (capacity < 1 || maxBatch < 1) {
+            throw new IllegalArgumentException("quotes.write-behind.capacity and max-batch must be at least 1");
+        }
+        this.writer = writer;
+        this.allocator = allocator;
+        this.metrics = metrics;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.maxBatch = maxBatch;
+        this.maxWaitNanos = maxWait.toNanos();
+        metrics.registerWriteBehindQueueDepth(queue::size);
+    }
+
+    /**
+     * Enqueues a quote for the next bulk write.
+     * @param quote quote text
+     * @param timestamp submission timestamp
+     * @param ip IP address of the submitter
+     * @return future completed with the write result, or null when the queue is full
+     * @throws IllegalStateException when the buffer is not running (starting up or draining)
+     */
+    public CompletableFuture<QuoteBatchItemResult> submit(String quote, String timestamp, String ip) {
+        if (!accepting) {
+            throw new IllegalStateException("Write-behind buffer is not accepting quotes");
+        }
+        Pending pending = new Pending(quote, timestamp, ip);
+        if (!queue.offer(pending)) {
+            metrics.incrementWriteBehindRejected();
+            return null;
+        }
+        return pending.future;
+    }
+
+    /**
+     * @return number of quotes waiting to be written
+     */
+    public int queueDepth() {
+        return queue.size();
+    }
+
+    @Override
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        accepting = true;
+        flusher = new Thread(this::run, "quote-write-behind");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    /**
+     * Stops accepting quotes, lets the flusher write everything still queued and waits for it.
+     */
+    @Override
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        accepting = false;
+        running = false;
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Quotes offered while the flusher was exiting
+        List<Pending> leftovers = new ArrayList<>();
+        while (queue.drainTo(leftovers, maxBatch) > 0) {
+            flush(leftovers);
+            leftovers.clear();
+        }
+        logger.info("Write-behind buffer drained");
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Stops after the web server has finished its in-flight requests (lower phases stop later),
+     * so requests waiting on a flush still get their quote back.
+     */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    private void run() {
+        List<Pending> batch = new ArrayList<>(maxBatch);
+        while (running || !queue.isEmpty()) {
+            try {
+                Pending first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + maxWaitNanos;
+                while (batch.size() < maxBatch) {
+                    queue.drainTo(batch, maxBatch - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= maxBatch || remaining <= 0 || !running) {
+                        break;
+                    }
+                    Pending next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Numbers and writes one batch, then completes every caller's future.
+     */
+    private void flush(List<Pending> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        metrics.recordWriteBehindBatch(batch.size());
+        try {
+            long[] numbers = allocator.reserve(batch.size());
+            List<NewQuote> quotes = new ArrayList<>(batch.size());
+            for (int i = 0; i < batch.size(); i++) {
+                Pending pending = batch.get(i);
+                quotes.add(new NewQuote(pending.quote, pending.timestamp, pending.ip, Math.toIntExact(numbers[i])));
+            }
+            List<QuoteBatchItemResult> results = writer.insertAll(quotes);
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).future.complete(results.get(i));
+            }
+        } catch (Exception e) {
+            logger.error("Write-behind flush of {} quotes failed: {}", batch.size(), e.getMessage(), e);
+            for (Pending pending : batch) {
+                pending.future.completeExceptionally(e);
+            }
+        }
+    }
+
+    private static final class Pending {
+        final String quote;
+        final String timestamp;
+        final String ip;
+        final CompletableFuture<QuoteBatchItemResult> future = new CompletableFuture<>();
+
+        Pending(String quote, String timestamp, String ip) {
+            this.quote = quote;
+            this.timestamp = timestamp;
+            this.ip = ip;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.wizkhalubernetes.cache;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * In-memory invalidation bus that delivers each published event synchronously to all subscribers.
+ * Used in H2 mode (single node) and in tests, where several caches sharing one instance stand in
+ * for several replicas.
+ */
+public class LoopbackQuoteInvalidationBus implements QuoteInvalidationBus {
+    private final List<Consumer<QuoteChangeEvent>> listeners = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void publish(QuoteChangeEvent event) {
+        for (Consumer<QuoteChangeEvent> listener : listeners) {
+            listener.accept(event);
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<QuoteChangeEvent> listener) {
+        listeners.add(listener);
+    }
+}
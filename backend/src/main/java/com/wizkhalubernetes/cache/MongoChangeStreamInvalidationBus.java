@@ -0,0 +1,171 @@
+package com.wizkhalubernetes.cache;
+
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.OperationType;
+import org.bson.BsonDocument;
+import org.bson.BsonTimestamp;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Invalidation bus that tails the MongoDB change stream on the quotes collection.
+ * Every replica watches the same collection, so inserts and deletes made by any pod reach all
+ * of them without extra infrastructure. Resumes from the last seen resume token after errors.
+ * Change streams require MongoDB to run as a replica set.
+ */
+public class MongoChangeStreamInvalidationBus implements QuoteInvalidationBus, SmartLifecycle {
+    private static final Logger logger = LoggerFactory.getLogger(MongoChangeStreamInvalidationBus.class);
+    private static final long MAX_BACKOFF_MILLIS = 30_000;
+
+    private final MongoTemplate mongoTemplate;
+    private final String collection;
+    private final List<Consumer<QuoteChangeEvent>> listeners = new CopyOnWriteArrayList<>();
+    private volatile boolean running;
+    private volatile MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor;
+    private Thread worker;
+    private BsonDocument resumeToken;
+
+    /**
+     * @param mongoTemplate MongoTemplate for the quotes database
+     * @param collection collection to watch
+     */
+    public MongoChangeStreamInvalidationBus(MongoTemplate mongoTemplate, String collection) {
+        this.mongoTemplate = mongoTemplate;
+        this.collection = collection;
+    }
+
+    /**
+     * Local writes come back through the change stream, so there is nothing to send.
+     */
+    @Override
+    public void publish(QuoteChangeEvent event) {
+    }
+
+    @Override
+    public void subscribe(Consumer<QuoteChangeEvent> listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        worker = new Thread(this::run, "quote-change-stream");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @Override
+    public synchronized void stop() {
+        running = false;
+        MongoChangeStreamCursor<?> open = cursor;
+        if (open != null) {
+            try {
+                open.close();
+            } catch (Exception e) {
+                logger.debug("Closing change stream cursor failed: {}", e.getMessage());
+            }
+        }
+        if (worker != null) {
+            worker.interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void run() {
+        long backoff = 500;
+        while (running) {
+            try (MongoChangeStreamCursor<ChangeStreamDocument<Document>> opened = openCursor()) {
+                cursor = opened;
+                backoff = 500;
+                while (running) {
+                    ChangeStreamDocument<Document> change = opened.tryNext();
+                    if (change == null) {
+                        continue;
+                    }
+                    resumeToken = change.getResumeToken();
+                    QuoteChangeEvent event = toEvent(change);
+                    if (event != null) {
+                        for (Consumer<QuoteChangeEvent> listener : listeners) {
+                            listener.accept(event);
+                        }
+                    }
+                }
+            } catch (Exception e) {
+                if (!running) {
+                    return;
+                }
+                logger.warn("Quote change stream interrupted, retrying in {} ms: {}", backoff, e.getMessage());
+                try {
+                    TimeUnit.MILLISECONDS.sleep(backoff);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                backoff = Math.min(backoff * 2, MAX_BACKOFF_MILLIS);
+            } finally {
+                cursor = null;
+            }
+        }
+    }
+
+    private MongoChangeStreamCursor<ChangeStreamDocument<Document>> openCursor() {
+        var stream = mongoTemplate.getCollection(collection).watch().maxAwaitTime(1, TimeUnit.SECONDS);
+        if (resumeToken != null) {
+            stream = stream.resumeAfter(resumeToken);
+        }
+        return stream.cursor();
+    }
+
+    static QuoteChangeEvent toEvent(ChangeStreamDocument<Document> change) {
+        OperationType op = change.getOperationType();
+        QuoteChangeEvent.Type type;
+        if (op == OperationType.INSERT) {
+            type = QuoteChangeEvent.Type.INSERTED;
+        } else if (op == OperationType.DELETE) {
+            type = QuoteChangeEvent.Type.DELETED;
+        } else {
+            return null;
+        }
+        Document full = change.getFullDocument();
+        int quoteNumber = full != null && full.get("quoteNumber") instanceof Number n ? n.intValue() : 0;
+        return new QuoteChangeEvent(type, idOf(change.getDocumentKey()), quoteNumber, originMillis(change));
+    }
+
+    private static String idOf(BsonDocument key) {
+        if (key == null || !key.containsKey("_id")) {
+            return null;
+        }
+        BsonValue id = key.get("_id");
+        return id.isObjectId() ? id.asObjectId().getValue().toHexString() : id.toString();
+    }
+
+    /**
+     * Uses the event's wall time (MongoDB 6.0+), falling back to the cluster time (second precision).
+     */
+    private static long originMillis(ChangeStreamDocument<Document> change) {
+        if (change.getWallTime() != null) {
+            return change.getWallTime().getValue();
+        }
+        BsonTimestamp clusterTime = change.getClusterTime();
+        if (clusterTime != null) {
+            return clusterTime.getTime() * 1000L;
+        }
+        return System.currentTimeMillis();
+    }
+}
@@ -0,0 +1,246 @@
+package com.wizkhalubernetes.cache;
+
+import com.wizkhalubernetes.model.QuotePage;
+import com.wizkhalubernetes.prometheus.QuoteMetricsService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.stereotype.Component;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+/**
+ * Bounded in-process read-through cache in front of the quote repositories.
+ * Holds one latest-quote slot and a size-bounded LRU of keyset pages, both with a TTL.
+ * Writes go through {@link #onQuoteSaved} / {@link #onQuoteDeleted}, which update or invalidate
+ * entries; writes on other replicas arrive through {@link #onRemoteChange}. A generation counter
+ * keeps a load that raced with a write from caching stale data.
+ * When a load fails because the database is unavailable (DataAccessResourceFailureException, e.g.
+ * the MongoDB circuit breaker is open), an entry that merely expired is served instead of the error
+ * (quote_cache_stale_total). Entries dropped by a write are never served stale.
+ */
+@Component
+public class QuoteCache {
+    static final String REGION_LATEST = "latest";
+    static final String REGION_PAGE = "page";
+
+    private final QuoteMetricsService metrics;
+    private final boolean enabled;
+    private final int maxPages;
+    private final long ttlNanos;
+    private final LongSupplier clock;
+    private final AtomicLong generation = new AtomicLong();
+    private final Map<String, Entry> pages;
+    private volatile Entry latest;
+
+    /**
+     * @param metrics metrics service for hit/miss/eviction counters
+     * @param enabled whether caching is enabled (loaders are called directly when disabled)
+     * @param maxPages maximum number of cached pages
+     * @param ttl time-to-live for cached entries
+     */
+    @Autowired
+    public QuoteCache(QuoteMetricsService metrics,
+                      @Value("${quotes.cache.enabled:true}") boolean enabled,
+                      @Value("${quotes.cache.max-pages:256}") int maxPages,
+                      @Value("${quotes.cache.ttl:30s}") Duration ttl) {
+        this(metrics, enabled, maxPages, ttl, System::nanoTime);
+    }
+
+    QuoteCache(QuoteMetricsService metrics, boolean enabled, int maxPages, Duration ttl, LongSupplier clock) {
+        this.metrics = metrics;
+        this.enabled = enabled;
+        this.maxPages = maxPages;
+        this.ttlNanos = ttl.toNanos();
+        this.clock = clock;
+        this.pages = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * Returns the cached latest quote, loading it on a miss.
+     * @param loader loads the latest quote from the DB (may return null when there are no quotes)
+     * @param quoteNumberOf extracts the quote number of a loaded quote
+     * @return latest quote, or null if there are none
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T getLatest(Supplier<T> loader, ToIntFunction<T> quoteNumberOf) {
+        if (!enabled) {
+            return loader.get();
+        }
+        Entry entry = latest;
+        long now = clock.getAsLong();
+        if (entry != null && !entry.isExpired(now)) {
+            metrics.incrementCacheHit(REGION_LATEST);
+            return (T) entry.value;
+        }
+        if (entry != null) {
+            metrics.incrementCacheEviction(REGION_LATEST);
+        }
+        metrics.incrementCacheMiss(REGION_LATEST);
+        long gen = generation.get();
+        T value;
+        try {
+            value = loader.get();
+        } catch (DataAccessResourceFailureException e) {
+            if (entry == null || latest != entry) {
+                throw e;
+            }
+            metrics.incrementCacheStale(REGION_LATEST);
+            return (T) entry.value;
+        }
+        int quoteNumber = value != null ? quoteNumberOf.applyAsInt(value) : Integer.MIN_VALUE;
+        synchronized (this) {
+            if (generation.get() == gen) {
+                latest = new Entry(value, clock.getAsLong() + ttlNanos, quoteNumber);
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Returns a cached keyset page, loading it on a miss.
+     * @param key page key (cursor and page size)
+     * @param loader loads the page from the DB
+     * @return quote page
+     */
+    @SuppressWarnings("unchecked")
+    public <T> QuotePage<T> getPage(String key, Supplier<QuotePage<T>> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        long now = clock.getAsLong();
+        Entry expired;
+        synchronized (this) {
+            Entry entry = pages.get(key);
+            if (entry != null && !entry.isExpired(now)) {
+                metrics.incrementCacheHit(REGION_PAGE);
+                return (QuotePage<T>) entry.value;
+            }
+            if (entry != null) {
+                pages.remove(key);
+                metrics.incrementCacheEviction(REGION_PAGE);
+            }
+            expired = entry;
+        }
+        metrics.incrementCacheMiss(REGION_PAGE);
+        long gen = generation.get();
+        QuotePage<T> page;
+        try {
+            page = loader.get();
+        } catch (DataAccessResourceFailureException e) {
+            if (expired == null || generation.get() != gen) {
+                throw e;
+            }
+            metrics.incrementCacheStale(REGION_PAGE);
+            return (QuotePage<T>) expired.value;
+        }
+        synchronized (this) {
+            if (generation.get() == gen) {
+                pages.put(key, new Entry(page, clock.getAsLong() + ttlNanos, 0));
+                evictOverflow();
+            }
+        }
+        return page;
+    }
+
+    /**
+     * Write-through for a newly saved quote: it becomes the cached latest quote if it is newer,
+     * and cached pages are dropped since they may now be incomplete.
+     * @param saved saved quote entity
+     * @param quoteNumber quote number of the saved quote
+     */
+    public synchronized void onQuoteSaved(Object saved, int quoteNumber) {
+        generation.incrementAndGet();
+        clearPages();
+        Entry entry = latest;
+        if (entry != null && entry.quoteNumber < quoteNumber) {
+            latest = new Entry(saved, clock.getAsLong() + ttlNanos, quoteNumber);
+        }
+    }
+
+    /**
+     * Applies a write seen on the invalidation bus (possibly made by another replica).
+     * An insert drops cached pages and the latest slot if the new quote is newer; a delete
+     * drops everything. The latest quote is reloaded on the next read.
+     * @param event insert or delete event
+     */
+    public synchronized void onRemoteChange(QuoteChangeEvent event) {
+        if (event.getType() == QuoteChangeEvent.Type.DELETED) {
+            invalidateAll();
+            return;
+        }
+        generation.incrementAndGet();
+        clearPages();
+        Entry entry = latest;
+        if (entry != null && (event.getQuoteNumber() == 0 || entry.quoteNumber < event.getQuoteNumber())) {
+            latest = null;
+            metrics.incrementCacheEviction(REGION_LATEST);
+        }
+    }
+
+    /**
+     * Invalidates everything after a delete (the deleted quote may be the latest or on any page).
+     */
+    public void onQuoteDeleted() {
+        invalidateAll();
+    }
+
+    /**
+     * Drops the latest slot and all cached pages.
+     */
+    public synchronized void invalidateAll() {
+        generation.incrementAndGet();
+        clearPages();
+        if (latest != null) {
+            latest = null;
+            metrics.incrementCacheEviction(REGION_LATEST);
+        }
+    }
+
+    /**
+     * Returns the number of cached pages.
+     * @return page count
+     */
+    public synchronized int pageCount() {
+        return pages.size();
+    }
+
+    private void clearPages() {
+        int dropped = pages.size();
+        pages.clear();
+        for (int i = 0; i < dropped; i++) {
+            metrics.incrementCacheEviction(REGION_PAGE);
+        }
+    }
+
+    private void evictOverflow() {
+        Iterator<Map.Entry<String, Entry>> it = pages.entrySet().iterator();
+        while (pages.size() > maxPages && it.hasNext()) {
+            it.next();
+            it.remove();
+            metrics.incrementCacheEviction(REGION_PAGE);
+        }
+    }
+
+    private static final class Entry {
+        final Object value;
+        final long expiresAt;
+        final int quoteNumber;
+
+        Entry(Object value, long expiresAt, int quoteNumber) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+            this.quoteNumber = quoteNumber;
+        }
+
+        boolean isExpired(long now) {
+            return now - expiresAt >= 0;
+        }
+    }
+}
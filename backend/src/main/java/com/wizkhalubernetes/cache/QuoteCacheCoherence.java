@@ -0,0 +1,44 @@
+package com.wizkhalubernetes.cache;
+
+import com.wizkhalubernetes.prometheus.QuoteMetricsService;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps this node's {@link QuoteCache} coherent with writes made on other replicas.
+ * Subscribes the cache to the {@link QuoteInvalidationBus} and records how long each
+ * invalidation took to arrive (quote_cache_invalidation_lag histogram).
+ */
+@Component
+public class QuoteCacheCoherence {
+    private final QuoteInvalidationBus bus;
+
+    /**
+     * @param cache local quote cache
+     * @param bus invalidation bus for the active DB
+     * @param metrics metrics service for the lag histogram
+     */
+    public QuoteCacheCoherence(QuoteCache cache, QuoteInvalidationBus bus, QuoteMetricsService metrics) {
+        this.bus = bus;
+        bus.subscribe(event -> {
+            cache.onRemoteChange(event);
+            metrics.recordInvalidationLag(Math.max(0L, System.currentTimeMillis() - event.getOriginEpochMillis()));
+        });
+    }
+
+    /**
+     * Announces a quote saved on this node to the other replicas.
+     * @param id quote ID
+     * @param quoteNumber quote number
+     */
+    public void quoteSaved(Object id, int quoteNumber) {
+        bus.publish(QuoteChangeEvent.inserted(id, quoteNumber));
+    }
+
+    /**
+     * Announces a quote deleted on this node to the other replicas.
+     * @param id quote ID
+     */
+    public void quoteDeleted(Object id) {
+        bus.publish(QuoteChangeEvent.deleted(id));
+    }
+}
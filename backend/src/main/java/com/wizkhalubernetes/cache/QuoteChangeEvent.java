@@ -0,0 +1,56 @@
+package com.wizkhalubernetes.cache;
+
+/**
+ * A quote insert or delete observed on some node, delivered through a {@link QuoteInvalidationBus}.
+ * Carries the write's wall-clock time so receivers can measure invalidation lag.
+ */
+public class QuoteChangeEvent {
+    /** Kind of write. */
+    public enum Type { INSERTED, DELETED }
+
+    private final Type type;
+    private final String id;
+    private final int quoteNumber;
+    private final long originEpochMillis;
+
+    /**
+     * @param type insert or delete
+     * @param id ID of the quote (as a string for both backends)
+     * @param quoteNumber quote number, or 0 when unknown (e.g. deletes seen on a change stream)
+     * @param originEpochMillis wall-clock time of the write in epoch millis
+     */
+    public QuoteChangeEvent(Type type, String id, int quoteNumber, long originEpochMillis) {
+        this.type = type;
+        this.id = id;
+        this.quoteNumber = quoteNumber;
+        this.originEpochMillis = originEpochMillis;
+    }
+
+    /**
+     * Creates an insert event stamped with the current time.
+     * @param id quote ID
+     * @param quoteNumber quote number
+     * @return insert event
+     */
+    public static QuoteChangeEvent inserted(Object id, int quoteNumber) {
+        return new QuoteChangeEvent(Type.INSERTED, String.valueOf(id), quoteNumber, System.currentTimeMillis());
+    }
+
+    /**
+     * Creates a delete event stamped with the current time.
+     * @param id quote ID
+     * @return delete event
+     */
+    public static QuoteChangeEvent deleted(Object id) {
+        return new QuoteChangeEvent(Type.DELETED, String.valueOf(id), 0, System.currentTimeMillis());
+    }
+
+    /** @return insert or delete */
+    public Type getType() { return type; }
+    /** @return quote ID */
+    public String getId() { return id; }
+    /** @return quote number, or 0 when unknown */
+    public int getQuoteNumber() { return quoteNumber; }
+    /** @return wall-clock time of the write in epoch millis */
+    public long getOriginEpochMillis() { return originEpochMillis; }
+}
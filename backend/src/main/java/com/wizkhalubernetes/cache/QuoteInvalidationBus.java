@@ -0,0 +1,23 @@
+package com.wizkhalubernetes.cache;
+
+import java.util.function.Consumer;
+
+/**
+ * Broadcasts quote writes to every node so each one can invalidate its local {@link QuoteCache}.
+ * Implementations: {@link LoopbackQuoteInvalidationBus} (in-memory, single JVM) and
+ * {@link MongoChangeStreamInvalidationBus} (tails the Mongo change stream in REMOTE_DB mode).
+ */
+public interface QuoteInvalidationBus {
+    /**
+     * Announces a write made by this node. Buses that observe writes at the database
+     * (change streams) may ignore this, since the write reaches them anyway.
+     * @param event write made by this node
+     */
+    void publish(QuoteChangeEvent event);
+
+    /**
+     * Registers a listener for writes made by any node (including this one).
+     * @param listener callback invoked for each event
+     */
+    void subscribe(Consumer<QuoteChangeEvent> listener);
+}
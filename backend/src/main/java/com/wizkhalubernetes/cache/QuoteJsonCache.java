@@ -0,0 +1,144 @@
+package com.wizkhalubernetes.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wizkhalubernetes.prometheus.QuoteMetricsService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Pre-encoded JSON of individual quotes, keyed by quote ID as the store returns it (Long for H2
+ * and mmap, String for MongoDB), so a lookup allocates nothing. Each quote is serialized to UTF-8
+ * bytes once; list, page and latest responses are then built by copying those bytes into the
+ * response instead of running Jackson per quote per request. Quotes never change after they are
+ * stored, so an entry only has to go when its quote is deleted (locally or, through the
+ * {@link QuoteInvalidationBus}, on another replica).
+ * <p>
+ * Bounded by quotes.json-cache.max-size (encoded bytes plus a per-entry estimate); when the
+ * budget is exceeded, arbitrary entries are dropped until 90% of it is left. A full-table stream
+ * larger than the budget therefore keeps re-encoding part of the table, as without the cache.
+ * Exported as quote_json_cache_{entries,bytes} and quote_json_cache_{hits,misses}_total.
+ */
+@Component
+public class QuoteJsonCache {
+    /** Rough heap cost of a map node, its key and the array header. */
+    static final int ENTRY_OVERHEAD = 96;
+
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final long maxBytes;
+    private final ConcurrentHashMap<Object, byte[]> encoded = new ConcurrentHashMap<>();
+    private final AtomicLong bytes = new AtomicLong();
+    private final AtomicBoolean trimming = new AtomicBoolean();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * @param objectMapper mapper the quotes are encoded with (the one Spring MVC uses)
+     * @param metrics metrics service for the cache gauges and counters
+     * @param bus invalidation bus delivering deletes made on other replicas
+     * @param enabled whether encoded quotes are kept (when false every call encodes afresh)
+     * @param maxSize upper bound of the heap held by encoded quotes
+     */
+    @Autowired
+    public QuoteJsonCache(ObjectMapper objectMapper, QuoteMetricsService metrics, QuoteInvalidationBus bus,
+                          @Value("${quotes.json-cache.enabled:true}") boolean enabled,
+                          @Value("${quotes.json-cache.max-size:64MB}") DataSize maxSize) {
+        this(objectMapper, enabled, maxSize.toBytes());
+        bus.subscribe(event -> {
+            if (event.getType() == QuoteChangeEvent.Type.DELETED) {
+                evict(event.getId());
+            }
+        });
+        metrics.registerJsonCache(encoded::size, bytes::get, hits, misses);
+    }
+
+    QuoteJsonCache(ObjectMapper objectMapper, boolean enabled, long maxBytes) {
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Returns the JSON encoding of a stored quote, encoding and caching it on a miss.
+     * The returned array is shared and must not be modified.
+     * @param id quote ID as returned by QuoteStore.id
+     * @param quote quote entity
+     * @return UTF-8 JSON of the quote, identical to objectMapper.writeValueAsBytes(quote)
+     * @throws JsonProcessingException if the quote cannot be serialized
+     */
+    public byte[] encode(Object id, Object quote) throws JsonProcessingException {
+        if (!enabled) {
+            return objectMapper.writeValueAsBytes(quote);
+        }
+        byte[] json = encoded.get(id);
+        if (json != null) {
+            hits.increment();
+            return json;
+        }
+        misses.increment();
+        json = objectMapper.writeValueAsBytes(quote);
+        if (encoded.putIfAbsent(id, json) == null
+                && bytes.addAndGet(json.length + ENTRY_OVERHEAD) > maxBytes) {
+            trim();
+        }
+        return json;
+    }
+
+    /**
+     * Drops the encoding of a deleted quote. A DELETE path or invalidation event carries the ID as
+     * a String, which also matches the numeric ID of the H2 and mmap stores.
+     * @param id quote ID
+     */
+    public void evict(Object id) {
+        remove(id);
+        if (id instanceof String text && !text.isEmpty() && text.length() < 19
+                && text.chars().allMatch(Character::isDigit)) {
+            remove(Long.valueOf(text));
+        }
+    }
+
+    private void remove(Object key) {
+        byte[] json = encoded.remove(key);
+        if (json != null) {
+            bytes.addAndGet(-(json.length + ENTRY_OVERHEAD));
+        }
+    }
+
+    /**
+     * Gets the number of encoded quotes held.
+     * @return entries
+     */
+    public int size() { return encoded.size(); }
+
+    /**
+     * Gets the estimated heap held by encoded quotes.
+     * @return bytes
+     */
+    public long bytes() { return bytes.get(); }
+
+    /**
+     * Drops entries until the cache is back under 90% of its budget. Only one thread trims at a
+     * time; the others keep serving.
+     */
+    private void trim() {
+        if (!trimming.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            long target = maxBytes - maxBytes / 10;
+            for (Iterator<Object> it = encoded.keySet().iterator(); it.hasNext() && bytes.get() > target; ) {
+                remove(it.next());
+            }
+        } finally {
+            trimming.set(false);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.wizkhalubernetes.concurrency;
+
+import com.wizkhalubernetes.prometheus.QuoteMetricsService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+import java.io.IOException;
+
+/**
+ * Servlet filter that holds a {@link DbConcurrencyLimiter} permit for the whole of every quote
+ * request, including streamed responses that keep a DB cursor open. Requests that get no permit
+ * within the limiter's short wait get 503 with Retry-After instead of piling up on the connection pool.
+ * <p>
+ * Priorities, highest first:
+ * <ul>
+ *   <li>/api/nodeinfo, /api/dbstatus and the quote event stream (GET /api/quotes/stream) never
+ *   touch the DB and are not limited at all.</li>
+ *   <li>Other quote reads (latest, pages, time ranges, search) may use the whole limit.</li>
+ *   <li>The full quote list (GET /api/quotes without paging or filter parameters, JSON or NDJSON)
+ *   and writes are {@link DbConcurrencyLimiter.Priority#LOW} and are shed first.</li>
+ * </ul>
+ */
+public class DbConcurrencyLimitFilter extends OncePerRequestFilter {
+    private final DbConcurrencyLimiter limiter;
+    private final QuoteMetricsService metrics;
+
+    /**
+     * @param limiter DB concurrency limiter
+     * @param metrics metrics service (rejections)
+     */
+    public DbConcurrencyLimitFilter(DbConcurrencyLimiter limiter, QuoteMetricsService metrics) {
+        this.limiter = limiter;
+        this.metrics = metrics;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String uri = request.getRequestURI();
+        return !uri.startsWith("/api/quotes") || uri.equals("/api/quotes/stream");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        DbConcurrencyLimiter.Priority priority = priority(request);
+        if (!limiter.tryAcquire(priority)) {
+            metrics.incrementDbLimiterRejected(priority == DbConcurrencyLimiter.Priority.LOW);
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getWriter().write("{\"error\":\"Database busy, retry later.\"}");
+            return;
+        }
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            limiter.release();
+        }
+    }
+
+    /**
+     * Full-list reads and writes are low priority, every other quote read is high.
+     */
+    static DbConcurrencyLimiter.Priority priority(HttpServletRequest request) {
+        if (!"GET".equals(request.getMethod())) {
+            return DbConcurrencyLimiter.Priority.LOW;
+        }
+        if (request.getRequestURI().equals("/api/quotes")
+                && ("ndjson".equals(request.getParameter("format"))
+                    || (request.getParameter("after") == null && request.getParameter("limit") == null
+                        && request.getParameter("since") == null && request.getParameter("until") == null
+                        && request.getParameter("ip") == null))) {
+            return DbConcurrencyLimiter.Priority.LOW;
+        }
+        return DbConcurrencyLimiter.Priority.HIGH;
+    }
+}
@@ -0,0 +1,248 @@
+package com.wizkhalubernetes.concurrency;
+
+import com.wizkhalubernetes.prometheus.DbOperation;
+import com.wizkhalubernetes.prometheus.QuoteTimingMetrics;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Caps the number of requests that may use the database at the same time, and adapts the cap to
+ * the latency the database shows.
+ * <p>
+ * A request that finds no free permit may wait for one, but only briefly (max-wait) and only
+ * behind a bounded number of other waiters (max-queue); beyond that it is shed. So a burst is
+ * absorbed, while under a sustained DB slowdown the excess fails fast instead of holding request
+ * threads (Tomcat's, or with virtual threads the connection pool's wait queue) until they time out.
+ * <p>
+ * The limit moves between min and max (by default four times the connection pool size) by a
+ * gradient on DB latency, sampled from the DB calls made while serving a limited request (see
+ * {@link #onDbCall}). Every
+ * {@link #WINDOW_SAMPLES} calls, the fastest call of the window is compared with a long-term
+ * average: a slow DB slows every call, while scheduling or GC hiccups only slow some. While they
+ * agree the limit grows by about sqrt(limit); once the window is more than
+ * {@link #RTT_TOLERANCE} times slower than the average, the limit shrinks in proportion (at most
+ * by half per window), so fewer callers queue inside the DB. Failed DB calls shrink it by 10%.
+ * Only a limit that is at least half used is changed, so an idle service does not drift to max.
+ * When min equals max the limit is fixed.
+ * <p>
+ * Requests of {@link Priority#LOW} priority may only use a share of the limit (at least one
+ * permit), so under load they are shed first and the rest stays free for the cheap reads.
+ */
+public class DbConcurrencyLimiter implements QuoteTimingMetrics.DbCallListener {
+    /** Short-term latency above this multiple of the long-term latency shrinks the limit. */
+    static final double RTT_TOLERANCE = 1.5;
+    /** DB calls per latency window. */
+    static final int WINDOW_SAMPLES = 10;
+    private static final double LONG_ALPHA = 2.0 / (100 + 1);
+    private static final double SMOOTHING = 0.2;
+    private static final double FAILURE_BACKOFF = 0.9;
+
+    /**
+     * Request priority.
+     */
+    public enum Priority {
+        /** Cheap reads (latest quote, pages, search): may use the whole limit. */
+        HIGH,
+        /** Full-list reads and writes: may use only the low-priority share of the limit. */
+        LOW
+    }
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double lowPriorityShare;
+    private final long maxWaitNanos;
+    private final int maxQueue;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final ReentrantLock waitLock = new ReentrantLock();
+    private final Condition permitReleased = waitLock.newCondition();
+    private final ThreadLocal<Boolean> holdsPermit = new ThreadLocal<>();
+    private volatile int limit;
+    // Estimator state, guarded by this
+    private double estimate;
+    private double longRtt;
+    private long windowMin = Long.MAX_VALUE;
+    private int windowSamples;
+
+    /**
+     * Creates a limiter with a fixed limit that never waits.
+     * @param limit maximum concurrent DB users
+     */
+    public DbConcurrencyLimiter(int limit) {
+        this(limit, limit, 1.0);
+    }
+
+    /**
+     * Creates an adaptive limiter that never waits; it starts at max.
+     * @param minLimit lowest the limit may shrink to
+     * @param maxLimit highest the limit may grow to
+     * @param lowPriorityShare share of the limit low-priority requests may use, in (0, 1]
+     */
+    public DbConcurrencyLimiter(int minLimit, int maxLimit, double lowPriorityShare) {
+        this(minLimit, maxLimit, lowPriorityShare, Duration.ZERO, 0);
+    }
+
+    /**
+     * Creates an adaptive limiter; it starts at max.
+     * @param minLimit lowest the limit may shrink to
+     * @param maxLimit highest the limit may grow to
+     * @param lowPriorityShare share of the limit low-priority requests may use, in (0, 1]
+     * @param maxWait how long a request may wait for a permit; zero sheds at once
+     * @param maxQueue how many requests may wait at the same time
+     */
+    public DbConcurrencyLimiter(int minLimit, int maxLimit, double lowPriorityShare, Duration maxWait, int maxQueue) {
+        if (minLimit < 1 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("limits must satisfy 1 <= min <= max");
+        }
+        if (!(lowPriorityShare > 0 && lowPriorityShare <= 1)) {
+            throw new IllegalArgumentException("lowPriorityShare must be in (0, 1]");
+        }
+        if (maxWait.isNegative() || maxQueue < 0) {
+            throw new IllegalArgumentException("maxWait and maxQueue must not be negative");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.lowPriorityShare = lowPriorityShare;
+        this.maxWaitNanos = maxWait.toNanos();
+        this.maxQueue = maxQueue;
+        this.limit = maxLimit;
+        this.estimate = maxLimit;
+    }
+
+    /**
+     * Takes a permit if one is free for the priority, else waits up to max-wait for one, unless
+     * max-queue requests are already waiting.
+     * @param priority request priority
+     * @return true if a permit was acquired and must be released with {@link #release()}
+     */
+    public boolean tryAcquire(Priority priority) {
+        if (take(priority)) {
+            return true;
+        }
+        if (maxWaitNanos == 0) {
+            return false;
+        }
+        if (waiting.incrementAndGet() > maxQueue) {
+            waiting.decrementAndGet();
+            return false;
+        }
+        waitLock.lock();
+        try {
+            long remaining = maxWaitNanos;
+            while (!take(priority)) {
+                if (remaining <= 0) {
+                    return false;
+                }
+                remaining = permitReleased.awaitNanos(remaining);
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            waitLock.unlock();
+            waiting.decrementAndGet();
+        }
+    }
+
+    /**
+     * Returns a permit acquired with {@link #tryAcquire}, on the thread that acquired it.
+     */
+    public void release() {
+        holdsPermit.remove();
+        inFlight.decrementAndGet();
+        if (waiting.get() > 0) {
+            waitLock.lock();
+            try {
+                // All: the first waiter may be low priority and unable to use the permit
+                permitReleased.signalAll();
+            } finally {
+                waitLock.unlock();
+            }
+        }
+    }
+
+    private boolean take(Priority priority) {
+        int current = limit;
+        // Low priority always keeps one permit, or a limit of 1 would shed it for good
+        int cap = priority == Priority.HIGH ? current : Math.max(1, (int) (current * lowPriorityShare));
+        while (true) {
+            int held = inFlight.get();
+            if (held >= cap) {
+                return false;
+            }
+            if (inFlight.compareAndSet(held, held + 1)) {
+                holdsPermit.set(Boolean.TRUE);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Feeds the latency of a DB call to the limit. Calls on threads that hold no permit
+     * (background jobs, write-behind flushes, unlimited requests) are ignored, as are bulk inserts,
+     * whose latency grows with the batch.
+     */
+    @Override
+    public void onDbCall(DbOperation operation, long nanos, boolean failed) {
+        if (minLimit == maxLimit || operation == DbOperation.BULK_INSERT || holdsPermit.get() == null) {
+            return;
+        }
+        synchronized (this) {
+            if (failed) {
+                estimate = Math.max(minLimit, estimate * FAILURE_BACKOFF);
+                limit = (int) estimate;
+                return;
+            }
+            windowMin = Math.min(windowMin, nanos);
+            if (++windowSamples < WINDOW_SAMPLES) {
+                return;
+            }
+            double rtt = Math.max(1, windowMin);
+            windowMin = Long.MAX_VALUE;
+            windowSamples = 0;
+            longRtt = longRtt == 0 ? rtt : longRtt + (rtt - longRtt) * LONG_ALPHA;
+            // After an overload the long-term average has drifted up; let it follow a recovery quickly
+            if (longRtt > rtt * 2) {
+                longRtt *= 0.95;
+            }
+            if (inFlight.get() < estimate / 2) {
+                return;
+            }
+            double gradient = Math.max(0.5, Math.min(1.0, RTT_TOLERANCE * longRtt / rtt));
+            double target = estimate * gradient + Math.sqrt(estimate);
+            estimate = Math.max(minLimit, Math.min(maxLimit, estimate * (1 - SMOOTHING) + target * SMOOTHING));
+            limit = (int) estimate;
+        }
+    }
+
+    /**
+     * @return current limit
+     */
+    public int getLimit() {
+        return limit;
+    }
+
+    /**
+     * @return highest limit
+     */
+    public int getMaxLimit() {
+        return maxLimit;
+    }
+
+    /**
+     * @return requests currently waiting for a permit
+     */
+    public int getWaiting() {
+        return waiting.get();
+    }
+
+    /**
+     * @return permits currently held
+     */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+}
@@ -0,0 +1,133 @@
+package com.wizkhalubernetes.config;
+
+import com.mongodb.ConnectionString;
+import com.wizkhalubernetes.concurrency.DbConcurrencyLimitFilter;
+import com.wizkhalubernetes.concurrency.DbConcurrencyLimiter;
+import com.wizkhalubernetes.prometheus.QuoteMetricsService;
+import com.wizkhalubernetes.prometheus.QuoteTimingMetrics;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Adaptive, connection-pool aware limit on concurrent quote requests for the servlet stack.
+ * Enabled by quotes.db-limiter.enabled. The highest limit is four times the Hikari maximumPoolSize
+ * in H2 mode or the MongoDB pool size in Mongo mode (maxPoolSize of the URI, else
+ * quotes.mongo.client.pool.max-size), unless quotes.db-limiter.max-concurrent overrides it.
+ * Requests over the limit wait up to quotes.db-limiter.max-wait, at most
+ * quotes.db-limiter.max-queue of them (default: the highest limit). With
+ * quotes.db-limiter.adaptive the limit follows the latency of the DB calls recorded by
+ * {@link QuoteTimingMetrics}, down to quotes.db-limiter.min-concurrent.
+ */
+@Configuration
+@ConditionalOnProperty(name = "quotes.db-limiter.enabled", havingValue = "true")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class DbLimiterConfig {
+    private static final Logger logger = LoggerFactory.getLogger(DbLimiterConfig.class);
+    private static final int MONGO_DEFAULT_POOL_SIZE = 100;
+    private static final int HIKARI_DEFAULT_POOL_SIZE = 10;
+    /** Default highest limit, in connection pool sizes: requests also hold permits while not using the DB. */
+    private static final int POOL_MULTIPLIER = 4;
+
+    private final Environment env;
+
+    /**
+     * @param env Spring environment for property lookup
+     */
+    public DbLimiterConfig(Environment env) {
+        this.env = env;
+    }
+
+    /**
+     * Warns when virtual threads were requested on a JVM that cannot provide them.
+     */
+    @PostConstruct
+    public void checkVirtualThreads() {
+        boolean requested = env.getProperty("spring.threads.virtual.enabled", Boolean.class, false);
+        if (requested && Runtime.version().feature() < 21) {
+            logger.warn("Virtual threads requested but running on Java {}; request handling stays on platform threads",
+                Runtime.version().feature());
+        }
+    }
+
+    /**
+     * Creates the limiter sized from the active DB connection pool and feeds it the DB call latencies.
+     * @param dataSource JDBC datasource (H2 mode)
+     * @param metrics metrics service for the limiter gauges
+     * @param timings DB call timings the adaptive limit follows
+     * @return DB concurrency limiter
+     */
+    @Bean
+    public DbConcurrencyLimiter dbConcurrencyLimiter(ObjectProvider<DataSource> dataSource, QuoteMetricsService metrics,
+                                                     QuoteTimingMetrics timings) {
+        int max = env.getProperty("quotes.db-limiter.max-concurrent", Integer.class, 0);
+        if (max <= 0) {
+            max = POOL_MULTIPLIER * poolSize(dataSource);
+        }
+        int min = max;
+        if (env.getProperty("quotes.db-limiter.adaptive", Boolean.class, true)) {
+            min = Math.max(1, Math.min(max, env.getProperty("quotes.db-limiter.min-concurrent", Integer.class, 2)));
+        }
+        double lowPriorityShare = env.getProperty("quotes.db-limiter.low-priority-share", Double.class, 0.75);
+        Duration maxWait = env.getProperty("quotes.db-limiter.max-wait", Duration.class, Duration.ofMillis(200));
+        int maxQueue = env.getProperty("quotes.db-limiter.max-queue", Integer.class, 0);
+        if (maxQueue <= 0) {
+            maxQueue = max;
+        }
+        DbConcurrencyLimiter limiter = new DbConcurrencyLimiter(min, max, lowPriorityShare, maxWait, maxQueue);
+        timings.setDbCallListener(limiter);
+        metrics.registerDbLimiter(limiter::getInFlight, limiter::getLimit, max);
+        logger.info("DB concurrency limit: {}, low priority share {}, up to {} waiting {}",
+            min == max ? max : min + ".." + max, lowPriorityShare, maxQueue, maxWait);
+        return limiter;
+    }
+
+    /**
+     * Registers the limiter filter ahead of the Spring MVC dispatcher.
+     * @param limiter DB concurrency limiter
+     * @param metrics metrics service for rejections
+     * @return filter registration
+     */
+    @Bean
+    public FilterRegistrationBean<DbConcurrencyLimitFilter> dbConcurrencyLimitFilter(DbConcurrencyLimiter limiter,
+                                                                                    QuoteMetricsService metrics) {
+        FilterRegistrationBean<DbConcurrencyLimitFilter> registration =
+            new FilterRegistrationBean<>(new DbConcurrencyLimitFilter(limiter, metrics));
+        registration.addUrlPatterns("/api/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+
+    private int poolSize(ObjectProvider<DataSource> dataSource) {
+        if (Boolean.parseBoolean(env.getProperty("REMOTE_DB", "false"))) {
+            String uri = env.getProperty("spring.data.mongodb.uri");
+            try {
+                Integer max = uri != null ? new ConnectionString(uri).getMaxConnectionPoolSize() : null;
+                return max != null ? max : mongoPoolSize();
+            } catch (IllegalArgumentException e) {
+                return mongoPoolSize();
+            }
+        }
+        DataSource ds = dataSource.getIfAvailable();
+        // Hikari reports -1 until the pool has started and applied its default
+        if (ds instanceof HikariDataSource hikari && hikari.getMaximumPoolSize() > 0) {
+            return hikari.getMaximumPoolSize();
+        }
+        return HIKARI_DEFAULT_POOL_SIZE;
+    }
+
+    private int mongoPoolSize() {
+        return env.getProperty("quotes.mongo.client.pool.max-size", Integer.class, MONGO_DEFAULT_POOL_SIZE);
+    }
+}
@@ -0,0 +1,106 @@
+package com.wizkhalubernetes.config;
+
+import org.springframework.aot.AotDetector;
+import org.springframework.boot.actuate.autoconfigure.metrics.mongo.MongoMetricsAutoConfiguration;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.data.jpa.JpaRepositoriesAutoConfiguration;
+import org.springframework.boot.autoconfigure.data.mongo.MongoDataAutoConfiguration;
+import org.springframework.boot.autoconfigure.data.mongo.MongoRepositoriesAutoConfiguration;
+import org.springframework.boot.autoconfigure.h2.H2ConsoleAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceTransactionManagerAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.JdbcTemplateAutoConfiguration;
+import org.springframework.boot.autoconfigure.mongo.MongoAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.autoconfigure.sql.init.SqlInitializationAutoConfiguration;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.env.EnvironmentPostProcessor;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.support.PropertiesLoaderUtils;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Keeps the DB stack the REMOTE_DB mode does not use out of startup: the JDBC/JPA
+ * auto-configuration (embedded H2 pool, Hibernate bootstrap, entity scan) unless REMOTE_DB is
+ * false, and the MongoDB client auto-configuration unless it is true. The exclusions are added to
+ * any spring.autoconfigure.exclude already configured.
+ * <p>
+ * In an ahead-of-time processed build (mvn -Pfast-startup) the wiring was fixed at build time, so
+ * startup fails when REMOTE_DB or REACTIVE differ from the values the build recorded instead of
+ * silently running the other backend.
+ */
+public class DbModeEnvironmentPostProcessor implements EnvironmentPostProcessor {
+    static final String PROPERTY_SOURCE = "wizkhalubernetesDbMode";
+    static final String AOT_MODE_RESOURCE = "META-INF/wizkhalubernetes-aot.properties";
+    static final String EXCLUDE = "spring.autoconfigure.exclude";
+
+    static final List<String> JPA_AUTO_CONFIGURATION = List.of(
+        DataSourceAutoConfiguration.class.getName(),
+        DataSourceTransactionManagerAutoConfiguration.class.getName(),
+        JdbcTemplateAutoConfiguration.class.getName(),
+        HibernateJpaAutoConfiguration.class.getName(),
+        JpaRepositoriesAutoConfiguration.class.getName(),
+        SqlInitializationAutoConfiguration.class.getName(),
+        H2ConsoleAutoConfiguration.class.getName());
+    static final List<String> MONGO_AUTO_CONFIGURATION = List.of(
+        MongoAutoConfiguration.class.getName(),
+        MongoDataAutoConfiguration.class.getName(),
+        MongoRepositoriesAutoConfiguration.class.getName(),
+        MongoMetricsAutoConfiguration.class.getName());
+
+    @Override
+    public void postProcessEnvironment(ConfigurableEnvironment environment, SpringApplication application) {
+        String remoteDb = environment.getProperty("REMOTE_DB", "false");
+        if (AotDetector.useGeneratedArtifacts()) {
+            checkAotMode(remoteDb, environment.getProperty("REACTIVE", "false"));
+        }
+        List<String> exclude = new ArrayList<>(Binder.get(environment)
+            .bind(EXCLUDE, Bindable.listOf(String.class)).orElse(List.of()));
+        if (!isH2(remoteDb)) {
+            exclude.addAll(JPA_AUTO_CONFIGURATION);
+        }
+        if (!"true".equalsIgnoreCase(remoteDb)) {
+            exclude.addAll(MONGO_AUTO_CONFIGURATION);
+        }
+        environment.getPropertySources().addFirst(new MapPropertySource(PROPERTY_SOURCE,
+            Map.of(EXCLUDE, String.join(",", exclude))));
+    }
+
+    /**
+     * Same fallback as WizKhalubernetesConfigSelector: anything but true and local-mmap means H2.
+     */
+    private static boolean isH2(String remoteDb) {
+        return !"true".equalsIgnoreCase(remoteDb) && !"local-mmap".equalsIgnoreCase(remoteDb);
+    }
+
+    private static void checkAotMode(String remoteDb, String reactive) {
+        ClassPathResource resource = new ClassPathResource(AOT_MODE_RESOURCE);
+        if (!resource.exists()) {
+            return;
+        }
+        Properties built;
+        try {
+            built = PropertiesLoaderUtils.loadProperties(resource);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot read " + AOT_MODE_RESOURCE, e);
+        }
+        String builtRemoteDb = built.getProperty("REMOTE_DB", "false");
+        String builtReactive = built.getProperty("REACTIVE", "false");
+        boolean sameStore = isH2(remoteDb) ? isH2(builtRemoteDb) : remoteDb.equalsIgnoreCase(builtRemoteDb);
+        boolean sameStack = !"true".equalsIgnoreCase(remoteDb)
+            || Boolean.parseBoolean(reactive) == Boolean.parseBoolean(builtReactive);
+        if (!sameStore || !sameStack) {
+            throw new IllegalStateException("This build was processed ahead-of-time for REMOTE_DB=" + builtRemoteDb
+                + ", REACTIVE=" + builtReactive + " but started with REMOTE_DB=" + remoteDb + ", REACTIVE=" + reactive
+                + ". Start it with the build's settings, rebuild with -Daot.remote-db/-Daot.reactive, or run without"
+                + " -Dspring.aot.enabled=true.");
+        }
+    }
+}
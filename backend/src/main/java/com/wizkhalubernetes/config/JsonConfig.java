@@ -0,0 +1,25 @@
+package com.wizkhalubernetes.config;
+
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Jackson settings shared by both web stacks. Spring Boot registers every Module bean with the
+ * auto-configured ObjectMapper, so the quote entities, pages and node info are serialized through
+ * Blackbird's generated accessors rather than reflective getter calls.
+ */
+@Configuration
+public class JsonConfig {
+
+    /**
+     * Blackbird module; disable with quotes.json.blackbird=false.
+     * @return module replacing reflective property access with generated lambdas
+     */
+    @Bean
+    @ConditionalOnProperty(name = "quotes.json.blackbird", havingValue = "true", matchIfMissing = true)
+    public BlackbirdModule blackbirdModule() {
+        return new BlackbirdModule();
+    }
+}
@@ -0,0 +1,76 @@
+package com.wizkhalubernetes.config;
+
+import com.wizkhalubernetes.prometheus.QuoteMetricsService;
+import com.wizkhalubernetes.repository.h2.QuoteH2Repository;
+import com.wizkhalubernetes.repository.mmap.QuoteMmapRepository;
+import com.wizkhalubernetes.repository.mongo.QuoteMongoRepository;
+import com.wizkhalubernetes.store.H2QuoteStore;
+import com.wizkhalubernetes.store.MmapQuoteStore;
+import com.wizkhalubernetes.store.MongoQuoteStore;
+import com.wizkhalubernetes.store.QuoteStore;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+
+/**
+ * Selects the quote store once at startup from REMOTE_DB, so QuoteController never looks the
+ * flag up per request. Kept out of H2Config/MongoConfig/MmapConfig so repository test slices do
+ * not need the metrics beans.
+ */
+@Configuration
+public class QuoteStoreConfig {
+    private static final Logger logger = LoggerFactory.getLogger(QuoteStoreConfig.class);
+
+    /**
+     * Quote store for MongoDB mode.
+     * @param repository MongoDB quote repository
+     * @param listRepository listing instance of the repository, if quotes.mongo.client.list-read-preference is set
+     * @param metrics metrics service
+     * @return MongoDB quote store
+     */
+    @Bean
+    @ConditionalOnProperty(name = "REMOTE_DB", havingValue = "true")
+    public QuoteStore<?> mongoQuoteStore(@Qualifier("mongoQuoteRepository") QuoteMongoRepository repository,
+                                         @Qualifier("listQuoteRepository") ObjectProvider<QuoteMongoRepository> listRepository,
+                                         QuoteMetricsService metrics) {
+        logger.info("Quote store: MongoDB");
+        return new MongoQuoteStore(repository, listRepository.getIfAvailable(() -> repository), metrics);
+    }
+
+    /**
+     * Quote store for the local memory-mapped quote log.
+     * @param repository mmap quote repository
+     * @param metrics metrics service
+     * @return mmap quote store
+     */
+    @Bean
+    @ConditionalOnProperty(name = "REMOTE_DB", havingValue = "local-mmap")
+    public QuoteStore<?> mmapQuoteStore(QuoteMmapRepository repository, QuoteMetricsService metrics) {
+        logger.info("Quote store: local mmap");
+        return new MmapQuoteStore(repository, metrics);
+    }
+
+    /**
+     * Quote store for H2 mode.
+     * @param repository H2 quote repository
+     * @param entityManager shared entity manager
+     * @param transactionManager JPA transaction manager
+     * @param metrics metrics service
+     * @return H2 quote store
+     */
+    @Bean
+    @ConditionalOnProperty(name = "REMOTE_DB", havingValue = "false", matchIfMissing = true)
+    public QuoteStore<?> h2QuoteStore(@Qualifier("h2QuoteRepository") QuoteH2Repository repository,
+                                      EntityManager entityManager,
+                                      PlatformTransactionManager transactionManager,
+                                      QuoteMetricsService metrics) {
+        logger.info("Quote store: H2");
+        return new H2QuoteStore(repository, entityManager, transactionManager, metrics);
+    }
+}
@@ -0,0 +1,83 @@
+package com.wizkhalubernetes.config;
+
+import com.wizkhalubernetes.prometheus.QuoteMetricsService;
+import com.wizkhalubernetes.ratelimit.ClientAddressResolver;
+import com.wizkhalubernetes.ratelimit.ClientRateLimitFilter;
+import com.wizkhalubernetes.ratelimit.ClientRateLimiter;
+import com.wizkhalubernetes.ratelimit.ReactiveClientRateLimitFilter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+
+/**
+ * Per-client rate limit on quote writes, in front of the quote controllers.
+ * Enabled by quotes.rate-limit.enabled. Each client address gets quotes.rate-limit.rate requests per
+ * second with bursts of quotes.rate-limit.burst; up to quotes.rate-limit.max-clients addresses are
+ * tracked at once. The client is the address {@link ClientAddressResolver} works out, which honours
+ * X-Real-IP and X-Forwarded-For only from quotes.trusted-proxies. The filter runs before the DB concurrency limiter, so
+ * a rejected client never holds a DB permit.
+ */
+@Configuration
+@ConditionalOnProperty(name = "quotes.rate-limit.enabled", havingValue = "true")
+public class RateLimitConfig {
+    private static final Logger logger = LoggerFactory.getLogger(RateLimitConfig.class);
+
+    /**
+     * Creates the per-client limiter and registers its metrics.
+     * @param rate requests per second allowed per client
+     * @param burst requests a client may make at once
+     * @param maxClients clients tracked at once
+     * @param metrics metrics service for the limiter gauges and counters
+     * @return per-client rate limiter
+     */
+    @Bean
+    public ClientRateLimiter clientRateLimiter(@Value("${quotes.rate-limit.rate:10}") double rate,
+                                               @Value("${quotes.rate-limit.burst:20}") int burst,
+                                               @Value("${quotes.rate-limit.max-clients:262144}") int maxClients,
+                                               QuoteMetricsService metrics) {
+        ClientRateLimiter limiter = new ClientRateLimiter(rate, burst, maxClients);
+        metrics.registerClientRateLimiter(limiter.rejected(), limiter.evicted(), limiter::activeClients,
+            limiter.capacity());
+        logger.info("Quote write rate limit: {}/s per client, burst {}, {} clients tracked",
+            rate, burst, limiter.capacity());
+        return limiter;
+    }
+
+    /**
+     * Registers the rate limit filter ahead of the Spring MVC dispatcher and the DB limiter.
+     * @param limiter per-client rate limiter
+     * @param clientAddressResolver resolver of the client address
+     * @return filter registration
+     */
+    @Bean
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    public FilterRegistrationBean<ClientRateLimitFilter> clientRateLimitFilter(ClientRateLimiter limiter,
+                                                                               ClientAddressResolver clientAddressResolver) {
+        FilterRegistrationBean<ClientRateLimitFilter> registration =
+            new FilterRegistrationBean<>(new ClientRateLimitFilter(limiter, clientAddressResolver));
+        registration.addUrlPatterns("/api/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 5);
+        return registration;
+    }
+
+    /**
+     * Creates the rate limit filter of the reactive stack.
+     * @param limiter per-client rate limiter
+     * @param clientAddressResolver resolver of the client address
+     * @return web filter
+     */
+    @Bean
+    @Order(Ordered.HIGHEST_PRECEDENCE + 5)
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+    public ReactiveClientRateLimitFilter reactiveClientRateLimitFilter(ClientRateLimiter limiter,
+                                                                       ClientAddressResolver clientAddressResolver) {
+        return new ReactiveClientRateLimitFilter(limiter, clientAddressResolver);
+    }
+}
@@ -0,0 +1,30 @@
+package com.wizkhalubernetes.config;
+
+import com.wizkhalubernetes.controller.QuoteController;
+import com.wizkhalubernetes.controller.ReactiveQuoteController;
+import com.wizkhalubernetes.store.QuoteStore;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Startup settings for the fast-startup profile (spring.main.lazy-initialization=true). Everything
+ * off the quote request path (actuator endpoints, health indicators, error pages, ...) is created
+ * on first use; the quote controllers and the quote store stay eager, so the DB client or H2
+ * bootstrap still happens before the port opens and the first quote request does not pay for it.
+ * Background services are SmartLifecycle beans and start with the context either way.
+ */
+@Configuration
+public class StartupConfig {
+
+    /**
+     * Keeps the quote request path out of lazy initialization. Static so the lazy-initialization
+     * post-processor can use it before the other beans exist.
+     * @return exclude filter for the controllers and the quote store (and, through them, their dependencies)
+     */
+    @Bean
+    public static LazyInitializationExcludeFilter quoteRequestPathExcludeFilter() {
+        return LazyInitializationExcludeFilter.forBeanTypes(QuoteController.class, ReactiveQuoteController.class,
+            QuoteStore.class);
+    }
+}
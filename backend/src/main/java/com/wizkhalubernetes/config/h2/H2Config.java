@@ -5,10 +5,21 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
 import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import com.wizkhalubernetes.batch.H2QuoteBulkWriter;
+import com.wizkhalubernetes.batch.QuoteBulkWriter;
+import com.wizkhalubernetes.cache.LoopbackQuoteInvalidationBus;
+import com.wizkhalubernetes.cache.QuoteInvalidationBus;
+import com.wizkhalubernetes.migration.H2QuoteStorageMigration;
+import com.wizkhalubernetes.migration.QuoteStorageMigration;
+import com.wizkhalubernetes.repository.h2.QuoteH2Repository;
+import com.wizkhalubernetes.sequence.H2QuoteSequenceBackend;
+import com.wizkhalubernetes.sequence.QuoteSequenceBackend;
 
 /**
  * H2 database configuration for Wiz Khalubernetes.
- * Enables JPA repositories when REMOTE_DB is false.
+ * Enables JPA repositories and the H2 quote number sequence when REMOTE_DB is false.
  */
 @Configuration
 @ConditionalOnProperty(name = "REMOTE_DB", havingValue = "false", matchIfMissing = true)
@@ -26,5 +37,43 @@ public class H2Config {
         String envValue = System.getenv("REMOTE_DB");
         System.out.println("[DEBUG] REMOTE_DB from System.getenv: " + envValue);
     }
-    // No beans needed, just enables JPA repositories when REMOTE_DB is false
+
+    /**
+     * Quote number sequence backed by an H2 SEQUENCE.
+     * @param jdbcTemplate JdbcTemplate for the H2 datasource
+     * @return H2 sequence backend
+     */
+    @Bean
+    public QuoteSequenceBackend quoteSequenceBackend(JdbcTemplate jdbcTemplate) {
+        return new H2QuoteSequenceBackend(jdbcTemplate);
+    }
+
+    /**
+     * Cache invalidation bus for the embedded DB: a single node, so events loop back in-process.
+     * @return loopback invalidation bus
+     */
+    @Bean
+    public QuoteInvalidationBus quoteInvalidationBus() {
+        return new LoopbackQuoteInvalidationBus();
+    }
+
+    /**
+     * Bulk writer for batch inserts: one saveAll, grouped into JDBC batches by Hibernate.
+     * @param h2QuoteRepository H2 quote repository
+     * @return H2 bulk writer
+     */
+    @Bean
+    public QuoteBulkWriter quoteBulkWriter(QuoteH2Repository h2QuoteRepository) {
+        return new H2QuoteBulkWriter(h2QuoteRepository);
+    }
+
+    /**
+     * Storage migration that types the timestamp and ip text of rows written before created_at/ip_addr.
+     * @param jdbcTemplate JdbcTemplate for the H2 datasource
+     * @return H2 storage migration
+     */
+    @Bean
+    public QuoteStorageMigration quoteStorageMigration(JdbcTemplate jdbcTemplate) {
+        return new H2QuoteStorageMigration(jdbcTemplate);
+    }
 }
@@ -0,0 +1,89 @@
+package com.wizkhalubernetes.config.mmap;
+
+import com.wizkhalubernetes.batch.MmapQuoteBulkWriter;
+import com.wizkhalubernetes.batch.QuoteBulkWriter;
+import com.wizkhalubernetes.cache.LoopbackQuoteInvalidationBus;
+import com.wizkhalubernetes.cache.QuoteInvalidationBus;
+import com.wizkhalubernetes.prometheus.QuoteMetricsService;
+import com.wizkhalubernetes.repository.mmap.MappedQuoteLog;
+import com.wizkhalubernetes.repository.mmap.QuoteMmapRepository;
+import com.wizkhalubernetes.sequence.MmapQuoteSequenceBackend;
+import com.wizkhalubernetes.sequence.QuoteSequenceBackend;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Local memory-mapped quote store configuration for Wiz Khalubernetes, for read-heavy edge pods
+ * that should not depend on a database. Opens the quote log at quotes.mmap.path when REMOTE_DB is
+ * local-mmap and provides the sequence, bulk writer and invalidation bus beans on top of it.
+ */
+@Configuration
+@ConditionalOnProperty(name = "REMOTE_DB", havingValue = "local-mmap")
+public class MmapConfig {
+    private static final Logger logger = LoggerFactory.getLogger(MmapConfig.class);
+
+    /**
+     * Opens (and recovers) the quote log and starts its background compaction.
+     * @param path log file; put it on a volume to keep quotes across pod restarts
+     * @param initialSize size of a new log file
+     * @param forceWrites flush every write to disk before answering
+     * @param compactionInterval how often compaction is considered
+     * @param compactionMinDead dead bytes below which the log is never compacted
+     * @param compactionDeadRatio share of dead bytes above which the log is compacted
+     * @param metrics metrics service for the log gauges
+     * @return mmap quote repository
+     */
+    @Bean
+    public QuoteMmapRepository quoteMmapRepository(
+            @Value("${quotes.mmap.path:wizquotes.qlog}") String path,
+            @Value("${quotes.mmap.initial-size:16MB}") DataSize initialSize,
+            @Value("${quotes.mmap.force-writes:false}") boolean forceWrites,
+            @Value("${quotes.mmap.compaction.interval:30s}") Duration compactionInterval,
+            @Value("${quotes.mmap.compaction.min-dead-size:4MB}") DataSize compactionMinDead,
+            @Value("${quotes.mmap.compaction.dead-ratio:0.5}") double compactionDeadRatio,
+            QuoteMetricsService metrics) {
+        logger.info("Quote log: {} (force-writes={})", Path.of(path).toAbsolutePath(), forceWrites);
+        MappedQuoteLog log = new MappedQuoteLog(Path.of(path), initialSize.toBytes(), forceWrites);
+        log.startCompaction(compactionInterval, compactionMinDead.toBytes(), compactionDeadRatio);
+        // Registered on the log itself, so scrapes are not timed as DB calls
+        metrics.registerMmapLog(log::count, log::usedBytes, log::deadBytes, log::fileBytes, log::indexBytes,
+            log::compactions);
+        return log;
+    }
+
+    /**
+     * Quote number sequence resuming after the highest quote number in the log.
+     * @param repository mmap quote repository
+     * @return mmap sequence backend
+     */
+    @Bean
+    public QuoteSequenceBackend quoteSequenceBackend(QuoteMmapRepository repository) {
+        return new MmapQuoteSequenceBackend(repository);
+    }
+
+    /**
+     * Cache invalidation bus for the local store: a single node, so events loop back in-process.
+     * @return loopback invalidation bus
+     */
+    @Bean
+    public QuoteInvalidationBus quoteInvalidationBus() {
+        return new LoopbackQuoteInvalidationBus();
+    }
+
+    /**
+     * Bulk writer for batch inserts: one append under one lock.
+     * @param repository mmap quote repository
+     * @return mmap bulk writer
+     */
+    @Bean
+    public QuoteBulkWriter quoteBulkWriter(QuoteMmapRepository repository) {
+        return new MmapQuoteBulkWriter(repository);
+    }
+}
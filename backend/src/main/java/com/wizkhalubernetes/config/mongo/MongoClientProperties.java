@@ -0,0 +1,186 @@
+package com.wizkhalubernetes.config.mongo;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * MongoDB driver settings (quotes.mongo.client.*) applied on top of spring.data.mongodb.uri by
+ * {@link MongoClientSettingsFactory}, for both the blocking and the reactive client.
+ * Options given in the URI itself take precedence.
+ */
+@ConfigurationProperties(prefix = "quotes.mongo.client")
+public class MongoClientProperties {
+    private final Pool pool = new Pool();
+    private Duration connectTimeout = Duration.ofSeconds(5);
+    private Duration readTimeout = Duration.ofSeconds(10);
+    private Duration serverSelectionTimeout = Duration.ofSeconds(5);
+    private List<String> compressors = new ArrayList<>(List.of("zstd", "snappy"));
+    private String readPreference = "primary";
+    private String listReadPreference;
+    private String writeConcern = "acknowledged";
+
+    /**
+     * Gets the connection pool settings.
+     * @return pool settings
+     */
+    public Pool getPool() { return pool; }
+
+    /**
+     * Gets the TCP connect timeout.
+     * @return connect timeout
+     */
+    public Duration getConnectTimeout() { return connectTimeout; }
+
+    /**
+     * Sets the TCP connect timeout.
+     * @param connectTimeout connect timeout
+     */
+    public void setConnectTimeout(Duration connectTimeout) { this.connectTimeout = connectTimeout; }
+
+    /**
+     * Gets the socket read timeout (0 waits forever).
+     * @return read timeout
+     */
+    public Duration getReadTimeout() { return readTimeout; }
+
+    /**
+     * Sets the socket read timeout.
+     * @param readTimeout read timeout
+     */
+    public void setReadTimeout(Duration readTimeout) { this.readTimeout = readTimeout; }
+
+    /**
+     * Gets how long an operation waits for a suitable server before failing.
+     * @return server selection timeout
+     */
+    public Duration getServerSelectionTimeout() { return serverSelectionTimeout; }
+
+    /**
+     * Sets how long an operation waits for a suitable server before failing.
+     * @param serverSelectionTimeout server selection timeout
+     */
+    public void setServerSelectionTimeout(Duration serverSelectionTimeout) { this.serverSelectionTimeout = serverSelectionTimeout; }
+
+    /**
+     * Gets the wire compressors offered to the server, in order of preference (zstd, snappy, zlib).
+     * The server picks the first one it supports; an empty list disables compression.
+     * @return compressor names
+     */
+    public List<String> getCompressors() { return compressors; }
+
+    /**
+     * Sets the wire compressors offered to the server.
+     * @param compressors compressor names
+     */
+    public void setCompressors(List<String> compressors) { this.compressors = compressors; }
+
+    /**
+     * Gets the default read preference (primary, primaryPreferred, secondary, secondaryPreferred, nearest).
+     * @return read preference name
+     */
+    public String getReadPreference() { return readPreference; }
+
+    /**
+     * Sets the default read preference.
+     * @param readPreference read preference name
+     */
+    public void setReadPreference(String readPreference) { this.readPreference = readPreference; }
+
+    /**
+     * Gets the read preference of the list queries (keyset page, time ranges, full listing), or null
+     * if they use the default one. Pages read this way are not cached, as they may miss recent writes.
+     * @return read preference name, or null
+     */
+    public String getListReadPreference() { return listReadPreference; }
+
+    /**
+     * Sets the read preference of the list queries.
+     * @param listReadPreference read preference name, or null for the default one
+     */
+    public void setListReadPreference(String listReadPreference) { this.listReadPreference = listReadPreference; }
+
+    /**
+     * Gets the write concern (acknowledged, w1, w2, w3, majority, journaled, unacknowledged).
+     * @return write concern name
+     */
+    public String getWriteConcern() { return writeConcern; }
+
+    /**
+     * Sets the write concern.
+     * @param writeConcern write concern name
+     */
+    public void setWriteConcern(String writeConcern) { this.writeConcern = writeConcern; }
+
+    /**
+     * Connection pool settings (one pool per MongoDB server).
+     */
+    public static class Pool {
+        private int maxSize = 100;
+        private int minSize = 0;
+        private int maxConnecting = 2;
+        private Duration maxWaitTime = Duration.ofSeconds(2);
+        private Duration maxIdleTime = Duration.ofMinutes(5);
+
+        /**
+         * Gets the maximum number of connections per server.
+         * @return maximum pool size
+         */
+        public int getMaxSize() { return maxSize; }
+
+        /**
+         * Sets the maximum number of connections per server.
+         * @param maxSize maximum pool size
+         */
+        public void setMaxSize(int maxSize) { this.maxSize = maxSize; }
+
+        /**
+         * Gets the number of connections kept open even when idle.
+         * @return minimum pool size
+         */
+        public int getMinSize() { return minSize; }
+
+        /**
+         * Sets the number of connections kept open even when idle.
+         * @param minSize minimum pool size
+         */
+        public void setMinSize(int minSize) { this.minSize = minSize; }
+
+        /**
+         * Gets how many connections the pool may be opening at the same time.
+         * @return maximum concurrent connection establishments
+         */
+        public int getMaxConnecting() { return maxConnecting; }
+
+        /**
+         * Sets how many connections the pool may be opening at the same time.
+         * @param maxConnecting maximum concurrent connection establishments
+         */
+        public void setMaxConnecting(int maxConnecting) { this.maxConnecting = maxConnecting; }
+
+        /**
+         * Gets how long a request waits in the pool's wait queue for a connection before failing.
+         * @return wait queue timeout
+         */
+        public Duration getMaxWaitTime() { return maxWaitTime; }
+
+        /**
+         * Sets how long a request waits in the pool's wait queue for a connection.
+         * @param maxWaitTime wait queue timeout
+         */
+        public void setMaxWaitTime(Duration maxWaitTime) { this.maxWaitTime = maxWaitTime; }
+
+        /**
+         * Gets how long a connection may sit idle before it is closed (0 keeps it forever).
+         * @return maximum idle time
+         */
+        public Duration getMaxIdleTime() { return maxIdleTime; }
+
+        /**
+         * Sets how long a connection may sit idle before it is closed.
+         * @param maxIdleTime maximum idle time
+         */
+        public void setMaxIdleTime(Duration maxIdleTime) { this.maxIdleTime = maxIdleTime; }
+    }
+}
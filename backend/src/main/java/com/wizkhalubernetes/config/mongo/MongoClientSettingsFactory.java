@@ -0,0 +1,111 @@
+package com.wizkhalubernetes.config.mongo;
+
+import com.mongodb.ConnectionString;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.MongoCompressor;
+import com.mongodb.ReadPreference;
+import com.mongodb.WriteConcern;
+import com.wizkhalubernetes.prometheus.MongoPoolWaitListener;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.bson.BsonDocument;
+import io.micrometer.core.instrument.binder.mongodb.MongoMetricsConnectionPoolListener;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Builds the MongoClientSettings shared by the blocking and the reactive MongoDB client: the
+ * quotes.mongo.client.* settings, then the options of the connection string on top, plus the
+ * connection pool metrics (mongodb_driver_pool_size, _checkedout, _waitqueuesize from Micrometer's
+ * MongoMetricsConnectionPoolListener, and mongodb_driver_pool_wait_seconds).
+ */
+public final class MongoClientSettingsFactory {
+
+    private MongoClientSettingsFactory() {
+    }
+
+    /**
+     * Creates the client settings.
+     * @param connectionString spring.data.mongodb.uri
+     * @param properties quotes.mongo.client.* settings
+     * @param registry registry for the pool metrics, or null for none
+     * @return client settings
+     */
+    public static MongoClientSettings create(ConnectionString connectionString, MongoClientProperties properties,
+                                             MeterRegistry registry) {
+        MongoClientProperties.Pool pool = properties.getPool();
+        MongoClientSettings.Builder builder = MongoClientSettings.builder()
+            .applyToConnectionPoolSettings(settings -> {
+                settings.maxSize(pool.getMaxSize())
+                    .minSize(pool.getMinSize())
+                    .maxConnecting(pool.getMaxConnecting())
+                    .maxWaitTime(pool.getMaxWaitTime().toMillis(), TimeUnit.MILLISECONDS)
+                    .maxConnectionIdleTime(pool.getMaxIdleTime().toMillis(), TimeUnit.MILLISECONDS);
+                if (registry != null) {
+                    settings.addConnectionPoolListener(new MongoMetricsConnectionPoolListener(registry))
+                        .addConnectionPoolListener(new MongoPoolWaitListener(registry));
+                }
+            })
+            .applyToSocketSettings(settings -> settings
+                .connectTimeout((int) properties.getConnectTimeout().toMillis(), TimeUnit.MILLISECONDS)
+                .readTimeout((int) properties.getReadTimeout().toMillis(), TimeUnit.MILLISECONDS))
+            .applyToClusterSettings(settings -> settings
+                .serverSelectionTimeout(properties.getServerSelectionTimeout().toMillis(), TimeUnit.MILLISECONDS))
+            .compressorList(compressors(properties.getCompressors()))
+            .readPreference(ReadPreference.valueOf(properties.getReadPreference()))
+            .writeConcern(writeConcern(properties.getWriteConcern()));
+        // Options in the URI win over the properties above
+        return builder.applyConnectionString(connectionString).build();
+    }
+
+    /**
+     * Describes the effective settings for the startup log.
+     * @param settings client settings
+     * @return one-line summary
+     */
+    public static String describe(MongoClientSettings settings) {
+        BsonDocument writeConcern = settings.getWriteConcern().asDocument();
+        List<String> compressors = new ArrayList<>();
+        settings.getCompressorList().forEach(compressor -> compressors.add(compressor.getName()));
+        return "pool " + settings.getConnectionPoolSettings().getMinSize() + ".."
+            + settings.getConnectionPoolSettings().getMaxSize()
+            + " (wait " + settings.getConnectionPoolSettings().getMaxWaitTime(TimeUnit.MILLISECONDS) + " ms)"
+            + ", connect " + settings.getSocketSettings().getConnectTimeout(TimeUnit.MILLISECONDS) + " ms"
+            + ", read " + settings.getSocketSettings().getReadTimeout(TimeUnit.MILLISECONDS) + " ms"
+            + ", compressors " + compressors
+            + ", read preference " + settings.getReadPreference().getName()
+            + ", write concern " + (writeConcern.isEmpty() ? "acknowledged" : writeConcern.toJson());
+    }
+
+    private static List<MongoCompressor> compressors(List<String> names) {
+        List<MongoCompressor> compressors = new ArrayList<>(names.size());
+        for (String name : names) {
+            switch (name.trim().toLowerCase(Locale.ROOT)) {
+                case "zstd":
+                    compressors.add(MongoCompressor.createZstdCompressor());
+                    break;
+                case "snappy":
+                    compressors.add(MongoCompressor.createSnappyCompressor());
+                    break;
+                case "zlib":
+                    compressors.add(MongoCompressor.createZlibCompressor());
+                    break;
+                case "":
+                case "none":
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown quotes.mongo.client.compressors entry: " + name);
+            }
+        }
+        return compressors;
+    }
+
+    private static WriteConcern writeConcern(String name) {
+        WriteConcern writeConcern = WriteConcern.valueOf(name);
+        if (writeConcern == null) {
+            throw new IllegalArgumentException("Unknown quotes.mongo.client.write-concern: " + name);
+        }
+        return writeConcern;
+    }
+}
@@ -5,38 +5,276 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Bean;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.repository.config.EnableMongoRepositories;
+import org.springframework.data.mongodb.repository.support.MongoRepositoryFactoryBean;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.index.TextIndexDefinition;
+import com.wizkhalubernetes.model.mongo.QuoteMongo;
+import com.wizkhalubernetes.repository.mongo.QuoteMongoRepository;
+import com.wizkhalubernetes.batch.MongoQuoteBulkWriter;
+import com.wizkhalubernetes.batch.QuoteBulkWriter;
+import com.wizkhalubernetes.cache.MongoChangeStreamInvalidationBus;
+import com.wizkhalubernetes.migration.MongoQuoteStorageMigration;
+import com.wizkhalubernetes.migration.QuoteStorageMigration;
+import com.wizkhalubernetes.sequence.MongoQuoteSequenceBackend;
+import com.wizkhalubernetes.sequence.QuoteSequenceBackend;
+import com.wizkhalubernetes.health.MongoCircuitBreaker;
+import com.wizkhalubernetes.health.MongoCircuitBreakerPostProcessor;
+import com.wizkhalubernetes.health.MongoHealthProber;
+import com.wizkhalubernetes.prometheus.QuoteMetricsService;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.core.SimpleMongoClientDatabaseFactory;
+import org.springframework.data.mongodb.core.convert.DbRefResolver;
+import org.springframework.data.mongodb.core.convert.DefaultDbRefResolver;
+import org.springframework.data.mongodb.core.convert.DefaultMongoTypeMapper;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import com.mongodb.ConnectionString;
+import com.mongodb.ReadPreference;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import java.time.Duration;
+import java.util.List;
 
 /**
  * MongoDB configuration for Wiz Khalubernetes.
- * Enables Mongo repositories and provides MongoTemplate bean when REMOTE_DB is true.
+ * Enables Mongo repositories and provides the MongoClient and MongoTemplate beans when REMOTE_DB is true.
+ * Every MongoDB call goes through a circuit breaker that a background health prober keeps current.
  */
 @Configuration
 @ConditionalOnProperty(name = "REMOTE_DB", havingValue = "true")
 @EnableMongoRepositories(basePackages = "com.wizkhalubernetes.repository.mongo")
+@EnableConfigurationProperties(MongoClientProperties.class)
 public class MongoConfig {
+    private static final Logger logger = LoggerFactory.getLogger(MongoConfig.class);
+    private static final String FALLBACK_URI = "mongodb://localhost:27017/dummy";
+
     @Value("${REMOTE_DB:false}")
     private String remoteDbFlag;
 
     /**
-     * Creates a MongoTemplate bean using the configured MongoDB URI.
-     * Falls back to dummy local DB if URI is missing or connection fails.
+     * Creates the MongoDB client from the configured URI and the quotes.mongo.client.* settings
+     * (pool, timeouts, compression, read preference, write concern), with pool metrics.
+     * Falls back to dummy local DB if URI is missing or invalid.
+     * @param env Spring environment for property lookup
+     * @param properties typed driver settings
+     * @param meterRegistry registry for the connection pool metrics
+     * @return MongoClient instance
+     */
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "REMOTE_DB", havingValue = "true")
+    public MongoClient mongoClient(org.springframework.core.env.Environment env, MongoClientProperties properties,
+                                   MeterRegistry meterRegistry) {
+        MongoClientSettings settings = MongoClientSettingsFactory.create(connectionString(env), properties, meterRegistry);
+        logger.info("MongoDB client: {}", MongoClientSettingsFactory.describe(settings));
+        return MongoClients.create(settings);
+    }
+
+    /**
+     * Creates a MongoTemplate bean on the shared MongoClient, writing documents without a _class field.
+     * @param mongoClient MongoClient bean
      * @param env Spring environment for property lookup
      * @return MongoTemplate instance
      */
     @Bean
     @ConditionalOnProperty(name = "REMOTE_DB", havingValue = "true")
-    public MongoTemplate mongoTemplate(org.springframework.core.env.Environment env) {
+    public MongoTemplate mongoTemplate(MongoClient mongoClient, org.springframework.core.env.Environment env) {
+        String database = connectionString(env).getDatabase();
+        MongoDatabaseFactory factory = new SimpleMongoClientDatabaseFactory(mongoClient, database != null ? database : "dummy");
+        return new MongoTemplate(factory, mappingConverter(new DefaultDbRefResolver(factory)));
+    }
+
+    /**
+     * Creates a second instance of the quote repository for the list queries, on a template that reads
+     * with quotes.mongo.client.list-read-preference (e.g. secondaryPreferred), when that property is set.
+     * Without it the list queries use the client's read preference, so a node always lists its own writes.
+     * @param mongoTemplate MongoTemplate bean
+     * @param properties typed driver settings
+     * @return repository factory for the listing instance
+     */
+    @Bean
+    @ConditionalOnProperty(name = "quotes.mongo.client.list-read-preference")
+    public MongoRepositoryFactoryBean<QuoteMongoRepository, QuoteMongo, String> listQuoteRepository(
+            MongoTemplate mongoTemplate, MongoClientProperties properties) {
+        MongoTemplate listTemplate = new MongoTemplate(mongoTemplate.getMongoDatabaseFactory(), mongoTemplate.getConverter());
+        listTemplate.setReadPreference(ReadPreference.valueOf(properties.getListReadPreference()));
+        MongoRepositoryFactoryBean<QuoteMongoRepository, QuoteMongo, String> factory =
+            new MongoRepositoryFactoryBean<>(QuoteMongoRepository.class);
+        factory.setMongoOperations(listTemplate);
+        return factory;
+    }
+
+    /**
+     * Builds the document converter for the quotes collection without the _class type key: QuoteMongo
+     * is the only type stored there, so the key would only add ~55 bytes to every document. Documents
+     * that still carry it read the same. Shared with the reactive template.
+     * @param dbRefResolver DBRef resolver of the template's database factory
+     * @return mapping converter
+     */
+    public static MappingMongoConverter mappingConverter(DbRefResolver dbRefResolver) {
+        MongoCustomConversions conversions = new MongoCustomConversions(List.of());
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        mappingContext.afterPropertiesSet();
+        MappingMongoConverter converter = new MappingMongoConverter(dbRefResolver, mappingContext);
+        converter.setCustomConversions(conversions);
+        converter.setTypeMapper(new DefaultMongoTypeMapper(null));
+        converter.afterPropertiesSet();
+        return converter;
+    }
+
+    /**
+     * Reads spring.data.mongodb.uri. Shared with the reactive client configuration.
+     * @param env Spring environment for property lookup
+     * @return connection string, or the dummy local DB if the URI is missing or invalid
+     */
+    public static ConnectionString connectionString(org.springframework.core.env.Environment env) {
         String uri = env.getProperty("spring.data.mongodb.uri");
         if (uri == null || uri.isEmpty()) {
             System.err.println("MongoDB URI not set. Using H2 embedded DB for local startup.");
-            return new MongoTemplate(new org.springframework.data.mongodb.core.SimpleMongoClientDatabaseFactory("mongodb://localhost:27017/dummy"));
+            return new ConnectionString(FALLBACK_URI);
         }
         try {
-            return new MongoTemplate(new org.springframework.data.mongodb.core.SimpleMongoClientDatabaseFactory(uri));
+            return new ConnectionString(uri);
         } catch (Exception e) {
             System.err.println("MongoDB connection failed: " + e.getMessage());
-            return new MongoTemplate(new org.springframework.data.mongodb.core.SimpleMongoClientDatabaseFactory("mongodb://localhost:27017/dummy"));
+            return new ConnectionString(FALLBACK_URI);
         }
     }
+
+    /**
+     * Ensures the indexes declared on QuoteMongo (e.g. quoteNumber) exist in the quotes collection.
+     * The MongoTemplate above is built by hand, so Spring Data's auto index creation does not apply.
+     * With quotes.search.mongo-text-index=true (default) it also creates the text index on the quote
+     * text behind GET /api/quotes/search?engine=mongo; every insert then updates it as well.
+     * @param mongoTemplate MongoTemplate bean
+     * @param textIndex whether to create the quote text index
+     * @return runner that creates missing indexes at startup
+     */
+    @Bean
+    @ConditionalOnProperty(name = "REMOTE_DB", havingValue = "true")
+    public ApplicationRunner quoteIndexInitializer(MongoTemplate mongoTemplate,
+                                                   @Value("${quotes.search.mongo-text-index:true}") boolean textIndex) {
+        return args -> {
+            IndexOperations indexOps = mongoTemplate.indexOps(QuoteMongo.class);
+            try {
+                new MongoPersistentEntityIndexResolver(mongoTemplate.getConverter().getMappingContext())
+                    .resolveIndexFor(QuoteMongo.class)
+                    .forEach(indexOps::ensureIndex);
+            } catch (Exception e) {
+                logger.warn("MongoDB index creation failed: {}", e.getMessage(), e);
+            }
+            if (textIndex) {
+                try {
+                    indexOps.ensureIndex(TextIndexDefinition.builder().named("quote_text_idx").onField("quote").build());
+                } catch (Exception e) {
+                    logger.warn("MongoDB text index creation failed: {}", e.getMessage(), e);
+                }
+            }
+        };
+    }
+
+    /**
+     * Quote number sequence backed by a findAndModify counter document.
+     * @param mongoTemplate MongoTemplate bean
+     * @return Mongo sequence backend
+     */
+    @Bean
+    @ConditionalOnProperty(name = "REMOTE_DB", havingValue = "true")
+    public QuoteSequenceBackend quoteSequenceBackend(MongoTemplate mongoTemplate) {
+        return new MongoQuoteSequenceBackend(mongoTemplate);
+    }
+
+    /**
+     * Cache invalidation bus that tails the change stream of the quotes collection, so writes
+     * from any replica invalidate every replica's quote cache.
+     * @param mongoTemplate MongoTemplate bean
+     * @return change stream invalidation bus
+     */
+    @Bean
+    @ConditionalOnProperty(name = "REMOTE_DB", havingValue = "true")
+    public MongoChangeStreamInvalidationBus quoteInvalidationBus(MongoTemplate mongoTemplate) {
+        return new MongoChangeStreamInvalidationBus(mongoTemplate, "quotes");
+    }
+
+    /**
+     * Bulk writer for batch inserts: one unordered bulkWrite per batch.
+     * @param mongoTemplate MongoTemplate bean
+     * @return Mongo bulk writer
+     */
+    @Bean
+    @ConditionalOnProperty(name = "REMOTE_DB", havingValue = "true")
+    public QuoteBulkWriter quoteBulkWriter(MongoTemplate mongoTemplate) {
+        return new MongoQuoteBulkWriter(mongoTemplate);
+    }
+
+    /**
+     * Storage migration that types the timestamp and ip strings of documents written before ts/addr
+     * and drops their _class key.
+     * @param mongoTemplate MongoTemplate bean
+     * @return Mongo storage migration
+     */
+    @Bean
+    @ConditionalOnProperty(name = "REMOTE_DB", havingValue = "true")
+    public QuoteStorageMigration quoteStorageMigration(MongoTemplate mongoTemplate) {
+        return new MongoQuoteStorageMigration(mongoTemplate, "quotes");
+    }
+
+    /**
+     * Circuit breaker in front of every MongoDB call (see {@link MongoCircuitBreakerPostProcessor}).
+     * @param metrics metrics service for the breaker state gauge and counters
+     * @param failureThreshold consecutive failures or slow calls that open the breaker
+     * @param openDuration how long an open breaker rejects calls before a trial call
+     * @param slowCallThreshold calls and pings slower than this count as failures
+     * @return MongoDB circuit breaker
+     */
+    @Bean
+    @ConditionalOnProperty(name = "REMOTE_DB", havingValue = "true")
+    public MongoCircuitBreaker mongoCircuitBreaker(QuoteMetricsService metrics,
+                                                   @Value("${quotes.mongo.breaker.failure-threshold:5}") int failureThreshold,
+                                                   @Value("${quotes.mongo.breaker.open-duration:10s}") Duration openDuration,
+                                                   @Value("${quotes.mongo.breaker.slow-call-threshold:2s}") Duration slowCallThreshold) {
+        logger.info("MongoDB circuit breaker: opens after {} failures or calls slower than {}, stays open {}",
+            failureThreshold, slowCallThreshold, openDuration);
+        return new MongoCircuitBreaker(failureThreshold, openDuration, slowCallThreshold, metrics);
+    }
+
+    /**
+     * Guards the Mongo repositories, sequence backend and bulk writer with the circuit breaker.
+     * Static so the post-processor is registered before the repositories are created.
+     * @param breaker circuit breaker, resolved lazily
+     * @return circuit breaker post-processor
+     */
+    @Bean
+    @ConditionalOnProperty(name = "REMOTE_DB", havingValue = "true")
+    public static MongoCircuitBreakerPostProcessor mongoCircuitBreakerPostProcessor(ObjectProvider<MongoCircuitBreaker> breaker) {
+        return new MongoCircuitBreakerPostProcessor(breaker);
+    }
+
+    /**
+     * Background ping that reports MongoDB health and opens/closes the circuit breaker.
+     * @param mongoTemplate MongoTemplate bean
+     * @param breaker circuit breaker
+     * @param metrics metrics service for the probe latency and up gauge
+     * @param interval time between pings
+     * @param timeout how long a ping may take before it counts as failed
+     * @return MongoDB health prober
+     */
+    @Bean
+    @ConditionalOnProperty(name = "REMOTE_DB", havingValue = "true")
+    public MongoHealthProber mongoHealthProber(MongoTemplate mongoTemplate, MongoCircuitBreaker breaker,
+                                               QuoteMetricsService metrics,
+                                               @Value("${quotes.mongo.probe.interval:2s}") Duration interval,
+                                               @Value("${quotes.mongo.probe.timeout:1s}") Duration timeout) {
+        return new MongoHealthProber(mongoTemplate, breaker, metrics, interval, timeout);
+    }
 }
@@ -0,0 +1,31 @@
+package com.wizkhalubernetes.config.reactive;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.env.EnvironmentPostProcessor;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.MapPropertySource;
+import java.util.Map;
+
+/**
+ * Switches the application to the reactive web stack (WebFlux on Netty) when REMOTE_DB and
+ * REACTIVE are both true. The servlet stack stays the default; the reactive stack only has a
+ * MongoDB implementation and searches through the MongoDB text index, so the in-memory search index
+ * is not built.
+ */
+public class ReactiveModeEnvironmentPostProcessor implements EnvironmentPostProcessor {
+    static final String PROPERTY_SOURCE = "wizkhalubernetesReactiveMode";
+
+    @Override
+    public void postProcessEnvironment(ConfigurableEnvironment environment, SpringApplication application) {
+        boolean remoteDb = Boolean.parseBoolean(environment.getProperty("REMOTE_DB", "false"));
+        boolean reactive = Boolean.parseBoolean(environment.getProperty("REACTIVE", "false"));
+        if (reactive && !remoteDb) {
+            System.err.println("REACTIVE=true requires REMOTE_DB=true; staying on the servlet stack.");
+        }
+        if (reactive && remoteDb) {
+            environment.getPropertySources().addFirst(new MapPropertySource(PROPERTY_SOURCE,
+                Map.of("spring.main.web-application-type", "reactive",
+                    "quotes.search.index.enabled", "false")));
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.wizkhalubernetes.config.reactive;
+
+import com.mongodb.ReadPreference;
+import com.mongodb.reactivestreams.client.MongoClient;
+import com.mongodb.reactivestreams.client.MongoClients;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.SimpleReactiveMongoDatabaseFactory;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.repository.config.EnableReactiveMongoRepositories;
+import org.springframework.data.mongodb.repository.support.ReactiveMongoRepositoryFactoryBean;
+import com.wizkhalubernetes.config.mongo.MongoClientProperties;
+import com.wizkhalubernetes.config.mongo.MongoClientSettingsFactory;
+import com.wizkhalubernetes.config.mongo.MongoConfig;
+import com.wizkhalubernetes.model.mongo.QuoteMongo;
+import com.wizkhalubernetes.repository.reactive.QuoteReactiveMongoRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+
+/**
+ * Reactive MongoDB configuration for Wiz Khalubernetes.
+ * Imported next to MongoConfig when REMOTE_DB and REACTIVE are both true; provides the reactive
+ * driver client, ReactiveMongoTemplate and reactive repositories used by the WebFlux controller.
+ */
+@Configuration
+@ConditionalOnProperty(name = "REACTIVE", havingValue = "true")
+@EnableReactiveMongoRepositories(basePackages = "com.wizkhalubernetes.repository.reactive")
+public class ReactiveMongoConfig {
+    /**
+     * Serves the reactive stack from Netty. Tomcat is on the classpath for the servlet modes and
+     * would otherwise be picked as the reactive server too.
+     * @return Netty web server factory
+     */
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+
+    /**
+     * Creates the reactive MongoDB client for the configured URI, with the same
+     * quotes.mongo.client.* settings and pool metrics as the blocking client.
+     * @param env Spring environment for property lookup
+     * @param properties typed driver settings
+     * @param meterRegistry registry for the connection pool metrics
+     * @return reactive MongoClient
+     */
+    @Bean(destroyMethod = "close")
+    public MongoClient reactiveMongoClient(Environment env, MongoClientProperties properties, MeterRegistry meterRegistry) {
+        return MongoClients.create(MongoClientSettingsFactory.create(MongoConfig.connectionString(env), properties, meterRegistry));
+    }
+
+    /**
+     * Creates the ReactiveMongoTemplate used by the reactive repositories, with the same document
+     * mapping as the blocking template (no _class field).
+     * @param reactiveMongoClient reactive MongoClient
+     * @param env Spring environment for property lookup
+     * @return ReactiveMongoTemplate instance
+     */
+    @Bean
+    public ReactiveMongoTemplate reactiveMongoTemplate(MongoClient reactiveMongoClient, Environment env) {
+        String database = MongoConfig.connectionString(env).getDatabase();
+        return new ReactiveMongoTemplate(new SimpleReactiveMongoDatabaseFactory(reactiveMongoClient,
+            database != null ? database : "wizquotes"), MongoConfig.mappingConverter(NoOpDbRefResolver.INSTANCE));
+    }
+
+    /**
+     * Creates the listing instance of the reactive quote repository, reading with
+     * quotes.mongo.client.list-read-preference, like the blocking one in MongoConfig.
+     * @param reactiveMongoTemplate ReactiveMongoTemplate bean
+     * @param properties typed driver settings
+     * @return repository factory for the listing instance
+     */
+    @Bean
+    @ConditionalOnProperty(name = "quotes.mongo.client.list-read-preference")
+    public ReactiveMongoRepositoryFactoryBean<QuoteReactiveMongoRepository, QuoteMongo, String> listQuoteReactiveRepository(
+            ReactiveMongoTemplate reactiveMongoTemplate, MongoClientProperties properties) {
+        ReactiveMongoTemplate listTemplate = new ReactiveMongoTemplate(reactiveMongoTemplate.getMongoDatabaseFactory(),
+            reactiveMongoTemplate.getConverter());
+        listTemplate.setReadPreference(ReadPreference.valueOf(properties.getListReadPreference()));
+        ReactiveMongoRepositoryFactoryBean<QuoteReactiveMongoRepository, QuoteMongo, String> factory =
+            new ReactiveMongoRepositoryFactoryBean<>(QuoteReactiveMongoRepository.class);
+        factory.setReactiveMongoOperations(listTemplate);
+        return factory;
+    }
+}
@@ -2,44 +2,121 @@
 package com.wizkhalubernetes.controller;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.HttpStatus;
-import com.wizkhalubernetes.model.mongo.QuoteMongo;
-import com.wizkhalubernetes.model.h2.QuoteH2;
-import com.wizkhalubernetes.repository.mongo.QuoteMongoRepository;
-import com.wizkhalubernetes.repository.h2.QuoteH2Repository;
+import com.wizkhalubernetes.sequence.QuoteNumberAllocator;
+import com.wizkhalubernetes.store.QuoteStore;
+import com.wizkhalubernetes.cache.QuoteCache;
+import com.wizkhalubernetes.cache.QuoteCacheCoherence;
+import com.wizkhalubernetes.cache.QuoteJsonCache;
+import com.wizkhalubernetes.model.Quote;
+import com.wizkhalubernetes.model.QuoteCodec;
+import com.wizkhalubernetes.model.QuotePage;
+import com.wizkhalubernetes.model.QuoteBatchItemResult;
+import com.wizkhalubernetes.model.QuoteSearchResult;
+import com.wizkhalubernetes.batch.NewQuote;
+import com.wizkhalubernetes.batch.QuoteBulkWriter;
+import com.wizkhalubernetes.batch.QuoteWriteBehindBuffer;
+import com.wizkhalubernetes.nodeinfo.NodeInfoSampler;
+import com.wizkhalubernetes.events.QuoteEventBroadcaster;
+import com.wizkhalubernetes.events.QuoteEventStreams;
+import com.wizkhalubernetes.health.MongoHealthProber;
+import com.wizkhalubernetes.health.MongoUnavailableException;
+import com.wizkhalubernetes.ratelimit.ClientAddressResolver;
+import com.wizkhalubernetes.search.QuoteSearchIndex;
+import com.wizkhalubernetes.search.QuoteSearchService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import jakarta.servlet.http.HttpServletRequest;
-import java.net.InetAddress;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.annotation.PostConstruct;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import java.io.IOException;
+import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * REST API controller for quote operations and node/application info endpoints.
- * Handles both MongoDB and H2 persistence based on REMOTE_DB flag.
+ * Persistence goes through the {@link QuoteStore} chosen at startup from the REMOTE_DB flag
+ * (MongoDB, H2 or the local mmap log). Servlet stack only; the reactive stack is served by {@link ReactiveQuoteController}.
+ * Request handling logs at DEBUG only; errors are logged at ERROR. Writes are pushed to
+ * GET /api/quotes/stream subscribers through the {@link QuoteEventBroadcaster} and applied to the
+ * {@link QuoteSearchService} index.
  */
 @RestController
 @RequestMapping("/api")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class QuoteController {
     private static final Logger logger = LoggerFactory.getLogger(QuoteController.class);
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final int DEFAULT_SEARCH_LIMIT = 20;
+    private static final int MAX_SEARCH_LIMIT = 100;
+    private static final String TOO_LONG = "quote must be at most " + Quote.MAX_LENGTH + " characters";
 
-    @Autowired
-    private com.wizkhalubernetes.prometheus.QuoteMetricsService quoteMetricsService;
     @Autowired(required = false)
-    @org.springframework.beans.factory.annotation.Qualifier("mongoQuoteRepository")
-    private QuoteMongoRepository quoteMongoRepository;
+    private QuoteStore<?> quoteStore;
+    @org.springframework.beans.factory.annotation.Value("${REMOTE_DB:false}")
+    private String remoteDb;
+    @Autowired
+    private QuoteNumberAllocator quoteNumberAllocator;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private QuoteCache quoteCache;
+    @Autowired
+    private QuoteCacheCoherence quoteCacheCoherence;
+    @Autowired
+    private QuoteJsonCache quoteJsonCache;
+    @Autowired
+    private QuoteBulkWriter quoteBulkWriter;
+    @Autowired
+    private NodeInfoSampler nodeInfoSampler;
+    @Autowired
+    private QuoteEventBroadcaster quoteEventBroadcaster;
     @Autowired(required = false)
-    @org.springframework.beans.factory.annotation.Qualifier("h2QuoteRepository")
-    private QuoteH2Repository quoteJpaRepository;
+    private MongoHealthProber mongoHealthProber;
+    @Autowired
+    private QuoteSearchService quoteSearchService;
     @Autowired
-    private org.springframework.core.env.Environment env;
+    private ClientAddressResolver clientAddressResolver;
+    @org.springframework.beans.factory.annotation.Value("${quotes.search.engine:index}")
+    private String defaultSearchEngine;
+    @org.springframework.beans.factory.annotation.Value("${quotes.batch.max-items:1000}")
+    private int maxBatchItems;
+    @Autowired(required = false)
+    private QuoteWriteBehindBuffer quoteWriteBehindBuffer;
+    @org.springframework.beans.factory.annotation.Value("${quotes.write-behind.timeout:5s}")
+    private Duration writeBehindTimeout;
+
+    @PostConstruct
+    void registerEventSources() {
+        quoteEventBroadcaster.setDbStatusSource(this::getDbStatus);
+    }
 
     /**
      * Adds a new quote and captures the user's IP address from the HTTP request.
+     * In write-behind mode the quote is queued and written in the next micro-batch; a full queue
+     * answers 429 with Retry-After, and a batch still unwritten after quotes.write-behind.timeout
+     * answers 202 (the quote stays queued). Quotes longer than {@link Quote#MAX_LENGTH} characters get 400.
      *
      * @param payload JSON payload containing the quote text
      * @param request HttpServletRequest to extract user IP
@@ -47,206 +124,431 @@ public class QuoteController {
      */
     @PostMapping("/quotes")
     public ResponseEntity<?> addQuote(@RequestBody Map<String, String> payload, HttpServletRequest request) {
-        logger.info("addQuote called with payload: {}", payload);
-        boolean useMongo = Boolean.parseBoolean(env.getProperty("REMOTE_DB", "false"));
-        if (useMongo) {
-            if (quoteMongoRepository == null) {
-                logger.info("MongoDB repository unavailable in addQuote");
-                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
-                    .body(errorResponse("MongoDB connection unavailable at configured URL."));
+        if (quoteStore == null) {
+            return storeUnavailable();
+        }
+        if (tooLong(payload.get("quote"))) {
+            return ResponseEntity.badRequest().body(errorResponse(TOO_LONG));
+        }
+        if (quoteWriteBehindBuffer != null) {
+            return addQuoteWriteBehind(payload.get("quote"), request);
+        }
+        try {
+            return ResponseEntity.ok(saveQuote(quoteStore, payload.get("quote"), clientIp(request)));
+        } catch (DataAccessResourceFailureException e) {
+            return dbUnavailable(e);
+        } catch (Exception e) {
+            logger.error("Exception in addQuote: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(errorResponse("Failed to save quote: " + e.getMessage()));
+        }
+    }
+
+    private <T> T saveQuote(QuoteStore<T> store, String quoteText, String ip) {
+        T saved = store.save(store.newQuote(quoteText, Instant.now().toString(), ip, getNextQuoteNumber()));
+        int quoteNumber = store.quoteNumber(saved);
+        quoteCache.onQuoteSaved(saved, quoteNumber);
+        quoteCacheCoherence.quoteSaved(store.id(saved), quoteNumber);
+        quoteSearchService.quoteSaved(quoteNumber, quoteText);
+        quoteEventBroadcaster.quoteCreated(saved);
+        logger.debug("Saved quote {}", quoteNumber);
+        return saved;
+    }
+
+    /**
+     * Queues a quote in the write-behind buffer and waits for the micro-batch that stores it.
+     */
+    private ResponseEntity<?> addQuoteWriteBehind(String quoteText, HttpServletRequest request) {
+        CompletableFuture<QuoteBatchItemResult> pending;
+        try {
+            pending = quoteWriteBehindBuffer.submit(quoteText, Instant.now().toString(), clientIp(request));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body(errorResponse("Quote writes are paused: " + e.getMessage()));
+        }
+        if (pending == null) {
+            logger.warn("Write-behind queue full, rejecting addQuote");
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(errorResponse("Write queue full, retry later."));
+        }
+        // Registered before waiting so the bookkeeping runs on the flusher even if this request times out
+        CompletableFuture<QuoteBatchItemResult> written = pending.thenApply(result -> {
+            if (result.isCreated()) {
+                quoteWrittenBehind(result, quoteText);
             }
-            try {
-                String quoteText = payload.get("quote");
-                QuoteMongo quote = new QuoteMongo();
-                quote.setQuote(quoteText);
-                quote.setTimestamp(Instant.now().toString());
-                String ip = request.getHeader("X-Forwarded-For");
-                if (ip == null || ip.isEmpty()) {
-                    ip = request.getRemoteAddr();
-                }
-                quote.setIp(ip);
-                quote.setQuoteNumber(getNextQuoteNumber());
-                try {
-                    QuoteMongo saved = quoteMongoRepository.save(quote);
-                    quoteMetricsService.incrementMongoCreate();
-                    logger.info("Successfully saved quote to MongoDB: {}", saved);
-                    return ResponseEntity.ok(saved);
-                } catch (Exception e) {
-                    logger.error("Failed to save quote to MongoDB: {}", e.getMessage(), e);
-                    return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                        .body(errorResponse("Failed to save quote: " + e.getMessage()));
-                }
-            } catch (Exception e) {
-                logger.error("Exception in addQuote (Mongo): {}", e.getMessage(), e);
+            return result;
+        });
+        try {
+            QuoteBatchItemResult result = written.get(writeBehindTimeout.toMillis(), TimeUnit.MILLISECONDS);
+            if (!result.isCreated()) {
                 return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(errorResponse("Failed to save quote: " + e.getMessage()));
+                    .body(errorResponse("Failed to save quote: " + result.getError()));
             }
-        } else {
-            if (quoteJpaRepository == null) {
-                logger.info("H2/JPA repository unavailable in addQuote");
-                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
-                    .body(errorResponse("H2/JPA repository unavailable."));
+            return ResponseEntity.ok(result.getQuote());
+        } catch (TimeoutException e) {
+            logger.warn("Write-behind flush still pending after {}", writeBehindTimeout);
+            Map<String, String> body = new HashMap<>();
+            body.put("status", "pending");
+            body.put("message", "Quote is queued and will be stored once the write completes.");
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(body);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body(errorResponse("Interrupted waiting for quote write."));
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof DataAccessResourceFailureException outage) {
+                return dbUnavailable(outage);
             }
-            try {
-                String quoteText = payload.get("quote");
-                QuoteH2 quote = new QuoteH2();
-                quote.setQuote(quoteText);
-                quote.setTimestamp(Instant.now().toString());
-                String ip = request.getHeader("X-Forwarded-For");
-                if (ip == null || ip.isEmpty()) {
-                    ip = request.getRemoteAddr();
+            logger.error("Write-behind flush failed: {}", e.getCause().getMessage(), e.getCause());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(errorResponse("Failed to save quote: " + e.getCause().getMessage()));
+        }
+    }
+
+    /**
+     * Updates counters, caches, search and subscribers for a quote stored by the write-behind
+     * buffer. Runs on the flusher thread.
+     */
+    private void quoteWrittenBehind(QuoteBatchItemResult result, String quoteText) {
+        quoteStore.countCreated(1);
+        quoteCache.onQuoteSaved(result.getQuote(), result.getQuoteNumber());
+        quoteCacheCoherence.quoteSaved(result.getId(), result.getQuoteNumber());
+        quoteSearchService.quoteSaved(result.getQuoteNumber(), quoteText);
+        quoteEventBroadcaster.quoteCreated(result.getQuote());
+        logger.debug("Saved quote {} through write-behind buffer", result.getQuoteNumber());
+    }
+
+    /**
+     * Adds many quotes in one request. The body is either a JSON array or NDJSON (one object per
+     * line), each item shaped like the single-quote payload ({"quote": "..."}). Quote numbers for
+     * the whole batch are reserved as whole sequence blocks in one call, so numbers of a batch may
+     * skip ahead between blocks, and the quotes are written with one bulk write (unordered
+     * bulkWrite for Mongo, batched saveAll for H2).
+     *
+     * @param request HttpServletRequest carrying the body and the user IP
+     * @return ResponseEntity with counts and one result per item (200 when all were created,
+     *         207 otherwise), or error details
+     */
+    @PostMapping("/quotes/batch")
+    public ResponseEntity<?> addQuotes(HttpServletRequest request) {
+        if (quoteStore == null) {
+            return storeUnavailable();
+        }
+        List<JsonNode> items = new ArrayList<>();
+        try (MappingIterator<JsonNode> it = objectMapper.readerFor(JsonNode.class).readValues(request.getInputStream())) {
+            while (it.hasNextValue()) {
+                if (items.size() == maxBatchItems) {
+                    return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE)
+                        .body(errorResponse("Batch exceeds " + maxBatchItems + " quotes"));
                 }
-                quote.setIp(ip);
-                quote.setQuoteNumber(getNextQuoteNumber());
-                QuoteH2 saved = quoteJpaRepository.save(quote);
-                quoteMetricsService.incrementH2Create();
-                logger.info("Successfully saved quote to H2: {}", saved);
-                return ResponseEntity.ok(saved);
-            } catch (Exception e) {
-                logger.error("Exception in addQuote (H2): {}", e.getMessage(), e);
-                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(errorResponse("Failed to save quote: " + e.getMessage()));
+                items.add(it.nextValue());
             }
+        } catch (JsonProcessingException e) {
+            return ResponseEntity.badRequest().body(errorResponse("Malformed batch body: " + e.getOriginalMessage()));
+        } catch (IOException e) {
+            logger.error("Failed to read batch body: {}", e.getMessage(), e);
+            return ResponseEntity.badRequest().body(errorResponse("Failed to read batch body: " + e.getMessage()));
         }
-    }
 
-    @GetMapping("/quotes/latest")
-    public ResponseEntity<?> getLatestQuote() {
-        logger.info("getLatestQuote called");
-        boolean useMongo = Boolean.parseBoolean(env.getProperty("REMOTE_DB", "false"));
-        if (useMongo) {
-            if (quoteMongoRepository == null) {
-                logger.info("MongoDB repository unavailable in getLatestQuote");
-                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
-                    .body(errorResponse("MongoDB connection unavailable at configured URL."));
+        QuoteBatchItemResult[] results = new QuoteBatchItemResult[items.size()];
+        List<Integer> positions = new ArrayList<>(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            JsonNode text = items.get(i).get("quote");
+            if (text == null || !text.isTextual() || text.asText().isBlank()) {
+                results[i] = QuoteBatchItemResult.rejected(i, "quote is required");
+            } else if (tooLong(text.asText())) {
+                results[i] = QuoteBatchItemResult.rejected(i, TOO_LONG);
+            } else {
+                positions.add(i);
             }
-            try {
-                long count = quoteMongoRepository.count();
-                logger.info("MongoDB quote count: {}", count);
-                if (count == 0) {
-                    logger.info("No quotes found in MongoDB");
-                    return ResponseEntity.ok().body(null);
+        }
+        try {
+            if (!positions.isEmpty()) {
+                String timestamp = Instant.now().toString();
+                String ip = clientIp(request);
+                long[] numbers = quoteNumberAllocator.reserve(positions.size());
+                List<NewQuote> quotes = new ArrayList<>(positions.size());
+                for (int i = 0; i < positions.size(); i++) {
+                    quotes.add(new NewQuote(items.get(positions.get(i)).get("quote").asText(), timestamp, ip,
+                        Math.toIntExact(numbers[i])));
                 }
-                QuoteMongo latest = null;
-                try {
-                    latest = quoteMongoRepository.findAll()
-                        .stream()
-                        .max((a, b) -> Integer.compare(a.getQuoteNumber(), b.getQuoteNumber()))
-                        .orElse(null);
-                    quoteMetricsService.incrementMongoRead();
-                    logger.info("Fetched latest quote from MongoDB: {}", latest);
-                } catch (Exception e) {
-                    logger.error("Failed to fetch latest quote from MongoDB: {}", e.getMessage(), e);
-                    return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                        .body(errorResponse("Failed to fetch latest quote: " + e.getMessage()));
+                List<QuoteBatchItemResult> written = quoteBulkWriter.insertAll(quotes);
+                QuoteBatchItemResult newest = null;
+                for (int i = 0; i < written.size(); i++) {
+                    QuoteBatchItemResult result = written.get(i);
+                    result.setIndex(positions.get(i));
+                    results[positions.get(i)] = result;
+                    if (result.isCreated()) {
+                        newest = result;
+                        quoteSearchService.quoteSaved(result.getQuoteNumber(), quotes.get(i).getQuote());
+                    }
                 }
-                return ResponseEntity.ok(latest);
-            } catch (DataAccessResourceFailureException ex) {
-                logger.error("MongoDB connection unavailable: {}", ex.getMessage(), ex);
-                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
-                    .body(errorResponse("MongoDB connection unavailable at configured URL."));
-            } catch (Exception ex) {
-                logger.error("Unexpected error during MongoDB read: {}", ex.getMessage(), ex);
-                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(errorResponse("Unexpected error: " + ex.getMessage()));
-            }
-        } else {
-            if (quoteJpaRepository == null) {
-                logger.info("H2/JPA repository unavailable in getLatestQuote");
-                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
-                    .body(errorResponse("H2/JPA repository unavailable."));
-            }
-            try {
-                long count = quoteJpaRepository.count();
-                logger.info("H2 quote count: {}", count);
-                if (count == 0) {
-                    logger.info("No quotes found in H2");
-                    return ResponseEntity.ok().body(null);
+                if (newest != null) {
+                    int created = (int) written.stream().filter(QuoteBatchItemResult::isCreated).count();
+                    quoteStore.countCreated(created);
+                    quoteCache.onQuoteSaved(newest.getQuote(), newest.getQuoteNumber());
+                    quoteCacheCoherence.quoteSaved(newest.getId(), newest.getQuoteNumber());
+                    quoteEventBroadcaster.quotesCreated(created);
                 }
-                QuoteH2 latest = quoteJpaRepository.findAll()
-                    .stream()
-                    .max((a, b) -> Integer.compare(a.getQuoteNumber(), b.getQuoteNumber()))
-                    .orElse(null);
-                quoteMetricsService.incrementH2Read();
-                logger.info("Fetched latest quote from H2: {}", latest);
-                return ResponseEntity.ok(latest);
-            } catch (Exception e) {
-                logger.error("Exception in getLatestQuote (H2): {}", e.getMessage(), e);
-                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(errorResponse("Failed to fetch latest quote: " + e.getMessage()));
+            }
+        } catch (MongoUnavailableException e) {
+            return dbUnavailable(e);
+        } catch (DataAccessResourceFailureException e) {
+            logger.error("DB unavailable in addQuotes: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body(errorResponse("Failed to save quotes: " + e.getMessage()));
+        } catch (Exception e) {
+            logger.error("Exception in addQuotes: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(errorResponse("Failed to save quotes: " + e.getMessage()));
+        }
+
+        int created = 0;
+        for (QuoteBatchItemResult result : results) {
+            if (result.isCreated()) {
+                created++;
             }
         }
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("created", created);
+        body.put("failed", results.length - created);
+        body.put("results", List.of(results));
+        logger.debug("addQuotes stored {} of {} quotes", created, results.length);
+        return ResponseEntity.status(created == results.length ? HttpStatus.OK : HttpStatus.MULTI_STATUS).body(body);
     }
 
     /**
-     * Returns all quotes from the active DB (H2 or Mongo).
+     * Returns the quote with the highest quote number from the active DB (H2 or Mongo).
+     * Served from the quote cache; on a miss it is resolved with a single top-1 query against the
+     * quoteNumber index. The body is the quote's pre-encoded JSON (see {@link QuoteJsonCache}).
+     */
+    @GetMapping("/quotes/latest")
+    public ResponseEntity<?> getLatestQuote() {
+        if (quoteStore == null) {
+            return storeUnavailable();
+        }
+        try {
+            return latestJson(quoteStore);
+        } catch (DataAccessResourceFailureException e) {
+            return dbUnavailable(e);
+        } catch (Exception e) {
+            logger.error("Exception in getLatestQuote: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(errorResponse("Failed to fetch latest quote: " + e.getMessage()));
+        }
+    }
+
+    private <T> ResponseEntity<?> latestJson(QuoteStore<T> store) throws IOException {
+        T latest = quoteCache.getLatest(store::findLatest, store::quoteNumber);
+        if (latest == null) {
+            return ResponseEntity.ok().build();
+        }
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON)
+            .body(quoteJsonCache.encode(store.id(latest), latest));
+    }
+
+    /**
+     * Returns quotes from the active DB (H2 or Mongo), ordered by quote number.
+     * With "after" and/or "limit" a keyset page with a next cursor is returned; without them the
+     * full list is streamed from a DB cursor as a JSON array, never buffered in memory. Both are
+     * assembled from the quotes' pre-encoded JSON (see {@link QuoteJsonCache}).
+     * <p>
+     * With "since", "until" and/or "ip" only the quotes submitted in [since, until) (from that IP)
+     * are returned, as keyset pages ordered by submission time and served by the compound time and
+     * address indexes. These pages are not cached, and are not available with REMOTE_DB=local-mmap.
+     *
+     * @param after cursor returned as nextCursor by the previous page (omit for the first page)
+     * @param limit page size (default 50, max 500)
+     * @param since ISO-8601 instant, inclusive lower bound of the submission time
+     * @param until ISO-8601 instant, exclusive upper bound of the submission time
+     * @param ip IPv4 or IPv6 address of the submitter
+     * @param response servlet response the full list is streamed to
+     * @return ResponseEntity with a QuotePage or error details; null once the full list has been streamed
      */
     @GetMapping("/quotes")
-    public ResponseEntity<?> getAllQuotes() {
-        logger.info("getAllQuotes called");
-        boolean useMongo = Boolean.parseBoolean(env.getProperty("REMOTE_DB", "false"));
-        if (useMongo) {
-            if (quoteMongoRepository == null) {
-                logger.info("MongoDB repository unavailable in getAllQuotes");
-                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
-                    .body(errorResponse("MongoDB connection unavailable at configured URL."));
-            }
-            try {
-                quoteMetricsService.incrementMongoRead();
-                logger.info("Fetched all quotes from MongoDB");
-                return ResponseEntity.ok(quoteMongoRepository.findAll());
-            } catch (Exception e) {
-                logger.error("Exception in getAllQuotes (Mongo): {}", e.getMessage(), e);
-                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(errorResponse("Failed to fetch quotes: " + e.getMessage()));
-            }
-        } else {
-            if (quoteJpaRepository == null) {
-                logger.info("H2/JPA repository unavailable in getAllQuotes");
-                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
-                    .body(errorResponse("H2/JPA repository unavailable."));
-            }
-            try {
-                quoteMetricsService.incrementH2Read();
-                logger.info("Fetched all quotes from H2");
-                return ResponseEntity.ok(quoteJpaRepository.findAll());
-            } catch (Exception e) {
-                logger.error("Exception in getAllQuotes (H2): {}", e.getMessage(), e);
-                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(errorResponse("Failed to fetch quotes: " + e.getMessage()));
-            }
+    public ResponseEntity<?> getAllQuotes(@RequestParam(value = "after", required = false) String after,
+                                          @RequestParam(value = "limit", required = false) Integer limit,
+                                          @RequestParam(value = "since", required = false) String since,
+                                          @RequestParam(value = "until", required = false) String until,
+                                          @RequestParam(value = "ip", required = false) String ip,
+                                          HttpServletResponse response) {
+        boolean filtered = since != null || until != null || ip != null;
+        if (after == null && limit == null && !filtered) {
+            return streamQuotes(false, response);
+        }
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : limit;
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            return ResponseEntity.badRequest()
+                .body(errorResponse("limit must be between 1 and " + MAX_PAGE_SIZE));
+        }
+        Long from = since == null ? Long.valueOf(Long.MIN_VALUE) : QuoteCodec.epochMillis(since);
+        Long to = until == null ? Long.valueOf(Long.MAX_VALUE) : QuoteCodec.epochMillis(until);
+        if (from == null || to == null) {
+            return ResponseEntity.badRequest().body(errorResponse("since and until must be ISO-8601 instants"));
+        }
+        if (from > to) {
+            return ResponseEntity.badRequest().body(errorResponse("since must not be after until"));
+        }
+        byte[] ipAddress = ip == null ? null : QuoteCodec.address(ip);
+        if (ip != null && ipAddress == null) {
+            return ResponseEntity.badRequest().body(errorResponse("ip must be an IPv4 or IPv6 address"));
+        }
+        if (quoteStore == null) {
+            return storeUnavailable();
+        }
+        try {
+            return filtered ? rangeJson(quoteStore, ipAddress, from, to, after, pageSize)
+                : pageJson(quoteStore, after, pageSize);
+        } catch (UnsupportedOperationException e) {
+            return ResponseEntity.badRequest().body(errorResponse(e.getMessage()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(errorResponse("Invalid cursor: " + after));
+        } catch (DataAccessResourceFailureException e) {
+            return dbUnavailable(e);
+        } catch (Exception e) {
+            logger.error("Exception in getAllQuotes: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(errorResponse("Failed to fetch quotes: " + e.getMessage()));
+        }
+    }
+
+    private <T> ResponseEntity<?> pageJson(QuoteStore<T> store, String after, int pageSize) throws IOException {
+        if (store.listsMayLag()) {
+            // A page from a lagging replica may miss this node's own writes; caching would keep it so for the TTL
+            return pageJson(store, store.findPageAfter(after, pageSize));
+        }
+        return pageJson(store, quoteCache.getPage(after + "|" + pageSize, () -> store.findPageAfter(after, pageSize)));
+    }
+
+    private <T> ResponseEntity<?> rangeJson(QuoteStore<T> store, byte[] ipAddress, long since, long until,
+                                            String after, int pageSize) throws IOException {
+        return pageJson(store, store.findCreatedBetween(ipAddress, since, until, after, pageSize));
+    }
+
+    private <T> ResponseEntity<?> pageJson(QuoteStore<T> store, QuotePage<T> page) throws IOException {
+        byte[] json = QuoteJsonStreams.page(quote -> quoteJsonCache.encode(store.id(quote), quote), page.getItems(),
+            objectMapper.writeValueAsBytes(page.getNextCursor()));
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(json);
+    }
+
+    /**
+     * Streams all quotes as newline-delimited JSON (one quote per line) straight from a DB cursor.
+     * Selected with GET /api/quotes?format=ndjson.
+     *
+     * @param response servlet response the quotes are streamed to
+     * @return error details, or null once the quotes have been streamed
+     */
+    @GetMapping(value = "/quotes", params = "format=ndjson")
+    public ResponseEntity<?> streamAllQuotes(HttpServletResponse response) {
+        return streamQuotes(true, response);
+    }
+
+    /**
+     * Writes all quotes of the active DB straight to the servlet output stream while iterating a
+     * DB cursor, so memory use does not grow with collection size. Returns null when the response
+     * has been written (Spring treats a null ResponseEntity as already handled).
+     */
+    private ResponseEntity<?> streamQuotes(boolean ndjson, HttpServletResponse response) {
+        if (quoteStore == null) {
+            return storeUnavailable();
+        }
+        try {
+            streamAll(quoteStore, ndjson, response);
+            return null;
+        } catch (IOException e) {
+            logger.debug("Client aborted quote stream: {}", e.getMessage());
+            return null;
+        } catch (DataAccessResourceFailureException e) {
+            return dbUnavailable(e);
+        } catch (Exception e) {
+            logger.error("Exception in getAllQuotes: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(errorResponse("Failed to fetch quotes: " + e.getMessage()));
         }
     }
 
+    private <T> void streamAll(QuoteStore<T> store, boolean ndjson, HttpServletResponse response) throws IOException {
+        String contentType = ndjson ? QuoteJsonStreams.NDJSON : MediaType.APPLICATION_JSON_VALUE;
+        store.streamAll((quotes, afterWrite) -> {
+            response.setContentType(contentType);
+            QuoteJsonStreams.write(quote -> quoteJsonCache.encode(store.id(quote), quote), quotes,
+                response.getOutputStream(), ndjson, afterWrite);
+        });
+    }
+
+    /**
+     * Full-text search over quote text, best match first.
+     * engine=index (default, see quotes.search.engine) answers from this node's in-memory inverted
+     * index: all terms must match, "term*" matches by prefix, and hits are ranked by term frequency,
+     * newest first on ties; only the hits are loaded from the DB. engine=mongo delegates to the
+     * MongoDB text index ($text, ranked by textScore) and is only available with REMOTE_DB=true.
+     *
+     * @param q search terms
+     * @param limit maximum number of quotes (default 20, max 100)
+     * @param engine "index" or "mongo" (omit for quotes.search.engine)
+     * @return ResponseEntity with a QuoteSearchResult or error details
+     */
+    @GetMapping("/quotes/search")
+    public ResponseEntity<?> searchQuotes(@RequestParam("q") String q,
+                                          @RequestParam(value = "limit", required = false) Integer limit,
+                                          @RequestParam(value = "engine", required = false) String engine) {
+        int size = limit == null ? DEFAULT_SEARCH_LIMIT : limit;
+        if (size < 1 || size > MAX_SEARCH_LIMIT) {
+            return ResponseEntity.badRequest()
+                .body(errorResponse("limit must be between 1 and " + MAX_SEARCH_LIMIT));
+        }
+        String selected = engine == null ? defaultSearchEngine : engine;
+        if (!"index".equals(selected) && !"mongo".equals(selected)) {
+            return ResponseEntity.badRequest().body(errorResponse("engine must be index or mongo"));
+        }
+        if (quoteStore == null) {
+            return storeUnavailable();
+        }
+        try {
+            return ResponseEntity.ok("mongo".equals(selected)
+                ? new QuoteSearchResult<>(selected, null, quoteStore.searchText(q, size))
+                : searchIndex(quoteStore, q, size));
+        } catch (IllegalArgumentException | UnsupportedOperationException e) {
+            return ResponseEntity.badRequest().body(errorResponse(e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "5")
+                .body(errorResponse(e.getMessage()));
+        } catch (DataAccessResourceFailureException e) {
+            return dbUnavailable(e);
+        } catch (Exception e) {
+            logger.error("Exception in searchQuotes: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(errorResponse("Failed to search quotes: " + e.getMessage()));
+        }
+    }
+
+    private <T> QuoteSearchResult<T> searchIndex(QuoteStore<T> store, String q, int limit) {
+        QuoteSearchIndex.Hits hits = quoteSearchService.search(q, limit);
+        List<T> items = hits.quoteNumbers().length == 0 ? List.of() : store.findByQuoteNumbers(hits.quoteNumbers());
+        return new QuoteSearchResult<>("index", hits.total(), items);
+    }
+
     /**
      * Deletes a quote by ID from the active DB (H2 or Mongo).
      */
     @DeleteMapping("/quotes/{id}")
     public ResponseEntity<?> deleteQuote(@PathVariable("id") String id) {
-        logger.info("deleteQuote called with id: {}", id);
-        boolean useMongo = Boolean.parseBoolean(env.getProperty("REMOTE_DB", "false"));
+        if (quoteStore == null) {
+            return storeUnavailable();
+        }
         try {
-            if (useMongo) {
-                if (quoteMongoRepository == null) {
-                    logger.info("MongoDB repository unavailable in deleteQuote");
-                    return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
-                        .body(errorResponse("MongoDB connection unavailable at configured URL."));
-                }
-                quoteMongoRepository.deleteById(id);
-                quoteMetricsService.incrementMongoDelete();
-                logger.info("Deleted quote from MongoDB with id: {}", id);
-                return ResponseEntity.ok().body("Deleted");
-            } else {
-                if (quoteJpaRepository == null) {
-                    logger.info("H2/JPA repository unavailable in deleteQuote");
-                    return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
-                        .body(errorResponse("H2/JPA repository unavailable."));
-                }
-                quoteJpaRepository.deleteById(Long.parseLong(id));
-                quoteMetricsService.incrementH2Delete();
-                logger.info("Deleted quote from H2 with id: {}", id);
-                return ResponseEntity.ok().body("Deleted");
-            }
+            int quoteNumber = quoteStore.deleteById(id);
+            quoteSearchService.quoteDeleted(quoteNumber);
+            quoteCache.onQuoteDeleted();
+            quoteJsonCache.evict(id);
+            quoteCacheCoherence.quoteDeleted(id);
+            quoteEventBroadcaster.quoteDeleted(id);
+            logger.debug("Deleted quote {}", id);
+            return ResponseEntity.ok().body("Deleted");
+        } catch (DataAccessResourceFailureException e) {
+            return dbUnavailable(e);
         } catch (Exception e) {
             logger.error("Exception in deleteQuote: {}", e.getMessage(), e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -254,73 +556,103 @@ public class QuoteController {
         }
     }
 
+    /**
+     * Streams quote events as server-sent events (text/event-stream): quote-created, quote-deleted,
+     * quotes-batch-created, plus nodeinfo and dbstatus changes, so clients need not poll. The stream
+     * ends after quotes.events.timeout and EventSource reconnects; clients too slow to keep up are
+     * disconnected. Events cover writes made through this node only.
+     */
+    @GetMapping(value = "/quotes/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamQuoteEvents(HttpServletResponse response) {
+        // Keep reverse proxies (nginx ingress) from buffering the stream
+        response.setHeader("X-Accel-Buffering", "no");
+        return QuoteEventStreams.sseEmitter(quoteEventBroadcaster);
+    }
+
+    /**
+     * Returns node/system info from the background sampler's snapshot: pre-serialized JSON with
+     * an ETag, or 304 when If-None-Match already matches it.
+     */
     @GetMapping("/nodeinfo")
-    public Map<String, Object> getNodeInfo() {
-        logger.info("getNodeInfo called");
-        Map<String, Object> info = new HashMap<>();
-        info.put("hostname", getHostName());
-        info.put("app", "Wiz Khalubernetes");
-        info.put("os.name", System.getProperty("os.name"));
-        info.put("os.version", System.getProperty("os.version"));
-        info.put("os.arch", System.getProperty("os.arch"));
-        info.put("availableProcessors", Runtime.getRuntime().availableProcessors());
-        info.put("maxMemoryMB", Runtime.getRuntime().maxMemory() / (1024 * 1024));
-        info.put("totalMemoryMB", Runtime.getRuntime().totalMemory() / (1024 * 1024));
-        info.put("freeMemoryMB", Runtime.getRuntime().freeMemory() / (1024 * 1024));
-        info.put("timestamp", Instant.now().toString());
-        // Add more Docker/container-specific info if needed
-        return info;
+    public ResponseEntity<byte[]> getNodeInfo(@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return nodeInfoSampler.response(ifNoneMatch);
     }
 
     /**
-     * Returns the current DB status (H2 or Mongo) for frontend UX.
+     * Returns the current DB status (H2 or Mongo) for frontend UX. For MongoDB, "connected" is the
+     * result of the last background ping, not just whether the repository bean exists.
      */
     @GetMapping("/dbstatus")
     public Map<String, String> getDbStatus() {
-        logger.info("getDbStatus called");
-        boolean useMongo = Boolean.parseBoolean(env.getProperty("REMOTE_DB", "false"));
         Map<String, String> status = new HashMap<>();
-        if (useMongo) {
-            status.put("type", "MongoDB");
-            status.put("connected", quoteMongoRepository != null ? "true" : "false");
-            status.put("message", quoteMongoRepository != null ? "Connected to MongoDB" : "MongoDB repository unavailable");
-        } else {
-            status.put("type", "H2");
-            status.put("connected", quoteJpaRepository != null ? "true" : "false");
-            status.put("message", quoteJpaRepository != null ? "Connected to H2" : "H2 repository unavailable");
+        String dbType = quoteStore != null ? quoteStore.type() : configuredDbType();
+        status.put("type", dbType);
+        if (quoteStore != null && mongoHealthProber != null) {
+            boolean up = mongoHealthProber.isUp();
+            status.put("connected", Boolean.toString(up));
+            status.put("circuitBreaker", mongoHealthProber.breaker().state().name());
+            status.put("message", up ? "Connected to MongoDB" : "MongoDB not reachable");
+            return status;
         }
+        status.put("connected", quoteStore != null ? "true" : "false");
+        status.put("message", quoteStore != null ? "Connected to " + dbType : dbType + " repository unavailable");
         return status;
     }
 
+    private ResponseEntity<?> storeUnavailable() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+            .body(errorResponse(quoteStore != null ? quoteStore.unavailableMessage()
+                : "true".equalsIgnoreCase(remoteDb) ? "MongoDB connection unavailable at configured URL."
+                : "local-mmap".equalsIgnoreCase(remoteDb) ? "Local mmap quote log unavailable."
+                : "H2/JPA repository unavailable."));
+    }
+
+    /**
+     * Names the backend selected by REMOTE_DB, for when its quote store could not be created.
+     */
+    private String configuredDbType() {
+        return "true".equalsIgnoreCase(remoteDb) ? "MongoDB" : "local-mmap".equalsIgnoreCase(remoteDb) ? "Local mmap" : "H2";
+    }
+
+    /**
+     * 503 for a database that cannot be reached. Calls rejected by the open circuit breaker carry
+     * Retry-After and are not logged at ERROR: they are expected while MongoDB is down.
+     */
+    private ResponseEntity<?> dbUnavailable(DataAccessResourceFailureException e) {
+        if (e instanceof MongoUnavailableException open) {
+            logger.debug("Rejected by circuit breaker: {}", open.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(open.getRetryAfterSeconds()))
+                .body(errorResponse(open.getMessage()));
+        }
+        logger.error("{} connection unavailable: {}", quoteStore.type(), e.getMessage(), e);
+        return storeUnavailable();
+    }
+
     private Map<String, String> errorResponse(String msg) {
-        logger.info("errorResponse called with msg: {}", msg);
         Map<String, String> err = new HashMap<>();
         err.put("error", msg);
         return err;
     }
 
-    private String getHostName() {
-        logger.info("getHostName called");
-        try {
-            return InetAddress.getLocalHost().getHostName();
-        } catch (Exception e) {
-            logger.error("Exception in getHostName: {}", e.getMessage(), e);
-            return "unknown";
-        }
+    /**
+     * Returns true if the quote text is over the stored length bound.
+     */
+    private static boolean tooLong(String quote) {
+        return quote != null && quote.length() > Quote.MAX_LENGTH;
     }
 
     /**
-     * Returns the next quote number based on the active DB.
+     * Returns the client IP: the remote address, or the one a trusted proxy forwarded.
+     */
+    private String clientIp(HttpServletRequest request) {
+        return clientAddressResolver.resolve(request);
+    }
+
+    /**
+     * Returns the next quote number from the block sequence allocator (no count query).
      */
     private int getNextQuoteNumber() {
-        logger.info("getNextQuoteNumber called");
-        boolean useMongo = Boolean.parseBoolean(env.getProperty("REMOTE_DB", "false"));
-        if (useMongo && quoteMongoRepository != null) {
-            return (int) (quoteMongoRepository.count() + 1);
-        } else if (quoteJpaRepository != null) {
-            return (int) (quoteJpaRepository.count() + 1);
-        } else {
-            return 1;
-        }
+        return Math.toIntExact(quoteNumberAllocator.next());
     }
 }
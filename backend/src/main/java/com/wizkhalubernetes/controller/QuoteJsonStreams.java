@@ -0,0 +1,106 @@
+package com.wizkhalubernetes.controller;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Assembles quote responses from per-quote JSON encodings (see QuoteJsonCache) by copying bytes:
+ * a stream of quotes is written one element at a time, either as a JSON array or as
+ * newline-delimited JSON, so the full result is never buffered in memory; pages are concatenated
+ * into one array. The output is byte-for-byte what the ObjectMapper writes for the same values.
+ */
+final class QuoteJsonStreams {
+    static final String NDJSON = "application/x-ndjson";
+    private static final int FLUSH_EVERY = 256;
+    private static final int BUFFER_SIZE = 16 * 1024;
+    private static final byte[] PAGE_START = "{\"items\":[".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] PAGE_CURSOR = "],\"nextCursor\":".getBytes(StandardCharsets.UTF_8);
+
+    /**
+     * Returns the JSON encoding of one quote.
+     * @param <T> quote entity type
+     */
+    @FunctionalInterface
+    interface Encoder<T> {
+        byte[] encode(T quote) throws IOException;
+    }
+
+    private QuoteJsonStreams() {
+    }
+
+    /**
+     * Copies the encoding of each element of the stream to the output.
+     * @param encoder per-quote JSON encoding
+     * @param quotes quotes to write (not closed by this method)
+     * @param out target output stream (not closed by this method)
+     * @param ndjson true for one JSON object per line, false for a JSON array
+     * @param afterWrite callback invoked with each element once written (e.g. to detach JPA entities)
+     * @throws IOException if encoding or writing fails
+     */
+    static <T> void write(Encoder<? super T> encoder, Stream<T> quotes, OutputStream out, boolean ndjson,
+                          Consumer<? super T> afterWrite) throws IOException {
+        BufferedOutputStream buffer = new BufferedOutputStream(out, BUFFER_SIZE);
+        if (!ndjson) {
+            buffer.write('[');
+        }
+        int written = 0;
+        for (Iterator<T> it = quotes.iterator(); it.hasNext(); ) {
+            T quote = it.next();
+            if (!ndjson && written > 0) {
+                buffer.write(',');
+            }
+            buffer.write(encoder.encode(quote));
+            if (ndjson) {
+                buffer.write('\n');
+            }
+            afterWrite.accept(quote);
+            if (++written % FLUSH_EVERY == 0) {
+                buffer.flush();
+            }
+        }
+        if (!ndjson) {
+            buffer.write(']');
+        }
+        buffer.flush();
+    }
+
+    /**
+     * Builds a keyset page, {"items":[...],"nextCursor":...}.
+     * @param encoder per-quote JSON encoding
+     * @param items quotes on the page
+     * @param nextCursor JSON encoding of the next cursor (a string or null)
+     * @return UTF-8 JSON of the page
+     * @throws IOException if encoding fails
+     */
+    static <T> byte[] page(Encoder<? super T> encoder, List<T> items, byte[] nextCursor) throws IOException {
+        byte[][] parts = new byte[items.size()][];
+        int size = PAGE_START.length + Math.max(0, parts.length - 1) + PAGE_CURSOR.length + nextCursor.length + 1;
+        for (int i = 0; i < parts.length; i++) {
+            parts[i] = encoder.encode(items.get(i));
+            size += parts[i].length;
+        }
+        byte[] page = new byte[size];
+        int pos = copy(PAGE_START, page, 0);
+        for (int i = 0; i < parts.length; i++) {
+            if (i > 0) {
+                page[pos++] = ',';
+            }
+            pos = copy(parts[i], page, pos);
+        }
+        pos = copy(PAGE_CURSOR, page, pos);
+        pos = copy(nextCursor, page, pos);
+        page[pos] = '}';
+        return page;
+    }
+
+    private static int copy(byte[] src, byte[] dest, int pos) {
+        System.arraycopy(src, 0, dest, pos, src.length);
+        return pos + src.length;
+    }
+}
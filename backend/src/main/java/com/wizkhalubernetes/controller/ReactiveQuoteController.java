@@ -0,0 +1,366 @@
+// Reactive REST API controller for quote operations and node info (WebFlux stack)
+package com.wizkhalubernetes.controller;
+
+import com.wizkhalubernetes.events.QuoteEventBroadcaster;
+import com.wizkhalubernetes.events.QuoteEventStreams;
+import com.wizkhalubernetes.health.MongoHealthProber;
+import com.wizkhalubernetes.health.MongoUnavailableException;
+import com.wizkhalubernetes.model.QuotePage;
+import com.wizkhalubernetes.model.QuoteSearchResult;
+import com.wizkhalubernetes.model.Quote;
+import com.wizkhalubernetes.model.QuoteCodec;
+import com.wizkhalubernetes.model.mongo.QuoteMongo;
+import com.wizkhalubernetes.nodeinfo.NodeInfoSampler;
+import com.wizkhalubernetes.prometheus.QuoteMetricsService;
+import com.wizkhalubernetes.ratelimit.ClientAddressResolver;
+import com.wizkhalubernetes.repository.reactive.QuoteReactiveMongoRepository;
+import com.wizkhalubernetes.sequence.QuoteNumberAllocator;
+import com.wizkhalubernetes.store.QuoteCursors;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Range;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import jakarta.annotation.PostConstruct;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Non-blocking REST API controller for quote operations and node/application info endpoints.
+ * Serves the same contracts and response shapes as {@link QuoteController} from reactive MongoDB
+ * repositories; active when the app runs on WebFlux (REMOTE_DB=true and REACTIVE=true).
+ * Request handling logs at DEBUG only; errors are logged at ERROR.
+ */
+@RestController
+@RequestMapping("/api")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveQuoteController {
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveQuoteController.class);
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final int DEFAULT_SEARCH_LIMIT = 20;
+    private static final int MAX_SEARCH_LIMIT = 100;
+    private static final ObjectId MIN_OBJECT_ID = new ObjectId("000000000000000000000000");
+    private static final String MONGO_UNAVAILABLE = "MongoDB connection unavailable at configured URL.";
+
+    @Autowired
+    private QuoteMetricsService quoteMetricsService;
+    @Autowired(required = false)
+    @Qualifier("quoteReactiveMongoRepository")
+    private QuoteReactiveMongoRepository quoteRepository;
+    // Serves the list queries when quotes.mongo.client.list-read-preference is set
+    @Autowired(required = false)
+    @Qualifier("listQuoteReactiveRepository")
+    private QuoteReactiveMongoRepository listRepository;
+    @Autowired
+    private QuoteNumberAllocator quoteNumberAllocator;
+    @Autowired
+    private NodeInfoSampler nodeInfoSampler;
+    @Autowired
+    private QuoteEventBroadcaster quoteEventBroadcaster;
+    @Autowired(required = false)
+    private MongoHealthProber mongoHealthProber;
+    @Autowired
+    private ClientAddressResolver clientAddressResolver;
+
+    @PostConstruct
+    void registerEventSources() {
+        quoteEventBroadcaster.setDbStatusSource(this::dbStatus);
+    }
+
+    /**
+     * Adds a new quote and captures the user's IP address from the HTTP request.
+     * The quote number usually comes from the local block; a block refill is a blocking DB call and
+     * runs on the bounded elastic scheduler. Quotes longer than {@link Quote#MAX_LENGTH} characters get 400.
+     *
+     * @param payload JSON payload containing the quote text
+     * @param request request to extract the user IP from
+     * @return saved quote or error details
+     */
+    @PostMapping("/quotes")
+    public Mono<ResponseEntity<?>> addQuote(@RequestBody Map<String, String> payload, ServerHttpRequest request) {
+        if (quoteRepository == null) {
+            return error(HttpStatus.SERVICE_UNAVAILABLE, MONGO_UNAVAILABLE);
+        }
+        String text = payload.get("quote");
+        if (text != null && text.length() > Quote.MAX_LENGTH) {
+            return error(HttpStatus.BAD_REQUEST, "quote must be at most " + Quote.MAX_LENGTH + " characters");
+        }
+        QuoteMongo quote = new QuoteMongo();
+        quote.setQuote(text);
+        quote.setTimestamp(Instant.now().toString());
+        quote.setIp(clientIp(request));
+        return Mono.fromCallable(() -> Math.toIntExact(quoteNumberAllocator.next()))
+            .subscribeOn(Schedulers.boundedElastic())
+            .flatMap(quoteNumber -> {
+                quote.setQuoteNumber(quoteNumber);
+                return quoteRepository.save(quote);
+            })
+            .<ResponseEntity<?>>map(saved -> {
+                quoteMetricsService.incrementMongoCreate();
+                quoteEventBroadcaster.quoteCreated(saved);
+                logger.debug("Saved quote {}", saved.getQuoteNumber());
+                return ResponseEntity.ok(saved);
+            })
+            .onErrorResume(e -> failure(e, "Failed to save quote: "));
+    }
+
+    /**
+     * Returns the quote with the highest quote number (single top-1 query on the quoteNumber index).
+     */
+    @GetMapping("/quotes/latest")
+    public Mono<ResponseEntity<?>> getLatestQuote() {
+        if (quoteRepository == null) {
+            return error(HttpStatus.SERVICE_UNAVAILABLE, MONGO_UNAVAILABLE);
+        }
+        quoteMetricsService.incrementMongoRead();
+        return quoteRepository.findTopByOrderByQuoteNumberDesc()
+            .<ResponseEntity<?>>map(ResponseEntity::ok)
+            .defaultIfEmpty(ResponseEntity.ok().build())
+            .onErrorResume(e -> failure(e, "Failed to fetch latest quote: "));
+    }
+
+    /**
+     * Returns all quotes ordered by quote number as a JSON array. Documents are pulled from the DB
+     * cursor only as fast as the client reads the response (backpressure), never buffered in full.
+     */
+    @GetMapping(value = "/quotes", params = {"!after", "!limit", "!format", "!since", "!until", "!ip"}, produces = MediaType.APPLICATION_JSON_VALUE)
+    public Flux<QuoteMongo> getAllQuotes() {
+        return streamQuotes();
+    }
+
+    /**
+     * Streams all quotes as newline-delimited JSON (one quote per line), with backpressure.
+     * Selected with GET /api/quotes?format=ndjson.
+     */
+    @GetMapping(value = "/quotes", params = "format=ndjson", produces = QuoteJsonStreams.NDJSON)
+    public Flux<QuoteMongo> streamAllQuotes() {
+        return streamQuotes();
+    }
+
+    /**
+     * Returns one keyset page of quotes with a cursor to the next page.
+     * With "since", "until" and/or "ip" only the quotes submitted in [since, until) (from that IP)
+     * are returned, ordered by submission time and served by the compound time and address indexes.
+     *
+     * @param after cursor returned as nextCursor by the previous page (omit for the first page)
+     * @param limit page size (default 50, max 500)
+     * @param since ISO-8601 instant, inclusive lower bound of the submission time
+     * @param until ISO-8601 instant, exclusive upper bound of the submission time
+     * @param ip IPv4 or IPv6 address of the submitter
+     * @return QuotePage or error details
+     */
+    @GetMapping("/quotes")
+    public Mono<ResponseEntity<?>> getQuotePage(@RequestParam(value = "after", required = false) String after,
+                                                @RequestParam(value = "limit", required = false) Integer limit,
+                                                @RequestParam(value = "since", required = false) String since,
+                                                @RequestParam(value = "until", required = false) String until,
+                                                @RequestParam(value = "ip", required = false) String ip) {
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : limit;
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            return error(HttpStatus.BAD_REQUEST, "limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        if (quoteRepository == null) {
+            return error(HttpStatus.SERVICE_UNAVAILABLE, MONGO_UNAVAILABLE);
+        }
+        if (since != null || until != null || ip != null) {
+            return getQuoteRange(after, pageSize, since, until, ip);
+        }
+        int afterNumber = 0;
+        ObjectId afterId = MIN_OBJECT_ID;
+        if (after != null) {
+            try {
+                String[] cursor = QuoteCursors.parse(after);
+                afterNumber = Integer.parseInt(cursor[0]);
+                afterId = new ObjectId(cursor[1]);
+            } catch (IllegalArgumentException e) {
+                return error(HttpStatus.BAD_REQUEST, "Invalid cursor: " + after);
+            }
+        }
+        quoteMetricsService.incrementMongoRead();
+        return listing().findPageAfter(afterNumber, afterId, PageRequest.of(0, pageSize, Sort.by("quoteNumber", "id")))
+            .collectList()
+            .<ResponseEntity<?>>map(items -> {
+                String next = items.size() < pageSize ? null
+                    : QuoteCursors.of(items.get(items.size() - 1).getQuoteNumber(), items.get(items.size() - 1).getId());
+                return ResponseEntity.ok(new QuotePage<>(items, next));
+            })
+            .onErrorResume(e -> failure(e, "Failed to fetch quotes: "));
+    }
+
+    private Mono<ResponseEntity<?>> getQuoteRange(String after, int pageSize, String since, String until, String ip) {
+        Long from = since == null ? Long.valueOf(Long.MIN_VALUE) : QuoteCodec.epochMillis(since);
+        Long to = until == null ? Long.valueOf(Long.MAX_VALUE) : QuoteCodec.epochMillis(until);
+        if (from == null || to == null) {
+            return error(HttpStatus.BAD_REQUEST, "since and until must be ISO-8601 instants");
+        }
+        if (from > to) {
+            return error(HttpStatus.BAD_REQUEST, "since must not be after until");
+        }
+        byte[] ipAddress = ip == null ? null : QuoteCodec.address(ip);
+        if (ip != null && ipAddress == null) {
+            return error(HttpStatus.BAD_REQUEST, "ip must be an IPv4 or IPv6 address");
+        }
+        KeysetScrollPosition position;
+        try {
+            position = QuoteCursors.timePosition(after, ObjectId::new);
+        } catch (IllegalArgumentException e) {
+            return error(HttpStatus.BAD_REQUEST, "Invalid cursor: " + after);
+        }
+        Range<Long> createdAt = Range.rightOpen(QuoteCursors.timeFloor(position, from), to);
+        quoteMetricsService.incrementMongoRead();
+        return (ipAddress == null
+                ? listing().findByCreatedAtBetweenOrderByCreatedAtAscQuoteNumberAscIdAsc(
+                    createdAt, position, Limit.of(pageSize))
+                : listing().findByIpAddressAndCreatedAtBetweenOrderByCreatedAtAscQuoteNumberAscIdAsc(
+                    ipAddress, createdAt, position, Limit.of(pageSize)))
+            .<ResponseEntity<?>>map(window -> ResponseEntity.ok(QuoteCursors.timePage(window)))
+            .onErrorResume(e -> failure(e, "Failed to fetch quotes: "));
+    }
+
+    /**
+     * Full-text search over quote text through the MongoDB text index, best textScore first. The
+     * in-memory index (engine=index) is kept by the servlet stack only.
+     *
+     * @param q search terms
+     * @param limit maximum number of quotes (default 20, max 100)
+     * @param engine "mongo" (or omitted)
+     * @return QuoteSearchResult or error details
+     */
+    @GetMapping("/quotes/search")
+    public Mono<ResponseEntity<?>> searchQuotes(@RequestParam("q") String q,
+                                                @RequestParam(value = "limit", required = false) Integer limit,
+                                                @RequestParam(value = "engine", required = false) String engine) {
+        int size = limit == null ? DEFAULT_SEARCH_LIMIT : limit;
+        if (size < 1 || size > MAX_SEARCH_LIMIT) {
+            return error(HttpStatus.BAD_REQUEST, "limit must be between 1 and " + MAX_SEARCH_LIMIT);
+        }
+        if (engine != null && !"mongo".equals(engine)) {
+            return error(HttpStatus.BAD_REQUEST, "Only engine=mongo is available on the reactive stack");
+        }
+        if (quoteRepository == null) {
+            return error(HttpStatus.SERVICE_UNAVAILABLE, MONGO_UNAVAILABLE);
+        }
+        quoteMetricsService.incrementMongoRead();
+        return quoteRepository.searchText(q, PageRequest.of(0, size))
+            .collectList()
+            .<ResponseEntity<?>>map(items -> ResponseEntity.ok(new QuoteSearchResult<>("mongo", null, items)))
+            .onErrorResume(e -> failure(e, "Failed to search quotes: "));
+    }
+
+    /**
+     * Deletes a quote by ID.
+     */
+    @DeleteMapping("/quotes/{id}")
+    public Mono<ResponseEntity<?>> deleteQuote(@PathVariable("id") String id) {
+        if (quoteRepository == null) {
+            return error(HttpStatus.SERVICE_UNAVAILABLE, MONGO_UNAVAILABLE);
+        }
+        return quoteRepository.deleteById(id)
+            .then(Mono.<ResponseEntity<?>>fromSupplier(() -> {
+                quoteMetricsService.incrementMongoDelete();
+                quoteEventBroadcaster.quoteDeleted(id);
+                logger.debug("Deleted quote {}", id);
+                return ResponseEntity.ok().body("Deleted");
+            }))
+            .onErrorResume(e -> failure(e, "Failed to delete quote: "));
+    }
+
+    /**
+     * Streams quote events as server-sent events (see {@link QuoteController#streamQuoteEvents}).
+     */
+    @GetMapping(value = "/quotes/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<String>> streamQuoteEvents(ServerHttpResponse response) {
+        response.getHeaders().set("X-Accel-Buffering", "no");
+        return QuoteEventStreams.flux(quoteEventBroadcaster);
+    }
+
+    /**
+     * Returns node/system info from the background sampler's snapshot (see {@link QuoteController#getNodeInfo}).
+     */
+    @GetMapping("/nodeinfo")
+    public ResponseEntity<byte[]> getNodeInfo(@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return nodeInfoSampler.response(ifNoneMatch);
+    }
+
+    /**
+     * Returns the current DB status for frontend UX (always MongoDB on the reactive stack).
+     */
+    @GetMapping("/dbstatus")
+    public Map<String, String> getDbStatus() {
+        return dbStatus();
+    }
+
+    private Map<String, String> dbStatus() {
+        Map<String, String> status = new HashMap<>();
+        status.put("type", "MongoDB");
+        if (quoteRepository != null && mongoHealthProber != null) {
+            boolean up = mongoHealthProber.isUp();
+            status.put("connected", Boolean.toString(up));
+            status.put("circuitBreaker", mongoHealthProber.breaker().state().name());
+            status.put("message", up ? "Connected to MongoDB" : "MongoDB not reachable");
+            return status;
+        }
+        status.put("connected", quoteRepository != null ? "true" : "false");
+        status.put("message", quoteRepository != null ? "Connected to MongoDB" : "MongoDB repository unavailable");
+        return status;
+    }
+
+    private Flux<QuoteMongo> streamQuotes() {
+        if (quoteRepository == null) {
+            return Flux.error(new IllegalStateException(MONGO_UNAVAILABLE));
+        }
+        quoteMetricsService.incrementMongoRead();
+        return listing().findAllByOrderByQuoteNumberAscIdAsc();
+    }
+
+    private Mono<ResponseEntity<?>> failure(Throwable e, String message) {
+        if (e instanceof MongoUnavailableException open) {
+            logger.debug("Rejected by circuit breaker: {}", open.getMessage());
+            Map<String, String> err = new HashMap<>();
+            err.put("error", open.getMessage());
+            return Mono.just(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(open.getRetryAfterSeconds()))
+                .body(err));
+        }
+        if (e instanceof DataAccessResourceFailureException) {
+            logger.error("MongoDB connection unavailable: {}", e.getMessage(), e);
+            return error(HttpStatus.SERVICE_UNAVAILABLE, MONGO_UNAVAILABLE);
+        }
+        logger.error("{}{}", message, e.getMessage(), e);
+        return error(HttpStatus.INTERNAL_SERVER_ERROR, message + e.getMessage());
+    }
+
+    private static Mono<ResponseEntity<?>> error(HttpStatus status, String msg) {
+        Map<String, String> err = new HashMap<>();
+        err.put("error", msg);
+        return Mono.just(ResponseEntity.status(status).body(err));
+    }
+
+    private QuoteReactiveMongoRepository listing() {
+        return listRepository != null ? listRepository : quoteRepository;
+    }
+
+    private String clientIp(ServerHttpRequest request) {
+        return clientAddressResolver.resolve(request);
+    }
+}
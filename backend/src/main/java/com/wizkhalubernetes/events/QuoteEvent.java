@@ -0,0 +1,44 @@
+package com.wizkhalubernetes.events;
+
+/**
+ * One event of the quote event stream (GET /api/quotes/stream): a numbered, named event with a
+ * JSON payload. The payload and the complete SSE frame are built once and shared by every
+ * subscriber, so fanning out to N clients never serializes N times.
+ */
+public final class QuoteEvent {
+    private final long id;
+    private final String name;
+    private final String data;
+    private final String frame;
+
+    QuoteEvent(long id, String name, String data) {
+        this.id = id;
+        this.name = name;
+        this.data = data;
+        this.frame = "id:" + id + "\nevent:" + name + "\ndata:" + data + "\n\n";
+    }
+
+    /**
+     * Gets the event id, increasing per node.
+     * @return event id
+     */
+    public long id() { return id; }
+
+    /**
+     * Gets the event name, e.g. "quote-created".
+     * @return event name
+     */
+    public String name() { return name; }
+
+    /**
+     * Gets the JSON payload (a single line).
+     * @return JSON data
+     */
+    public String data() { return data; }
+
+    /**
+     * Gets the complete text/event-stream frame: id, event and data lines plus the blank line.
+     * @return SSE frame
+     */
+    public String frame() { return frame; }
+}
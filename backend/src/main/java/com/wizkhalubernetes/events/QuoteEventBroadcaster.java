@@ -0,0 +1,354 @@
+package com.wizkhalubernetes.events;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wizkhalubernetes.nodeinfo.NodeInfoSampler;
+import com.wizkhalubernetes.prometheus.QuoteMetricsService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Fans quote events out to the clients of GET /api/quotes/stream, so the frontend is pushed new
+ * and deleted quotes instead of polling for them. Events:
+ * <ul>
+ *   <li>quote-created: the saved quote, same JSON as POST /api/quotes returns</li>
+ *   <li>quote-deleted: {"id": "..."}</li>
+ *   <li>quotes-batch-created: {"created": n} after POST /api/quotes/batch (clients refetch)</li>
+ *   <li>nodeinfo: the full node info on subscribe, then only the keys that changed</li>
+ *   <li>dbstatus: the DB status on subscribe and whenever it changes</li>
+ * </ul>
+ * Each event is serialized once on the publishing thread and handed to a single dispatcher thread,
+ * which offers it to every subscriber's bounded mailbox (quotes.events.buffer-size); a small writer
+ * pool (quotes.events.writer-threads) drains the mailboxes. Servlet writes block, so a client that
+ * stops reading would hold a writer thread: the dispatcher evicts subscribers whose write has been
+ * blocked for quotes.events.write-timeout and adds a pool thread in place of the blocked one until
+ * its write returns. Subscribers whose mailbox is full are evicted as well
+ * (quote_events_evicted_total). Events are node-local: quotes written through another replica are
+ * not pushed.
+ */
+@Component
+public class QuoteEventBroadcaster implements SmartLifecycle, DisposableBean {
+    private static final Logger logger = LoggerFactory.getLogger(QuoteEventBroadcaster.class);
+
+    private final ObjectMapper objectMapper;
+    private final NodeInfoSampler nodeInfoSampler;
+    private final QuoteMetricsService quoteMetricsService;
+    private final int bufferSize;
+    private final long statusIntervalMillis;
+    private final Duration timeout;
+    private final long writeTimeoutNanos;
+    private final int writerThreads;
+    private final Set<QuoteEventSubscription> subscriptions = ConcurrentHashMap.newKeySet();
+    private final AtomicLong sequence = new AtomicLong();
+    private final ThreadPoolExecutor writers;
+    private final ScheduledExecutorService dispatcher;
+    private volatile Supplier<Map<String, String>> dbStatusSource;
+    // Last published state, written by the dispatcher thread only
+    private volatile Map<String, Object> lastNodeInfo;
+    private volatile Map<String, String> lastDbStatus;
+    private ScheduledFuture<?> statusTask;
+    private ScheduledFuture<?> stallTask;
+    // Writer threads blocked in a send that was evicted as stalled, guarded by writers
+    private int stalledWriters;
+
+    /**
+     * @param objectMapper JSON mapper for event payloads
+     * @param nodeInfoSampler source of the nodeinfo events
+     * @param quoteMetricsService metrics service for the subscriber gauge and eviction counter
+     * @param bufferSize events queued per subscriber before it is evicted
+     * @param writerThreads threads writing events to clients
+     * @param statusInterval how often nodeinfo and dbstatus changes are published
+     * @param timeout how long one stream stays open before the client has to reconnect
+     * @param writeTimeout how long a write to one client may block before the client is evicted
+     */
+    public QuoteEventBroadcaster(ObjectMapper objectMapper, NodeInfoSampler nodeInfoSampler,
+                                 QuoteMetricsService quoteMetricsService,
+                                 @Value("${quotes.events.buffer-size:32}") int bufferSize,
+                                 @Value("${quotes.events.writer-threads:4}") int writerThreads,
+                                 @Value("${quotes.events.status-interval:5s}") Duration statusInterval,
+                                 @Value("${quotes.events.timeout:30m}") Duration timeout,
+                                 @Value("${quotes.events.write-timeout:5s}") Duration writeTimeout) {
+        if (bufferSize < 1 || writerThreads < 1) {
+            throw new IllegalArgumentException("quotes.events.buffer-size and quotes.events.writer-threads must be positive");
+        }
+        if (statusInterval.isNegative() || statusInterval.isZero()) {
+            throw new IllegalArgumentException("quotes.events.status-interval must be positive");
+        }
+        if (writeTimeout.toMillis() < 1) {
+            throw new IllegalArgumentException("quotes.events.write-timeout must be positive");
+        }
+        this.objectMapper = objectMapper;
+        this.nodeInfoSampler = nodeInfoSampler;
+        this.quoteMetricsService = quoteMetricsService;
+        this.bufferSize = bufferSize;
+        this.statusIntervalMillis = statusInterval.toMillis();
+        this.timeout = timeout;
+        this.writeTimeoutNanos = writeTimeout.toNanos();
+        this.writerThreads = writerThreads;
+        AtomicInteger writerCount = new AtomicInteger();
+        this.writers = new ThreadPoolExecutor(writerThreads, writerThreads, 60, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(), task -> daemon(task, "quote-events-writer-" + writerCount.incrementAndGet()));
+        this.dispatcher = Executors.newSingleThreadScheduledExecutor(task -> daemon(task, "quote-events-dispatcher"));
+        this.lastNodeInfo = nodeInfoSampler.current().info();
+        quoteMetricsService.registerEventSubscribers(subscriptions::size);
+    }
+
+    /**
+     * Gets how long one stream stays open (quotes.events.timeout).
+     * @return stream timeout
+     */
+    public Duration timeout() { return timeout; }
+
+    /**
+     * Gets the number of events queued per subscriber before it is evicted.
+     * @return mailbox size
+     */
+    public int bufferSize() { return bufferSize; }
+
+    /**
+     * Gets the number of connected subscribers.
+     * @return subscriber count
+     */
+    public int subscriberCount() { return subscriptions.size(); }
+
+    /**
+     * Sets where dbstatus events come from; each web stack's controller registers its own status.
+     * @param source supplier of the GET /api/dbstatus body
+     */
+    public void setDbStatusSource(Supplier<Map<String, String>> source) {
+        this.dbStatusSource = source;
+    }
+
+    /**
+     * Adds a client. Its first events are the full nodeinfo and the current dbstatus.
+     * @param sink connection to write events to
+     * @return subscription to cancel when the client goes away
+     */
+    public QuoteEventSubscription subscribe(QuoteEventSink sink) {
+        QuoteEventSubscription subscription = new QuoteEventSubscription(this, sink, writers, bufferSize);
+        subscription.offer(event("nodeinfo", lastNodeInfo));
+        Map<String, String> dbStatus = lastDbStatus != null ? lastDbStatus : currentDbStatus();
+        if (dbStatus != null) {
+            subscription.offer(event("dbstatus", dbStatus));
+        }
+        subscriptions.add(subscription);
+        return subscription;
+    }
+
+    /**
+     * Publishes a saved quote.
+     * @param quote saved quote entity or document
+     */
+    public void quoteCreated(Object quote) {
+        publish("quote-created", quote);
+    }
+
+    /**
+     * Publishes a deleted quote id.
+     * @param id id of the deleted quote
+     */
+    public void quoteDeleted(String id) {
+        publish("quote-deleted", Map.of("id", id));
+    }
+
+    /**
+     * Publishes one summary event for a batch insert instead of one event per quote.
+     * @param created number of quotes created
+     */
+    public void quotesCreated(int created) {
+        if (created > 0) {
+            publish("quotes-batch-created", Map.of("created", created));
+        }
+    }
+
+    /**
+     * Counts a subscriber evicted by its stream adapter rather than by {@link #fanOut}.
+     */
+    void evicted() {
+        quoteMetricsService.incrementEventSubscriberEvicted();
+    }
+
+    void remove(QuoteEventSubscription subscription) {
+        subscriptions.remove(subscription);
+    }
+
+    private void publish(String name, Object payload) {
+        if (subscriptions.isEmpty()) {
+            return;
+        }
+        QuoteEvent event;
+        try {
+            event = event(name, payload);
+        } catch (IllegalStateException e) {
+            logger.error("Failed to publish {} event: {}", name, e.getMessage(), e);
+            return;
+        }
+        dispatcher.execute(() -> fanOut(event));
+    }
+
+    /**
+     * Offers an event to every subscriber, evicting the ones whose mailbox is full.
+     */
+    void fanOut(QuoteEvent event) {
+        for (QuoteEventSubscription subscription : subscriptions) {
+            if (!subscription.offer(event)) {
+                subscriptions.remove(subscription);
+                if (subscription.close()) {
+                    evicted();
+                    logger.warn("Evicted slow event stream client ({} events pending)", subscription.pending());
+                }
+            }
+        }
+    }
+
+    /**
+     * Evicts the subscribers whose write has been blocked for longer than the write timeout, and
+     * adds a writer thread for each, so the other subscribers keep being served.
+     */
+    void evictStalled() {
+        long now = System.nanoTime();
+        for (QuoteEventSubscription subscription : subscriptions) {
+            if (subscription.claimIfStalled(now, writeTimeoutNanos)) {
+                resizeWriters(1);
+                subscriptions.remove(subscription);
+                if (subscription.close()) {
+                    evicted();
+                    logger.warn("Evicted stalled event stream client (write blocked for more than {} ms)",
+                        TimeUnit.NANOSECONDS.toMillis(writeTimeoutNanos));
+                }
+            }
+        }
+    }
+
+    /**
+     * Called by a writer thread whose send was claimed by {@link #evictStalled} once the send
+     * returns; the thread added in its place is retired again.
+     */
+    void stalledWriterReturned() {
+        resizeWriters(-1);
+    }
+
+    private void resizeWriters(int delta) {
+        synchronized (writers) {
+            stalledWriters += delta;
+            int size = writerThreads + stalledWriters;
+            // The maximum may never be below the core size
+            if (delta > 0) {
+                writers.setMaximumPoolSize(size);
+                writers.setCorePoolSize(size);
+            } else {
+                writers.setCorePoolSize(size);
+                writers.setMaximumPoolSize(size);
+            }
+        }
+    }
+
+    /**
+     * Publishes the nodeinfo keys and the dbstatus that changed since the last tick.
+     */
+    void publishStatus() {
+        try {
+            Map<String, Object> nodeInfo = nodeInfoSampler.current().info();
+            Map<String, Object> changed = new LinkedHashMap<>();
+            for (Map.Entry<String, Object> entry : nodeInfo.entrySet()) {
+                if (!Objects.equals(entry.getValue(), lastNodeInfo.get(entry.getKey()))) {
+                    changed.put(entry.getKey(), entry.getValue());
+                }
+            }
+            lastNodeInfo = nodeInfo;
+            if (!changed.isEmpty() && !subscriptions.isEmpty()) {
+                fanOut(event("nodeinfo", changed));
+            }
+            Map<String, String> dbStatus = currentDbStatus();
+            if (dbStatus != null && !dbStatus.equals(lastDbStatus)) {
+                boolean first = lastDbStatus == null;
+                lastDbStatus = dbStatus;
+                if (!first && !subscriptions.isEmpty()) {
+                    fanOut(event("dbstatus", dbStatus));
+                }
+            }
+        } catch (Exception e) {
+            logger.error("Publishing status events failed: {}", e.getMessage(), e);
+        }
+    }
+
+    private Map<String, String> currentDbStatus() {
+        Supplier<Map<String, String>> source = dbStatusSource;
+        return source == null ? null : Map.copyOf(source.get());
+    }
+
+    private QuoteEvent event(String name, Object payload) {
+        try {
+            return new QuoteEvent(sequence.incrementAndGet(), name, objectMapper.writeValueAsString(payload));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize " + name + " event", e);
+        }
+    }
+
+    private static Thread daemon(Runnable task, String name) {
+        Thread thread = new Thread(task, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    @Override
+    public synchronized void start() {
+        if (statusTask == null) {
+            statusTask = dispatcher.scheduleWithFixedDelay(this::publishStatus,
+                statusIntervalMillis, statusIntervalMillis, TimeUnit.MILLISECONDS);
+            long stallCheckNanos = Math.max(TimeUnit.MILLISECONDS.toNanos(10), writeTimeoutNanos / 2);
+            stallTask = dispatcher.scheduleWithFixedDelay(this::evictStalled,
+                stallCheckNanos, stallCheckNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Ends every open stream so graceful shutdown is not held up by long-lived SSE requests.
+     */
+    @Override
+    public synchronized void stop() {
+        if (statusTask == null) {
+            return;
+        }
+        statusTask.cancel(false);
+        statusTask = null;
+        stallTask.cancel(false);
+        stallTask = null;
+        for (QuoteEventSubscription subscription : subscriptions) {
+            subscription.cancel();
+        }
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return statusTask != null;
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        dispatcher.shutdownNow();
+        writers.shutdown();
+        if (!writers.awaitTermination(1, TimeUnit.SECONDS)) {
+            writers.shutdownNow();
+        }
+    }
+}
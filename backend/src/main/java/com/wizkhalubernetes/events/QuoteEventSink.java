@@ -0,0 +1,21 @@
+package com.wizkhalubernetes.events;
+
+import java.io.IOException;
+
+/**
+ * Connection-side end of one subscription: writes events to a client. Calls are serialized per
+ * subscription and made from the broadcaster's writer threads.
+ */
+public interface QuoteEventSink {
+    /**
+     * Writes one event to the client.
+     * @param event event to write
+     * @throws IOException if the client is gone; the subscription is then closed
+     */
+    void send(QuoteEvent event) throws IOException;
+
+    /**
+     * Ends the stream. Called once, after the last send.
+     */
+    void close();
+}
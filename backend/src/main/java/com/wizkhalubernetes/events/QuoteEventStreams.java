@@ -0,0 +1,77 @@
+package com.wizkhalubernetes.events;
+
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+
+/**
+ * Adapts {@link QuoteEventBroadcaster} subscriptions to the two web stacks: an {@link SseEmitter}
+ * for the servlet stack and a Flux of {@link ServerSentEvent} for WebFlux. Both end the stream after
+ * quotes.events.timeout; browsers' EventSource reconnects on its own.
+ */
+public final class QuoteEventStreams {
+    private static final MediaType FRAME_TYPE = new MediaType("text", "plain", StandardCharsets.UTF_8);
+
+    private QuoteEventStreams() {
+    }
+
+    /**
+     * Opens a servlet SSE stream. Each event is written as its pre-built frame in a single write
+     * and flush; the subscription is cancelled when the request completes, times out or fails.
+     * @param broadcaster event broadcaster
+     * @return emitter to return from the handler method
+     */
+    public static SseEmitter sseEmitter(QuoteEventBroadcaster broadcaster) {
+        SseEmitter emitter = new SseEmitter(broadcaster.timeout().toMillis());
+        QuoteEventSubscription subscription = broadcaster.subscribe(new QuoteEventSink() {
+            @Override
+            public void send(QuoteEvent event) throws IOException {
+                emitter.send(Set.of(new ResponseBodyEmitter.DataWithMediaType(event.frame(), FRAME_TYPE)));
+            }
+
+            @Override
+            public void close() {
+                emitter.complete();
+            }
+        });
+        emitter.onCompletion(subscription::cancel);
+        emitter.onTimeout(subscription::cancel);
+        emitter.onError(e -> subscription.cancel());
+        return emitter;
+    }
+
+    /**
+     * Opens a reactive SSE stream. Events beyond the subscriber's buffer that the connection has
+     * not requested yet end the stream, like a full mailbox on the servlet stack.
+     * @param broadcaster event broadcaster
+     * @return stream of server-sent events
+     */
+    public static Flux<ServerSentEvent<String>> flux(QuoteEventBroadcaster broadcaster) {
+        return Flux.<ServerSentEvent<String>>create(sink -> {
+                QuoteEventSubscription subscription = broadcaster.subscribe(new QuoteEventSink() {
+                    @Override
+                    public void send(QuoteEvent event) {
+                        sink.next(ServerSentEvent.builder(event.data())
+                            .id(Long.toString(event.id()))
+                            .event(event.name())
+                            .build());
+                    }
+
+                    @Override
+                    public void close() {
+                        sink.complete();
+                    }
+                });
+                sink.onDispose(subscription::cancel);
+            })
+            .onBackpressureBuffer(broadcaster.bufferSize(), dropped -> broadcaster.evicted(), BufferOverflowStrategy.ERROR)
+            .onErrorComplete()
+            .take(broadcaster.timeout());
+    }
+}
@@ -0,0 +1,145 @@
+package com.wizkhalubernetes.events;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * One client of the quote event stream: a bounded mailbox drained into its {@link QuoteEventSink}
+ * on a shared writer pool. At most one writer thread drains a subscription at a time, so a
+ * subscription holds no thread while it is idle. A client whose write blocks for longer than the
+ * write timeout (see {@link #claimIfStalled}) or that lets its mailbox fill up is evicted rather than
+ * buffered without bound; its EventSource reconnects and starts from fresh state.
+ */
+public final class QuoteEventSubscription implements Runnable {
+    private static final Logger logger = LoggerFactory.getLogger(QuoteEventSubscription.class);
+    private static final long IDLE = Long.MIN_VALUE;
+    private static final long STALLED = Long.MIN_VALUE + 1;
+
+    private final QuoteEventBroadcaster broadcaster;
+    private final QuoteEventSink sink;
+    private final Executor writers;
+    private final BlockingQueue<QuoteEvent> mailbox;
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private final AtomicBoolean closed = new AtomicBoolean();
+    // System.nanoTime() when the send in flight started, IDLE between sends, STALLED once claimed
+    private final AtomicLong sendStarted = new AtomicLong(IDLE);
+
+    QuoteEventSubscription(QuoteEventBroadcaster broadcaster, QuoteEventSink sink, Executor writers, int bufferSize) {
+        this.broadcaster = broadcaster;
+        this.sink = sink;
+        this.writers = writers;
+        this.mailbox = new ArrayBlockingQueue<>(bufferSize);
+    }
+
+    /**
+     * Ends this subscription, e.g. when the client disconnected or the stream timed out.
+     */
+    public void cancel() {
+        broadcaster.remove(this);
+        close();
+    }
+
+    /**
+     * Queues an event for this client.
+     * @return false if the mailbox was full
+     */
+    boolean offer(QuoteEvent event) {
+        if (closed.get()) {
+            return true;
+        }
+        if (!mailbox.offer(event)) {
+            return false;
+        }
+        schedule();
+        return true;
+    }
+
+    /**
+     * Marks the subscription closed; the sink is closed on a writer thread after any send in flight.
+     * @return true if this call closed it
+     */
+    boolean close() {
+        if (!closed.compareAndSet(false, true)) {
+            return false;
+        }
+        schedule();
+        return true;
+    }
+
+    boolean isClosed() {
+        return closed.get();
+    }
+
+    int pending() {
+        return mailbox.size();
+    }
+
+    /**
+     * Claims the send in flight if it has been blocked for longer than the timeout, e.g. because the
+     * client stopped reading. The writer thread stays blocked until the write fails or completes;
+     * once it returns it calls {@link QuoteEventBroadcaster#stalledWriterReturned()}.
+     * @param now current System.nanoTime()
+     * @param timeoutNanos longest a single send may take
+     * @return true if this call claimed a stalled send
+     */
+    boolean claimIfStalled(long now, long timeoutNanos) {
+        long started = sendStarted.get();
+        return started != IDLE && started != STALLED && now - started > timeoutNanos
+            && sendStarted.compareAndSet(started, STALLED);
+    }
+
+    private void schedule() {
+        if (scheduled.compareAndSet(false, true)) {
+            try {
+                writers.execute(this);
+            } catch (RejectedExecutionException e) {
+                // Broadcaster shut down
+                scheduled.set(false);
+            }
+        }
+    }
+
+    @Override
+    public void run() {
+        while (true) {
+            QuoteEvent event;
+            while (!closed.get() && (event = mailbox.poll()) != null) {
+                long started = System.nanoTime();
+                sendStarted.set(started);
+                try {
+                    sink.send(event);
+                } catch (Exception e) {
+                    logger.debug("Event stream client gone: {}", e.getMessage());
+                    broadcaster.remove(this);
+                    closed.set(true);
+                }
+                if (!sendStarted.compareAndSet(started, IDLE)) {
+                    // Claimed as stalled: this thread was replaced in the pool meanwhile
+                    sendStarted.set(IDLE);
+                    broadcaster.stalledWriterReturned();
+                }
+            }
+            if (closed.get()) {
+                // scheduled stays set: nothing is delivered after the sink is closed
+                mailbox.clear();
+                try {
+                    sink.close();
+                } catch (Exception e) {
+                    logger.debug("Closing event stream failed: {}", e.getMessage());
+                }
+                return;
+            }
+            scheduled.set(false);
+            // Re-check after releasing the drain: an offer or close may have seen it still held
+            if ((mailbox.isEmpty() && !closed.get()) || !scheduled.compareAndSet(false, true)) {
+                return;
+            }
+        }
+    }
+}
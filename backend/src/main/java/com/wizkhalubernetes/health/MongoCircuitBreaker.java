@@ -0,0 +1,235 @@
+package com.wizkhalubernetes.health;
+
+import com.mongodb.MongoExecutionTimeoutException;
+import com.mongodb.MongoSocketException;
+import com.mongodb.MongoTimeoutException;
+import com.wizkhalubernetes.prometheus.QuoteMetricsService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.QueryTimeoutException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Circuit breaker in front of every MongoDB call, so a slow or unreachable database costs a request
+ * a fast 503 instead of a driver timeout. CLOSED lets calls through and opens after
+ * failure-threshold consecutive connectivity failures or slow calls; OPEN rejects calls with
+ * {@link MongoUnavailableException} for open-duration; HALF_OPEN then lets a single trial call
+ * through, which closes or reopens the breaker. The {@link MongoHealthProber} drives it too: a
+ * failed ping opens it straight away, a healthy ping closes it.
+ * Errors the database answered (duplicate key, bad query) do not count as failures.
+ * The closed state costs calls one volatile read.
+ */
+public class MongoCircuitBreaker {
+    private static final Logger logger = LoggerFactory.getLogger(MongoCircuitBreaker.class);
+
+    /** Breaker states, with their value of the mongo_circuit_breaker_state gauge. */
+    public enum State {
+        CLOSED(0), HALF_OPEN(1), OPEN(2);
+
+        private final int gaugeValue;
+
+        State(int gaugeValue) {
+            this.gaugeValue = gaugeValue;
+        }
+
+        /**
+         * Gets the value exported by the state gauge.
+         * @return 0 closed, 1 half-open, 2 open
+         */
+        public int gaugeValue() { return gaugeValue; }
+    }
+
+    private final int failureThreshold;
+    private final long openNanos;
+    private final long slowCallNanos;
+    private final QuoteMetricsService metrics;
+    private final LongSupplier clock;
+    private volatile State state = State.CLOSED;
+    private volatile int consecutiveFailures;
+    // Guarded by this
+    private long openedAt;
+    private boolean trialInFlight;
+
+    /**
+     * @param failureThreshold consecutive failures that open the breaker
+     * @param openDuration how long the breaker rejects calls before a trial call
+     * @param slowCallThreshold calls slower than this count as failures
+     * @param metrics metrics service for the state gauge and rejection counters
+     */
+    public MongoCircuitBreaker(int failureThreshold, Duration openDuration, Duration slowCallThreshold,
+                               QuoteMetricsService metrics) {
+        this(failureThreshold, openDuration, slowCallThreshold, metrics, System::nanoTime);
+    }
+
+    MongoCircuitBreaker(int failureThreshold, Duration openDuration, Duration slowCallThreshold,
+                        QuoteMetricsService metrics, LongSupplier clock) {
+        if (failureThreshold < 1) {
+            throw new IllegalArgumentException("quotes.mongo.breaker.failure-threshold must be positive");
+        }
+        this.failureThreshold = failureThreshold;
+        this.openNanos = openDuration.toNanos();
+        this.slowCallNanos = slowCallThreshold.toNanos();
+        this.metrics = metrics;
+        this.clock = clock;
+        metrics.registerMongoCircuitBreaker(() -> state.gaugeValue());
+    }
+
+    /**
+     * Gets the current state.
+     * @return breaker state
+     */
+    public State state() { return state; }
+
+    /**
+     * Gets the threshold above which a call or ping counts as slow.
+     * @return slow call threshold in nanoseconds
+     */
+    public long slowCallNanos() { return slowCallNanos; }
+
+    /**
+     * Admits a call, or rejects it while the breaker is open. In HALF_OPEN a single trial call is
+     * admitted; its outcome must be reported through {@link #onSuccess}, {@link #onError} or
+     * {@link #onCancelled}.
+     * @throws MongoUnavailableException if the call must not reach the database
+     */
+    public void acquire() {
+        if (state == State.CLOSED) {
+            return;
+        }
+        long retryAfter;
+        synchronized (this) {
+            long now = clock.getAsLong();
+            if (state == State.OPEN && now - openedAt >= openNanos) {
+                transition(State.HALF_OPEN);
+            }
+            if (state == State.CLOSED) {
+                return;
+            }
+            if (state == State.HALF_OPEN && !trialInFlight) {
+                trialInFlight = true;
+                return;
+            }
+            retryAfter = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(openNanos - (now - openedAt) + 999_999_999L));
+        }
+        metrics.incrementMongoBreakerRejected();
+        throw new MongoUnavailableException(retryAfter);
+    }
+
+    /**
+     * Reports a call that returned. Calls slower than the slow call threshold count as failures.
+     * @param durationNanos call duration
+     */
+    public void onSuccess(long durationNanos) {
+        if (durationNanos > slowCallNanos) {
+            onFailure();
+            return;
+        }
+        if (state == State.CLOSED) {
+            if (consecutiveFailures != 0) {
+                consecutiveFailures = 0;
+            }
+            return;
+        }
+        synchronized (this) {
+            if (state == State.HALF_OPEN) {
+                transition(State.CLOSED);
+            }
+        }
+    }
+
+    /**
+     * Reports a call that threw. Only connectivity failures and timeouts count against the breaker.
+     * @param error exception thrown by the call
+     */
+    public void onError(Throwable error) {
+        if (isConnectivityFailure(error)) {
+            onFailure();
+        } else {
+            onSuccess(0);
+        }
+    }
+
+    /**
+     * Reports a call that was cancelled before it returned, e.g. a reactive call whose subscriber
+     * went away. Its outcome is unknown, so a HALF_OPEN trial is released for the next call.
+     */
+    public synchronized void onCancelled() {
+        if (state == State.HALF_OPEN) {
+            trialInFlight = false;
+        }
+    }
+
+    /**
+     * Reports a healthy ping: the database is reachable, so the breaker closes.
+     */
+    public synchronized void probeSucceeded() {
+        if (state != State.CLOSED) {
+            transition(State.CLOSED);
+        }
+    }
+
+    /**
+     * Reports a failed or slow ping: the breaker opens (or stays open for another open-duration).
+     * @param reason why the ping failed, for the log
+     */
+    public synchronized void probeFailed(String reason) {
+        if (state == State.OPEN) {
+            openedAt = clock.getAsLong();
+            return;
+        }
+        logger.warn("MongoDB health probe failed ({}), opening circuit breaker", reason);
+        open();
+    }
+
+    private synchronized void onFailure() {
+        if (state == State.HALF_OPEN) {
+            open();
+        } else if (state == State.CLOSED && ++consecutiveFailures >= failureThreshold) {
+            logger.warn("{} consecutive MongoDB failures, opening circuit breaker", consecutiveFailures);
+            open();
+        }
+    }
+
+    private void open() {
+        openedAt = clock.getAsLong();
+        transition(State.OPEN);
+        metrics.incrementMongoBreakerOpened();
+    }
+
+    private void transition(State next) {
+        if (next == State.CLOSED) {
+            consecutiveFailures = 0;
+            if (state != State.CLOSED) {
+                logger.info("MongoDB circuit breaker closed");
+            }
+        }
+        trialInFlight = false;
+        state = next;
+    }
+
+    /**
+     * Tells whether an exception means the database could not be reached or did not answer in
+     * time, as opposed to an error the database reported.
+     * @param error exception thrown by a MongoDB call
+     * @return true for connectivity failures and timeouts
+     */
+    public static boolean isConnectivityFailure(Throwable error) {
+        for (Throwable t = error; t != null; t = t.getCause()) {
+            if (t instanceof MongoUnavailableException) {
+                return false;
+            }
+            if (t instanceof DataAccessResourceFailureException || t instanceof QueryTimeoutException
+                    || t instanceof MongoSocketException || t instanceof MongoTimeoutException
+                    || t instanceof MongoExecutionTimeoutException) {
+                return true;
+            }
+            if (t.getCause() == t) {
+                break;
+            }
+        }
+        return false;
+    }
+}
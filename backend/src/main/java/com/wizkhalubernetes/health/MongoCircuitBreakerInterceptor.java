@@ -0,0 +1,83 @@
+package com.wizkhalubernetes.health;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import java.util.function.Supplier;
+
+/**
+ * Guards MongoDB calls with the {@link MongoCircuitBreaker}: a call is admitted or rejected before
+ * it reaches the driver, and its outcome and duration are reported back. Blocking methods are
+ * guarded around the call; reactive repository methods return a Mono or Flux that is guarded when
+ * subscribed (a Flux reports success on completion, without the slow-call check, since streaming
+ * a whole collection is expected to take a while). A reactive call cancelled before it returns
+ * releases a HALF_OPEN trial.
+ */
+public class MongoCircuitBreakerInterceptor implements MethodInterceptor {
+    private final Supplier<MongoCircuitBreaker> provider;
+    private volatile MongoCircuitBreaker breaker;
+
+    /**
+     * @param provider circuit breaker, resolved on first use
+     */
+    public MongoCircuitBreakerInterceptor(Supplier<MongoCircuitBreaker> provider) {
+        this.provider = provider;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        if (invocation.getMethod().getDeclaringClass() == Object.class) {
+            return invocation.proceed();
+        }
+        MongoCircuitBreaker guard = breaker();
+        Class<?> returnType = invocation.getMethod().getReturnType();
+        if (Mono.class.isAssignableFrom(returnType)) {
+            return guard(guard, (Mono<?>) invocation.proceed());
+        }
+        if (Flux.class.isAssignableFrom(returnType)) {
+            return guard(guard, (Flux<?>) invocation.proceed());
+        }
+        guard.acquire();
+        long start = System.nanoTime();
+        Object result;
+        try {
+            result = invocation.proceed();
+        } catch (Throwable t) {
+            guard.onError(t);
+            throw t;
+        }
+        guard.onSuccess(System.nanoTime() - start);
+        return result;
+    }
+
+    private static <T> Mono<T> guard(MongoCircuitBreaker guard, Mono<T> call) {
+        return Mono.defer(() -> {
+            guard.acquire();
+            long start = System.nanoTime();
+            return call
+                .doOnSuccess(value -> guard.onSuccess(System.nanoTime() - start))
+                .doOnError(guard::onError)
+                .doOnCancel(guard::onCancelled);
+        });
+    }
+
+    private static <T> Flux<T> guard(MongoCircuitBreaker guard, Flux<T> call) {
+        return Flux.defer(() -> {
+            guard.acquire();
+            return call
+                .doOnComplete(() -> guard.onSuccess(0))
+                .doOnError(guard::onError)
+                .doOnCancel(guard::onCancelled);
+        });
+    }
+
+    private MongoCircuitBreaker breaker() {
+        MongoCircuitBreaker current = breaker;
+        if (current == null) {
+            current = provider.get();
+            breaker = current;
+        }
+        return current;
+    }
+}
@@ -0,0 +1,52 @@
+package com.wizkhalubernetes.health;
+
+import com.wizkhalubernetes.batch.QuoteBulkWriter;
+import com.wizkhalubernetes.prometheus.DbTimingPostProcessor;
+import com.wizkhalubernetes.sequence.QuoteSequenceBackend;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.Ordered;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+
+/**
+ * Puts the {@link MongoCircuitBreakerInterceptor} in front of every MongoDB call without touching
+ * the call sites: blocking and reactive Spring Data repositories, the quote number sequence and the
+ * bulk writer. Runs after {@link DbTimingPostProcessor} and places the breaker outermost, so
+ * rejected calls never show up as DB operations in quote_db_operation_seconds.
+ */
+public class MongoCircuitBreakerPostProcessor implements BeanPostProcessor, Ordered {
+    private final MongoCircuitBreakerInterceptor interceptor;
+
+    /**
+     * @param breaker circuit breaker, resolved lazily so its metrics are not created early
+     */
+    public MongoCircuitBreakerPostProcessor(ObjectProvider<MongoCircuitBreaker> breaker) {
+        this.interceptor = new MongoCircuitBreakerInterceptor(breaker::getObject);
+    }
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) {
+        if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+            factoryBean.addRepositoryFactoryCustomizer(factory ->
+                factory.addRepositoryProxyPostProcessor((proxyFactory, information) ->
+                    proxyFactory.addAdvice(0, interceptor)));
+        }
+        return bean;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof QuoteSequenceBackend || bean instanceof QuoteBulkWriter) {
+            ProxyFactory proxyFactory = new ProxyFactory(bean);
+            proxyFactory.addAdvice(interceptor);
+            return proxyFactory.getProxy();
+        }
+        return bean;
+    }
+
+    @Override
+    public int getOrder() {
+        return DbTimingPostProcessor.ORDER + 1;
+    }
+}
@@ -0,0 +1,181 @@
+package com.wizkhalubernetes.health;
+
+import com.wizkhalubernetes.prometheus.QuoteMetricsService;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Pings MongoDB every quotes.mongo.probe.interval (default 2s) on a background thread and records
+ * the round trip in mongo_probe_latency_seconds. A ping that fails, takes longer than
+ * quotes.mongo.probe.timeout or exceeds the breaker's slow call threshold marks MongoDB down and
+ * opens the {@link MongoCircuitBreaker}; the next healthy ping closes it again. The ping runs on its
+ * own thread and is never started twice, so a hung driver call cannot pile up probe threads.
+ * GET /api/dbstatus and /actuator/health report this state instead of assuming the DB is up.
+ */
+public class MongoHealthProber implements SmartLifecycle {
+    private static final Logger logger = LoggerFactory.getLogger(MongoHealthProber.class);
+    private static final Document PING = new Document("ping", 1);
+
+    private final MongoTemplate mongoTemplate;
+    private final MongoCircuitBreaker breaker;
+    private final QuoteMetricsService metrics;
+    private final long intervalMillis;
+    private final long timeoutNanos;
+    private ExecutorService pinger;
+    private volatile boolean up;
+    private volatile long latencyNanos = -1;
+    private volatile String lastError = "not probed yet";
+    private volatile Instant lastProbe;
+    private Future<?> inFlight;
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * @param mongoTemplate template the ping is sent through (not guarded by the breaker)
+     * @param breaker circuit breaker driven by the probe results
+     * @param metrics metrics service for the probe gauges and latency timer
+     * @param interval time between pings
+     * @param timeout how long to wait for a ping before counting it as failed
+     */
+    public MongoHealthProber(MongoTemplate mongoTemplate, MongoCircuitBreaker breaker, QuoteMetricsService metrics,
+                             Duration interval, Duration timeout) {
+        if (interval.isNegative() || interval.isZero() || timeout.isNegative() || timeout.isZero()) {
+            throw new IllegalArgumentException("quotes.mongo.probe.interval and timeout must be positive");
+        }
+        this.mongoTemplate = mongoTemplate;
+        this.breaker = breaker;
+        this.metrics = metrics;
+        this.intervalMillis = interval.toMillis();
+        this.timeoutNanos = timeout.toNanos();
+        this.pinger = newPinger();
+        metrics.registerMongoProbe(() -> up ? 1 : 0);
+    }
+
+    /**
+     * Tells whether the last ping succeeded in time.
+     * @return true if MongoDB answered the last ping
+     */
+    public boolean isUp() { return up; }
+
+    /**
+     * Gets the circuit breaker this prober drives.
+     * @return circuit breaker
+     */
+    public MongoCircuitBreaker breaker() { return breaker; }
+
+    /**
+     * Gets the probe state for health and status endpoints.
+     * @return status (UP/DOWN), circuit breaker state, last ping latency and error
+     */
+    public Map<String, Object> details() {
+        Map<String, Object> details = new LinkedHashMap<>();
+        details.put("status", up ? "UP" : "DOWN");
+        details.put("circuitBreaker", breaker.state().name());
+        long latency = latencyNanos;
+        details.put("probeLatencyMs", latency < 0 ? null : latency / 1_000_000.0);
+        details.put("lastProbe", lastProbe == null ? null : lastProbe.toString());
+        if (!up) {
+            details.put("error", lastError);
+        }
+        return details;
+    }
+
+    /**
+     * Sends one ping and applies the result.
+     */
+    synchronized void probe() {
+        lastProbe = Instant.now();
+        if (inFlight != null && !inFlight.isDone()) {
+            down("previous ping still running");
+            return;
+        }
+        long start = System.nanoTime();
+        inFlight = pinger.submit(() -> mongoTemplate.executeCommand(PING));
+        try {
+            inFlight.get(timeoutNanos, TimeUnit.NANOSECONDS);
+            long latency = System.nanoTime() - start;
+            latencyNanos = latency;
+            metrics.recordMongoProbe(latency);
+            if (latency > breaker.slowCallNanos()) {
+                down("ping took " + TimeUnit.NANOSECONDS.toMillis(latency) + " ms");
+                return;
+            }
+            if (!up) {
+                logger.info("MongoDB reachable, ping {} ms", TimeUnit.NANOSECONDS.toMillis(latency));
+            }
+            up = true;
+            breaker.probeSucceeded();
+        } catch (TimeoutException e) {
+            down("no ping answer within " + TimeUnit.NANOSECONDS.toMillis(timeoutNanos) + " ms");
+        } catch (ExecutionException e) {
+            down(e.getCause().getClass().getSimpleName() + ": " + e.getCause().getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void down(String reason) {
+        lastError = reason;
+        up = false;
+        breaker.probeFailed(reason);
+    }
+
+    private void probeSafely() {
+        try {
+            probe();
+        } catch (Exception e) {
+            logger.error("MongoDB health probe error: {}", e.getMessage(), e);
+        }
+    }
+
+    private static ExecutorService newPinger() {
+        return Executors.newSingleThreadExecutor(task -> daemon(task, "mongo-health-ping"));
+    }
+
+    private static Thread daemon(Runnable task, String name) {
+        Thread thread = new Thread(task, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    @Override
+    public synchronized void start() {
+        if (scheduler != null) {
+            return;
+        }
+        if (pinger.isShutdown()) {
+            pinger = newPinger();
+            inFlight = null;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(task -> daemon(task, "mongo-health-prober"));
+        scheduler.scheduleWithFixedDelay(this::probeSafely, 0, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (scheduler == null) {
+            return;
+        }
+        scheduler.shutdownNow();
+        scheduler = null;
+        pinger.shutdownNow();
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return scheduler != null;
+    }
+}
@@ -0,0 +1,26 @@
+package com.wizkhalubernetes.health;
+
+import org.springframework.dao.DataAccessResourceFailureException;
+
+/**
+ * Thrown instead of calling MongoDB while the {@link MongoCircuitBreaker} is open. It is a
+ * DataAccessResourceFailureException, so callers that already map an unreachable database to
+ * 503 handle it unchanged; {@link #getRetryAfterSeconds()} feeds the Retry-After header.
+ */
+public class MongoUnavailableException extends DataAccessResourceFailureException {
+    private final long retryAfterSeconds;
+
+    /**
+     * @param retryAfterSeconds seconds until the breaker lets a trial call through
+     */
+    public MongoUnavailableException(long retryAfterSeconds) {
+        super("MongoDB unavailable (circuit breaker open), retry in " + retryAfterSeconds + "s");
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    /**
+     * Gets the number of seconds after which a retry may reach the database.
+     * @return seconds, at least 1
+     */
+    public long getRetryAfterSeconds() { return retryAfterSeconds; }
+}
@@ -0,0 +1,87 @@
+package com.wizkhalubernetes.logging;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.filter.Filter;
+import ch.qos.logback.core.spi.FilterReply;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Logback appender filter that lets at most maxPerSecond events per message template through each
+ * second and drops the rest before the message is formatted or queued, so a burst of identical
+ * errors (e.g. the DB going away under load) cannot flood the log or the async queue.
+ * Dropped events are counted in {@link #suppressedCount()} (log_events_suppressed_total).
+ * An appender filter rather than a TurboFilter: it only sees events that passed the level check,
+ * and a second turbo filter next to Micrometer's would make logback copy its filter list on every
+ * isDebugEnabled() call. Configured in logback-spring.xml.
+ */
+public class RateLimitingFilter extends Filter<ILoggingEvent> {
+    private static final AtomicLong SUPPRESSED = new AtomicLong();
+
+    private final ConcurrentHashMap<String, Window> windows = new ConcurrentHashMap<>();
+    private int maxPerSecond = 20;
+    private int maxTemplates = 1024;
+
+    /**
+     * Gets the number of log events dropped by the filter since startup.
+     * @return suppressed event count
+     */
+    public static long suppressedCount() {
+        return SUPPRESSED.get();
+    }
+
+    /**
+     * @param maxPerSecond events allowed per message template and second; 0 disables the limit
+     */
+    public void setMaxPerSecond(int maxPerSecond) {
+        this.maxPerSecond = maxPerSecond;
+    }
+
+    /**
+     * @param maxTemplates number of message templates tracked before the windows are reset
+     */
+    public void setMaxTemplates(int maxTemplates) {
+        this.maxTemplates = maxTemplates;
+    }
+
+    @Override
+    public FilterReply decide(ILoggingEvent event) {
+        String template = event.getMessage();
+        if (template == null || maxPerSecond <= 0) {
+            return FilterReply.NEUTRAL;
+        }
+        Window window = windows.get(template);
+        if (window == null) {
+            if (windows.size() >= maxTemplates) {
+                windows.clear();
+            }
+            window = windows.computeIfAbsent(template, key -> new Window());
+        }
+        if (window.tryAcquire(event.getTimeStamp() / 1000, maxPerSecond)) {
+            return FilterReply.NEUTRAL;
+        }
+        SUPPRESSED.incrementAndGet();
+        return FilterReply.DENY;
+    }
+
+    /**
+     * One-second fixed window: epoch second in the high 32 bits, events seen in the low 32 bits.
+     */
+    private static final class Window {
+        private final AtomicLong state = new AtomicLong();
+
+        boolean tryAcquire(long second, int max) {
+            while (true) {
+                long current = state.get();
+                boolean sameSecond = current >>> 32 == second;
+                if (sameSecond && (int) current >= max) {
+                    return false;
+                }
+                long next = sameSecond ? current + 1 : second << 32 | 1;
+                if (state.compareAndSet(current, next)) {
+                    return true;
+                }
+            }
+        }
+    }
+}
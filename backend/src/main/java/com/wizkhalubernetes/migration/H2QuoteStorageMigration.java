@@ -0,0 +1,51 @@
+package com.wizkhalubernetes.migration;
+
+import com.wizkhalubernetes.model.QuoteCodec;
+import org.springframework.jdbc.core.JdbcTemplate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Storage migration for the H2 quotes table: fills created_at and ip_addr from the timestamp and
+ * ip text columns and sets those to NULL. Rows whose text cannot be typed keep it.
+ */
+public class H2QuoteStorageMigration implements QuoteStorageMigration {
+    static final String SELECT = "SELECT id, timestamp, ip FROM quotes WHERE id > ?"
+        + " AND (timestamp IS NOT NULL OR (ip IS NOT NULL AND ip_addr IS NULL)) ORDER BY id LIMIT ?";
+    static final String UPDATE = "UPDATE quotes SET created_at = ?, timestamp = ?, ip_addr = ?, ip = ? WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private long lastId;
+
+    /**
+     * @param jdbcTemplate JdbcTemplate for the H2 datasource
+     */
+    public H2QuoteStorageMigration(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public int migrateNext(int batchSize) {
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(SELECT, lastId, batchSize);
+        if (rows.isEmpty()) {
+            return -1;
+        }
+        List<Object[]> updates = new ArrayList<>(rows.size());
+        for (Map<String, Object> row : rows) {
+            String timestamp = (String) row.get("TIMESTAMP");
+            String ip = (String) row.get("IP");
+            Long createdAt = QuoteCodec.epochMillis(timestamp);
+            byte[] address = QuoteCodec.pack(ip);
+            if (createdAt != null || address != null) {
+                updates.add(new Object[]{createdAt, createdAt != null ? null : timestamp, address,
+                    address != null ? null : ip, row.get("ID")});
+            }
+        }
+        lastId = ((Number) rows.get(rows.size() - 1).get("ID")).longValue();
+        if (!updates.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPDATE, updates);
+        }
+        return updates.size();
+    }
+}
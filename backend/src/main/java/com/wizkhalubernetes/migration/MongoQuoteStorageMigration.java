@@ -0,0 +1,83 @@
+package com.wizkhalubernetes.migration;
+
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.Sorts;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.WriteModel;
+import com.wizkhalubernetes.model.QuoteCodec;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bson.types.Binary;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Storage migration for the MongoDB quotes collection: sets ts and addr from the timestamp and ip
+ * strings and unsets those, and drops the _class type key the converter no longer writes. Documents
+ * whose text cannot be typed keep it. One unordered bulkWrite per batch.
+ */
+public class MongoQuoteStorageMigration implements QuoteStorageMigration {
+    private static final Bson NEEDS_MIGRATION = Filters.or(
+        Filters.exists("timestamp"),
+        Filters.and(Filters.exists("ip"), Filters.exists("addr", false)),
+        Filters.exists("_class"));
+
+    private final MongoTemplate mongoTemplate;
+    private final String collection;
+    private Object lastId;
+
+    /**
+     * @param mongoTemplate MongoTemplate bean
+     * @param collection name of the quotes collection
+     */
+    public MongoQuoteStorageMigration(MongoTemplate mongoTemplate, String collection) {
+        this.mongoTemplate = mongoTemplate;
+        this.collection = collection;
+    }
+
+    @Override
+    public int migrateNext(int batchSize) {
+        Bson filter = lastId == null ? NEEDS_MIGRATION : Filters.and(Filters.gt("_id", lastId), NEEDS_MIGRATION);
+        List<Document> documents = mongoTemplate.getCollection(collection).find(filter)
+            .projection(Projections.include("timestamp", "ip", "_class"))
+            .sort(Sorts.ascending("_id"))
+            .limit(batchSize)
+            .into(new ArrayList<>());
+        if (documents.isEmpty()) {
+            return -1;
+        }
+        List<WriteModel<Document>> updates = new ArrayList<>(documents.size());
+        for (Document document : documents) {
+            Document set = new Document();
+            Document unset = new Document();
+            Long createdAt = document.get("timestamp") instanceof String text ? QuoteCodec.epochMillis(text) : null;
+            if (createdAt != null) {
+                set.append("ts", createdAt);
+                unset.append("timestamp", "");
+            }
+            byte[] address = document.get("ip") instanceof String ip ? QuoteCodec.pack(ip) : null;
+            if (address != null) {
+                set.append("addr", new Binary(address));
+                unset.append("ip", "");
+            }
+            if (document.containsKey("_class")) {
+                unset.append("_class", "");
+            }
+            if (!unset.isEmpty()) {
+                Document update = new Document("$unset", unset);
+                if (!set.isEmpty()) {
+                    update.append("$set", set);
+                }
+                updates.add(new UpdateOneModel<>(Filters.eq("_id", document.get("_id")), update));
+            }
+        }
+        lastId = documents.get(documents.size() - 1).get("_id");
+        if (!updates.isEmpty()) {
+            mongoTemplate.getCollection(collection).bulkWrite(updates, new BulkWriteOptions().ordered(false));
+        }
+        return updates.size();
+    }
+}
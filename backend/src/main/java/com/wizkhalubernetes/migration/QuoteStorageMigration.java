@@ -0,0 +1,17 @@
+package com.wizkhalubernetes.migration;
+
+/**
+ * Rewrites quotes stored before the typed storage model (see com.wizkhalubernetes.model.Quote) in
+ * place: the ISO-8601 timestamp text becomes epoch milliseconds and IP literals are packed, and the
+ * text columns/fields are cleared. Walks the table or collection once in ID order, so it can run
+ * while the application serves traffic; {@link QuoteStorageMigrationRunner} drives it.
+ */
+public interface QuoteStorageMigration {
+    /**
+     * Rewrites the next batch of records after the last one examined.
+     * @param batchSize maximum number of records to examine
+     * @return number of records rewritten (0 when none of the batch needed it), or -1 once every
+     *         record has been examined
+     */
+    int migrateNext(int batchSize);
+}
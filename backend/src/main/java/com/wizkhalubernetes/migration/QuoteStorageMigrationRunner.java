@@ -0,0 +1,136 @@
+package com.wizkhalubernetes.migration;
+
+import com.wizkhalubernetes.prometheus.QuoteMetricsService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs the active DB's {@link QuoteStorageMigration} online: one batch of quotes.migration.batch-size
+ * records every quotes.migration.pause on a background thread, so stored quotes move to the typed
+ * model while the API keeps serving (entities read either form in between). A failed batch
+ * (e.g. MongoDB down) is retried every quotes.migration.retry-interval. Nothing to do for the
+ * mmap log, which has always stored the typed form.
+ * Exported as quote_storage_migration_rewritten_total and quote_storage_migration_done.
+ */
+@Component
+public class QuoteStorageMigrationRunner implements SmartLifecycle {
+    private static final Logger logger = LoggerFactory.getLogger(QuoteStorageMigrationRunner.class);
+
+    private final ObjectProvider<QuoteStorageMigration> migration;
+    private final boolean enabled;
+    private final int batchSize;
+    private final long pauseMillis;
+    private final long retryMillis;
+    private final LongAdder rewritten = new LongAdder();
+    private volatile boolean done;
+    private ScheduledExecutorService worker;
+
+    /**
+     * @param migration storage migration of the active DB, if it has one
+     * @param metrics metrics service for the migration counter and gauge
+     * @param enabled whether the migration runs at startup
+     * @param batchSize records read per batch
+     * @param pause delay between batches, leaving the DB to the API
+     * @param retryInterval delay before retrying a failed batch
+     */
+    public QuoteStorageMigrationRunner(ObjectProvider<QuoteStorageMigration> migration, QuoteMetricsService metrics,
+                                       @Value("${quotes.migration.enabled:true}") boolean enabled,
+                                       @Value("${quotes.migration.batch-size:500}") int batchSize,
+                                       @Value("${quotes.migration.pause:100ms}") Duration pause,
+                                       @Value("${quotes.migration.retry-interval:10s}") Duration retryInterval) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("quotes.migration.batch-size must be at least 1");
+        }
+        if (pause.isNegative() || retryInterval.isNegative() || retryInterval.isZero()) {
+            throw new IllegalArgumentException("quotes.migration.pause must not be negative and retry-interval must be positive");
+        }
+        this.migration = migration;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.pauseMillis = pause.toMillis();
+        this.retryMillis = retryInterval.toMillis();
+        metrics.registerStorageMigration(rewritten, () -> done ? 1 : 0);
+    }
+
+    /**
+     * Tells whether every stored quote has been visited.
+     * @return true once the migration has finished
+     */
+    public boolean isDone() { return done; }
+
+    /**
+     * Gets the number of records rewritten so far.
+     * @return records rewritten
+     */
+    public long rewritten() { return rewritten.sum(); }
+
+    /**
+     * Migrates one batch and schedules the next one; reschedules itself when the DB fails.
+     */
+    void step() {
+        QuoteStorageMigration storageMigration = migration.getIfAvailable();
+        if (storageMigration == null) {
+            done = true;
+            return;
+        }
+        int count;
+        try {
+            count = storageMigration.migrateNext(batchSize);
+        } catch (Exception e) {
+            logger.error("Storage migration batch failed, retrying in {} ms: {}", retryMillis, e.getMessage());
+            schedule(retryMillis);
+            return;
+        }
+        if (count < 0) {
+            done = true;
+            logger.info("Storage migration finished: {} quotes rewritten", rewritten.sum());
+            return;
+        }
+        rewritten.add(count);
+        schedule(pauseMillis);
+    }
+
+    private synchronized void schedule(long delayMillis) {
+        if (worker != null) {
+            worker.schedule(this::step, delayMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    public synchronized void start() {
+        if (!enabled || worker != null) {
+            return;
+        }
+        worker = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "quote-storage-migration");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (!done) {
+            worker.execute(this::step);
+        }
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (worker == null) {
+            return;
+        }
+        worker.shutdownNow();
+        worker = null;
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return worker != null;
+    }
+}
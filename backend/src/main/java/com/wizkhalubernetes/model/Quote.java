@@ -1,39 +1,50 @@
-// Data model for Wiz Khalifa quotes stored in MongoDB
+// Storage model shared by the quote entities of every backend
 
 package com.wizkhalubernetes.model;
 
-import org.springframework.data.annotation.Id;
-import org.springframework.data.mongodb.core.mapping.Document;
-import jakarta.persistence.*;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import org.springframework.data.mongodb.core.mapping.Field;
+import jakarta.persistence.Column;
+import jakarta.persistence.MappedSuperclass;
 
 /**
- * Data model for Wiz Khalifa quotes stored in MongoDB and H2.
- * Contains quote text, timestamp, IP, and quote number.
+ * Storage model shared by the quote entities of every backend (QuoteH2, QuoteMongo, QuoteMmap), which
+ * only add their ID. The submission time is kept as epoch milliseconds and the IP as a packed 4 or
+ * 16-byte address; the quote text is at most {@link #MAX_LENGTH} characters.
+ * <p>
+ * The API shape is unchanged: getTimestamp and getIp map the stored values back to ISO-8601 and
+ * IP text (see {@link QuoteCodec}). Values that cannot be typed (an IP that is not a literal, e.g.
+ * a forwarded-for list) and rows written before the typed columns existed keep their text in the
+ * legacy ip/timestamp fields until the storage migration rewrites them.
  */
-@Entity
-@Table(name = "quotes")
-@Document(collection = "quotes")
-public class Quote {
-    @Id
-    @jakarta.persistence.Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
-    private Long id;
+@MappedSuperclass
+@JsonPropertyOrder({"id", "quote", "timestamp", "ip", "quoteNumber"})
+public abstract class Quote {
+    /** Longest quote text accepted, in characters. */
+    public static final int MAX_LENGTH = 255;
 
+    @Column(length = MAX_LENGTH)
     private String quote;
-    private String timestamp;
-    private String ip;
+    @Field("ts")
+    @Column(name = "created_at")
+    private Long createdAt;
+    @Field("addr")
+    @Column(name = "ip_addr", length = 16)
+    private byte[] ipAddress;
+    @Field("ip")
+    @Column(name = "ip")
+    private String ipText;
+    @Field("timestamp")
+    @Column(name = "timestamp")
+    private String legacyTimestamp;
     private int quoteNumber;
 
     /**
      * Gets the unique ID of the quote.
      * @return quote ID
      */
-    public Long getId() { return id; }
-    /**
-     * Sets the unique ID of the quote.
-     * @param id quote ID
-     */
-    public void setId(Long id) { this.id = id; }
+    public abstract Object getId();
     /**
      * Gets the quote text.
      * @return quote string
@@ -46,24 +57,63 @@ public class Quote {
     public void setQuote(String quote) { this.quote = quote; }
     /**
      * Gets the timestamp when the quote was submitted.
-     * @return timestamp string
+     * @return ISO-8601 timestamp, with millisecond precision once typed
      */
-    public String getTimestamp() { return timestamp; }
+    public String getTimestamp() {
+        return createdAt != null ? QuoteCodec.timestamp(createdAt) : legacyTimestamp;
+    }
     /**
-     * Sets the timestamp when the quote was submitted.
+     * Sets the timestamp when the quote was submitted; stored as epoch milliseconds when it is an
+     * ISO-8601 instant.
      * @param timestamp timestamp string
      */
-    public void setTimestamp(String timestamp) { this.timestamp = timestamp; }
+    public void setTimestamp(String timestamp) {
+        createdAt = QuoteCodec.epochMillis(timestamp);
+        legacyTimestamp = createdAt == null ? timestamp : null;
+    }
+    /**
+     * Gets the submission time.
+     * @return epoch milliseconds, or null if the timestamp is missing or not typed
+     */
+    @JsonIgnore
+    public Long getCreatedAt() { return createdAt; }
+    /**
+     * Sets the submission time.
+     * @param createdAt epoch milliseconds, or null
+     */
+    public void setCreatedAt(Long createdAt) {
+        this.createdAt = createdAt;
+        this.legacyTimestamp = null;
+    }
     /**
      * Gets the IP address of the submitter.
      * @return IP address string
      */
-    public String getIp() { return ip; }
+    public String getIp() {
+        return ipAddress != null ? QuoteCodec.unpack(ipAddress) : ipText;
+    }
     /**
-     * Sets the IP address of the submitter.
+     * Sets the IP address of the submitter; stored packed when it is an IP literal.
      * @param ip IP address string
      */
-    public void setIp(String ip) { this.ip = ip; }
+    public void setIp(String ip) {
+        ipAddress = QuoteCodec.pack(ip);
+        ipText = ipAddress == null ? ip : null;
+    }
+    /**
+     * Gets the packed IP address of the submitter.
+     * @return 4 or 16 address bytes, or null if the IP is missing or not a literal
+     */
+    @JsonIgnore
+    public byte[] getIpAddress() { return ipAddress; }
+    /**
+     * Sets the packed IP address of the submitter.
+     * @param ipAddress 4 or 16 address bytes, or null
+     */
+    public void setIpAddress(byte[] ipAddress) {
+        this.ipAddress = ipAddress;
+        this.ipText = null;
+    }
     /**
      * Gets the quote number (sequence).
      * @return quote number
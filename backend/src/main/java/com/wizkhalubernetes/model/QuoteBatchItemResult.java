@@ -0,0 +1,106 @@
+package com.wizkhalubernetes.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Outcome of one quote in a batch insert: "created" with the assigned id and quote number,
+ * "rejected" when the item was invalid, or "failed" when the DB refused it.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class QuoteBatchItemResult {
+    public static final String CREATED = "created";
+    public static final String REJECTED = "rejected";
+    public static final String FAILED = "failed";
+
+    private int index;
+    private final String status;
+    private final Object id;
+    private final Integer quoteNumber;
+    private final String error;
+    private final Object quote;
+
+    private QuoteBatchItemResult(int index, String status, Object id, Integer quoteNumber, String error, Object quote) {
+        this.index = index;
+        this.status = status;
+        this.id = id;
+        this.quoteNumber = quoteNumber;
+        this.error = error;
+        this.quote = quote;
+    }
+
+    /**
+     * Result for a stored quote.
+     * @param index position of the item
+     * @param id id assigned by the DB
+     * @param quoteNumber quote number of the stored quote
+     * @param quote stored entity (not serialized)
+     * @return created result
+     */
+    public static QuoteBatchItemResult created(int index, Object id, int quoteNumber, Object quote) {
+        return new QuoteBatchItemResult(index, CREATED, id, quoteNumber, null, quote);
+    }
+
+    /**
+     * Result for an item that failed validation and was never sent to the DB.
+     * @param index position of the item
+     * @param error reason
+     * @return rejected result
+     */
+    public static QuoteBatchItemResult rejected(int index, String error) {
+        return new QuoteBatchItemResult(index, REJECTED, null, null, error, null);
+    }
+
+    /**
+     * Result for an item the DB refused.
+     * @param index position of the item
+     * @param error DB error message
+     * @return failed result
+     */
+    public static QuoteBatchItemResult failed(int index, String error) {
+        return new QuoteBatchItemResult(index, FAILED, null, null, error, null);
+    }
+
+    /**
+     * Gets the position of the item in the request body.
+     * @return zero-based index
+     */
+    public int getIndex() { return index; }
+    /**
+     * Sets the position of the item in the request body.
+     * @param index zero-based index
+     */
+    public void setIndex(int index) { this.index = index; }
+    /**
+     * Gets the status: created, rejected or failed.
+     * @return status
+     */
+    public String getStatus() { return status; }
+    /**
+     * Gets the id of the stored quote (created only).
+     * @return id or null
+     */
+    public Object getId() { return id; }
+    /**
+     * Gets the quote number of the stored quote (created only).
+     * @return quote number or null
+     */
+    public Integer getQuoteNumber() { return quoteNumber; }
+    /**
+     * Gets the error message (rejected and failed only).
+     * @return error or null
+     */
+    public String getError() { return error; }
+    /**
+     * Gets the stored entity, for cache updates; not part of the JSON response.
+     * @return stored entity or null
+     */
+    @JsonIgnore
+    public Object getQuote() { return quote; }
+    /**
+     * Whether the quote was stored.
+     * @return true for created
+     */
+    @JsonIgnore
+    public boolean isCreated() { return CREATED.equals(status); }
+}
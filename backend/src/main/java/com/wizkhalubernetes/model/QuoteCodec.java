@@ -0,0 +1,132 @@
+package com.wizkhalubernetes.model;
+
+import java.net.Inet6Address;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.DateTimeException;
+import java.time.Instant;
+
+/**
+ * Maps quote fields between their API form (ISO-8601 timestamp, IP text) and their stored form
+ * (epoch milliseconds, packed 4/16-byte address). Shared by every backend and by the storage
+ * migration, so all of them type the same values the same way.
+ */
+public final class QuoteCodec {
+
+    private QuoteCodec() {
+    }
+
+    /**
+     * Parses an ISO-8601 instant.
+     * @param timestamp timestamp text, may be null
+     * @return epoch milliseconds, or null if the text is null or not an ISO-8601 instant
+     */
+    public static Long epochMillis(String timestamp) {
+        if (timestamp == null) {
+            return null;
+        }
+        try {
+            return Instant.parse(timestamp).toEpochMilli();
+        } catch (DateTimeException | ArithmeticException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Formats epoch milliseconds as an ISO-8601 instant, as Instant.toString does.
+     * @param epochMillis epoch milliseconds
+     * @return timestamp text
+     */
+    public static String timestamp(long epochMillis) {
+        return Instant.ofEpochMilli(epochMillis).toString();
+    }
+
+    /**
+     * Packs an IP literal into its address bytes, or returns null when the text would not survive the
+     * round trip (hostnames, lists, zero-padded or abbreviated forms). Never does a DNS lookup.
+     * @param ip IP text, may be null
+     * @return 4 or 16 address bytes, or null
+     */
+    public static byte[] pack(String ip) {
+        if (ip == null || ip.isEmpty()) {
+            return null;
+        }
+        if (ip.indexOf(':') < 0) {
+            return packIpv4(ip);
+        }
+        InetAddress address = ipv6Literal(ip);
+        return address instanceof Inet6Address && address.getHostAddress().equals(ip) ? address.getAddress() : null;
+    }
+
+    /**
+     * Parses an IP literal in any of its forms ("::1" as well as "0:0:0:0:0:0:0:1") into the bytes
+     * {@link #pack} stores for it, for matching a query against stored addresses. Never does a DNS lookup.
+     * @param ip IP text, may be null
+     * @return 4 or 16 address bytes, or null if the text is not an IP literal
+     */
+    public static byte[] address(String ip) {
+        byte[] packed = pack(ip);
+        if (packed != null || ip == null || ip.indexOf(':') < 0) {
+            return packed;
+        }
+        InetAddress address = ipv6Literal(ip);
+        return address == null ? null : address.getAddress();
+    }
+
+    /**
+     * Formats packed address bytes as IP text.
+     * @param address 4 or 16 address bytes
+     * @return IP text
+     * @throws IllegalArgumentException if the address is neither 4 nor 16 bytes
+     */
+    public static String unpack(byte[] address) {
+        if (address.length == 4) {
+            return (address[0] & 0xff) + "." + (address[1] & 0xff) + "." + (address[2] & 0xff) + "." + (address[3] & 0xff);
+        }
+        try {
+            return InetAddress.getByAddress(address).getHostAddress();
+        } catch (UnknownHostException e) {
+            throw new IllegalArgumentException("Not a 4 or 16 byte address: " + address.length + " bytes", e);
+        }
+    }
+
+    private static InetAddress ipv6Literal(String ip) {
+        for (int i = 0; i < ip.length(); i++) {
+            char c = ip.charAt(i);
+            if (c != ':' && c != '.' && Character.digit(c, 16) < 0) {
+                return null;
+            }
+        }
+        try {
+            // Only hex digits, ':' and '.': parsed as a literal, never resolved
+            return InetAddress.getByName(ip);
+        } catch (UnknownHostException e) {
+            return null;
+        }
+    }
+
+    private static byte[] packIpv4(String ip) {
+        byte[] address = new byte[4];
+        int part = 0;
+        int value = -1;
+        for (int i = 0; i <= ip.length(); i++) {
+            char c = i < ip.length() ? ip.charAt(i) : '.';
+            if (c == '.') {
+                if (value < 0 || part == 4) {
+                    return null;
+                }
+                address[part++] = (byte) value;
+                value = -1;
+            } else if (c >= '0' && c <= '9' && value != 0) {
+                value = (value < 0 ? 0 : value * 10) + (c - '0');
+                if (value > 255) {
+                    return null;
+                }
+            } else {
+                // Not a digit, or a digit after a leading zero
+                return null;
+            }
+        }
+        return part == 4 ? address : null;
+    }
+}
@@ -0,0 +1,33 @@
+package com.wizkhalubernetes.model;
+
+import java.util.List;
+
+/**
+ * One keyset page of quotes returned by GET /api/quotes?after=&limit=.
+ * Contains the quotes on this page and the cursor for the next page (null on the last page).
+ * @param <T> quote entity type of the active DB
+ */
+public class QuotePage<T> {
+    private final List<T> items;
+    private final String nextCursor;
+
+    /**
+     * @param items quotes on this page
+     * @param nextCursor cursor to pass as "after" for the next page, or null if this is the last page
+     */
+    public QuotePage(List<T> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    /**
+     * Gets the quotes on this page.
+     * @return list of quotes
+     */
+    public List<T> getItems() { return items; }
+    /**
+     * Gets the cursor for the next page.
+     * @return next cursor, or null on the last page
+     */
+    public String getNextCursor() { return nextCursor; }
+}
@@ -0,0 +1,44 @@
+package com.wizkhalubernetes.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import java.util.List;
+
+/**
+ * Quotes matching a GET /api/quotes/search query, best match first.
+ * Carries the engine that answered ("index" or "mongo") and, for the in-memory index, the total
+ * number of matching quotes (the MongoDB text index does not count them).
+ * @param <T> quote entity type of the active DB
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class QuoteSearchResult<T> {
+    private final String engine;
+    private final Integer total;
+    private final List<T> items;
+
+    /**
+     * @param engine search engine that answered the query
+     * @param total number of matching quotes, or null when unknown
+     * @param items best matching quotes, best first
+     */
+    public QuoteSearchResult(String engine, Integer total, List<T> items) {
+        this.engine = engine;
+        this.total = total;
+        this.items = items;
+    }
+
+    /**
+     * Gets the search engine that answered the query.
+     * @return "index" or "mongo"
+     */
+    public String getEngine() { return engine; }
+    /**
+     * Gets the number of matching quotes.
+     * @return total matches, or null when unknown
+     */
+    public Integer getTotal() { return total; }
+    /**
+     * Gets the best matching quotes.
+     * @return quotes, best match first
+     */
+    public List<T> getItems() { return items; }
+}
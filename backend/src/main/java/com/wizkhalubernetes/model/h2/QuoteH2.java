@@ -1,71 +1,35 @@
 package com.wizkhalubernetes.model.h2;
 
+import com.wizkhalubernetes.model.Quote;
 import jakarta.persistence.*;
 
 /**
  * Data model for Wiz Khalifa quotes stored in H2 database.
- * Contains quote text, timestamp, IP, and quote number.
+ * The stored fields come from {@link Quote}; this class adds the id.
+ * Ids come from a pooled sequence (not IDENTITY) so Hibernate can batch inserts.
  */
 @Entity
-@Table(name = "quotes")
-public class QuoteH2 {
+@Table(name = "quotes", indexes = {
+    @Index(name = "idx_quotes_quote_number", columnList = "quoteNumber DESC"),
+    @Index(name = "idx_quotes_quote_number_id", columnList = "quoteNumber, id"),
+    @Index(name = "idx_quotes_created_at", columnList = "created_at, quote_number, id"),
+    @Index(name = "idx_quotes_ip_addr_created_at", columnList = "ip_addr, created_at, quote_number, id")
+})
+public class QuoteH2 extends Quote {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "quotes_id_seq")
+    @SequenceGenerator(name = "quotes_id_seq", sequenceName = "quotes_id_seq", allocationSize = 50)
     private Long id;
 
-    private String quote;
-    private String timestamp;
-    private String ip;
-    private int quoteNumber;
-
     /**
      * Gets the unique ID of the quote.
      * @return quote ID
      */
+    @Override
     public Long getId() { return id; }
     /**
      * Sets the unique ID of the quote.
      * @param id quote ID
      */
     public void setId(Long id) { this.id = id; }
-    /**
-     * Gets the quote text.
-     * @return quote string
-     */
-    public String getQuote() { return quote; }
-    /**
-     * Sets the quote text.
-     * @param quote quote string
-     */
-    public void setQuote(String quote) { this.quote = quote; }
-    /**
-     * Gets the timestamp when the quote was submitted.
-     * @return timestamp string
-     */
-    public String getTimestamp() { return timestamp; }
-    /**
-     * Sets the timestamp when the quote was submitted.
-     * @param timestamp timestamp string
-     */
-    public void setTimestamp(String timestamp) { this.timestamp = timestamp; }
-    /**
-     * Gets the IP address of the submitter.
-     * @return IP address string
-     */
-    public String getIp() { return ip; }
-    /**
-     * Sets the IP address of the submitter.
-     * @param ip IP address string
-     */
-    public void setIp(String ip) { this.ip = ip; }
-    /**
-     * Gets the quote number (sequence).
-     * @return quote number
-     */
-    public int getQuoteNumber() { return quoteNumber; }
-    /**
-     * Sets the quote number (sequence).
-     * @param quoteNumber quote number
-     */
-    public void setQuoteNumber(int quoteNumber) { this.quoteNumber = quoteNumber; }
 }
@@ -0,0 +1,38 @@
+package com.wizkhalubernetes.model.mmap;
+
+import com.wizkhalubernetes.model.Quote;
+
+/**
+ * Data model for Wiz Khalifa quotes stored in the local memory-mapped quote log (REMOTE_DB=local-mmap).
+ * The stored fields come from {@link Quote}. The log is keyed by quote number, so the quote number
+ * doubles as the id.
+ */
+public class QuoteMmap extends Quote {
+
+    /**
+     * Creates an empty quote.
+     */
+    public QuoteMmap() {
+    }
+
+    /**
+     * Creates a quote.
+     * @param quote quote text
+     * @param timestamp ISO-8601 timestamp
+     * @param ip IP address of the submitter
+     * @param quoteNumber quote number
+     */
+    public QuoteMmap(String quote, String timestamp, String ip, int quoteNumber) {
+        setQuote(quote);
+        setTimestamp(timestamp);
+        setIp(ip);
+        setQuoteNumber(quoteNumber);
+    }
+
+    /**
+     * Gets the unique ID of the quote, which is its quote number.
+     * @return quote ID
+     */
+    @Override
+    public Long getId() { return (long) getQuoteNumber(); }
+}
@@ -1,70 +1,31 @@
 package com.wizkhalubernetes.model.mongo;
 
+import com.wizkhalubernetes.model.Quote;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 /**
  * Data model for Wiz Khalifa quotes stored in MongoDB.
- * Contains quote text, timestamp, IP, and quote number.
+ * The stored fields come from {@link Quote}; this class adds the ObjectId.
  */
 @Document(collection = "quotes")
-public class QuoteMongo {
+@CompoundIndex(name = "quoteNumber_id_idx", def = "{'quoteNumber': -1, '_id': -1}")
+@CompoundIndex(name = "ts_quoteNumber_id_idx", def = "{'ts': 1, 'quoteNumber': 1, '_id': 1}")
+@CompoundIndex(name = "addr_ts_quoteNumber_id_idx", def = "{'addr': 1, 'ts': 1, 'quoteNumber': 1, '_id': 1}")
+public class QuoteMongo extends Quote {
     @Id
     private String id;
 
-    private String quote;
-    private String timestamp;
-    private String ip;
-    private int quoteNumber;
-
     /**
      * Gets the unique ID of the quote.
      * @return quote ID
      */
+    @Override
     public String getId() { return id; }
     /**
      * Sets the unique ID of the quote.
      * @param id quote ID
      */
     public void setId(String id) { this.id = id; }
-    /**
-     * Gets the quote text.
-     * @return quote string
-     */
-    public String getQuote() { return quote; }
-    /**
-     * Sets the quote text.
-     * @param quote quote string
-     */
-    public void setQuote(String quote) { this.quote = quote; }
-    /**
-     * Gets the timestamp when the quote was submitted.
-     * @return timestamp string
-     */
-    public String getTimestamp() { return timestamp; }
-    /**
-     * Sets the timestamp when the quote was submitted.
-     * @param timestamp timestamp string
-     */
-    public void setTimestamp(String timestamp) { this.timestamp = timestamp; }
-    /**
-     * Gets the IP address of the submitter.
-     * @return IP address string
-     */
-    public String getIp() { return ip; }
-    /**
-     * Sets the IP address of the submitter.
-     * @param ip IP address string
-     */
-    public void setIp(String ip) { this.ip = ip; }
-    /**
-     * Gets the quote number (sequence).
-     * @return quote number
-     */
-    public int getQuoteNumber() { return quoteNumber; }
-    /**
-     * Sets the quote number (sequence).
-     * @param quoteNumber quote number
-     */
-    public void setQuoteNumber(int quoteNumber) { this.quoteNumber = quoteNumber; }
 }
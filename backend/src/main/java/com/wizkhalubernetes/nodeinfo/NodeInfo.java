@@ -0,0 +1,45 @@
+package com.wizkhalubernetes.nodeinfo;
+
+import java.net.InetAddress;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Collects the node/system info returned by GET /api/nodeinfo. Only called by
+ * {@link NodeInfoSampler}, never on a request thread: the host name lookup can block on DNS.
+ */
+final class NodeInfo {
+    private static final Logger logger = LoggerFactory.getLogger(NodeInfo.class);
+
+    private NodeInfo() {
+    }
+
+    static Map<String, Object> collect() {
+        Map<String, Object> info = new LinkedHashMap<>();
+        info.put("hostname", hostName());
+        info.put("app", "Wiz Khalubernetes");
+        info.put("os.name", System.getProperty("os.name"));
+        info.put("os.version", System.getProperty("os.version"));
+        info.put("os.arch", System.getProperty("os.arch"));
+        info.put("availableProcessors", Runtime.getRuntime().availableProcessors());
+        info.put("maxMemoryMB", Runtime.getRuntime().maxMemory() / (1024 * 1024));
+        info.put("totalMemoryMB", Runtime.getRuntime().totalMemory() / (1024 * 1024));
+        info.put("freeMemoryMB", Runtime.getRuntime().freeMemory() / (1024 * 1024));
+        info.put("timestamp", Instant.now().toString());
+        // Add more Docker/container-specific info if needed
+        return Collections.unmodifiableMap(info);
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            logger.error("Exception in getHostName: {}", e.getMessage(), e);
+            return "unknown";
+        }
+    }
+}
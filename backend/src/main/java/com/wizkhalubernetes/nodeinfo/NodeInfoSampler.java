@@ -0,0 +1,129 @@
+package com.wizkhalubernetes.nodeinfo;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * Samples host, runtime and memory info on a background thread every
+ * quotes.nodeinfo.refresh-interval (default 5s) into an immutable {@link NodeInfoSnapshot} with
+ * pre-serialized JSON and an ETag. GET /api/nodeinfo only hands out the current snapshot, so a
+ * request never blocks on DNS or serializes anything, and pollers holding the current ETag get an
+ * empty 304. The first sample is taken at startup.
+ */
+@Component
+public class NodeInfoSampler implements SmartLifecycle {
+    private static final Logger logger = LoggerFactory.getLogger(NodeInfoSampler.class);
+    private static final CacheControl NO_CACHE = CacheControl.noCache();
+
+    private final ObjectMapper objectMapper;
+    private final long intervalMillis;
+    private volatile NodeInfoSnapshot snapshot;
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * @param objectMapper JSON mapper for the pre-serialized body
+     * @param interval time between samples
+     */
+    public NodeInfoSampler(ObjectMapper objectMapper,
+                           @Value("${quotes.nodeinfo.refresh-interval:5s}") Duration interval) {
+        if (interval.isNegative() || interval.isZero()) {
+            throw new IllegalArgumentException("quotes.nodeinfo.refresh-interval must be positive");
+        }
+        this.objectMapper = objectMapper;
+        this.intervalMillis = interval.toMillis();
+        this.snapshot = sample();
+    }
+
+    /**
+     * Gets the latest sample.
+     * @return current snapshot
+     */
+    public NodeInfoSnapshot current() {
+        return snapshot;
+    }
+
+    /**
+     * Builds the GET /api/nodeinfo response from the current snapshot: 304 when If-None-Match
+     * carries its ETag, otherwise 200 with the pre-serialized JSON. Used by both web stacks.
+     * @param ifNoneMatch If-None-Match request header, or null
+     * @return response entity
+     */
+    public ResponseEntity<byte[]> response(String ifNoneMatch) {
+        NodeInfoSnapshot current = snapshot;
+        if (current.matches(ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(current.etag()).cacheControl(NO_CACHE).build();
+        }
+        return ResponseEntity.ok()
+            .eTag(current.etag())
+            .cacheControl(NO_CACHE)
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(current.json());
+    }
+
+    /**
+     * Takes a new sample now and publishes it.
+     */
+    void refresh() {
+        try {
+            snapshot = sample();
+        } catch (Exception e) {
+            // Keep serving the previous snapshot
+            logger.error("Node info sample failed: {}", e.getMessage(), e);
+        }
+    }
+
+    private NodeInfoSnapshot sample() {
+        Map<String, Object> info = NodeInfo.collect();
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(info);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize node info", e);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(json);
+        return new NodeInfoSnapshot(info, json, "\"" + Long.toHexString(crc.getValue()) + "\"");
+    }
+
+    @Override
+    public synchronized void start() {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "nodeinfo-sampler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::refresh, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (scheduler == null) {
+            return;
+        }
+        scheduler.shutdownNow();
+        scheduler = null;
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return scheduler != null;
+    }
+}
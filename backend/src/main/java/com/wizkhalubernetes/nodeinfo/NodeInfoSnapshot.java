@@ -0,0 +1,58 @@
+package com.wizkhalubernetes.nodeinfo;
+
+import java.util.Map;
+
+/**
+ * Immutable node info sample: the values, their JSON encoding and a strong ETag over that encoding.
+ * Shared by every request until the next sample replaces it.
+ */
+public final class NodeInfoSnapshot {
+    private final Map<String, Object> info;
+    private final byte[] json;
+    private final String etag;
+
+    NodeInfoSnapshot(Map<String, Object> info, byte[] json, String etag) {
+        this.info = info;
+        this.json = json;
+        this.etag = etag;
+    }
+
+    /**
+     * Gets the sampled values.
+     * @return unmodifiable info map
+     */
+    public Map<String, Object> info() { return info; }
+
+    /**
+     * Gets the JSON body. The array is shared, not copied: callers must not modify it.
+     * @return UTF-8 JSON bytes
+     */
+    public byte[] json() { return json; }
+
+    /**
+     * Gets the quoted ETag of the JSON body.
+     * @return ETag, e.g. "\"1a2b3c4d\""
+     */
+    public String etag() { return etag; }
+
+    /**
+     * Checks an If-None-Match header against this snapshot's ETag.
+     * @param ifNoneMatch header value (may be null, "*" or a comma-separated list, weak tags allowed)
+     * @return true if the client already has this snapshot
+     */
+    public boolean matches(String ifNoneMatch) {
+        if (ifNoneMatch == null || ifNoneMatch.isEmpty()) {
+            return false;
+        }
+        for (String tag : ifNoneMatch.split(",")) {
+            tag = tag.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
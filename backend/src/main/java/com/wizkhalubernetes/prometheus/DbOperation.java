@@ -0,0 +1,76 @@
+package com.wizkhalubernetes.prometheus;
+
+/**
+ * Database operations timed by {@link QuoteTimingMetrics}, with their Prometheus "op" tag values.
+ * Repository methods are mapped by name in {@link #ofRepositoryMethod(String)}.
+ */
+public enum DbOperation {
+    SAVE("save"),
+    SAVE_ALL("save_all"),
+    FIND_LATEST("find_latest"),
+    FIND_PAGE("find_page"),
+    FIND_BY_QUOTE_NUMBERS("find_by_quote_numbers"),
+    TEXT_SEARCH("text_search"),
+    STREAM_ALL("stream_all"),
+    FIND_BY_ID("find_by_id"),
+    FIND_ALL("find_all"),
+    EXISTS("exists"),
+    COUNT("count"),
+    DELETE("delete"),
+    BULK_INSERT("bulk_insert"),
+    RESERVE_BLOCK("reserve_block"),
+    OTHER("other");
+
+    private final String tag;
+
+    DbOperation(String tag) {
+        this.tag = tag;
+    }
+
+    /**
+     * Gets the Prometheus tag value.
+     * @return op tag
+     */
+    public String tag() { return tag; }
+
+    /**
+     * Maps a Spring Data (or mmap) repository method name to its operation.
+     * @param method repository method name
+     * @return matching operation, OTHER if the method is not one the app uses
+     */
+    public static DbOperation ofRepositoryMethod(String method) {
+        switch (method) {
+            case "save":
+                return SAVE;
+            case "saveAll":
+                return SAVE_ALL;
+            case "findTopByOrderByQuoteNumberDesc":
+            case "findLatest":
+                return FIND_LATEST;
+            case "findPageAfter":
+                return FIND_PAGE;
+            case "findByQuoteNumberIn":
+                return FIND_BY_QUOTE_NUMBERS;
+            case "searchText":
+                return TEXT_SEARCH;
+            case "streamAllByOrderByQuoteNumberAscIdAsc":
+            case "streamAll":
+                return STREAM_ALL;
+            case "findById":
+                return FIND_BY_ID;
+            case "findAll":
+                return FIND_ALL;
+            case "existsById":
+                return EXISTS;
+            case "count":
+                return COUNT;
+            case "delete":
+            case "deleteById":
+            case "deleteQuoteById":
+            case "deleteAll":
+                return DELETE;
+            default:
+                return OTHER;
+        }
+    }
+}
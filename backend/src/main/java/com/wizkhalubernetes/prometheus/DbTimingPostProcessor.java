@@ -0,0 +1,122 @@
+package com.wizkhalubernetes.prometheus;
+
+import com.wizkhalubernetes.batch.QuoteBulkWriter;
+import com.wizkhalubernetes.repository.mmap.QuoteMmapRepository;
+import com.wizkhalubernetes.sequence.QuoteSequenceBackend;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.Ordered;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.stream.BaseStream;
+
+/**
+ * Times every database call of the active backend in quote_db_operation_seconds without touching
+ * the call sites:
+ * <ul>
+ *   <li>every blocking Spring Data repository (H2/JPA and MongoDB) gets a timing interceptor. It
+ *   runs inside the repository proxy, which already builds a MethodInvocation per call, so timing
+ *   adds no allocation of its own. Stream-returning methods are timed until the cursor is open;
+ *   the iteration is part of the endpoint timing.</li>
+ *   <li>the mmap quote repository, which is not a Spring Data repository, gets the same interceptor
+ *   through a proxy of its interface.</li>
+ *   <li>the quote number sequence and bulk writer beans are wrapped in timed decorators.</li>
+ * </ul>
+ * Ordered so that post-processors adding their own guards around DB calls can run after it.
+ */
+public class DbTimingPostProcessor implements BeanPostProcessor, Ordered {
+    /** Post-processor order; later processors wrap the timed beans. */
+    public static final int ORDER = Ordered.LOWEST_PRECEDENCE - 100;
+
+    private final ObjectProvider<QuoteTimingMetrics> metrics;
+
+    /**
+     * @param metrics timing metrics, resolved lazily so the meter registry is not created early
+     */
+    public DbTimingPostProcessor(ObjectProvider<QuoteTimingMetrics> metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) {
+        if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+            TimingInterceptor interceptor = new TimingInterceptor(metrics);
+            factoryBean.addRepositoryFactoryCustomizer(factory ->
+                factory.addRepositoryProxyPostProcessor((proxyFactory, information) -> {
+                    if (!information.isReactiveRepository()) {
+                        proxyFactory.addAdvice(interceptor);
+                    }
+                }));
+        }
+        return bean;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof QuoteMmapRepository && !AopUtils.isAopProxy(bean)) {
+            ProxyFactory proxyFactory = new ProxyFactory(bean);
+            proxyFactory.addAdvice(new TimingInterceptor(metrics));
+            return proxyFactory.getProxy(bean.getClass().getClassLoader());
+        }
+        if (bean instanceof QuoteSequenceBackend backend && !(bean instanceof TimedQuoteSequenceBackend)) {
+            return new TimedQuoteSequenceBackend(backend, metrics.getObject());
+        }
+        if (bean instanceof QuoteBulkWriter writer && !(bean instanceof TimedQuoteBulkWriter)) {
+            return new TimedQuoteBulkWriter(writer, metrics.getObject());
+        }
+        return bean;
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+
+    private static final class TimingInterceptor implements MethodInterceptor {
+        private final ObjectProvider<QuoteTimingMetrics> provider;
+        private volatile QuoteTimingMetrics metrics;
+
+        TimingInterceptor(ObjectProvider<QuoteTimingMetrics> provider) {
+            this.provider = provider;
+        }
+
+        @Override
+        public Object invoke(MethodInvocation invocation) throws Throwable {
+            QuoteTimingMetrics timings = metrics;
+            if (timings == null) {
+                timings = provider.getObject();
+                metrics = timings;
+            }
+            DbOperation operation = DbOperation.ofRepositoryMethod(invocation.getMethod().getName());
+            long start = System.nanoTime();
+            Object result;
+            try {
+                result = invocation.proceed();
+            } catch (Throwable t) {
+                timings.recordDbError(operation, start);
+                throw t;
+            }
+            timings.recordDb(operation, start, resultSize(result));
+            return result;
+        }
+
+        private static int resultSize(Object result) {
+            if (result instanceof Collection<?> collection) {
+                return collection.size();
+            }
+            if (result instanceof Optional<?> optional) {
+                return optional.isPresent() ? 1 : 0;
+            }
+            if (result == null || result instanceof Iterable<?> || result instanceof BaseStream<?, ?>
+                    || result instanceof Number || result instanceof Boolean) {
+                return -1;
+            }
+            return 1;
+        }
+    }
+}
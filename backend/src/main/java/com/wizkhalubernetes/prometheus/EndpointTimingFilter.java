@@ -0,0 +1,63 @@
+package com.wizkhalubernetes.prometheus;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Servlet filter that times every request handled by a controller endpoint and records it in
+ * quote_api_request_seconds, tagged with the handler method name as op and the status class as
+ * outcome. The meters of all endpoints are registered when the filter is built; per request the
+ * handler chosen by Spring MVC is looked up in a read-only map. Requests answered before reaching
+ * a handler (e.g. shed by the DB limiter) are not timed here.
+ */
+public class EndpointTimingFilter extends OncePerRequestFilter {
+    private final Map<Method, QuoteTimingMetrics.EndpointMeters> endpoints = new HashMap<>();
+
+    /**
+     * @param metrics timing metrics
+     * @param controllers controller classes whose request-mapped methods are timed
+     */
+    public EndpointTimingFilter(QuoteTimingMetrics metrics, Class<?>... controllers) {
+        for (Class<?> controller : controllers) {
+            for (Method method : controller.getDeclaredMethods()) {
+                if (AnnotatedElementUtils.hasAnnotation(method, RequestMapping.class)) {
+                    boolean withPayload = AnnotatedElementUtils.hasAnnotation(method, PostMapping.class);
+                    endpoints.put(method, metrics.registerEndpoint(method.getName(), withPayload));
+                }
+            }
+        }
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long start = System.nanoTime();
+        int status = 0;
+        try {
+            chain.doFilter(request, response);
+            status = response.getStatus();
+        } catch (IOException | ServletException | RuntimeException e) {
+            status = HttpServletResponse.SC_INTERNAL_SERVER_ERROR;
+            throw e;
+        } finally {
+            if (request.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE) instanceof HandlerMethod handler) {
+                QuoteTimingMetrics.EndpointMeters meters = endpoints.get(handler.getMethod());
+                if (meters != null) {
+                    meters.record(status, System.nanoTime() - start, request.getContentLengthLong());
+                }
+            }
+        }
+    }
+}
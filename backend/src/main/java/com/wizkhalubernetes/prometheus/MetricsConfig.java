@@ -2,27 +2,37 @@
 // Provides beans for PrometheusMeterRegistry and MeterRegistry
 package com.wizkhalubernetes.prometheus;
 
+import io.micrometer.core.instrument.Clock;
 import io.micrometer.core.instrument.MeterRegistry;
+import io.prometheus.client.CollectorRegistry;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import io.micrometer.prometheus.PrometheusMeterRegistry;
 import io.micrometer.prometheus.PrometheusConfig;
+import com.wizkhalubernetes.controller.QuoteController;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.core.Ordered;
 
 /**
  * Prometheus metrics configuration for Spring Boot app.
- * Provides beans for PrometheusMeterRegistry and MeterRegistry.
+ * Provides beans for PrometheusMeterRegistry and MeterRegistry, plus the hooks that feed the
+ * API and DB latency histograms of {@link QuoteTimingMetrics}.
  */
 @Configuration
 public class MetricsConfig {
 
     /**
      * Creates a PrometheusMeterRegistry bean for metrics collection.
+     * Registers into the shared CollectorRegistry so /actuator/prometheus scrapes these meters.
+     * @param collectorRegistry CollectorRegistry used by the actuator scrape endpoint
      * @return PrometheusMeterRegistry instance
      */
     @Bean
-    public PrometheusMeterRegistry prometheusMeterRegistry() {
+    public PrometheusMeterRegistry prometheusMeterRegistry(CollectorRegistry collectorRegistry) {
         try {
-            return new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+            return new PrometheusMeterRegistry(PrometheusConfig.DEFAULT, collectorRegistry, Clock.SYSTEM);
         } catch (Exception e) {
             System.err.println("PrometheusMeterRegistry creation failed: " + e.getMessage());
             return null;
@@ -47,4 +57,31 @@ public class MetricsConfig {
             return null;
         }
     }
+
+    /**
+     * Times every repository call, block reservation and bulk insert (quote_db_operation_seconds).
+     * Static so the post-processor is registered before the repositories are created.
+     * @param timingMetrics timing metrics, resolved lazily
+     * @return DB timing post-processor
+     */
+    @Bean
+    public static DbTimingPostProcessor dbTimingPostProcessor(ObjectProvider<QuoteTimingMetrics> timingMetrics) {
+        return new DbTimingPostProcessor(timingMetrics);
+    }
+
+    /**
+     * Times every QuoteController endpoint (quote_api_request_seconds). Registered first so the
+     * timing includes the other filters.
+     * @param timingMetrics timing metrics
+     * @return filter registration
+     */
+    @Bean
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    public FilterRegistrationBean<EndpointTimingFilter> endpointTimingFilter(QuoteTimingMetrics timingMetrics) {
+        FilterRegistrationBean<EndpointTimingFilter> registration =
+            new FilterRegistrationBean<>(new EndpointTimingFilter(timingMetrics, QuoteController.class));
+        registration.addUrlPatterns("/api/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
 }
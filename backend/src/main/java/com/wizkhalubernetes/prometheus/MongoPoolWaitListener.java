@@ -0,0 +1,47 @@
+package com.wizkhalubernetes.prometheus;
+
+import com.mongodb.event.ConnectionCheckOutFailedEvent;
+import com.mongodb.event.ConnectionCheckedOutEvent;
+import com.mongodb.event.ConnectionPoolListener;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records how long MongoDB operations wait for a pooled connection, as
+ * mongodb_driver_pool_wait_seconds{outcome="acquired|failed"}. Complements Micrometer's
+ * MongoMetricsConnectionPoolListener, which exports pool and wait queue sizes but no wait time.
+ */
+public class MongoPoolWaitListener implements ConnectionPoolListener {
+    private final Timer acquired;
+    private final Timer failed;
+
+    /**
+     * @param registry MeterRegistry for Prometheus integration
+     */
+    public MongoPoolWaitListener(MeterRegistry registry) {
+        this.acquired = timer(registry, "acquired");
+        this.failed = timer(registry, "failed");
+    }
+
+    private static Timer timer(MeterRegistry registry, String outcome) {
+        return Timer.builder("mongodb.driver.pool.wait")
+            .description("Time MongoDB operations waited to check out a pooled connection")
+            .tag("outcome", outcome)
+            .publishPercentileHistogram()
+            .minimumExpectedValue(Duration.ofNanos(10_000))
+            .maximumExpectedValue(Duration.ofSeconds(10))
+            .register(registry);
+    }
+
+    @Override
+    public void connectionCheckedOut(ConnectionCheckedOutEvent event) {
+        acquired.record(event.getElapsedTime(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void connectionCheckOutFailed(ConnectionCheckOutFailedEvent event) {
+        failed.record(event.getElapsedTime(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
+    }
+}
@@ -1,5 +1,7 @@
 package com.wizkhalubernetes.prometheus;
 
+import com.wizkhalubernetes.health.MongoHealthProber;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.actuate.health.Health;
 import org.springframework.boot.actuate.health.HealthIndicator;
 import org.springframework.stereotype.Component;
@@ -7,20 +9,29 @@ import org.springframework.stereotype.Component;
 /**
  * Custom health indicator for exposing node/system health metrics.
  * Adds free and total memory details to the /actuator/health endpoint and Prometheus metrics.
+ * With REMOTE_DB=true it also reports the background MongoDB probe: up/down, ping latency and
+ * circuit breaker state. The node itself stays UP while MongoDB is down, since restarting it
+ * would not help; it already answers fast with 503 or cached data.
  */
 @Component
 public class NodeHealthIndicator implements HealthIndicator {
+    @Autowired(required = false)
+    private MongoHealthProber mongoHealthProber;
+
     /**
      * Returns node health status and memory details.
-     * @return Health object with free and total memory
+     * @return Health object with free and total memory, plus MongoDB probe details when remote
      */
     @Override
     public Health health() {
         long freeMemory = Runtime.getRuntime().freeMemory();
         long totalMemory = Runtime.getRuntime().totalMemory();
-        return Health.up()
+        Health.Builder health = Health.up()
             .withDetail("freeMemory", freeMemory)
-            .withDetail("totalMemory", totalMemory)
-            .build();
+            .withDetail("totalMemory", totalMemory);
+        if (mongoHealthProber != null) {
+            health.withDetail("mongo", mongoHealthProber.details());
+        }
+        return health.build();
     }
 }
@@ -1,54 +1,294 @@
 package com.wizkhalubernetes.prometheus;
 
 import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import com.wizkhalubernetes.logging.RateLimitingFilter;
 import org.springframework.stereotype.Service;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
 
 /**
- * Service for Prometheus counters tracking database CRUD operations in H2 and MongoDB.
- * Exposes counters for create, read, update, and delete actions for both databases.
+ * Service for Prometheus counters tracking database CRUD operations in H2, MongoDB and the local
+ * mmap store. Exposes counters for create, read and delete actions for each backend (quotes are never
+ * updated; latencies per operation are in {@link QuoteTimingMetrics}),
+ * plus hit/miss/eviction counters for the quote cache (tagged by cache region) and a histogram
+ * of cross-replica cache invalidation lag. The optional write-behind buffer reports queue depth,
+ * batch sizes and rejections. Log events dropped by the logging rate limit are counted too, as are
+ * the subscribers of the quote event stream and the slow ones it evicts, and the quote writes the
+ * per-client rate limit rejects. MongoDB health is
+ * exported as the probe latency and up gauge plus the circuit breaker state, openings and rejections.
+ * The in-memory search index reports its size, estimated heap and last build time, and the mmap
+ * quote log its file usage, dead bytes awaiting compaction and off-heap index size.
  */
 @Service
 public class QuoteMetricsService {
     private final Counter h2CreateCounter;
     private final Counter h2ReadCounter;
-    private final Counter h2UpdateCounter;
     private final Counter h2DeleteCounter;
     private final Counter mongoCreateCounter;
     private final Counter mongoReadCounter;
-    private final Counter mongoUpdateCounter;
     private final Counter mongoDeleteCounter;
+    private final Counter mmapCreateCounter;
+    private final Counter mmapReadCounter;
+    private final Counter mmapDeleteCounter;
+    private final Counter cacheLatestHitCounter;
+    private final Counter cacheLatestMissCounter;
+    private final Counter cacheLatestEvictionCounter;
+    private final Counter cachePageHitCounter;
+    private final Counter cachePageMissCounter;
+    private final Counter cachePageEvictionCounter;
+    private final Timer invalidationLagTimer;
+    private final DistributionSummary writeBehindBatchSummary;
+    private final Counter writeBehindRejectedCounter;
+    private final Counter dbLimiterRejectedHighCounter;
+    private final Counter dbLimiterRejectedLowCounter;
+    private final Counter eventSubscriberEvictedCounter;
+    private final Counter cacheLatestStaleCounter;
+    private final Counter cachePageStaleCounter;
+    private final Counter mongoBreakerRejectedCounter;
+    private final Counter mongoBreakerOpenedCounter;
+    private final Timer mongoProbeLatencyTimer;
+    private final MeterRegistry registry;
 
     /**
      * Initializes Prometheus counters for H2 and MongoDB CRUD operations.
      * @param registry MeterRegistry for Prometheus integration
      */
     public QuoteMetricsService(MeterRegistry registry) {
+        this.registry = registry;
         h2CreateCounter = registry.counter("db_h2_create_total");
         h2ReadCounter = registry.counter("db_h2_read_total");
-        h2UpdateCounter = registry.counter("db_h2_update_total");
         h2DeleteCounter = registry.counter("db_h2_delete_total");
         mongoCreateCounter = registry.counter("db_mongo_create_total");
         mongoReadCounter = registry.counter("db_mongo_read_total");
-        mongoUpdateCounter = registry.counter("db_mongo_update_total");
         mongoDeleteCounter = registry.counter("db_mongo_delete_total");
+        mmapCreateCounter = registry.counter("db_mmap_create_total");
+        mmapReadCounter = registry.counter("db_mmap_read_total");
+        mmapDeleteCounter = registry.counter("db_mmap_delete_total");
+        cacheLatestHitCounter = registry.counter("quote_cache_hit_total", "region", "latest");
+        cacheLatestMissCounter = registry.counter("quote_cache_miss_total", "region", "latest");
+        cacheLatestEvictionCounter = registry.counter("quote_cache_eviction_total", "region", "latest");
+        cachePageHitCounter = registry.counter("quote_cache_hit_total", "region", "page");
+        cachePageMissCounter = registry.counter("quote_cache_miss_total", "region", "page");
+        cachePageEvictionCounter = registry.counter("quote_cache_eviction_total", "region", "page");
+        invalidationLagTimer = Timer.builder("quote_cache_invalidation_lag")
+            .description("Time from a quote write to its cache invalidation on this node")
+            .publishPercentileHistogram()
+            .minimumExpectedValue(Duration.ofMillis(1))
+            .maximumExpectedValue(Duration.ofSeconds(30))
+            .register(registry);
+        writeBehindBatchSummary = DistributionSummary.builder("quote_write_behind_batch_size")
+            .description("Quotes per write-behind bulk write")
+            .publishPercentileHistogram()
+            .minimumExpectedValue(1.0)
+            .maximumExpectedValue(1000.0)
+            .register(registry);
+        writeBehindRejectedCounter = registry.counter("quote_write_behind_rejected_total");
+        dbLimiterRejectedHighCounter = registry.counter("quote_db_limiter_rejected_total", "priority", "high");
+        dbLimiterRejectedLowCounter = registry.counter("quote_db_limiter_rejected_total", "priority", "low");
+        eventSubscriberEvictedCounter = registry.counter("quote_events_evicted_total");
+        cacheLatestStaleCounter = registry.counter("quote_cache_stale_total", "region", "latest");
+        cachePageStaleCounter = registry.counter("quote_cache_stale_total", "region", "page");
+        mongoBreakerRejectedCounter = registry.counter("mongo_circuit_breaker_rejected_total");
+        mongoBreakerOpenedCounter = registry.counter("mongo_circuit_breaker_opened_total");
+        mongoProbeLatencyTimer = Timer.builder("mongo_probe_latency")
+            .description("Round trip of the background MongoDB ping")
+            .publishPercentileHistogram()
+            .minimumExpectedValue(Duration.ofNanos(100_000))
+            .maximumExpectedValue(Duration.ofSeconds(10))
+            .register(registry);
+        FunctionCounter.builder("log_events_suppressed_total", RateLimitingFilter.class,
+                filter -> RateLimitingFilter.suppressedCount())
+            .description("Log events dropped by the per-template logging rate limit")
+            .register(registry);
     }
 
     /** Increment H2 create counter */
     public void incrementH2Create() { h2CreateCounter.increment(); }
+    /** Add a batch of inserts to the H2 create counter */
+    public void incrementH2Create(int count) { h2CreateCounter.increment(count); }
     /** Increment H2 read counter */
     public void incrementH2Read() { h2ReadCounter.increment(); }
-    /** Increment H2 update counter */
-    public void incrementH2Update() { h2UpdateCounter.increment(); }
     /** Increment H2 delete counter */
     public void incrementH2Delete() { h2DeleteCounter.increment(); }
 
     /** Increment MongoDB create counter */
     public void incrementMongoCreate() { mongoCreateCounter.increment(); }
+    /** Add a batch of inserts to the MongoDB create counter */
+    public void incrementMongoCreate(int count) { mongoCreateCounter.increment(count); }
     /** Increment MongoDB read counter */
     public void incrementMongoRead() { mongoReadCounter.increment(); }
-    /** Increment MongoDB update counter */
-    public void incrementMongoUpdate() { mongoUpdateCounter.increment(); }
     /** Increment MongoDB delete counter */
     public void incrementMongoDelete() { mongoDeleteCounter.increment(); }
+
+    /** Increment mmap store create counter */
+    public void incrementMmapCreate() { mmapCreateCounter.increment(); }
+    /** Add a batch of inserts to the mmap store create counter */
+    public void incrementMmapCreate(int count) { mmapCreateCounter.increment(count); }
+    /** Increment mmap store read counter */
+    public void incrementMmapRead() { mmapReadCounter.increment(); }
+    /** Increment mmap store delete counter */
+    public void incrementMmapDelete() { mmapDeleteCounter.increment(); }
+
+    /** Increment cache hit counter for a region ("latest" or "page") */
+    public void incrementCacheHit(String region) {
+        ("latest".equals(region) ? cacheLatestHitCounter : cachePageHitCounter).increment();
+    }
+    /** Increment cache miss counter for a region ("latest" or "page") */
+    public void incrementCacheMiss(String region) {
+        ("latest".equals(region) ? cacheLatestMissCounter : cachePageMissCounter).increment();
+    }
+    /** Increment cache eviction counter for a region ("latest" or "page") */
+    public void incrementCacheEviction(String region) {
+        ("latest".equals(region) ? cacheLatestEvictionCounter : cachePageEvictionCounter).increment();
+    }
+    /** Increment the counter of expired entries served because the DB was unavailable ("latest" or "page") */
+    public void incrementCacheStale(String region) {
+        ("latest".equals(region) ? cacheLatestStaleCounter : cachePageStaleCounter).increment();
+    }
+    /** Record the lag between a quote write and its cache invalidation on this node */
+    public void recordInvalidationLag(long millis) { invalidationLagTimer.record(millis, TimeUnit.MILLISECONDS); }
+
+    /** Record the size of one write-behind bulk write */
+    public void recordWriteBehindBatch(int size) { writeBehindBatchSummary.record(size); }
+    /** Increment the counter of quotes rejected because the write-behind queue was full */
+    public void incrementWriteBehindRejected() { writeBehindRejectedCounter.increment(); }
+    /** Register the write-behind queue depth gauge */
+    public void registerWriteBehindQueueDepth(Supplier<Number> depth) {
+        Gauge.builder("quote_write_behind_queue_depth", depth)
+            .description("Quotes waiting in the write-behind queue")
+            .register(registry);
+    }
+    /** Increment the counter of requests shed by the DB concurrency limiter, by request priority */
+    public void incrementDbLimiterRejected(boolean lowPriority) {
+        (lowPriority ? dbLimiterRejectedLowCounter : dbLimiterRejectedHighCounter).increment();
+    }
+    /** Register the DB concurrency limiter gauges (in-flight requests, current adaptive limit and its maximum) */
+    public void registerDbLimiter(Supplier<Number> inFlight, Supplier<Number> limit, int maxLimit) {
+        Gauge.builder("quote_db_limiter_in_flight", inFlight)
+            .description("Quote requests currently holding a DB permit")
+            .register(registry);
+        Gauge.builder("quote_db_limiter_limit", limit)
+            .description("Concurrent quote requests currently allowed to use the DB")
+            .register(registry);
+        Gauge.builder("quote_db_limiter_max_limit", () -> maxLimit)
+            .description("Highest concurrency limit, the DB connection pool size")
+            .register(registry);
+    }
+    /** Register the per-client rate limit counters (rejections, evicted buckets) and tracked-client gauges */
+    public void registerClientRateLimiter(LongAdder rejected, LongAdder evicted, Supplier<Number> activeClients,
+                                          int capacity) {
+        FunctionCounter.builder("quote_rate_limit_rejected_total", rejected, LongAdder::doubleValue)
+            .description("Quote writes rejected with 429 by the per-client rate limit")
+            .register(registry);
+        FunctionCounter.builder("quote_rate_limit_evicted_total", evicted, LongAdder::doubleValue)
+            .description("Refilling client buckets dropped because the rate limit table was full")
+            .register(registry);
+        Gauge.builder("quote_rate_limit_clients", activeClients)
+            .description("Clients whose rate limit bucket is not full")
+            .register(registry);
+        Gauge.builder("quote_rate_limit_capacity", () -> capacity)
+            .description("Clients the rate limit can track at once")
+            .register(registry);
+    }
+    /** Increment the counter of event stream subscribers evicted for falling behind */
+    public void incrementEventSubscriberEvicted() { eventSubscriberEvictedCounter.increment(); }
+    /** Register the gauge of connected event stream subscribers */
+    public void registerEventSubscribers(Supplier<Number> subscribers) {
+        Gauge.builder("quote_events_subscribers", subscribers)
+            .description("Clients connected to GET /api/quotes/stream")
+            .register(registry);
+    }
+    /** Increment the counter of MongoDB calls rejected by the open circuit breaker */
+    public void incrementMongoBreakerRejected() { mongoBreakerRejectedCounter.increment(); }
+    /** Increment the counter of MongoDB circuit breaker openings */
+    public void incrementMongoBreakerOpened() { mongoBreakerOpenedCounter.increment(); }
+    /** Register the MongoDB circuit breaker state gauge (0 closed, 1 half-open, 2 open) */
+    public void registerMongoCircuitBreaker(Supplier<Number> state) {
+        Gauge.builder("mongo_circuit_breaker_state", state)
+            .description("MongoDB circuit breaker state: 0 closed, 1 half-open, 2 open")
+            .register(registry);
+    }
+    /** Record the round trip of one MongoDB health ping */
+    public void recordMongoProbe(long nanos) { mongoProbeLatencyTimer.record(nanos, TimeUnit.NANOSECONDS); }
+    /** Register the gauge of the last MongoDB health ping result (1 up, 0 down) */
+    public void registerMongoProbe(Supplier<Number> up) {
+        Gauge.builder("mongo_probe_up", up)
+            .description("1 if MongoDB answered the last health ping in time, else 0")
+            .register(registry);
+    }
+    /** Register the search index gauges (indexed quotes, distinct terms, estimated heap, last build time) */
+    public void registerSearchIndex(Supplier<Number> quotes, Supplier<Number> terms, Supplier<Number> bytes,
+                                    Supplier<Number> buildSeconds) {
+        Gauge.builder("quote_search_index_quotes", quotes)
+            .description("Quotes in the in-memory search index")
+            .register(registry);
+        Gauge.builder("quote_search_index_terms", terms)
+            .description("Distinct terms in the in-memory search index")
+            .register(registry);
+        Gauge.builder("quote_search_index_bytes", bytes)
+            .description("Estimated heap held by the in-memory search index")
+            .baseUnit("bytes")
+            .register(registry);
+        Gauge.builder("quote_search_index_build_seconds", buildSeconds)
+            .description("Duration of the last full build of the search index")
+            .register(registry);
+    }
+    /** Register the mmap quote log gauges (quotes, used and dead bytes, file size, off-heap index, compactions) */
+    public void registerMmapLog(Supplier<Number> quotes, Supplier<Number> usedBytes, Supplier<Number> deadBytes,
+                                Supplier<Number> fileBytes, Supplier<Number> indexBytes, Supplier<Number> compactions) {
+        Gauge.builder("quote_mmap_quotes", quotes)
+            .description("Quotes in the mmap quote log")
+            .register(registry);
+        Gauge.builder("quote_mmap_used_bytes", usedBytes)
+            .description("Bytes of the mmap quote log holding records")
+            .baseUnit("bytes")
+            .register(registry);
+        Gauge.builder("quote_mmap_dead_bytes", deadBytes)
+            .description("Bytes of deleted or replaced quotes and tombstones, freed by the next compaction")
+            .baseUnit("bytes")
+            .register(registry);
+        Gauge.builder("quote_mmap_file_bytes", fileBytes)
+            .description("Size of the mmap quote log file")
+            .baseUnit("bytes")
+            .register(registry);
+        Gauge.builder("quote_mmap_index_bytes", indexBytes)
+            .description("Native memory held by the off-heap quote number index")
+            .baseUnit("bytes")
+            .register(registry);
+        FunctionCounter.builder("quote_mmap_compactions_total", compactions, c -> c.get().doubleValue())
+            .description("Compactions of the mmap quote log")
+            .register(registry);
+    }
+    /** Register the pre-encoded quote JSON cache gauges (entries, estimated heap) and hit/miss counters */
+    public void registerJsonCache(Supplier<Number> entries, Supplier<Number> bytes, LongAdder hits, LongAdder misses) {
+        Gauge.builder("quote_json_cache_entries", entries)
+            .description("Quotes held as pre-encoded JSON")
+            .register(registry);
+        Gauge.builder("quote_json_cache_bytes", bytes)
+            .description("Estimated heap held by pre-encoded quote JSON")
+            .baseUnit("bytes")
+            .register(registry);
+        FunctionCounter.builder("quote_json_cache_hits_total", hits, LongAdder::doubleValue)
+            .description("Quotes written from their cached JSON encoding")
+            .register(registry);
+        FunctionCounter.builder("quote_json_cache_misses_total", misses, LongAdder::doubleValue)
+            .description("Quotes encoded with Jackson because no cached encoding was held")
+            .register(registry);
+    }
+    /** Register the storage migration counter (records rewritten to the typed model) and done gauge */
+    public void registerStorageMigration(LongAdder rewritten, Supplier<Number> done) {
+        FunctionCounter.builder("quote_storage_migration_rewritten_total", rewritten, LongAdder::doubleValue)
+            .description("Stored quotes rewritten to typed timestamp and IP fields by the storage migration")
+            .register(registry);
+        Gauge.builder("quote_storage_migration_done", done)
+            .description("1 once the storage migration has no records left to rewrite, else 0")
+            .register(registry);
+    }
 }
@@ -0,0 +1,178 @@
+package com.wizkhalubernetes.prometheus;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency histograms for the quote API and its database calls, exported for p50/p99 dashboards.
+ * <ul>
+ *   <li>quote_api_request_seconds{backend, op, outcome}: one timer per QuoteController endpoint</li>
+ *   <li>quote_api_request_payload_bytes{backend, op}: request body size of the POST endpoints</li>
+ *   <li>quote_db_operation_seconds{backend, op, outcome}: one timer per repository / DB call</li>
+ *   <li>quote_db_result_size{backend, op}: rows or documents returned or written per DB call</li>
+ * </ul>
+ * Every meter is registered up front (endpoints when their filter is built, DB operations here),
+ * so recording is an array lookup plus the histogram update: no tag lists or Timer.Sample per call.
+ */
+@Service
+public class QuoteTimingMetrics {
+    static final String[] API_OUTCOMES = {"success", "client_error", "server_error"};
+    static final String[] DB_OUTCOMES = {"success", "error"};
+
+    private final MeterRegistry registry;
+    private final String backend;
+    private final Timer[][] dbTimers;
+    private final DistributionSummary[] dbResultSizes;
+    private volatile DbCallListener dbCallListener;
+
+    /**
+     * @param registry MeterRegistry for Prometheus integration
+     * @param remoteDb REMOTE_DB flag; selects the backend tag (mongo, mmap or h2)
+     */
+    public QuoteTimingMetrics(MeterRegistry registry, @Value("${REMOTE_DB:false}") String remoteDb) {
+        this.registry = registry;
+        this.backend = "true".equalsIgnoreCase(remoteDb) ? "mongo"
+            : "local-mmap".equalsIgnoreCase(remoteDb) ? "mmap" : "h2";
+        DbOperation[] operations = DbOperation.values();
+        dbTimers = new Timer[operations.length][DB_OUTCOMES.length];
+        dbResultSizes = new DistributionSummary[operations.length];
+        for (DbOperation operation : operations) {
+            for (int outcome = 0; outcome < DB_OUTCOMES.length; outcome++) {
+                dbTimers[operation.ordinal()][outcome] = Timer.builder("quote_db_operation")
+                    .description("Latency of quote repository and database calls")
+                    .tags("backend", backend, "op", operation.tag(), "outcome", DB_OUTCOMES[outcome])
+                    .publishPercentileHistogram()
+                    .minimumExpectedValue(Duration.ofNanos(100_000))
+                    .maximumExpectedValue(Duration.ofSeconds(10))
+                    .register(registry);
+            }
+            dbResultSizes[operation.ordinal()] = DistributionSummary.builder("quote_db_result_size")
+                .description("Rows or documents returned or written per database call")
+                .tags("backend", backend, "op", operation.tag())
+                .publishPercentileHistogram()
+                .minimumExpectedValue(1.0)
+                .maximumExpectedValue(10_000.0)
+                .register(registry);
+        }
+    }
+
+    /**
+     * Returns the backend tag value of this node ("h2", "mongo" or "mmap").
+     * @return backend tag
+     */
+    public String backend() { return backend; }
+
+    /**
+     * Registers the meters of one API endpoint. Called once per endpoint at startup.
+     * @param op operation tag, e.g. the handler method name
+     * @param withPayload whether the endpoint accepts a request body
+     * @return pre-registered endpoint meters
+     */
+    public EndpointMeters registerEndpoint(String op, boolean withPayload) {
+        Timer[] timers = new Timer[API_OUTCOMES.length];
+        for (int outcome = 0; outcome < API_OUTCOMES.length; outcome++) {
+            timers[outcome] = Timer.builder("quote_api_request")
+                .description("Latency of quote API requests")
+                .tags(Tags.of("backend", backend, "op", op, "outcome", API_OUTCOMES[outcome]))
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofSeconds(30))
+                .register(registry);
+        }
+        DistributionSummary payload = !withPayload ? null : DistributionSummary.builder("quote_api_request_payload")
+            .description("Request body size of quote API requests")
+            .baseUnit("bytes")
+            .tags("backend", backend, "op", op)
+            .publishPercentileHistogram()
+            .minimumExpectedValue(16.0)
+            .maximumExpectedValue(1_048_576.0)
+            .register(registry);
+        return new EndpointMeters(timers, payload);
+    }
+
+    /**
+     * Records a successful database call.
+     * @param operation DB operation
+     * @param startNanos System.nanoTime() taken before the call
+     * @param resultSize rows or documents returned or written, or -1 if unknown
+     */
+    public void recordDb(DbOperation operation, long startNanos, int resultSize) {
+        long nanos = System.nanoTime() - startNanos;
+        dbTimers[operation.ordinal()][0].record(nanos, TimeUnit.NANOSECONDS);
+        if (resultSize >= 0) {
+            dbResultSizes[operation.ordinal()].record(resultSize);
+        }
+        DbCallListener listener = dbCallListener;
+        if (listener != null) {
+            listener.onDbCall(operation, nanos, false);
+        }
+    }
+
+    /**
+     * Records a failed database call.
+     * @param operation DB operation
+     * @param startNanos System.nanoTime() taken before the call
+     */
+    public void recordDbError(DbOperation operation, long startNanos) {
+        long nanos = System.nanoTime() - startNanos;
+        dbTimers[operation.ordinal()][1].record(nanos, TimeUnit.NANOSECONDS);
+        DbCallListener listener = dbCallListener;
+        if (listener != null) {
+            listener.onDbCall(operation, nanos, true);
+        }
+    }
+
+    /**
+     * Sets the listener told about every recorded database call, on the calling thread.
+     * @param listener listener, or null for none
+     */
+    public void setDbCallListener(DbCallListener listener) {
+        this.dbCallListener = listener;
+    }
+
+    /**
+     * Receives the latency of every recorded database call, e.g. to adapt a concurrency limit.
+     */
+    public interface DbCallListener {
+        /**
+         * Called on the thread that made the call, after it was recorded.
+         * @param operation DB operation
+         * @param nanos call duration
+         * @param failed whether the call threw
+         */
+        void onDbCall(DbOperation operation, long nanos, boolean failed);
+    }
+
+    /**
+     * Pre-registered meters of one API endpoint.
+     */
+    public static final class EndpointMeters {
+        private final Timer[] timers;
+        private final DistributionSummary payload;
+
+        EndpointMeters(Timer[] timers, DistributionSummary payload) {
+            this.timers = timers;
+            this.payload = payload;
+        }
+
+        /**
+         * Records one request.
+         * @param status HTTP status sent to the client
+         * @param nanos request duration
+         * @param payloadBytes request body size, or -1 if unknown
+         */
+        public void record(int status, long nanos, long payloadBytes) {
+            int outcome = status >= 500 ? 2 : status >= 400 ? 1 : 0;
+            timers[outcome].record(nanos, TimeUnit.NANOSECONDS);
+            if (payload != null && payloadBytes >= 0) {
+                payload.record(payloadBytes);
+            }
+        }
+    }
+}
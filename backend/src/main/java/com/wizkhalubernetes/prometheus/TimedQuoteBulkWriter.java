@@ -0,0 +1,37 @@
+package com.wizkhalubernetes.prometheus;
+
+import com.wizkhalubernetes.batch.NewQuote;
+import com.wizkhalubernetes.batch.QuoteBulkWriter;
+import com.wizkhalubernetes.model.QuoteBatchItemResult;
+import java.util.List;
+
+/**
+ * Bulk writer decorator that times each bulk insert as op="bulk_insert".
+ */
+public class TimedQuoteBulkWriter implements QuoteBulkWriter {
+    private final QuoteBulkWriter delegate;
+    private final QuoteTimingMetrics metrics;
+
+    /**
+     * @param delegate bulk writer of the active DB
+     * @param metrics timing metrics
+     */
+    public TimedQuoteBulkWriter(QuoteBulkWriter delegate, QuoteTimingMetrics metrics) {
+        this.delegate = delegate;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public List<QuoteBatchItemResult> insertAll(List<NewQuote> quotes) {
+        long start = System.nanoTime();
+        List<QuoteBatchItemResult> results;
+        try {
+            results = delegate.insertAll(quotes);
+        } catch (RuntimeException e) {
+            metrics.recordDbError(DbOperation.BULK_INSERT, start);
+            throw e;
+        }
+        metrics.recordDb(DbOperation.BULK_INSERT, start, quotes.size());
+        return results;
+    }
+}
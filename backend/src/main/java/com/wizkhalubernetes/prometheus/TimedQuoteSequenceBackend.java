@@ -0,0 +1,48 @@
+package com.wizkhalubernetes.prometheus;
+
+import com.wizkhalubernetes.sequence.QuoteSequenceBackend;
+
+/**
+ * Sequence backend decorator that times each reservation as op="reserve_block".
+ */
+public class TimedQuoteSequenceBackend implements QuoteSequenceBackend {
+    private final QuoteSequenceBackend delegate;
+    private final QuoteTimingMetrics metrics;
+
+    /**
+     * @param delegate sequence backend of the active DB
+     * @param metrics timing metrics
+     */
+    public TimedQuoteSequenceBackend(QuoteSequenceBackend delegate, QuoteTimingMetrics metrics) {
+        this.delegate = delegate;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public long reserveBlock(int blockSize) {
+        long start = System.nanoTime();
+        long first;
+        try {
+            first = delegate.reserveBlock(blockSize);
+        } catch (RuntimeException e) {
+            metrics.recordDbError(DbOperation.RESERVE_BLOCK, start);
+            throw e;
+        }
+        metrics.recordDb(DbOperation.RESERVE_BLOCK, start, blockSize);
+        return first;
+    }
+
+    @Override
+    public long[] reserveBlocks(int blockSize, int blocks) {
+        long start = System.nanoTime();
+        long[] firsts;
+        try {
+            firsts = delegate.reserveBlocks(blockSize, blocks);
+        } catch (RuntimeException e) {
+            metrics.recordDbError(DbOperation.RESERVE_BLOCK, start);
+            throw e;
+        }
+        metrics.recordDb(DbOperation.RESERVE_BLOCK, start, blockSize * blocks);
+        return firsts;
+    }
+}
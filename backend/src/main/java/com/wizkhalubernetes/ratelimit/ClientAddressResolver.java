@@ -0,0 +1,75 @@
+package com.wizkhalubernetes.ratelimit;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import java.net.InetSocketAddress;
+import java.util.regex.Pattern;
+
+/**
+ * Works out the client address of a request, for the per-client rate limit and the IP stored with
+ * a quote. The client is the remote address, unless the request comes from a trusted proxy
+ * (quotes.trusted-proxies, by default loopback, where the nginx of the pod connects from). Then it
+ * is the X-Real-IP that proxy set, else the right-most X-Forwarded-For entry, the one the proxy
+ * appended. Earlier entries are whatever the client sent and are never used.
+ */
+@Component
+public class ClientAddressResolver {
+    /** Loopback in the notations Tomcat and Netty report it in. */
+    public static final String DEFAULT_TRUSTED_PROXIES = "127\\.0\\.0\\.1|0:0:0:0:0:0:0:1|::1";
+    static final String UNKNOWN = "unknown";
+
+    private final Pattern trustedProxies;
+
+    /**
+     * @param trustedProxies regex of the remote addresses whose X-Real-IP and X-Forwarded-For
+     *                       headers are used; blank for loopback
+     */
+    public ClientAddressResolver(@Value("${quotes.trusted-proxies:}") String trustedProxies) {
+        this.trustedProxies = Pattern.compile(trustedProxies.isBlank() ? DEFAULT_TRUSTED_PROXIES : trustedProxies);
+    }
+
+    /**
+     * @param request servlet request
+     * @return client address
+     */
+    public String resolve(HttpServletRequest request) {
+        return resolve(request.getRemoteAddr(), request.getHeader("X-Real-IP"), request.getHeader("X-Forwarded-For"));
+    }
+
+    /**
+     * @param request reactive request
+     * @return client address
+     */
+    public String resolve(ServerHttpRequest request) {
+        InetSocketAddress remote = request.getRemoteAddress();
+        return resolve(remote != null && remote.getAddress() != null ? remote.getAddress().getHostAddress() : null,
+            request.getHeaders().getFirst("X-Real-IP"), request.getHeaders().getFirst("X-Forwarded-For"));
+    }
+
+    /**
+     * @param remoteAddr address the connection comes from, null if unknown
+     * @param realIp X-Real-IP header
+     * @param forwardedFor X-Forwarded-For header
+     * @return client address, "unknown" without a remote address
+     */
+    String resolve(String remoteAddr, String realIp, String forwardedFor) {
+        if (remoteAddr == null) {
+            return UNKNOWN;
+        }
+        if (!trustedProxies.matcher(remoteAddr).matches()) {
+            return remoteAddr;
+        }
+        if (realIp != null && !realIp.isBlank()) {
+            return realIp.strip();
+        }
+        if (forwardedFor != null) {
+            String last = forwardedFor.substring(forwardedFor.lastIndexOf(',') + 1).strip();
+            if (!last.isEmpty()) {
+                return last;
+            }
+        }
+        return remoteAddr;
+    }
+}
@@ -0,0 +1,72 @@
+package com.wizkhalubernetes.ratelimit;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+import java.io.IOException;
+
+/**
+ * Servlet filter that admits quote writes (POST /api/quotes, /api/quotes/batch, DELETE
+ * /api/quotes/{id}) only while the client's {@link ClientRateLimiter} bucket has a token, so one
+ * noisy client cannot saturate the DB writes. Rejected requests get 429 with Retry-After and never
+ * reach QuoteController. Reads are not limited; they are mostly served from the caches.
+ * <p>
+ * The client is the address {@link ClientAddressResolver} works out, the same one stored with the
+ * quote. X-Forwarded-For entries a client sends itself are never used, so changing them does not
+ * get a new bucket.
+ */
+public class ClientRateLimitFilter extends OncePerRequestFilter {
+    static final String REJECTED_BODY = "{\"error\":\"Too many quote submissions, retry later.\"}";
+
+    private final ClientRateLimiter limiter;
+    private final ClientAddressResolver clientAddressResolver;
+
+    /**
+     * @param limiter per-client rate limiter
+     * @param clientAddressResolver resolver of the client address a bucket belongs to
+     */
+    public ClientRateLimitFilter(ClientRateLimiter limiter, ClientAddressResolver clientAddressResolver) {
+        this.limiter = limiter;
+        this.clientAddressResolver = clientAddressResolver;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !isQuoteWrite(request.getMethod(), request.getRequestURI());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long wait = limiter.tryAcquire(clientAddressResolver.resolve(request));
+        if (wait > 0) {
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, retryAfterSeconds(wait));
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getWriter().write(REJECTED_BODY);
+            return;
+        }
+        chain.doFilter(request, response);
+    }
+
+    /**
+     * Returns true for the requests that write quotes.
+     */
+    static boolean isQuoteWrite(String method, String uri) {
+        return uri.startsWith("/api/quotes") && !HttpMethod.GET.matches(method)
+            && !HttpMethod.HEAD.matches(method) && !HttpMethod.OPTIONS.matches(method);
+    }
+
+    /**
+     * Formats a wait for the Retry-After header: whole seconds, rounded up.
+     */
+    static String retryAfterSeconds(long waitMicros) {
+        return Long.toString((waitMicros + 999_999) / 1_000_000);
+    }
+}
@@ -0,0 +1,200 @@
+package com.wizkhalubernetes.ratelimit;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Per-client token buckets for quote writes, keyed by client address.
+ * <p>
+ * Each bucket is kept in its GCRA form: a single "theoretical arrival time" (TAT), the time at
+ * which the bucket will be full again. A request is admitted if taking a token leaves the TAT at
+ * most burst * interval ahead of now, and moves the TAT one interval forward. A bucket whose TAT
+ * has passed is full, so it carries no state and its slot may be reused: that is the idle
+ * eviction, and it needs no sweeper.
+ * <p>
+ * Buckets live in one preallocated {@link AtomicLongArray} of fixed capacity, split into stripes of
+ * {@link #STRIPE_SLOTS} slots. A client is hashed to one stripe and only ever stored there. Each
+ * slot is two longs: the client's 64-bit fingerprint and its state (0 until first used), which is
+ * the top 16 fingerprint bits plus the TAT in microseconds. All updates are CAS on the state word,
+ * and the fingerprint bits in it let a reader detect that the slot was handed to another client
+ * after it read the key. Nothing is allocated per client or per request, and the table is one
+ * primitive array the garbage collector never has to trace.
+ * <p>
+ * When all slots of a stripe hold buckets that are still refilling, the one closest to full is
+ * dropped; that client then starts over with a full bucket. The drops are counted as evictions.
+ * Two clients with the same fingerprint share a bucket. The hash is seeded per instance, so
+ * colliding addresses cannot be chosen from outside.
+ */
+public class ClientRateLimiter {
+    /** Slots per stripe; a client is stored in one of the slots of its stripe. */
+    static final int STRIPE_SLOTS = 8;
+    private static final long TAT_MASK = (1L << 48) - 1;
+    private static final long FNV_PRIME = 0x100000001B3L;
+
+    private final AtomicLongArray slots;
+    private final int stripeMask;
+    private final long intervalMicros;
+    private final long burstMicros;
+    private final LongSupplier nanoTime;
+    private final long origin;
+    private final long seed;
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder evicted = new LongAdder();
+
+    /**
+     * @param permitsPerSecond sustained rate allowed per client
+     * @param burst requests a client may make at once after being idle
+     * @param maxClients clients tracked at once (rounded up to a power of two, at least one stripe)
+     */
+    public ClientRateLimiter(double permitsPerSecond, int burst, int maxClients) {
+        this(permitsPerSecond, burst, maxClients, System::nanoTime);
+    }
+
+    ClientRateLimiter(double permitsPerSecond, int burst, int maxClients, LongSupplier nanoTime) {
+        if (!(permitsPerSecond > 0)) {
+            throw new IllegalArgumentException("permitsPerSecond must be positive");
+        }
+        if (burst < 1) {
+            throw new IllegalArgumentException("burst must be at least 1");
+        }
+        if (maxClients < 1 || maxClients > 1 << 26) {
+            throw new IllegalArgumentException("maxClients must be between 1 and " + (1 << 26));
+        }
+        int capacity = Math.max(STRIPE_SLOTS, Integer.highestOneBit(maxClients - 1) << 1);
+        this.slots = new AtomicLongArray(capacity * 2);
+        this.stripeMask = capacity / STRIPE_SLOTS - 1;
+        this.intervalMicros = Math.max(1, Math.round(1_000_000 / permitsPerSecond));
+        if (intervalMicros > (TAT_MASK >> 3) / burst) {
+            throw new IllegalArgumentException("burst / permitsPerSecond must be less than a year");
+        }
+        this.burstMicros = intervalMicros * burst;
+        this.nanoTime = nanoTime;
+        // Times are kept relative to construction: 48 bits of microseconds last almost nine years
+        this.origin = nanoTime.getAsLong();
+        this.seed = ThreadLocalRandom.current().nextLong();
+    }
+
+    /**
+     * Takes a token from the client's bucket.
+     * @param client client address
+     * @return 0 if the request is admitted, else the microseconds until the client has a token again
+     */
+    public long tryAcquire(CharSequence client) {
+        long key = fingerprint(client);
+        long tag = key & ~TAT_MASK;
+        int base = (int) (key & stripeMask) * STRIPE_SLOTS * 2;
+        long now = (nanoTime.getAsLong() - origin) / 1000;
+        while (true) {
+            int victim = -1;
+            long victimTat = Long.MAX_VALUE;
+            long victimState = 0;
+            long victimKey = 0;
+            for (int i = base; i < base + STRIPE_SLOTS * 2; i += 2) {
+                long state = slots.get(i + 1);
+                if (state == 0) {
+                    // Never used: slots are taken front to back, so the client is not further on.
+                    // Take this slot unless an earlier one is idle, so that nothing is evicted
+                    if (victim < 0 || victimTat > now) {
+                        victim = i;
+                        victimTat = 0;
+                        victimState = 0;
+                        victimKey = slots.get(i);
+                    }
+                    break;
+                }
+                long slotKey = slots.get(i);
+                if (slotKey == key && (state & ~TAT_MASK) == tag) {
+                    long wait = take(i + 1, state, tag, now);
+                    if (wait >= 0) {
+                        return wait;
+                    }
+                    victim = -2;
+                    break;
+                }
+                long tat = state & TAT_MASK;
+                if (tat < victimTat) {
+                    victim = i;
+                    victimTat = tat;
+                    victimState = state;
+                    victimKey = slotKey;
+                }
+            }
+            if (victim == -2) {
+                // Lost a race on the bucket; read the stripe again
+                continue;
+            }
+            // Not tracked: the client has a full bucket, so the request is admitted
+            if (slots.compareAndSet(victim + 1, victimState, tag | (now + intervalMicros))) {
+                // Fails only if another client took the slot meanwhile; the slot is then theirs
+                slots.compareAndSet(victim, victimKey, key);
+                if (victimTat > now) {
+                    evicted.increment();
+                }
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * @return a wait of at least 0 (admitted or rejected), or -1 if the state changed underneath
+     */
+    private long take(int index, long state, long tag, long now) {
+        long tat = Math.max(state & TAT_MASK, now) + intervalMicros;
+        long wait = tat - now - burstMicros;
+        if (wait > 0) {
+            rejected.increment();
+            return wait;
+        }
+        return slots.compareAndSet(index, state, tag | tat) ? 0 : -1;
+    }
+
+    /**
+     * Counts the clients whose bucket is not full, i.e. that are being tracked. Scans the table.
+     * @return clients with a refilling bucket
+     */
+    public int activeClients() {
+        long now = (nanoTime.getAsLong() - origin) / 1000;
+        int active = 0;
+        for (int i = 0; i < slots.length(); i += 2) {
+            if (slots.get(i) != 0 && (slots.get(i + 1) & TAT_MASK) > now) {
+                active++;
+            }
+        }
+        return active;
+    }
+
+    /**
+     * @return number of clients that can be tracked at once
+     */
+    public int capacity() {
+        return slots.length() / 2;
+    }
+
+    /**
+     * @return requests rejected so far
+     */
+    public LongAdder rejected() {
+        return rejected;
+    }
+
+    /**
+     * @return refilling buckets dropped so far because their stripe was full
+     */
+    public LongAdder evicted() {
+        return evicted;
+    }
+
+    private long fingerprint(CharSequence client) {
+        // Seeded FNV-1a over the characters, finished with the MurmurHash3 mixer
+        long h = seed ^ 0xCBF29CE484222325L;
+        for (int i = 0; i < client.length(); i++) {
+            h = (h ^ client.charAt(i)) * FNV_PRIME;
+        }
+        h = (h ^ (h >>> 33)) * 0xFF51AFD7ED558CCDL;
+        h = (h ^ (h >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h == 0 ? 1 : h;
+    }
+}
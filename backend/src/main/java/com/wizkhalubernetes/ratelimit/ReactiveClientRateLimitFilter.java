@@ -0,0 +1,49 @@
+package com.wizkhalubernetes.ratelimit;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * WebFlux counterpart of {@link ClientRateLimitFilter} for the reactive stack (REACTIVE=true):
+ * the same quote writes, the same client address and the same 429 response.
+ */
+public class ReactiveClientRateLimitFilter implements WebFilter {
+    private static final byte[] REJECTED_BODY = ClientRateLimitFilter.REJECTED_BODY.getBytes(StandardCharsets.UTF_8);
+
+    private final ClientRateLimiter limiter;
+    private final ClientAddressResolver clientAddressResolver;
+
+    /**
+     * @param limiter per-client rate limiter
+     * @param clientAddressResolver resolver of the client address a bucket belongs to
+     */
+    public ReactiveClientRateLimitFilter(ClientRateLimiter limiter, ClientAddressResolver clientAddressResolver) {
+        this.limiter = limiter;
+        this.clientAddressResolver = clientAddressResolver;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        if (!ClientRateLimitFilter.isQuoteWrite(request.getMethod().name(), request.getPath().value())) {
+            return chain.filter(exchange);
+        }
+        long wait = limiter.tryAcquire(clientAddressResolver.resolve(request));
+        if (wait <= 0) {
+            return chain.filter(exchange);
+        }
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+        response.getHeaders().set(HttpHeaders.RETRY_AFTER, ClientRateLimitFilter.retryAfterSeconds(wait));
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(REJECTED_BODY)));
+    }
+}
@@ -1,12 +1,105 @@
 package com.wizkhalubernetes.repository.h2;
 
 import com.wizkhalubernetes.model.h2.QuoteH2;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 /**
  * H2 repository interface for QuoteH2 entities.
  * Extends Spring Data JpaRepository for CRUD operations.
+ * The read queries behind the GET endpoints run in read-only transactions and load read-only
+ * entities: no flush, and Hibernate keeps no snapshot of the loaded rows for dirty checking.
  */
 @Repository("h2QuoteRepository")
 public interface QuoteH2Repository extends JpaRepository<QuoteH2, Long> {
+    /**
+     * Finds the quote with the highest quote number (top-1 query served by the quoteNumber index).
+     * @return latest quote, or empty if there are no quotes
+     */
+    @Transactional(readOnly = true)
+    @QueryHints(@QueryHint(name = HINT_READ_ONLY, value = "true"))
+    Optional<QuoteH2> findTopByOrderByQuoteNumberDesc();
+
+    /**
+     * Keyset page: quotes ordered by (quoteNumber, id) strictly after the given cursor position.
+     * @param quoteNumber quote number of the last row of the previous page
+     * @param id ID of the last row of the previous page
+     * @param pageable page size (page index is always 0)
+     * @return next page of quotes
+     */
+    @Transactional(readOnly = true)
+    @QueryHints(@QueryHint(name = HINT_READ_ONLY, value = "true"))
+    @Query("select q from QuoteH2 q where q.quoteNumber > :quoteNumber or (q.quoteNumber = :quoteNumber and q.id > :id) "
+        + "order by q.quoteNumber asc, q.id asc")
+    List<QuoteH2> findPageAfter(@Param("quoteNumber") int quoteNumber, @Param("id") long id, Pageable pageable);
+
+    /**
+     * Streams all quotes ordered by (quoteNumber, id) from a JDBC cursor.
+     * Must be consumed inside a transaction and closed afterwards.
+     * @return stream of quotes
+     */
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    Stream<QuoteH2> streamAllByOrderByQuoteNumberAscIdAsc();
+
+    /**
+     * Loads the quotes with the given quote numbers (search hits), in no particular order.
+     * @param quoteNumbers quote numbers
+     * @return quotes found
+     */
+    @Transactional(readOnly = true)
+    @QueryHints(@QueryHint(name = HINT_READ_ONLY, value = "true"))
+    List<QuoteH2> findByQuoteNumberIn(Collection<Integer> quoteNumbers);
+
+    /**
+     * Keyset window of the quotes submitted in [since, until), ordered by (createdAt, quoteNumber, id)
+     * and served by the (created_at, quote_number, id) index. Rows whose timestamp is not typed are
+     * never matched.
+     * @param since lower bound, epoch milliseconds (inclusive)
+     * @param until upper bound, epoch milliseconds (exclusive)
+     * @param position keyset position after the previous window, or the initial position
+     * @param limit window size
+     * @return next window of quotes
+     */
+    @Transactional(readOnly = true)
+    @QueryHints(@QueryHint(name = HINT_READ_ONLY, value = "true"))
+    Window<QuoteH2> findByCreatedAtGreaterThanEqualAndCreatedAtLessThanOrderByCreatedAtAscQuoteNumberAscIdAsc(
+        long since, long until, ScrollPosition position, Limit limit);
+
+    /**
+     * Keyset window of the quotes submitted from one IP address in [since, until), ordered by
+     * (createdAt, quoteNumber, id) and served by the (ip_addr, created_at, quote_number, id) index.
+     * @param ipAddress packed IP address
+     * @param since lower bound, epoch milliseconds (inclusive)
+     * @param until upper bound, epoch milliseconds (exclusive)
+     * @param position keyset position after the previous window, or the initial position
+     * @param limit window size
+     * @return next window of quotes
+     */
+    @Transactional(readOnly = true)
+    @QueryHints(@QueryHint(name = HINT_READ_ONLY, value = "true"))
+    Window<QuoteH2> findByIpAddressAndCreatedAtGreaterThanEqualAndCreatedAtLessThanOrderByCreatedAtAscQuoteNumberAscIdAsc(
+        byte[] ipAddress, long since, long until, ScrollPosition position, Limit limit);
+
+    /**
+     * Deletes a quote and returns it, so callers learn its quote number without a second query.
+     * @param id quote ID
+     * @return the deleted quote, or an empty list if there was none
+     */
+    @Transactional
+    List<QuoteH2> deleteQuoteById(Long id);
 }
@@ -0,0 +1,463 @@
+package com.wizkhalubernetes.repository.mmap;
+
+import com.wizkhalubernetes.model.mmap.QuoteMmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessResourceFailureException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.ToLongFunction;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Quote repository over an append-only, memory-mapped log file (see {@link QuoteRecords} for the
+ * record format). Saves and deletes append a record; lookups by quote number go through an off-heap
+ * offset index rebuilt from the log at startup, so reads never touch the Java heap beyond the quotes
+ * they return. Writes land in the OS page cache and survive a process crash; with forceWrites they
+ * are also flushed to disk before the call returns, which survives a power loss as well.
+ * <p>
+ * Deleted and replaced quotes stay in the file until a compaction rewrites it without them. The
+ * live records are copied into a new file without holding the lock, then the lock is taken
+ * briefly to copy whatever was appended meanwhile and to swap the new file in with an atomic rename,
+ * so a crash at any point leaves either the old or the new log.
+ * <p>
+ * Thread-safe: reads share a read lock, writes and the compaction swap take the write lock. The file
+ * is locked against other processes, so only one replica can use a given path.
+ */
+public class MappedQuoteLog implements QuoteMmapRepository {
+    private static final Logger logger = LoggerFactory.getLogger(MappedQuoteLog.class);
+    private static final int STREAM_CHUNK = 256;
+
+    private final Path path;
+    private final long initialSize;
+    private final boolean forceWrites;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private QuoteLogSegment segment;
+    private volatile long compactions;
+    private ScheduledExecutorService compactor;
+
+    /**
+     * Opens the log, creating it when missing, and recovers it: records after the first torn one
+     * are discarded, as is the temporary file of an interrupted compaction.
+     * @param path log file
+     * @param initialSize size of a new file; the file is grown by doubling
+     * @param forceWrites whether every write is flushed to disk before it returns
+     * @throws DataAccessResourceFailureException if the file cannot be opened or is not a quote log
+     */
+    public MappedQuoteLog(Path path, long initialSize, boolean forceWrites) {
+        if (initialSize < QuoteLogSegment.HEADER_SIZE || initialSize > QuoteLogSegment.MAX_SIZE) {
+            throw new IllegalArgumentException("Initial size must be between " + QuoteLogSegment.HEADER_SIZE
+                + " and " + QuoteLogSegment.MAX_SIZE + " bytes");
+        }
+        this.path = path;
+        this.initialSize = initialSize;
+        this.forceWrites = forceWrites;
+        try {
+            Path parent = path.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            Files.deleteIfExists(compactionPath());
+            segment = QuoteLogSegment.open(path, initialSize);
+        } catch (IOException e) {
+            throw new DataAccessResourceFailureException("Cannot open quote log " + path + ": " + e.getMessage(), e);
+        }
+        if (segment.discardedBytes() > 0) {
+            logger.warn("Quote log {}: discarded {} bytes of torn records after offset {}", path,
+                segment.discardedBytes(), segment.end());
+        }
+        logger.info("Opened quote log {}: {} quotes, {} bytes used, {} bytes dead", path, segment.count(),
+            segment.end(), segment.deadBytes());
+    }
+
+    /**
+     * Starts background compaction: every interval, the log is compacted if its dead records take up
+     * at least minDeadBytes and more than maxDeadRatio of the records.
+     * @param interval check interval
+     * @param minDeadBytes minimum dead bytes worth a rewrite
+     * @param maxDeadRatio share of dead bytes tolerated, between 0 and 1
+     */
+    public synchronized void startCompaction(Duration interval, long minDeadBytes, double maxDeadRatio) {
+        if (compactor != null) {
+            return;
+        }
+        compactor = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "quote-log-compactor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        compactor.scheduleWithFixedDelay(() -> {
+            try {
+                compactIfNeeded(minDeadBytes, maxDeadRatio);
+            } catch (RuntimeException e) {
+                logger.error("Quote log compaction failed: {}", e.getMessage(), e);
+            }
+        }, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public QuoteMmap save(QuoteMmap quote) {
+        byte[] record = QuoteRecords.encodeQuote(quote);
+        lock.writeLock().lock();
+        try {
+            QuoteLogSegment current = open();
+            int offset = append(current, record);
+            if (forceWrites) {
+                current.force(offset, offset + record.length);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return quote;
+    }
+
+    @Override
+    public List<QuoteMmap> saveAll(List<QuoteMmap> quotes) {
+        List<byte[]> records = new ArrayList<>(quotes.size());
+        for (QuoteMmap quote : quotes) {
+            records.add(QuoteRecords.encodeQuote(quote));
+        }
+        lock.writeLock().lock();
+        try {
+            QuoteLogSegment current = open();
+            int start = current.end();
+            for (byte[] record : records) {
+                append(current, record);
+            }
+            if (forceWrites && !records.isEmpty()) {
+                current.force(start, current.end());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return quotes;
+    }
+
+    @Override
+    public Optional<QuoteMmap> findById(int quoteNumber) {
+        lock.readLock().lock();
+        try {
+            return Optional.ofNullable(open().read(quoteNumber));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Optional<QuoteMmap> findLatest() {
+        lock.readLock().lock();
+        try {
+            QuoteLogSegment current = open();
+            return Optional.ofNullable(current.read(current.latest()));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<QuoteMmap> findPageAfter(int afterNumber, int limit) {
+        lock.readLock().lock();
+        try {
+            return page(open(), afterNumber, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<QuoteMmap> findByQuoteNumberIn(int[] quoteNumbers) {
+        List<QuoteMmap> quotes = new ArrayList<>(quoteNumbers.length);
+        lock.readLock().lock();
+        try {
+            QuoteLogSegment current = open();
+            for (int quoteNumber : quoteNumbers) {
+                QuoteMmap quote = current.read(quoteNumber);
+                if (quote != null) {
+                    quotes.add(quote);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return quotes;
+    }
+
+    @Override
+    public Stream<QuoteMmap> streamAll() {
+        Iterator<QuoteMmap> quotes = new Iterator<>() {
+            private Iterator<QuoteMmap> chunk = List.<QuoteMmap>of().iterator();
+            private int after;
+            private boolean exhausted;
+
+            @Override
+            public boolean hasNext() {
+                if (!chunk.hasNext() && !exhausted) {
+                    List<QuoteMmap> next = findPageAfter(after, STREAM_CHUNK);
+                    exhausted = next.size() < STREAM_CHUNK;
+                    if (!next.isEmpty()) {
+                        after = next.get(next.size() - 1).getQuoteNumber();
+                    }
+                    chunk = next.iterator();
+                }
+                return chunk.hasNext();
+            }
+
+            @Override
+            public QuoteMmap next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return chunk.next();
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(quotes,
+            Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    @Override
+    public boolean deleteById(int quoteNumber) {
+        lock.writeLock().lock();
+        try {
+            QuoteLogSegment current = open();
+            if (!current.contains(quoteNumber)) {
+                return false;
+            }
+            byte[] record = QuoteRecords.encodeTombstone(quoteNumber);
+            int offset = append(current, record);
+            if (forceWrites) {
+                current.force(offset, offset + record.length);
+            }
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public long count() {
+        lock.readLock().lock();
+        try {
+            return open().count();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public long maxQuoteNumber() {
+        lock.readLock().lock();
+        try {
+            return open().maxQuoteNumber();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Compacts the log if its dead records take up at least minDeadBytes and more than maxDeadRatio
+     * of the records.
+     * @return true if the log was compacted
+     */
+    public boolean compactIfNeeded(long minDeadBytes, double maxDeadRatio) {
+        long dead;
+        long used;
+        lock.readLock().lock();
+        try {
+            QuoteLogSegment current = open();
+            dead = current.deadBytes();
+            used = current.end() - QuoteLogSegment.HEADER_SIZE;
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (dead < minDeadBytes || dead <= maxDeadRatio * used) {
+            return false;
+        }
+        compact();
+        return true;
+    }
+
+    /**
+     * Rewrites the log without deleted and replaced quotes and without tombstones. Reads and writes
+     * continue while the live records are copied; they only wait for the copy of the records
+     * appended meanwhile and the rename.
+     * @throws DataAccessResourceFailureException if the new file cannot be written; the old log stays in use
+     */
+    public synchronized void compact() {
+        long start = System.nanoTime();
+        QuoteLogSegment source;
+        int end;
+        long liveBytes;
+        long sequenceFloor;
+        lock.readLock().lock();
+        try {
+            source = open();
+            end = source.end();
+            liveBytes = end - QuoteLogSegment.HEADER_SIZE - source.deadBytes();
+            sequenceFloor = source.maxQuoteNumber();
+        } finally {
+            lock.readLock().unlock();
+        }
+        QuoteLogSegment target = null;
+        try {
+            long size = Math.min(QuoteLogSegment.MAX_SIZE,
+                Math.max(initialSize, QuoteLogSegment.HEADER_SIZE + liveBytes + liveBytes / 2));
+            target = QuoteLogSegment.create(compactionPath(), size, sequenceFloor);
+            // Records below end are never modified, so they can be read without the lock
+            ByteBuffer records = source.buffer();
+            for (int offset = QuoteLogSegment.HEADER_SIZE; offset < end; offset += QuoteRecords.size(records, offset)) {
+                if (QuoteRecords.type(records, offset) == QuoteRecords.QUOTE
+                        && isLive(source, QuoteRecords.quoteNumber(records, offset), offset)) {
+                    target.copy(records, offset, QuoteRecords.size(records, offset));
+                }
+            }
+            lock.writeLock().lock();
+            try {
+                // Records appended while the live ones were copied, tombstones included
+                ByteBuffer tail = source.buffer();
+                for (int offset = end; offset < source.end(); offset += QuoteRecords.size(tail, offset)) {
+                    target.copy(tail, offset, QuoteRecords.size(tail, offset));
+                }
+                target.force();
+                target.moveTo(path);
+                segment = target;
+                target = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } catch (IOException e) {
+            throw new DataAccessResourceFailureException("Quote log compaction failed: " + e.getMessage(), e);
+        } finally {
+            closeQuietly(target);
+            if (target != null) {
+                try {
+                    Files.deleteIfExists(compactionPath());
+                } catch (IOException e) {
+                    logger.warn("Cannot delete {}: {}", compactionPath(), e.getMessage());
+                }
+            }
+        }
+        closeQuietly(source);
+        compactions++;
+        logger.info("Compacted quote log {}: {} -> {} bytes in {} ms", path, end, segment.end(),
+            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    /**
+     * Stops compaction, flushes the log and releases the file.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (compactor != null) {
+                compactor.shutdownNow();
+                compactor = null;
+            }
+        }
+        lock.writeLock().lock();
+        try {
+            if (segment != null) {
+                segment.force();
+                closeQuietly(segment);
+                segment = null;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Gets the bytes used by records, header included. */
+    public long usedBytes() {
+        return stat(QuoteLogSegment::end);
+    }
+
+    /** Gets the bytes held by deleted or replaced quotes and tombstones, freed by the next compaction. */
+    public long deadBytes() {
+        return stat(QuoteLogSegment::deadBytes);
+    }
+
+    /** Gets the size of the log file. */
+    public long fileBytes() {
+        return stat(QuoteLogSegment::fileBytes);
+    }
+
+    /** Gets the native memory held by the offset index. */
+    public long indexBytes() {
+        return stat(QuoteLogSegment::indexBytes);
+    }
+
+    /** Gets the number of compactions since the log was opened. */
+    public long compactions() {
+        return compactions;
+    }
+
+    private long stat(ToLongFunction<QuoteLogSegment> stat) {
+        lock.readLock().lock();
+        try {
+            return segment == null ? 0 : stat.applyAsLong(segment);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private boolean isLive(QuoteLogSegment source, int quoteNumber, int offset) {
+        lock.readLock().lock();
+        try {
+            return segment == source && source.isLive(quoteNumber, offset);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int append(QuoteLogSegment current, byte[] record) {
+        try {
+            return current.append(record);
+        } catch (IOException e) {
+            throw new DataAccessResourceFailureException("Cannot write to quote log " + path + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static List<QuoteMmap> page(QuoteLogSegment current, int afterNumber, int limit) {
+        List<QuoteMmap> quotes = new ArrayList<>(Math.min(limit, STREAM_CHUNK));
+        for (int n = current.next(afterNumber); n != 0 && quotes.size() < limit; n = current.next(n)) {
+            quotes.add(current.read(n));
+        }
+        return quotes;
+    }
+
+    private QuoteLogSegment open() {
+        if (segment == null) {
+            throw new IllegalStateException("Quote log " + path + " is closed");
+        }
+        return segment;
+    }
+
+    private Path compactionPath() {
+        return path.resolveSibling(path.getFileName() + ".compact");
+    }
+
+    private static void closeQuietly(QuoteLogSegment segment) {
+        if (segment == null) {
+            return;
+        }
+        try {
+            segment.close();
+        } catch (IOException e) {
+            logger.warn("Cannot close quote log file {}: {}", segment.path(), e.getMessage());
+        }
+    }
+}
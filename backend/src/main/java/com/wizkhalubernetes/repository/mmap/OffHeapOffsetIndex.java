@@ -0,0 +1,87 @@
+package com.wizkhalubernetes.repository.mmap;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+
+/**
+ * Maps quote numbers to record offsets in the log, stored off-heap as a direct int array indexed by
+ * quote number: a lookup is one array read, and a million quotes cost 4 MB of native memory and
+ * nothing the garbage collector has to trace. Quote numbers come from a sequence, so the array is
+ * dense. Slot value 0 means "no quote" (offset 0 is the log header). Not thread-safe.
+ */
+final class OffHeapOffsetIndex {
+    private static final int MIN_CAPACITY = 1024;
+    /** Largest quote number + 1 the index can hold (1 GB of native memory). */
+    static final int MAX_CAPACITY = 1 << 28;
+
+    private IntBuffer slots = allocate(MIN_CAPACITY);
+
+    /**
+     * Gets the record offset of a quote.
+     * @return offset, or 0 if the quote is not in the log
+     */
+    int get(int quoteNumber) {
+        return quoteNumber > 0 && quoteNumber < slots.capacity() ? slots.get(quoteNumber) : 0;
+    }
+
+    /**
+     * Sets the record offset of a quote; 0 removes it.
+     * @throws IllegalArgumentException if the quote number is not positive or too large
+     */
+    void put(int quoteNumber, int offset) {
+        if (quoteNumber <= 0 || quoteNumber >= MAX_CAPACITY) {
+            throw new IllegalArgumentException("Quote number out of range for the mmap store: " + quoteNumber);
+        }
+        if (quoteNumber >= slots.capacity()) {
+            grow(quoteNumber);
+        }
+        slots.put(quoteNumber, offset);
+    }
+
+    /**
+     * Finds the lowest quote number above after (and at most upTo) that is in the log.
+     * @return quote number, or 0 if there is none
+     */
+    int next(int after, int upTo) {
+        int last = Math.min(upTo, slots.capacity() - 1);
+        for (int n = Math.max(after, 0) + 1; n <= last; n++) {
+            if (slots.get(n) != 0) {
+                return n;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Finds the highest quote number below before that is in the log.
+     * @return quote number, or 0 if there is none
+     */
+    int previous(int before) {
+        for (int n = Math.min(before, slots.capacity()) - 1; n > 0; n--) {
+            if (slots.get(n) != 0) {
+                return n;
+            }
+        }
+        return 0;
+    }
+
+    /** Gets the native memory held by the index. */
+    long bytes() {
+        return (long) slots.capacity() * Integer.BYTES;
+    }
+
+    private void grow(int quoteNumber) {
+        int capacity = slots.capacity();
+        while (capacity <= quoteNumber) {
+            capacity <<= 1;
+        }
+        IntBuffer grown = allocate(capacity);
+        grown.put(0, slots, 0, slots.capacity());
+        slots = grown;
+    }
+
+    private static IntBuffer allocate(int capacity) {
+        return ByteBuffer.allocateDirect(capacity * Integer.BYTES).order(ByteOrder.nativeOrder()).asIntBuffer();
+    }
+}
@@ -0,0 +1,320 @@
+package com.wizkhalubernetes.repository.mmap;
+
+import com.wizkhalubernetes.model.mmap.QuoteMmap;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * One quote log file: the memory-mapped records, the off-heap offset index over them and the
+ * bookkeeping compaction needs (dead bytes, live count). The file starts with a 32-byte header
+ * (magic, format version, sequence floor) followed by {@link QuoteRecords}; the mapping covers
+ * the whole file, which is grown by doubling and therefore always ends in zeros.
+ * Not thread-safe: {@link MappedQuoteLog} guards it with its read/write lock.
+ */
+final class QuoteLogSegment implements Closeable {
+    static final int MAGIC = 0x574B514C;
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 32;
+    private static final int HEADER_VERSION = 4;
+    private static final int HEADER_SEQUENCE_FLOOR = 8;
+    /** Largest file a single mapping can cover. */
+    static final long MAX_SIZE = Integer.MAX_VALUE;
+
+    private Path path;
+    private final FileChannel channel;
+    private final FileLock fileLock;
+    private MappedByteBuffer buffer;
+    private final OffHeapOffsetIndex index = new OffHeapOffsetIndex();
+    private int end = HEADER_SIZE;
+    private long deadBytes;
+    private int count;
+    private int latest;
+    private long maxQuoteNumber;
+    private int discardedBytes;
+
+    private QuoteLogSegment(Path path, FileChannel channel, FileLock fileLock, MappedByteBuffer buffer) {
+        this.path = path;
+        this.channel = channel;
+        this.fileLock = fileLock;
+        this.buffer = buffer;
+    }
+
+    /**
+     * Opens a log file, creating it when missing, and rebuilds the offset index by scanning the
+     * records. Scanning stops at the first torn record; everything after it is zeroed so that a
+     * later crash cannot bring stale records back.
+     * @param path log file
+     * @param minSize size the file is grown to if it is smaller
+     * @throws IOException if the file cannot be opened, is locked by another process or is not a quote log
+     */
+    static QuoteLogSegment open(Path path, long minSize) throws IOException {
+        QuoteLogSegment segment = map(path, minSize);
+        try {
+            segment.recover();
+        } catch (RuntimeException | IOException e) {
+            segment.close();
+            throw e;
+        }
+        return segment;
+    }
+
+    /**
+     * Creates an empty log file, replacing any existing file at path.
+     * @param path log file
+     * @param size initial file size
+     * @param sequenceFloor highest quote number written to the log this one replaces
+     */
+    static QuoteLogSegment create(Path path, long size, long sequenceFloor) throws IOException {
+        Files.deleteIfExists(path);
+        QuoteLogSegment segment = map(path, size);
+        segment.writeHeader(sequenceFloor);
+        segment.maxQuoteNumber = sequenceFloor;
+        return segment;
+    }
+
+    private static QuoteLogSegment map(Path path, long minSize) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+            StandardOpenOption.WRITE);
+        try {
+            FileLock fileLock;
+            try {
+                fileLock = channel.tryLock();
+            } catch (OverlappingFileLockException e) {
+                fileLock = null;
+            }
+            if (fileLock == null) {
+                throw new IOException(path + " is locked by another process");
+            }
+            long size = Math.max(channel.size(), minSize);
+            if (size > MAX_SIZE) {
+                throw new IOException(path + " is larger than " + MAX_SIZE + " bytes");
+            }
+            return new QuoteLogSegment(path, channel, fileLock, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private void recover() throws IOException {
+        int magic = buffer.getInt(0);
+        if (magic == 0 && isZero(0, HEADER_SIZE)) {
+            // New file, or one created by a process that died before writing the header
+            writeHeader(0);
+        } else if (magic != MAGIC) {
+            throw new IOException(path + " is not a quote log");
+        } else if (buffer.getInt(HEADER_VERSION) != VERSION) {
+            throw new IOException(path + " has unsupported quote log version " + buffer.getInt(HEADER_VERSION));
+        }
+        maxQuoteNumber = buffer.getLong(HEADER_SEQUENCE_FLOOR);
+        int offset = HEADER_SIZE;
+        int length;
+        while ((length = QuoteRecords.validLength(buffer, offset, buffer.capacity())) > 0) {
+            apply(offset);
+            offset += QuoteRecords.PREFIX + length;
+        }
+        end = offset;
+        if (!isZero(end, buffer.capacity())) {
+            discardedBytes = lastNonZero(end, buffer.capacity()) + 1 - end;
+            zero(end, buffer.capacity());
+            buffer.force();
+        }
+    }
+
+    private void writeHeader(long sequenceFloor) {
+        buffer.putInt(0, MAGIC).putInt(HEADER_VERSION, VERSION).putLong(HEADER_SEQUENCE_FLOOR, sequenceFloor);
+        buffer.force(0, HEADER_SIZE);
+    }
+
+    /**
+     * Appends an encoded record and applies it to the index. The length is written last, so a
+     * crash in between leaves a record that reads as the end of the log.
+     * @return record offset
+     */
+    int append(byte[] record) throws IOException {
+        int offset = reserve(record.length);
+        buffer.put(offset + 4, record, 4, record.length - 4);
+        buffer.putInt(offset, record.length - QuoteRecords.PREFIX);
+        end += record.length;
+        apply(offset);
+        return offset;
+    }
+
+    /**
+     * Copies a record from another segment and applies it to the index.
+     */
+    void copy(ByteBuffer source, int offset, int size) throws IOException {
+        int target = reserve(size);
+        buffer.put(target, source, offset, size);
+        end += size;
+        apply(target);
+    }
+
+    private int reserve(int size) throws IOException {
+        long needed = (long) end + size;
+        if (needed > buffer.capacity()) {
+            if (needed > MAX_SIZE) {
+                throw new IOException("Quote log " + path + " is full (" + MAX_SIZE + " bytes)");
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.min(MAX_SIZE, Math.max(needed, 2L * buffer.capacity())));
+        }
+        return end;
+    }
+
+    /**
+     * Applies the record at offset to the index and the dead-byte count.
+     */
+    private void apply(int offset) {
+        int quoteNumber = QuoteRecords.quoteNumber(buffer, offset);
+        int previous = index.get(quoteNumber);
+        if (previous != 0) {
+            deadBytes += QuoteRecords.size(buffer, previous);
+            count--;
+        }
+        if (QuoteRecords.type(buffer, offset) == QuoteRecords.QUOTE) {
+            index.put(quoteNumber, offset);
+            count++;
+            latest = Math.max(latest, quoteNumber);
+            maxQuoteNumber = Math.max(maxQuoteNumber, quoteNumber);
+        } else {
+            if (previous != 0) {
+                index.put(quoteNumber, 0);
+            }
+            deadBytes += QuoteRecords.size(buffer, offset);
+            if (quoteNumber == latest) {
+                latest = index.previous(quoteNumber);
+            }
+        }
+    }
+
+    /**
+     * Reads a quote.
+     * @return the quote, or null if it is not in the log
+     */
+    QuoteMmap read(int quoteNumber) {
+        int offset = index.get(quoteNumber);
+        return offset == 0 ? null : QuoteRecords.decode(buffer, offset);
+    }
+
+    /**
+     * Tells whether a quote is in the log.
+     */
+    boolean contains(int quoteNumber) {
+        return index.get(quoteNumber) != 0;
+    }
+
+    /**
+     * Finds the lowest quote number above after that is in the log.
+     * @return quote number, or 0 if there is none
+     */
+    int next(int after) {
+        return index.next(after, latest);
+    }
+
+    /**
+     * Tells whether the record at offset is the current version of a live quote.
+     */
+    boolean isLive(int quoteNumber, int offset) {
+        return index.get(quoteNumber) == offset;
+    }
+
+    /**
+     * Moves the file to path, replacing the file there atomically, and syncs the directory so the
+     * rename survives a power loss.
+     */
+    void moveTo(Path target) throws IOException {
+        Files.move(path, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        path = target;
+        try (FileChannel directory = FileChannel.open(target.toAbsolutePath().getParent(), StandardOpenOption.READ)) {
+            directory.force(true);
+        } catch (IOException e) {
+            // Not supported on every platform; the rename itself is atomic either way
+        }
+    }
+
+    /** Flushes the given byte range of the mapping to disk. */
+    void force(int from, int to) {
+        buffer.force(from, to - from);
+    }
+
+    /** Flushes the whole mapping to disk. */
+    void force() {
+        buffer.force();
+    }
+
+    /** Gets the mapped log; read only what lies below {@link #end()}. */
+    ByteBuffer buffer() { return buffer; }
+
+    /** Gets the offset the next record is appended at. */
+    int end() { return end; }
+
+    /** Gets the bytes held by deleted or replaced quotes and by tombstones. */
+    long deadBytes() { return deadBytes; }
+
+    /** Gets the number of live quotes. */
+    int count() { return count; }
+
+    /** Gets the highest live quote number, 0 if there is none. */
+    int latest() { return latest; }
+
+    /** Gets the highest quote number ever written, including the header's sequence floor. */
+    long maxQuoteNumber() { return maxQuoteNumber; }
+
+    /** Gets the size of the file. */
+    long fileBytes() { return buffer.capacity(); }
+
+    /** Gets the native memory held by the offset index. */
+    long indexBytes() { return index.bytes(); }
+
+    /** Gets the bytes of torn records zeroed when the file was opened. */
+    int discardedBytes() { return discardedBytes; }
+
+    /** Gets the file path. */
+    Path path() { return path; }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            if (fileLock.isValid()) {
+                fileLock.release();
+            }
+        } finally {
+            channel.close();
+        }
+    }
+
+    private boolean isZero(int from, int to) {
+        return lastNonZero(from, to) < from;
+    }
+
+    private int lastNonZero(int from, int to) {
+        int i = to - 1;
+        while (i >= from) {
+            // Eight bytes at a time where aligned: the tail can be half the file
+            if ((i & 7) == 7 && i - 7 >= from && buffer.getLong(i - 7) == 0) {
+                i -= 8;
+            } else if (buffer.get(i) != 0) {
+                return i;
+            } else {
+                i--;
+            }
+        }
+        return from - 1;
+    }
+
+    private void zero(int from, int to) {
+        byte[] zeros = new byte[Math.min(to - from, 64 * 1024)];
+        for (int i = from; i < to; i += zeros.length) {
+            buffer.put(i, zeros, 0, Math.min(zeros.length, to - i));
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.wizkhalubernetes.repository.mmap;
+
+import com.wizkhalubernetes.model.mmap.QuoteMmap;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Repository for quotes in the local memory-mapped quote log (REMOTE_DB=local-mmap), keyed by quote
+ * number. Method names follow the Spring Data repositories of the other backends so their calls are
+ * timed under the same quote_db_operation_seconds op tags. Storage failures are thrown as
+ * DataAccessResourceFailureException.
+ */
+public interface QuoteMmapRepository extends AutoCloseable {
+
+    /**
+     * Appends a quote; a quote with the same quote number is replaced.
+     * @param quote quote with its quote number set
+     * @return the saved quote
+     * @throws IllegalArgumentException if the quote number is not positive or the timestamp is not ISO-8601
+     */
+    QuoteMmap save(QuoteMmap quote);
+
+    /**
+     * Appends many quotes under one lock acquisition (and one flush when writes are forced).
+     * @param quotes quotes with their quote numbers set
+     * @return the saved quotes, in input order
+     */
+    List<QuoteMmap> saveAll(List<QuoteMmap> quotes);
+
+    /**
+     * Looks a quote up by quote number (one offset index lookup).
+     * @param quoteNumber quote number
+     * @return the quote, or empty if there is none
+     */
+    Optional<QuoteMmap> findById(int quoteNumber);
+
+    /**
+     * Finds the quote with the highest quote number.
+     * @return latest quote, or empty if the log holds none
+     */
+    Optional<QuoteMmap> findLatest();
+
+    /**
+     * Reads one keyset page ordered by quote number.
+     * @param afterNumber quote number of the last quote of the previous page, 0 for the first page
+     * @param limit page size
+     * @return up to limit quotes with a quote number above afterNumber
+     */
+    List<QuoteMmap> findPageAfter(int afterNumber, int limit);
+
+    /**
+     * Loads quotes by quote number.
+     * @param quoteNumbers quote numbers
+     * @return the quotes that exist, in the order of quoteNumbers
+     */
+    List<QuoteMmap> findByQuoteNumberIn(int[] quoteNumbers);
+
+    /**
+     * Streams all quotes in quote number order. Quotes are read one at a time, so the stream holds
+     * no lock between elements and sees writes made while it is consumed, like a DB cursor.
+     * @return stream of quotes
+     */
+    Stream<QuoteMmap> streamAll();
+
+    /**
+     * Deletes a quote by appending a tombstone.
+     * @param quoteNumber quote number
+     * @return true if the quote existed
+     */
+    boolean deleteById(int quoteNumber);
+
+    /**
+     * Counts the quotes in the log.
+     * @return number of quotes
+     */
+    long count();
+
+    /**
+     * Gets the highest quote number ever written, including deleted and compacted-away quotes,
+     * so the quote number sequence can resume after a restart.
+     * @return highest quote number, 0 for an empty log
+     */
+    long maxQuoteNumber();
+
+    /**
+     * Flushes and closes the log file.
+     */
+    @Override
+    void close();
+}
@@ -0,0 +1,183 @@
+package com.wizkhalubernetes.repository.mmap;
+
+import com.wizkhalubernetes.model.mmap.QuoteMmap;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32C;
+
+/**
+ * Binary record format of the quote log. Every record is
+ * <pre>
+ *   int length | int crc32c | payload (length bytes)
+ * </pre>
+ * with one of two payloads:
+ * <pre>
+ *   quote:     byte 1 | int quoteNumber | long epochMillis | byte ipKind | ip | UTF-8 text (rest of the payload)
+ *   tombstone: byte 2 | int quoteNumber
+ * </pre>
+ * The timestamp and IP are written as the quote model holds them (see QuoteCodec): IP literals packed
+ * into 4 (IPv4) or 16 (IPv6) bytes, anything else (e.g. a forwarded-for list) as short-prefixed UTF-8. The length is written
+ * last, so a record cut short by a crash reads as the end of the log, and the checksum catches
+ * records torn by the OS writing pages back out of order.
+ */
+final class QuoteRecords {
+    static final byte QUOTE = 1;
+    static final byte TOMBSTONE = 2;
+
+    /** Bytes before the payload: length and checksum. */
+    static final int PREFIX = 8;
+    static final int TYPE = 0;
+    static final int QUOTE_NUMBER = 1;
+    static final int TIMESTAMP = 5;
+    static final int IP_KIND = 13;
+    static final int IP = 14;
+    static final int TOMBSTONE_LENGTH = 5;
+
+    static final byte IP_NONE = 0;
+    static final byte IP_TEXT = 1;
+    static final byte IP_V4 = 4;
+    static final byte IP_V6 = 6;
+    /** Set in the ipKind byte when the quote text is null (as opposed to empty). */
+    static final byte NULL_TEXT = (byte) 0x80;
+    static final long NO_TIMESTAMP = Long.MIN_VALUE;
+
+    private QuoteRecords() {
+    }
+
+    /**
+     * Encodes a quote record, prefix included.
+     * @throws IllegalArgumentException if the quote number is not positive or the timestamp is not ISO-8601
+     */
+    static byte[] encodeQuote(QuoteMmap quote) {
+        if (quote.getQuoteNumber() <= 0 || quote.getQuoteNumber() >= OffHeapOffsetIndex.MAX_CAPACITY) {
+            throw new IllegalArgumentException("Quote number out of range for the mmap store: " + quote.getQuoteNumber());
+        }
+        if (quote.getCreatedAt() == null && quote.getTimestamp() != null) {
+            throw new IllegalArgumentException("Timestamp is not an ISO-8601 instant: " + quote.getTimestamp());
+        }
+        byte[] text = quote.getQuote() == null ? new byte[0] : quote.getQuote().getBytes(StandardCharsets.UTF_8);
+        byte[] address = quote.getIpAddress();
+        String ip = address == null ? quote.getIp() : null;
+        byte[] ipText = ip != null ? ip.getBytes(StandardCharsets.UTF_8) : null;
+        if (ipText != null && ipText.length > 0xffff) {
+            throw new IllegalArgumentException("IP too long: " + ipText.length + " bytes");
+        }
+        byte ipKind = address != null ? (address.length == 4 ? IP_V4 : IP_V6)
+            : ipText != null ? IP_TEXT : IP_NONE;
+        int ipSize = address != null ? address.length : ipText != null ? 2 + ipText.length : 0;
+
+        ByteBuffer record = ByteBuffer.allocate(PREFIX + IP + ipSize + text.length);
+        record.position(PREFIX);
+        record.put(QUOTE)
+            .putInt(quote.getQuoteNumber())
+            .putLong(quote.getCreatedAt() == null ? NO_TIMESTAMP : quote.getCreatedAt())
+            .put(quote.getQuote() == null ? (byte) (ipKind | NULL_TEXT) : ipKind);
+        if (address != null) {
+            record.put(address);
+        } else if (ipText != null) {
+            record.putShort((short) ipText.length).put(ipText);
+        }
+        record.put(text);
+        return seal(record);
+    }
+
+    /**
+     * Encodes a tombstone record, prefix included.
+     */
+    static byte[] encodeTombstone(int quoteNumber) {
+        ByteBuffer record = ByteBuffer.allocate(PREFIX + TOMBSTONE_LENGTH);
+        record.position(PREFIX);
+        record.put(TOMBSTONE).putInt(quoteNumber);
+        return seal(record);
+    }
+
+    /**
+     * Checks the record at offset.
+     * @param log log buffer
+     * @param offset record offset
+     * @param limit end of the readable region
+     * @return payload length of a complete record, 0 at the end of the log, -1 for a torn or corrupt record
+     */
+    static int validLength(ByteBuffer log, int offset, int limit) {
+        if (limit - offset < PREFIX) {
+            return 0;
+        }
+        int length = log.getInt(offset);
+        if (length == 0) {
+            return 0;
+        }
+        if (length < TOMBSTONE_LENGTH || length > limit - offset - PREFIX) {
+            return -1;
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(log.slice(offset + PREFIX, length));
+        if ((int) crc.getValue() != log.getInt(offset + 4)) {
+            return -1;
+        }
+        byte type = log.get(offset + PREFIX + TYPE);
+        boolean valid = type == QUOTE ? length >= IP : type == TOMBSTONE && length == TOMBSTONE_LENGTH;
+        int quoteNumber = log.getInt(offset + PREFIX + QUOTE_NUMBER);
+        return valid && quoteNumber > 0 && quoteNumber < OffHeapOffsetIndex.MAX_CAPACITY ? length : -1;
+    }
+
+    /** Gets the type of the record at offset. */
+    static byte type(ByteBuffer log, int offset) {
+        return log.get(offset + PREFIX + TYPE);
+    }
+
+    /** Gets the quote number of the record at offset. */
+    static int quoteNumber(ByteBuffer log, int offset) {
+        return log.getInt(offset + PREFIX + QUOTE_NUMBER);
+    }
+
+    /** Gets the size of the record at offset, prefix included. */
+    static int size(ByteBuffer log, int offset) {
+        return PREFIX + log.getInt(offset);
+    }
+
+    /**
+     * Decodes the quote record at offset.
+     */
+    static QuoteMmap decode(ByteBuffer log, int offset) {
+        int payload = offset + PREFIX;
+        int end = payload + log.getInt(offset);
+        long millis = log.getLong(payload + TIMESTAMP);
+        byte ipKind = log.get(payload + IP_KIND);
+        int at = payload + IP;
+        QuoteMmap quote = new QuoteMmap();
+        switch (ipKind & ~NULL_TEXT) {
+            case IP_V4:
+            case IP_V6:
+                byte[] address = new byte[(ipKind & ~NULL_TEXT) == IP_V4 ? 4 : 16];
+                log.get(at, address);
+                quote.setIpAddress(address);
+                at += address.length;
+                break;
+            case IP_TEXT:
+                int length = log.getShort(at) & 0xffff;
+                quote.setIp(utf8(log, at + 2, length));
+                at += 2 + length;
+                break;
+            default:
+                break;
+        }
+        quote.setQuote((ipKind & NULL_TEXT) != 0 ? null : utf8(log, at, end - at));
+        quote.setCreatedAt(millis == NO_TIMESTAMP ? null : millis);
+        quote.setQuoteNumber(log.getInt(payload + QUOTE_NUMBER));
+        return quote;
+    }
+
+    private static String utf8(ByteBuffer log, int offset, int length) {
+        byte[] bytes = new byte[length];
+        log.get(offset, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static byte[] seal(ByteBuffer record) {
+        int length = record.position() - PREFIX;
+        CRC32C crc = new CRC32C();
+        crc.update(record.array(), PREFIX, length);
+        record.putInt(0, length).putInt(4, (int) crc.getValue());
+        return record.array();
+    }
+}
@@ -1,12 +1,95 @@
 package com.wizkhalubernetes.repository.mongo;
 
 import com.wizkhalubernetes.model.mongo.QuoteMongo;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Range;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 /**
  * MongoDB repository interface for QuoteMongo entities.
  * Extends Spring Data MongoRepository for CRUD operations.
+ * Every query uses the read preference of its template: the client's quotes.mongo.client.read-preference,
+ * or quotes.mongo.client.list-read-preference for the list queries of the listing instance MongoConfig
+ * creates when that property is set.
  */
 @org.springframework.stereotype.Repository("mongoQuoteRepository")
 public interface QuoteMongoRepository extends MongoRepository<QuoteMongo, String> {
-	// ...existing code...
+    /**
+     * Finds the quote with the highest quote number (top-1 query served by the quoteNumber index).
+     * @return latest quote, or empty if there are no quotes
+     */
+    Optional<QuoteMongo> findTopByOrderByQuoteNumberDesc();
+
+    /**
+     * Keyset page: quotes ordered by (quoteNumber, _id) strictly after the given cursor position.
+     * Pass a pageable sorted by quoteNumber and id ascending.
+     * @param quoteNumber quote number of the last document of the previous page
+     * @param id ObjectId of the last document of the previous page
+     * @param pageable page size and sort (page index is always 0)
+     * @return next page of quotes
+     */
+    @Query("{ '$or': [ { 'quoteNumber': { '$gt': ?0 } }, { 'quoteNumber': ?0, '_id': { '$gt': ?1 } } ] }")
+    List<QuoteMongo> findPageAfter(int quoteNumber, ObjectId id, Pageable pageable);
+
+    /**
+     * Streams all quotes ordered by (quoteNumber, _id) from a server-side cursor.
+     * The stream must be closed to release the cursor.
+     * @return stream of quotes
+     */
+    Stream<QuoteMongo> streamAllByOrderByQuoteNumberAscIdAsc();
+
+    /**
+     * Loads the quotes with the given quote numbers (search hits), in no particular order.
+     * Served by the quoteNumber index.
+     * @param quoteNumbers quote numbers
+     * @return quotes found
+     */
+    List<QuoteMongo> findByQuoteNumberIn(Collection<Integer> quoteNumbers);
+
+    /**
+     * Keyset window of the quotes submitted in a time range, ordered by (ts, quoteNumber, _id) and
+     * served by the ts_quoteNumber_id_idx index. Documents whose timestamp is not typed are never matched.
+     * @param createdAt submission time range, epoch milliseconds
+     * @param position keyset position after the previous window, or the initial position
+     * @param limit window size
+     * @return next window of quotes
+     */
+    Window<QuoteMongo> findByCreatedAtBetweenOrderByCreatedAtAscQuoteNumberAscIdAsc(
+        Range<Long> createdAt, ScrollPosition position, Limit limit);
+
+    /**
+     * Keyset window of the quotes submitted from one IP address in a time range, ordered by
+     * (ts, quoteNumber, _id) and served by the addr_ts_quoteNumber_id_idx index.
+     * @param ipAddress packed IP address
+     * @param createdAt submission time range, epoch milliseconds
+     * @param position keyset position after the previous window, or the initial position
+     * @param limit window size
+     * @return next window of quotes
+     */
+    Window<QuoteMongo> findByIpAddressAndCreatedAtBetweenOrderByCreatedAtAscQuoteNumberAscIdAsc(
+        byte[] ipAddress, Range<Long> createdAt, ScrollPosition position, Limit limit);
+
+    /**
+     * Full-text search on the quote_text_idx text index, best textScore first.
+     * @param search terms in $text syntax (words, "phrases", -negations)
+     * @param pageable page size (page index is always 0)
+     * @return matching quotes
+     */
+    @Query(value = "{ '$text': { '$search': ?0 } }", sort = "{ 'score': { '$meta': 'textScore' } }")
+    List<QuoteMongo> searchText(String search, Pageable pageable);
+
+    /**
+     * Deletes a quote and returns it (one findAndModify), so callers learn its quote number.
+     * @param id quote ID
+     * @return the deleted quote, or empty if there was none
+     */
+    Optional<QuoteMongo> deleteQuoteById(String id);
 }
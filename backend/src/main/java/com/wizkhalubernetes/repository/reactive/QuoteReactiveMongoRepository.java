@@ -0,0 +1,75 @@
+package com.wizkhalubernetes.repository.reactive;
+
+import com.wizkhalubernetes.model.mongo.QuoteMongo;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Range;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive MongoDB repository for QuoteMongo entities, used by the WebFlux stack (REACTIVE=true).
+ * Mirrors the queries of the blocking QuoteMongoRepository, including its optional listing instance.
+ */
+public interface QuoteReactiveMongoRepository extends ReactiveMongoRepository<QuoteMongo, String> {
+    /**
+     * Finds the quote with the highest quote number (top-1 query served by the quoteNumber index).
+     * @return latest quote, or empty if there are no quotes
+     */
+    Mono<QuoteMongo> findTopByOrderByQuoteNumberDesc();
+
+    /**
+     * Keyset page: quotes ordered by (quoteNumber, _id) strictly after the given cursor position.
+     * Pass a pageable sorted by quoteNumber and id ascending.
+     * @param quoteNumber quote number of the last document of the previous page
+     * @param id ObjectId of the last document of the previous page
+     * @param pageable page size and sort (page index is always 0)
+     * @return next page of quotes
+     */
+    @Query("{ '$or': [ { 'quoteNumber': { '$gt': ?0 } }, { 'quoteNumber': ?0, '_id': { '$gt': ?1 } } ] }")
+    Flux<QuoteMongo> findPageAfter(int quoteNumber, ObjectId id, Pageable pageable);
+
+    /**
+     * All quotes ordered by (quoteNumber, _id), emitted from a server-side cursor as the
+     * subscriber requests them.
+     * @return quotes
+     */
+    Flux<QuoteMongo> findAllByOrderByQuoteNumberAscIdAsc();
+
+    /**
+     * Keyset window of the quotes submitted in a time range, ordered by (ts, quoteNumber, _id) and
+     * served by the ts_quoteNumber_id_idx index.
+     * @param createdAt submission time range, epoch milliseconds
+     * @param position keyset position after the previous window, or the initial position
+     * @param limit window size
+     * @return next window of quotes
+     */
+    Mono<Window<QuoteMongo>> findByCreatedAtBetweenOrderByCreatedAtAscQuoteNumberAscIdAsc(
+        Range<Long> createdAt, ScrollPosition position, Limit limit);
+
+    /**
+     * Keyset window of the quotes submitted from one IP address in a time range, ordered by
+     * (ts, quoteNumber, _id) and served by the addr_ts_quoteNumber_id_idx index.
+     * @param ipAddress packed IP address
+     * @param createdAt submission time range, epoch milliseconds
+     * @param position keyset position after the previous window, or the initial position
+     * @param limit window size
+     * @return next window of quotes
+     */
+    Mono<Window<QuoteMongo>> findByIpAddressAndCreatedAtBetweenOrderByCreatedAtAscQuoteNumberAscIdAsc(
+        byte[] ipAddress, Range<Long> createdAt, ScrollPosition position, Limit limit);
+
+    /**
+     * Full-text search on the quote_text_idx text index, best textScore first.
+     * @param search terms in $text syntax
+     * @param pageable page size (page index is always 0)
+     * @return matching quotes
+     */
+    @Query(value = "{ '$text': { '$search': ?0 } }", sort = "{ 'score': { '$meta': 'textScore' } }")
+    Flux<QuoteMongo> searchText(String search, Pageable pageable);
+}
@@ -0,0 +1,83 @@
+package com.wizkhalubernetes.search;
+
+/**
+ * Open-addressing map from quote number to score, used to accumulate the term frequencies of one
+ * query without boxing. Keys must be positive (0 marks an empty slot); scores start at 0.
+ */
+final class IntScoreMap {
+    private static final int EMPTY = 0;
+
+    private int[] keys;
+    private int[] values;
+    private int size;
+    private int mask;
+
+    /**
+     * @param expected expected number of keys; the table is sized to stay at most half full
+     */
+    IntScoreMap(int expected) {
+        int capacity = Integer.highestOneBit(Math.min(Math.max(4, expected), 1 << 28) * 2 - 1) << 1;
+        keys = new int[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+    }
+
+    /**
+     * Adds delta to the score of key, inserting it when absent.
+     */
+    void add(int key, int delta) {
+        int slot = slot(key);
+        values[slot] += delta;
+        if (keys[slot] == EMPTY) {
+            keys[slot] = key;
+            if (++size * 2 > keys.length) {
+                grow();
+            }
+        }
+    }
+
+    /**
+     * Gets the score of key.
+     * @return score, or -1 when the key is absent
+     */
+    int get(int key) {
+        int slot = slot(key);
+        return keys[slot] == EMPTY ? -1 : values[slot];
+    }
+
+    int size() { return size; }
+
+    /** Gets the backing key array; slots holding 0 are empty. */
+    int[] keys() { return keys; }
+
+    /** Gets the backing value array, parallel to {@link #keys()}. */
+    int[] values() { return values; }
+
+    private int slot(int key) {
+        int slot = mix(key) & mask;
+        while (keys[slot] != EMPTY && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void grow() {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new int[oldKeys.length * 2];
+        values = new int[oldValues.length * 2];
+        mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int slot = slot(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,466 @@
+package com.wizkhalubernetes.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over quote text. Every term (see {@link QuoteTokenizer}) maps to a
+ * posting list of (quoteNumber, term frequency) pairs packed into one growable int[], so a posting
+ * costs 8 bytes and no objects. Terms are kept sorted, so a prefix query ("dre*") is a range scan
+ * over the term dictionary.
+ * <p>
+ * A query is a list of terms that must all match; a term ending in '*' matches every term starting
+ * with it. Hits are ranked by the summed frequency of the query terms in the quote, newer quotes
+ * (higher quote number) first on ties.
+ * <p>
+ * Deletes only mark the quote number dead; dead postings are skipped by queries and dropped in one
+ * pass once more than a quarter of the indexed quotes are dead. Quote numbers are never reused, so a
+ * deleted number is never indexed again (this also keeps a delete that races with the initial build
+ * from being undone by it). Reads share a read lock and writes take the write lock.
+ */
+public class QuoteSearchIndex {
+    /** Shortest prefix accepted before '*'. */
+    public static final int MIN_PREFIX_LENGTH = 2;
+    private static final int MIN_COMPACTION_DEAD = 1024;
+    private static final char PREFIX_WILDCARD = '*';
+
+    private final TreeMap<String, Postings> terms = new TreeMap<>();
+    private final BitSet live = new BitSet();
+    private final BitSet deleted = new BitSet();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private int liveCount;
+    private int deadCount;
+    private long postingCount;
+
+    /**
+     * Indexes a quote. Ignored when the quote number is already indexed or was deleted.
+     * @param quoteNumber quote number (positive)
+     * @param text quote text
+     * @return true if the quote was added
+     */
+    public boolean add(int quoteNumber, String text) {
+        if (quoteNumber <= 0) {
+            return false;
+        }
+        // Tokenize and count outside the lock: sorting groups repeats of a term together
+        String[] tokens = QuoteTokenizer.tokens(text).toArray(new String[0]);
+        Arrays.sort(tokens);
+        lock.writeLock().lock();
+        try {
+            if (live.get(quoteNumber) || deleted.get(quoteNumber)) {
+                return false;
+            }
+            for (int i = 0; i < tokens.length; ) {
+                int run = i + 1;
+                while (run < tokens.length && tokens[run].equals(tokens[i])) {
+                    run++;
+                }
+                terms.computeIfAbsent(tokens[i], term -> new Postings()).add(quoteNumber, run - i);
+                postingCount++;
+                i = run;
+            }
+            live.set(quoteNumber);
+            liveCount++;
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a quote from the index.
+     * @param quoteNumber quote number of the deleted quote
+     * @return true if the quote was indexed
+     */
+    public boolean remove(int quoteNumber) {
+        if (quoteNumber <= 0) {
+            return false;
+        }
+        lock.writeLock().lock();
+        try {
+            deleted.set(quoteNumber);
+            if (!live.get(quoteNumber)) {
+                return false;
+            }
+            live.clear(quoteNumber);
+            liveCount--;
+            deadCount++;
+            if (deadCount >= MIN_COMPACTION_DEAD && deadCount * 4 > liveCount + deadCount) {
+                compact();
+            }
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Runs a query.
+     * @param query space-separated terms, each optionally ending in '*' for a prefix match
+     * @param limit maximum number of hits returned
+     * @return best hits first, with the total number of matching quotes
+     * @throws IllegalArgumentException if the query has no terms or a prefix is too short
+     */
+    public Hits search(String query, int limit) {
+        List<Clause> clauses = parse(query);
+        lock.readLock().lock();
+        try {
+            List<List<Postings>> matches = new ArrayList<>(clauses.size());
+            for (Clause clause : clauses) {
+                List<Postings> postings = clause.lookup(terms);
+                if (postings.isEmpty()) {
+                    return Hits.EMPTY;
+                }
+                matches.add(postings);
+            }
+            if (matches.size() == 1 && matches.get(0).size() == 1) {
+                // One exact term: every quote appears once in its posting list, no scores to merge
+                return top(matches.get(0).get(0), limit);
+            }
+            // Rarest clause first: it bounds the candidates every later clause has to probe
+            matches.sort((a, b) -> Long.compare(totalSize(a), totalSize(b)));
+            IntScoreMap scores = null;
+            for (List<Postings> clause : matches) {
+                scores = scores == null ? collect(clause) : intersect(scores, clause);
+                if (scores.size() == 0) {
+                    return Hits.EMPTY;
+                }
+            }
+            return top(scores, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Gets the number of indexed (not deleted) quotes.
+     * @return live quote count
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return liveCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Gets the number of distinct terms.
+     * @return term count
+     */
+    public int termCount() {
+        lock.readLock().lock();
+        try {
+            return terms.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Estimates the heap held by the index (compressed oops): term strings, dictionary entries,
+     * posting arrays including their spare capacity, and the quote number bitsets.
+     * @return approximate size in bytes
+     */
+    public long estimatedBytes() {
+        lock.readLock().lock();
+        try {
+            long bytes = 48L + (live.size() + deleted.size()) / 8;
+            for (Map.Entry<String, Postings> entry : terms.entrySet()) {
+                // TreeMap entry 40, String 24 + byte[] 16 + chars (Latin-1), Postings 24 + int[] 16 + data
+                bytes += 40 + 24 + align(16 + entry.getKey().length())
+                    + 24 + align(16 + 4L * entry.getValue().data.length);
+            }
+            return bytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Gets the number of postings, dead ones included until the next compaction.
+     * @return posting count
+     */
+    public long postingCount() {
+        lock.readLock().lock();
+        try {
+            return postingCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private IntScoreMap collect(List<Postings> clause) {
+        IntScoreMap scores = new IntScoreMap((int) Math.min(totalSize(clause), liveCount));
+        for (Postings postings : clause) {
+            int[] data = postings.data;
+            for (int i = 0; i < postings.size; i += 2) {
+                if (live.get(data[i])) {
+                    scores.add(data[i], data[i + 1]);
+                }
+            }
+        }
+        return scores;
+    }
+
+    private static IntScoreMap intersect(IntScoreMap previous, List<Postings> clause) {
+        IntScoreMap scores = new IntScoreMap(previous.size());
+        for (Postings postings : clause) {
+            int[] data = postings.data;
+            for (int i = 0; i < postings.size; i += 2) {
+                int score = previous.get(data[i]);
+                if (score >= 0) {
+                    // First posting of this quote in the clause carries the earlier clauses' score
+                    scores.add(data[i], scores.get(data[i]) < 0 ? score + data[i + 1] : data[i + 1]);
+                }
+            }
+        }
+        return scores;
+    }
+
+    /**
+     * Selects the best hits of accumulated scores.
+     */
+    private static Hits top(IntScoreMap scores, int limit) {
+        TopHits top = new TopHits(Math.min(Math.max(limit, 0), scores.size()));
+        int[] keys = scores.keys();
+        int[] values = scores.values();
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != 0) {
+                top.offer(keys[i], values[i]);
+            }
+        }
+        return top.hits(scores.size());
+    }
+
+    /**
+     * Selects the best live hits of a single posting list.
+     */
+    private Hits top(Postings postings, int limit) {
+        TopHits top = new TopHits(Math.min(Math.max(limit, 0), postings.size / 2));
+        int[] data = postings.data;
+        int total = 0;
+        for (int i = 0; i < postings.size; i += 2) {
+            if (live.get(data[i])) {
+                top.offer(data[i], data[i + 1]);
+                total++;
+            }
+        }
+        return total == 0 ? Hits.EMPTY : top.hits(total);
+    }
+
+    /**
+     * Drops the postings of deleted quotes and terms left without postings. Called with the
+     * write lock held.
+     */
+    private void compact() {
+        postingCount = 0;
+        terms.values().removeIf(postings -> {
+            postings.retain(live);
+            postingCount += postings.size / 2;
+            return postings.size == 0;
+        });
+        deadCount = 0;
+    }
+
+    private static long totalSize(Collection<Postings> postings) {
+        long size = 0;
+        for (Postings p : postings) {
+            size += p.size / 2;
+        }
+        return size;
+    }
+
+    private static long align(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+
+    private static List<Clause> parse(String query) {
+        List<Clause> clauses = new ArrayList<>();
+        if (query != null) {
+            for (String word : query.trim().split("\\s+")) {
+                List<String> tokens = QuoteTokenizer.tokens(word);
+                boolean prefix = word.length() > 1 && word.charAt(word.length() - 1) == PREFIX_WILDCARD;
+                for (int i = 0; i < tokens.size(); i++) {
+                    boolean last = i == tokens.size() - 1;
+                    if (last && prefix && tokens.get(i).length() < MIN_PREFIX_LENGTH) {
+                        throw new IllegalArgumentException(
+                            "Prefix queries need at least " + MIN_PREFIX_LENGTH + " characters before '*'");
+                    }
+                    clauses.add(new Clause(tokens.get(i), last && prefix));
+                }
+            }
+        }
+        if (clauses.isEmpty()) {
+            throw new IllegalArgumentException("Query has no searchable terms");
+        }
+        return clauses;
+    }
+
+    /**
+     * Bounded min-heap of the best k hits, each packed into a long as (score, quoteNumber) so that
+     * comparing longs orders by score, then by quote number.
+     */
+    private static final class TopHits {
+        private final long[] heap;
+        private int size;
+
+        TopHits(int k) {
+            heap = new long[k];
+        }
+
+        void offer(int quoteNumber, int score) {
+            if (heap.length == 0) {
+                return;
+            }
+            long hit = ((long) score << 32) | quoteNumber;
+            if (size < heap.length) {
+                heap[size] = hit;
+                siftUp(size++);
+            } else if (hit > heap[0]) {
+                heap[0] = hit;
+                siftDown();
+            }
+        }
+
+        Hits hits(int total) {
+            Arrays.sort(heap, 0, size);
+            int[] quoteNumbers = new int[size];
+            int[] scores = new int[size];
+            for (int i = 0; i < size; i++) {
+                long hit = heap[size - 1 - i];
+                quoteNumbers[i] = (int) hit;
+                scores[i] = (int) (hit >>> 32);
+            }
+            return new Hits(quoteNumbers, scores, total);
+        }
+
+        private void siftUp(int i) {
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (heap[parent] <= heap[i]) {
+                    return;
+                }
+                swap(parent, i);
+                i = parent;
+            }
+        }
+
+        private void siftDown() {
+            int i = 0;
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= size) {
+                    return;
+                }
+                if (child + 1 < size && heap[child + 1] < heap[child]) {
+                    child++;
+                }
+                if (heap[i] <= heap[child]) {
+                    return;
+                }
+                swap(i, child);
+                i = child;
+            }
+        }
+
+        private void swap(int a, int b) {
+            long tmp = heap[a];
+            heap[a] = heap[b];
+            heap[b] = tmp;
+        }
+    }
+
+    /**
+     * One query term: an exact term or a prefix.
+     */
+    private static final class Clause {
+        final String term;
+        final boolean prefix;
+
+        Clause(String term, boolean prefix) {
+            this.term = term;
+            this.prefix = prefix;
+        }
+
+        List<Postings> lookup(TreeMap<String, Postings> terms) {
+            if (!prefix) {
+                Postings postings = terms.get(term);
+                return postings == null ? List.of() : List.of(postings);
+            }
+            return new ArrayList<>(terms.subMap(term, true, term + Character.MAX_VALUE, false).values());
+        }
+    }
+
+    /**
+     * Posting list of one term: [quoteNumber, frequency] pairs in insertion order.
+     */
+    private static final class Postings {
+        int[] data = new int[2];
+        int size;
+
+        void add(int quoteNumber, int frequency) {
+            if (size == data.length) {
+                data = Arrays.copyOf(data, size + Math.max(2, (size >> 1) & ~1));
+            }
+            data[size++] = quoteNumber;
+            data[size++] = frequency;
+        }
+
+        void retain(BitSet live) {
+            int kept = 0;
+            for (int i = 0; i < size; i += 2) {
+                if (live.get(data[i])) {
+                    data[kept++] = data[i];
+                    data[kept++] = data[i + 1];
+                }
+            }
+            size = kept;
+            if (data.length > Math.max(2, size + (size >> 1))) {
+                data = Arrays.copyOf(data, Math.max(2, size));
+            }
+        }
+    }
+
+    /**
+     * Result of one query: the best hits, best first, and how many quotes matched in total.
+     */
+    public static final class Hits {
+        static final Hits EMPTY = new Hits(new int[0], new int[0], 0);
+
+        private final int[] quoteNumbers;
+        private final int[] scores;
+        private final int total;
+
+        Hits(int[] quoteNumbers, int[] scores, int total) {
+            this.quoteNumbers = quoteNumbers;
+            this.scores = scores;
+            this.total = total;
+        }
+
+        /**
+         * Gets the quote numbers of the best hits, best first.
+         * @return quote numbers
+         */
+        public int[] quoteNumbers() { return quoteNumbers; }
+
+        /**
+         * Gets the score (summed term frequency) of each hit, parallel to {@link #quoteNumbers()}.
+         * @return scores
+         */
+        public int[] scores() { return scores; }
+
+        /**
+         * Gets the number of quotes matching the query.
+         * @return total matches
+         */
+        public int total() { return total; }
+    }
+}
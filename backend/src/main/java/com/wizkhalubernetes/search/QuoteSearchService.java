@@ -0,0 +1,164 @@
+package com.wizkhalubernetes.search;
+
+import com.wizkhalubernetes.prometheus.QuoteMetricsService;
+import com.wizkhalubernetes.store.QuoteStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Owns this node's {@link QuoteSearchIndex} for GET /api/quotes/search. At startup the index is
+ * built on a background thread by streaming every quote from the active {@link QuoteStore}; until
+ * that finishes, searches are refused (503) while writes are already applied, so nothing is lost
+ * in between. A failed build (e.g. MongoDB down) is retried every quotes.search.index.retry-interval.
+ * After the build, QuoteController keeps the index current through {@link #quoteSaved} and
+ * {@link #quoteDeleted}. Like the event stream, it only sees writes made through this node.
+ */
+@Component
+public class QuoteSearchService implements SmartLifecycle {
+    private static final Logger logger = LoggerFactory.getLogger(QuoteSearchService.class);
+
+    private final QuoteSearchIndex index = new QuoteSearchIndex();
+    private final ObjectProvider<QuoteStore<?>> store;
+    private final boolean enabled;
+    private final long retryMillis;
+    private volatile boolean ready;
+    private volatile double buildSeconds;
+    private ScheduledExecutorService builder;
+
+    /**
+     * @param store quote store of the active DB the index is built from
+     * @param metrics metrics service for the index gauges
+     * @param enabled whether the in-memory index is kept at all
+     * @param retryInterval delay before retrying a failed build
+     */
+    public QuoteSearchService(ObjectProvider<QuoteStore<?>> store, QuoteMetricsService metrics,
+                              @Value("${quotes.search.index.enabled:true}") boolean enabled,
+                              @Value("${quotes.search.index.retry-interval:10s}") Duration retryInterval) {
+        if (retryInterval.isNegative() || retryInterval.isZero()) {
+            throw new IllegalArgumentException("quotes.search.index.retry-interval must be positive");
+        }
+        this.store = store;
+        this.enabled = enabled;
+        this.retryMillis = retryInterval.toMillis();
+        if (enabled) {
+            metrics.registerSearchIndex(index::size, index::termCount, index::estimatedBytes, () -> buildSeconds);
+        }
+    }
+
+    /**
+     * Tells whether the index has been built and answers searches.
+     * @return true once the initial build has finished
+     */
+    public boolean isReady() { return ready; }
+
+    /**
+     * Searches the index.
+     * @param query search terms (see {@link QuoteSearchIndex#search})
+     * @param limit maximum number of hits
+     * @return best hits first
+     * @throws IllegalArgumentException if the query is not valid
+     * @throws IllegalStateException if the index is disabled or still building
+     */
+    public QuoteSearchIndex.Hits search(String query, int limit) {
+        if (!enabled) {
+            throw new IllegalStateException("In-memory search index is disabled (quotes.search.index.enabled=false)");
+        }
+        if (!ready) {
+            throw new IllegalStateException("Search index is still building");
+        }
+        return index.search(query, limit);
+    }
+
+    /**
+     * Adds a quote saved on this node.
+     * @param quoteNumber quote number
+     * @param text quote text
+     */
+    public void quoteSaved(int quoteNumber, String text) {
+        if (enabled) {
+            index.add(quoteNumber, text);
+        }
+    }
+
+    /**
+     * Removes a quote deleted on this node.
+     * @param quoteNumber quote number of the deleted quote
+     */
+    public void quoteDeleted(int quoteNumber) {
+        if (enabled) {
+            index.remove(quoteNumber);
+        }
+    }
+
+    /**
+     * Streams all quotes into the index; reschedules itself when the store fails.
+     */
+    void build() {
+        QuoteStore<?> quoteStore = store.getIfAvailable();
+        if (quoteStore == null) {
+            logger.warn("No quote store available, search index stays empty");
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            load(quoteStore);
+        } catch (Exception e) {
+            logger.error("Search index build failed, retrying in {} ms: {}", retryMillis, e.getMessage());
+            synchronized (this) {
+                if (builder != null) {
+                    builder.schedule(this::build, retryMillis, TimeUnit.MILLISECONDS);
+                }
+            }
+            return;
+        }
+        buildSeconds = (System.nanoTime() - start) / 1e9;
+        ready = true;
+        logger.info("Search index built: {} quotes, {} terms, ~{} KB in {} ms", index.size(), index.termCount(),
+            index.estimatedBytes() / 1024, Math.round(buildSeconds * 1000));
+    }
+
+    private <T> void load(QuoteStore<T> quoteStore) throws IOException {
+        quoteStore.streamAll((quotes, afterWrite) -> quotes.forEach(quote -> {
+            index.add(quoteStore.quoteNumber(quote), quoteStore.text(quote));
+            afterWrite.accept(quote);
+        }));
+    }
+
+    @Override
+    public synchronized void start() {
+        if (!enabled || builder != null) {
+            return;
+        }
+        builder = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "quote-search-indexer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (!ready) {
+            builder.execute(this::build);
+        }
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (builder == null) {
+            return;
+        }
+        builder.shutdownNow();
+        builder = null;
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return builder != null;
+    }
+}
@@ -0,0 +1,65 @@
+package com.wizkhalubernetes.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Splits quote text into search terms: runs of letters and digits, lower-cased, with accents
+ * stripped ("Café" and "cafe" match) and apostrophes dropped ("don't" and "dont" match).
+ * Terms longer than {@link #MAX_TERM_LENGTH} characters are cut. Used for both indexing and queries,
+ * so the two always agree.
+ */
+public final class QuoteTokenizer {
+    /** Longest term kept; longer runs are truncated. */
+    public static final int MAX_TERM_LENGTH = 32;
+
+    private QuoteTokenizer() {
+    }
+
+    /**
+     * Tokenizes text into normalized terms, in order of appearance and with repeats.
+     * @param text text to tokenize, may be null
+     * @return terms (empty when the text has no letters or digits)
+     */
+    public static List<String> tokens(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return tokens;
+        }
+        String normalized = normalize(text);
+        StringBuilder term = new StringBuilder(MAX_TERM_LENGTH);
+        for (int i = 0; i < normalized.length(); i++) {
+            char c = normalized.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                if (term.length() < MAX_TERM_LENGTH) {
+                    term.append(c);
+                }
+            } else if (c == '\'' || c == '’') {
+                // Apostrophes join the parts of a word instead of splitting it
+            } else if (term.length() > 0) {
+                tokens.add(term.toString());
+                term.setLength(0);
+            }
+        }
+        if (term.length() > 0) {
+            tokens.add(term.toString());
+        }
+        return tokens;
+    }
+
+    /**
+     * Lower-cases text and strips combining marks. ASCII-only text, the common case, skips the
+     * Unicode decomposition.
+     */
+    static String normalize(String text) {
+        String lower = text.toLowerCase(Locale.ROOT);
+        for (int i = 0; i < lower.length(); i++) {
+            if (lower.charAt(i) > 0x7f) {
+                return Normalizer.normalize(lower, Normalizer.Form.NFD).replaceAll("\\p{M}+", "");
+            }
+        }
+        return lower;
+    }
+}
@@ -0,0 +1,86 @@
+package com.wizkhalubernetes.sequence;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * H2 sequence backend using a database SEQUENCE that increments by the block size (hi/lo).
+ * Each NEXT VALUE call reserves a whole block; the sequence starts after the highest
+ * existing quote_number so it is safe to enable on a populated table. The increment is set once,
+ * on first use, and never changed by reservations: larger reservations take several blocks.
+ */
+public class H2QuoteSequenceBackend implements QuoteSequenceBackend {
+    private static final Logger logger = LoggerFactory.getLogger(H2QuoteSequenceBackend.class);
+    static final String SEQUENCE_NAME = "quote_number_seq";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ReentrantLock prepareLock = new ReentrantLock();
+    private volatile long increment;
+
+    /**
+     * @param jdbcTemplate JdbcTemplate for the H2 datasource
+     */
+    public H2QuoteSequenceBackend(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public long reserveBlock(int blockSize) {
+        prepare(blockSize);
+        return jdbcTemplate.queryForObject("SELECT NEXT VALUE FOR " + SEQUENCE_NAME, Long.class);
+    }
+
+    @Override
+    public long[] reserveBlocks(int blockSize, int blocks) {
+        prepare(blockSize);
+        List<Long> firsts = jdbcTemplate.queryForList(
+            "SELECT NEXT VALUE FOR " + SEQUENCE_NAME + " FROM SYSTEM_RANGE(1, ?)", Long.class, blocks);
+        return firsts.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    /**
+     * Creates the sequence on first use. An existing sequence is only altered when its increment is
+     * smaller than the block size, i.e. quotes.sequence.block-size was raised; blocks of a smaller
+     * size are subsets of a larger increment, so replicas still on the old size stay unique.
+     * @throws IllegalArgumentException if a block larger than the prepared increment is requested
+     */
+    private void prepare(int blockSize) {
+        if (increment == 0) {
+            prepareLock.lock();
+            try {
+                if (increment == 0) {
+                    increment = createSequence(blockSize);
+                }
+            } finally {
+                prepareLock.unlock();
+            }
+        }
+        if (blockSize > increment) {
+            throw new IllegalArgumentException("Block size " + blockSize + " exceeds the sequence increment " + increment);
+        }
+    }
+
+    private long createSequence(int blockSize) {
+        Long max = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(quote_number), 0) FROM quotes", Long.class);
+        try {
+            jdbcTemplate.execute("CREATE SEQUENCE IF NOT EXISTS " + SEQUENCE_NAME
+                + " START WITH " + (max + 1) + " INCREMENT BY " + blockSize);
+        } catch (DataAccessException e) {
+            // Another replica created it at the same time; the lookup below fails if it really is missing
+            logger.debug("Concurrent creation of {}: {}", SEQUENCE_NAME, e.getMessage());
+        }
+        Long current = jdbcTemplate.queryForObject(
+            "SELECT INCREMENT FROM INFORMATION_SCHEMA.SEQUENCES WHERE SEQUENCE_NAME = ?", Long.class,
+            SEQUENCE_NAME.toUpperCase());
+        if (current < blockSize) {
+            logger.info("Raising the increment of {} from {} to {}", SEQUENCE_NAME, current, blockSize);
+            jdbcTemplate.execute("ALTER SEQUENCE " + SEQUENCE_NAME + " INCREMENT BY " + blockSize);
+            return blockSize;
+        }
+        return current;
+    }
+}
@@ -0,0 +1,31 @@
+package com.wizkhalubernetes.sequence;
+
+import com.wizkhalubernetes.repository.mmap.QuoteMmapRepository;
+
+/**
+ * Sequence backend for the local mmap store. The quote log is owned by this process (it is
+ * file-locked), so blocks are handed out from an in-memory counter that resumes after the highest
+ * quote number in the log; the log keeps that number across compactions, so deleted quote numbers
+ * are not reused after a restart. Numbers reserved but never written may be reused, which is safe.
+ */
+public class MmapQuoteSequenceBackend implements QuoteSequenceBackend {
+    private final QuoteMmapRepository repository;
+    private long next;
+
+    /**
+     * @param repository mmap quote repository
+     */
+    public MmapQuoteSequenceBackend(QuoteMmapRepository repository) {
+        this.repository = repository;
+    }
+
+    @Override
+    public synchronized long reserveBlock(int blockSize) {
+        if (next == 0) {
+            next = repository.maxQuoteNumber() + 1;
+        }
+        long first = next;
+        next += blockSize;
+        return first;
+    }
+}
@@ -0,0 +1,86 @@
+package com.wizkhalubernetes.sequence;
+
+import com.wizkhalubernetes.model.mongo.QuoteMongo;
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * MongoDB sequence backend backed by a counter document updated with findAndModify.
+ * The counter lives in the "counters" collection as { _id: "quoteNumber", seq: <last reserved> }
+ * and is seeded from the highest existing quoteNumber the first time it is used.
+ */
+public class MongoQuoteSequenceBackend implements QuoteSequenceBackend {
+    static final String COUNTERS_COLLECTION = "counters";
+    static final String COUNTER_ID = "quoteNumber";
+
+    private final MongoTemplate mongoTemplate;
+    private final ReentrantLock seedLock = new ReentrantLock();
+    private volatile boolean seeded;
+
+    /**
+     * @param mongoTemplate MongoTemplate for the quotes database
+     */
+    public MongoQuoteSequenceBackend(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public long reserveBlock(int blockSize) {
+        return reserveBlocks(blockSize, 1)[0];
+    }
+
+    /**
+     * Reserves all blocks with a single $inc, so they are adjacent.
+     */
+    @Override
+    public long[] reserveBlocks(int blockSize, int blocks) {
+        if (!seeded) {
+            seed();
+        }
+        long total = (long) blockSize * blocks;
+        Document counter = mongoTemplate.findAndModify(
+            counterQuery(),
+            new Update().inc("seq", total),
+            FindAndModifyOptions.options().returnNew(true).upsert(true),
+            Document.class,
+            COUNTERS_COLLECTION);
+        long first = ((Number) counter.get("seq")).longValue() - total + 1;
+        long[] firsts = new long[blocks];
+        for (int i = 0; i < blocks; i++) {
+            firsts[i] = first + (long) i * blockSize;
+        }
+        return firsts;
+    }
+
+    /**
+     * Raises the counter to the current max quoteNumber. Uses $max so concurrent seeding from
+     * several replicas is idempotent and never moves the counter backwards.
+     */
+    private void seed() {
+        seedLock.lock();
+        try {
+            if (seeded) {
+                return;
+            }
+            Query latest = new Query().with(Sort.by(Sort.Direction.DESC, "quoteNumber")).limit(1);
+            latest.fields().include("quoteNumber");
+            QuoteMongo top = mongoTemplate.findOne(latest, QuoteMongo.class);
+            long max = top != null ? top.getQuoteNumber() : 0L;
+            mongoTemplate.upsert(counterQuery(), new Update().max("seq", max), COUNTERS_COLLECTION);
+            seeded = true;
+        } finally {
+            seedLock.unlock();
+        }
+    }
+
+    private static Query counterQuery() {
+        return Query.query(where("_id").is(COUNTER_ID));
+    }
+}
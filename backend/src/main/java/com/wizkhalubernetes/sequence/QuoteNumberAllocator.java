@@ -0,0 +1,94 @@
+package com.wizkhalubernetes.sequence;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Hands out unique quote numbers using block (hi/lo) allocation.
+ * A range of numbers is reserved from the {@link QuoteSequenceBackend} in one round trip and then
+ * served from a local AtomicLong, so most calls never touch the database. Numbers are unique
+ * across replicas; a restart may leave a gap of at most one block.
+ */
+@Component
+public class QuoteNumberAllocator {
+    private final QuoteSequenceBackend backend;
+    private final int blockSize;
+    // A lock rather than synchronized: refills do DB I/O and must not pin virtual threads
+    private final ReentrantLock refillLock = new ReentrantLock();
+    private volatile Block current = Block.EMPTY;
+
+    /**
+     * @param backend sequence backend for the active DB
+     * @param blockSize number of quote numbers reserved per round trip
+     */
+    public QuoteNumberAllocator(QuoteSequenceBackend backend,
+                                @Value("${quotes.sequence.block-size:50}") int blockSize) {
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("quotes.sequence.block-size must be at least 1");
+        }
+        this.backend = backend;
+        this.blockSize = blockSize;
+    }
+
+    /**
+     * Returns the next unique quote number.
+     * @return quote number
+     */
+    public long next() {
+        while (true) {
+            Block block = current;
+            long n = block.next.getAndIncrement();
+            if (n < block.end) {
+                return n;
+            }
+            refill(block);
+        }
+    }
+
+    /**
+     * Reserves quote numbers for a batch in one round trip, bypassing the local block.
+     * Takes ceil(count / block-size) whole blocks, so the sequence increment never changes; the
+     * unused tail of the last block is left as a gap.
+     * @param count number of quote numbers to reserve (at least 1)
+     * @return count unique quote numbers, ascending within each block
+     */
+    public long[] reserve(int count) {
+        if (count < 1) {
+            throw new IllegalArgumentException("count must be at least 1");
+        }
+        long[] firsts = backend.reserveBlocks(blockSize, (count + blockSize - 1) / blockSize);
+        long[] numbers = new long[count];
+        for (int i = 0; i < count; i++) {
+            numbers[i] = firsts[i / blockSize] + i % blockSize;
+        }
+        return numbers;
+    }
+
+    /**
+     * Swaps in a fresh block unless another thread already did.
+     */
+    private void refill(Block exhausted) {
+        refillLock.lock();
+        try {
+            if (current == exhausted) {
+                long first = backend.reserveBlock(blockSize);
+                current = new Block(first, first + blockSize);
+            }
+        } finally {
+            refillLock.unlock();
+        }
+    }
+
+    private static final class Block {
+        static final Block EMPTY = new Block(0, 0);
+        final AtomicLong next;
+        final long end;
+
+        Block(long first, long end) {
+            this.next = new AtomicLong(first);
+            this.end = end;
+        }
+    }
+}
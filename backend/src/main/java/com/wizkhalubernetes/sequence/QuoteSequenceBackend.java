@@ -0,0 +1,32 @@
+package com.wizkhalubernetes.sequence;
+
+/**
+ * Storage-side counter used to reserve ranges of quote numbers.
+ * Each call is one atomic round trip to the database; {@link QuoteNumberAllocator} hands out
+ * the numbers inside a reserved range locally.
+ */
+@FunctionalInterface
+public interface QuoteSequenceBackend {
+    /**
+     * Atomically reserves the next {@code blockSize} quote numbers.
+     * @param blockSize number of quote numbers to reserve (at least 1)
+     * @return first quote number of the reserved range; the range is [first, first + blockSize)
+     */
+    long reserveBlock(int blockSize);
+
+    /**
+     * Reserves {@code blocks} blocks of {@code blockSize} quote numbers. The blocks need not be
+     * adjacent. The default makes one {@link #reserveBlock} call per block; backends override it
+     * to reserve all of them in one round trip.
+     * @param blockSize number of quote numbers per block (at least 1)
+     * @param blocks number of blocks (at least 1)
+     * @return first quote number of each block
+     */
+    default long[] reserveBlocks(int blockSize, int blocks) {
+        long[] firsts = new long[blocks];
+        for (int i = 0; i < blocks; i++) {
+            firsts[i] = reserveBlock(blockSize);
+        }
+        return firsts;
+    }
+}
@@ -0,0 +1,153 @@
+package com.wizkhalubernetes.store;
+
+import com.wizkhalubernetes.model.QuotePage;
+import com.wizkhalubernetes.model.h2.QuoteH2;
+import com.wizkhalubernetes.prometheus.QuoteMetricsService;
+import com.wizkhalubernetes.repository.h2.QuoteH2Repository;
+import jakarta.persistence.EntityManager;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Window;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Quote store backed by the H2 quotes table through JPA.
+ * Full-table streams run in a read-only transaction and detach each entity once written, so the
+ * persistence context stays empty however many rows are streamed.
+ */
+public class H2QuoteStore implements QuoteStore<QuoteH2> {
+    private final QuoteH2Repository repository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate readOnlyTransaction;
+    private final QuoteMetricsService metrics;
+
+    /**
+     * @param repository H2 quote repository
+     * @param entityManager shared (transaction-bound) entity manager
+     * @param transactionManager JPA transaction manager
+     * @param metrics metrics service (db_h2_* counters)
+     */
+    public H2QuoteStore(QuoteH2Repository repository, EntityManager entityManager,
+                        PlatformTransactionManager transactionManager, QuoteMetricsService metrics) {
+        this.repository = repository;
+        this.entityManager = entityManager;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.metrics = metrics;
+    }
+
+    @Override
+    public String type() { return "H2"; }
+
+    @Override
+    public String unavailableMessage() { return "H2/JPA repository unavailable."; }
+
+    @Override
+    public QuoteH2 newQuote(String quote, String timestamp, String ip, int quoteNumber) {
+        QuoteH2 entity = new QuoteH2();
+        entity.setQuote(quote);
+        entity.setTimestamp(timestamp);
+        entity.setIp(ip);
+        entity.setQuoteNumber(quoteNumber);
+        return entity;
+    }
+
+    @Override
+    public QuoteH2 save(QuoteH2 quote) {
+        QuoteH2 saved = repository.save(quote);
+        metrics.incrementH2Create();
+        return saved;
+    }
+
+    @Override
+    public Object id(QuoteH2 quote) { return quote.getId(); }
+
+    @Override
+    public int quoteNumber(QuoteH2 quote) { return quote.getQuoteNumber(); }
+
+    @Override
+    public String text(QuoteH2 quote) { return quote.getQuote(); }
+
+    @Override
+    public QuoteH2 findLatest() {
+        metrics.incrementH2Read();
+        return repository.findTopByOrderByQuoteNumberDesc().orElse(null);
+    }
+
+    @Override
+    public QuotePage<QuoteH2> findPageAfter(String after, int limit) {
+        int afterNumber = 0;
+        long afterId = 0L;
+        if (after != null) {
+            String[] cursor = QuoteCursors.parse(after);
+            afterNumber = Integer.parseInt(cursor[0]);
+            afterId = Long.parseLong(cursor[1]);
+        }
+        List<QuoteH2> items = repository.findPageAfter(afterNumber, afterId, PageRequest.of(0, limit));
+        metrics.incrementH2Read();
+        QuoteH2 last = items.size() < limit ? null : items.get(items.size() - 1);
+        return new QuotePage<>(items, last == null ? null : QuoteCursors.of(last.getQuoteNumber(), last.getId()));
+    }
+
+    @Override
+    public QuotePage<QuoteH2> findCreatedBetween(byte[] ipAddress, long since, long until, String after, int limit) {
+        KeysetScrollPosition position = QuoteCursors.timePosition(after, Long::parseLong);
+        long from = QuoteCursors.timeFloor(position, since);
+        Window<QuoteH2> window = ipAddress == null
+            ? repository.findByCreatedAtGreaterThanEqualAndCreatedAtLessThanOrderByCreatedAtAscQuoteNumberAscIdAsc(
+                from, until, position, Limit.of(limit))
+            : repository.findByIpAddressAndCreatedAtGreaterThanEqualAndCreatedAtLessThanOrderByCreatedAtAscQuoteNumberAscIdAsc(
+                ipAddress, from, until, position, Limit.of(limit));
+        metrics.incrementH2Read();
+        return QuoteCursors.timePage(window);
+    }
+
+    @Override
+    public void streamAll(QuoteStreamWriter<QuoteH2> writer) throws IOException {
+        try {
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<QuoteH2> quotes = repository.streamAllByOrderByQuoteNumberAscIdAsc()) {
+                    metrics.incrementH2Read();
+                    writer.write(quotes, entityManager::detach);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    @Override
+    public List<QuoteH2> findByQuoteNumbers(int[] quoteNumbers) {
+        List<QuoteH2> quotes = repository.findByQuoteNumberIn(QuoteNumberOrder.boxed(quoteNumbers));
+        metrics.incrementH2Read();
+        return QuoteNumberOrder.of(quotes, quoteNumbers, QuoteH2::getQuoteNumber);
+    }
+
+    @Override
+    public List<QuoteH2> searchText(String query, int limit) {
+        throw new UnsupportedOperationException("H2 has no text index; use the in-memory search index");
+    }
+
+    @Override
+    public int deleteById(String id) {
+        List<QuoteH2> deleted = repository.deleteQuoteById(Long.parseLong(id));
+        metrics.incrementH2Delete();
+        return deleted.isEmpty() ? -1 : deleted.get(0).getQuoteNumber();
+    }
+
+    @Override
+    public boolean listsMayLag() { return false; }
+
+    @Override
+    public void countCreated(int count) {
+        metrics.incrementH2Create(count);
+    }
+}
@@ -0,0 +1,109 @@
+package com.wizkhalubernetes.store;
+
+import com.wizkhalubernetes.model.QuotePage;
+import com.wizkhalubernetes.model.mmap.QuoteMmap;
+import com.wizkhalubernetes.prometheus.QuoteMetricsService;
+import com.wizkhalubernetes.repository.mmap.QuoteMmapRepository;
+import java.io.IOException;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Quote store backed by the local memory-mapped quote log (REMOTE_DB=local-mmap). Quotes are keyed by
+ * quote number, so ids and cursors are quote numbers.
+ */
+public class MmapQuoteStore implements QuoteStore<QuoteMmap> {
+    private final QuoteMmapRepository repository;
+    private final QuoteMetricsService metrics;
+
+    /**
+     * @param repository mmap quote repository
+     * @param metrics metrics service (db_mmap_* counters)
+     */
+    public MmapQuoteStore(QuoteMmapRepository repository, QuoteMetricsService metrics) {
+        this.repository = repository;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public String type() { return "Local mmap"; }
+
+    @Override
+    public String unavailableMessage() { return "Local mmap quote log unavailable."; }
+
+    @Override
+    public QuoteMmap newQuote(String quote, String timestamp, String ip, int quoteNumber) {
+        return new QuoteMmap(quote, timestamp, ip, quoteNumber);
+    }
+
+    @Override
+    public QuoteMmap save(QuoteMmap quote) {
+        QuoteMmap saved = repository.save(quote);
+        metrics.incrementMmapCreate();
+        return saved;
+    }
+
+    @Override
+    public Object id(QuoteMmap quote) { return quote.getId(); }
+
+    @Override
+    public int quoteNumber(QuoteMmap quote) { return quote.getQuoteNumber(); }
+
+    @Override
+    public String text(QuoteMmap quote) { return quote.getQuote(); }
+
+    @Override
+    public QuoteMmap findLatest() {
+        metrics.incrementMmapRead();
+        return repository.findLatest().orElse(null);
+    }
+
+    @Override
+    public QuotePage<QuoteMmap> findPageAfter(String after, int limit) {
+        int afterNumber = after == null ? 0 : Integer.parseInt(QuoteCursors.parse(after)[0]);
+        List<QuoteMmap> items = repository.findPageAfter(afterNumber, limit);
+        metrics.incrementMmapRead();
+        QuoteMmap last = items.size() < limit ? null : items.get(items.size() - 1);
+        return new QuotePage<>(items, last == null ? null : QuoteCursors.of(last.getQuoteNumber(), last.getId()));
+    }
+
+    @Override
+    public QuotePage<QuoteMmap> findCreatedBetween(byte[] ipAddress, long since, long until, String after, int limit) {
+        throw new UnsupportedOperationException("The local mmap store has no time index; use REMOTE_DB=false or true");
+    }
+
+    @Override
+    public void streamAll(QuoteStreamWriter<QuoteMmap> writer) throws IOException {
+        try (Stream<QuoteMmap> quotes = repository.streamAll()) {
+            metrics.incrementMmapRead();
+            writer.write(quotes, quote -> { });
+        }
+    }
+
+    @Override
+    public List<QuoteMmap> findByQuoteNumbers(int[] quoteNumbers) {
+        metrics.incrementMmapRead();
+        return repository.findByQuoteNumberIn(quoteNumbers);
+    }
+
+    @Override
+    public List<QuoteMmap> searchText(String query, int limit) {
+        throw new UnsupportedOperationException("The local mmap store has no text index; use the in-memory search index");
+    }
+
+    @Override
+    public int deleteById(String id) {
+        int quoteNumber = Integer.parseInt(id);
+        boolean deleted = repository.deleteById(quoteNumber);
+        metrics.incrementMmapDelete();
+        return deleted ? quoteNumber : -1;
+    }
+
+    @Override
+    public boolean listsMayLag() { return false; }
+
+    @Override
+    public void countCreated(int count) {
+        metrics.incrementMmapCreate(count);
+    }
+}
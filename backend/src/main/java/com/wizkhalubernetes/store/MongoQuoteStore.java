@@ -0,0 +1,150 @@
+package com.wizkhalubernetes.store;
+
+import com.wizkhalubernetes.model.QuotePage;
+import com.wizkhalubernetes.model.mongo.QuoteMongo;
+import com.wizkhalubernetes.prometheus.QuoteMetricsService;
+import com.wizkhalubernetes.repository.mongo.QuoteMongoRepository;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Range;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import java.io.IOException;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Quote store backed by the MongoDB quotes collection.
+ */
+public class MongoQuoteStore implements QuoteStore<QuoteMongo> {
+    private static final ObjectId MIN_OBJECT_ID = new ObjectId("000000000000000000000000");
+    private static final Sort PAGE_SORT = Sort.by("quoteNumber", "id");
+
+    private final QuoteMongoRepository repository;
+    private final QuoteMongoRepository listRepository;
+    private final QuoteMetricsService metrics;
+
+    /**
+     * @param repository MongoDB quote repository
+     * @param metrics metrics service (db_mongo_* counters)
+     */
+    public MongoQuoteStore(QuoteMongoRepository repository, QuoteMetricsService metrics) {
+        this(repository, repository, metrics);
+    }
+
+    /**
+     * @param repository MongoDB quote repository
+     * @param listRepository repository instance for the list queries, e.g. one reading from secondaries
+     * @param metrics metrics service (db_mongo_* counters)
+     */
+    public MongoQuoteStore(QuoteMongoRepository repository, QuoteMongoRepository listRepository,
+                           QuoteMetricsService metrics) {
+        this.repository = repository;
+        this.listRepository = listRepository;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public String type() { return "MongoDB"; }
+
+    @Override
+    public String unavailableMessage() { return "MongoDB connection unavailable at configured URL."; }
+
+    @Override
+    public QuoteMongo newQuote(String quote, String timestamp, String ip, int quoteNumber) {
+        QuoteMongo entity = new QuoteMongo();
+        entity.setQuote(quote);
+        entity.setTimestamp(timestamp);
+        entity.setIp(ip);
+        entity.setQuoteNumber(quoteNumber);
+        return entity;
+    }
+
+    @Override
+    public QuoteMongo save(QuoteMongo quote) {
+        QuoteMongo saved = repository.save(quote);
+        metrics.incrementMongoCreate();
+        return saved;
+    }
+
+    @Override
+    public Object id(QuoteMongo quote) { return quote.getId(); }
+
+    @Override
+    public int quoteNumber(QuoteMongo quote) { return quote.getQuoteNumber(); }
+
+    @Override
+    public String text(QuoteMongo quote) { return quote.getQuote(); }
+
+    @Override
+    public QuoteMongo findLatest() {
+        metrics.incrementMongoRead();
+        return repository.findTopByOrderByQuoteNumberDesc().orElse(null);
+    }
+
+    @Override
+    public QuotePage<QuoteMongo> findPageAfter(String after, int limit) {
+        int afterNumber = 0;
+        ObjectId afterId = MIN_OBJECT_ID;
+        if (after != null) {
+            String[] cursor = QuoteCursors.parse(after);
+            afterNumber = Integer.parseInt(cursor[0]);
+            afterId = new ObjectId(cursor[1]);
+        }
+        List<QuoteMongo> items = listRepository.findPageAfter(afterNumber, afterId, PageRequest.of(0, limit, PAGE_SORT));
+        metrics.incrementMongoRead();
+        QuoteMongo last = items.size() < limit ? null : items.get(items.size() - 1);
+        return new QuotePage<>(items, last == null ? null : QuoteCursors.of(last.getQuoteNumber(), last.getId()));
+    }
+
+    @Override
+    public QuotePage<QuoteMongo> findCreatedBetween(byte[] ipAddress, long since, long until, String after, int limit) {
+        KeysetScrollPosition position = QuoteCursors.timePosition(after, ObjectId::new);
+        Range<Long> createdAt = Range.rightOpen(QuoteCursors.timeFloor(position, since), until);
+        Window<QuoteMongo> window = ipAddress == null
+            ? listRepository.findByCreatedAtBetweenOrderByCreatedAtAscQuoteNumberAscIdAsc(createdAt, position, Limit.of(limit))
+            : listRepository.findByIpAddressAndCreatedAtBetweenOrderByCreatedAtAscQuoteNumberAscIdAsc(
+                ipAddress, createdAt, position, Limit.of(limit));
+        metrics.incrementMongoRead();
+        return QuoteCursors.timePage(window);
+    }
+
+    @Override
+    public void streamAll(QuoteStreamWriter<QuoteMongo> writer) throws IOException {
+        try (Stream<QuoteMongo> quotes = listRepository.streamAllByOrderByQuoteNumberAscIdAsc()) {
+            metrics.incrementMongoRead();
+            writer.write(quotes, quote -> { });
+        }
+    }
+
+    @Override
+    public List<QuoteMongo> findByQuoteNumbers(int[] quoteNumbers) {
+        List<QuoteMongo> quotes = repository.findByQuoteNumberIn(QuoteNumberOrder.boxed(quoteNumbers));
+        metrics.incrementMongoRead();
+        return QuoteNumberOrder.of(quotes, quoteNumbers, QuoteMongo::getQuoteNumber);
+    }
+
+    @Override
+    public List<QuoteMongo> searchText(String query, int limit) {
+        List<QuoteMongo> quotes = repository.searchText(query, PageRequest.of(0, limit));
+        metrics.incrementMongoRead();
+        return quotes;
+    }
+
+    @Override
+    public int deleteById(String id) {
+        int quoteNumber = repository.deleteQuoteById(id).map(QuoteMongo::getQuoteNumber).orElse(-1);
+        metrics.incrementMongoDelete();
+        return quoteNumber;
+    }
+
+    @Override
+    public boolean listsMayLag() { return listRepository != repository; }
+
+    @Override
+    public void countCreated(int count) {
+        metrics.incrementMongoCreate(count);
+    }
+}
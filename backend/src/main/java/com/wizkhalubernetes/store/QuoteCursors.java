@@ -0,0 +1,77 @@
+package com.wizkhalubernetes.store;
+
+import com.wizkhalubernetes.model.Quote;
+import com.wizkhalubernetes.model.QuotePage;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Opaque keyset page cursors of the form "quoteNumber:id", shared by the quote stores and the reactive controller.
+ * Pages of a time range (GET /api/quotes?since=&until=&ip=) use "createdAt:quoteNumber:id" instead.
+ */
+public final class QuoteCursors {
+    private QuoteCursors() {
+    }
+
+    /**
+     * Splits a cursor into its quote number and id parts.
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    public static String[] parse(String cursor) {
+        int sep = cursor.indexOf(':');
+        if (sep <= 0 || sep == cursor.length() - 1) {
+            throw new IllegalArgumentException("Malformed cursor");
+        }
+        return new String[]{cursor.substring(0, sep), cursor.substring(sep + 1)};
+    }
+
+    /**
+     * Builds the cursor of a quote.
+     */
+    public static String of(int quoteNumber, Object id) {
+        return quoteNumber + ":" + id;
+    }
+
+    /**
+     * Turns a time-range cursor into the keyset position of the derived window queries, which order
+     * by (createdAt, quoteNumber, id).
+     * @param cursor cursor returned as nextCursor by the previous page, or null for the first page
+     * @param id parses the id part into the backend's id type
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    public static KeysetScrollPosition timePosition(String cursor, Function<String, ?> id) {
+        if (cursor == null) {
+            return ScrollPosition.keyset();
+        }
+        String[] head = parse(cursor);
+        String[] tail = parse(head[1]);
+        Map<String, Object> keys = new LinkedHashMap<>();
+        keys.put("createdAt", Long.parseLong(head[0]));
+        keys.put("quoteNumber", Integer.parseInt(tail[0]));
+        keys.put("id", id.apply(tail[1]));
+        return ScrollPosition.forward(keys);
+    }
+
+    /**
+     * Raises the lower time bound to the createdAt of the position, so continuation windows start
+     * their index range at the cursor instead of filtering everything before it.
+     */
+    public static long timeFloor(KeysetScrollPosition position, long since) {
+        Object createdAt = position.getKeys().get("createdAt");
+        return createdAt == null ? since : Math.max(since, (Long) createdAt);
+    }
+
+    /**
+     * Builds the page of a time-range window, with the cursor of its last quote if more follow.
+     */
+    public static <T extends Quote> QuotePage<T> timePage(Window<T> window) {
+        List<T> items = window.getContent();
+        T last = window.hasNext() ? items.get(items.size() - 1) : null;
+        return new QuotePage<>(items, last == null ? null : last.getCreatedAt() + ":" + of(last.getQuoteNumber(), last.getId()));
+    }
+}
@@ -0,0 +1,45 @@
+package com.wizkhalubernetes.store;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToIntFunction;
+
+/**
+ * Puts quotes loaded with an IN query on quoteNumber back into the requested order (e.g. search
+ * rank), shared by the quote stores.
+ */
+final class QuoteNumberOrder {
+    private QuoteNumberOrder() {
+    }
+
+    /**
+     * Orders quotes like quoteNumbers, skipping numbers that were not found.
+     */
+    static <T> List<T> of(List<T> quotes, int[] quoteNumbers, ToIntFunction<T> quoteNumberOf) {
+        Map<Integer, T> byNumber = new HashMap<>(quotes.size() * 2);
+        for (T quote : quotes) {
+            byNumber.put(quoteNumberOf.applyAsInt(quote), quote);
+        }
+        List<T> ordered = new ArrayList<>(quotes.size());
+        for (int quoteNumber : quoteNumbers) {
+            T quote = byNumber.get(quoteNumber);
+            if (quote != null) {
+                ordered.add(quote);
+            }
+        }
+        return ordered;
+    }
+
+    /**
+     * Boxes quote numbers for a repository IN query.
+     */
+    static List<Integer> boxed(int[] quoteNumbers) {
+        List<Integer> boxed = new ArrayList<>(quoteNumbers.length);
+        for (int quoteNumber : quoteNumbers) {
+            boxed.add(quoteNumber);
+        }
+        return boxed;
+    }
+}
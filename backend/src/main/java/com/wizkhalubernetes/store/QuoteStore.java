@@ -0,0 +1,155 @@
+package com.wizkhalubernetes.store;
+
+import com.wizkhalubernetes.model.QuotePage;
+import java.io.IOException;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Persistence strategy for the quote API: one implementation per backend (H2, MongoDB or the local
+ * mmap log), chosen once at startup from REMOTE_DB, so request handlers never branch on the active DB.
+ * Implementations also count their DB operations in the db_h2_* / db_mongo_* / db_mmap_* counters.
+ * @param <T> quote entity type of the backend
+ */
+public interface QuoteStore<T> {
+
+    /**
+     * Gets the backend name shown by GET /api/dbstatus ("H2", "MongoDB" or "Local mmap").
+     * @return backend name
+     */
+    String type();
+
+    /**
+     * Gets the error message returned with 503 when the backend cannot be reached.
+     * @return error message
+     */
+    String unavailableMessage();
+
+    /**
+     * Creates a new, unsaved quote entity.
+     * @param quote quote text
+     * @param timestamp submission timestamp
+     * @param ip submitter IP
+     * @param quoteNumber quote number from the allocator
+     * @return unsaved entity
+     */
+    T newQuote(String quote, String timestamp, String ip, int quoteNumber);
+
+    /**
+     * Saves a quote.
+     * @param quote unsaved entity
+     * @return saved entity with its id
+     */
+    T save(T quote);
+
+    /**
+     * Gets the id of a saved quote.
+     * @param quote saved entity
+     * @return id (String for MongoDB, Long for H2, the quote number as Long for the mmap log)
+     */
+    Object id(T quote);
+
+    /**
+     * Gets the quote number of a quote.
+     * @param quote entity
+     * @return quote number
+     */
+    int quoteNumber(T quote);
+
+    /**
+     * Gets the text of a quote.
+     * @param quote entity
+     * @return quote text
+     */
+    String text(T quote);
+
+    /**
+     * Finds the quote with the highest quote number (top-1 query on the quoteNumber index).
+     * @return latest quote, or null if there are none
+     */
+    T findLatest();
+
+    /**
+     * Reads one keyset page ordered by (quoteNumber, id).
+     * @param after cursor returned as nextCursor by the previous page, or null for the first page
+     * @param limit page size
+     * @return page with the cursor of the next page
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    QuotePage<T> findPageAfter(String after, int limit);
+
+    /**
+     * Reads one keyset page of the quotes submitted in [since, until), optionally from one IP address,
+     * ordered by (submission time, quoteNumber, id) and served by a compound index on the submission
+     * time (and address). Quotes whose timestamp or IP is stored as text are not matched.
+     * @param ipAddress packed IP address, or null for any address
+     * @param since lower bound, epoch milliseconds (inclusive)
+     * @param until upper bound, epoch milliseconds (exclusive)
+     * @param after cursor returned as nextCursor by the previous page, or null for the first page
+     * @param limit page size
+     * @return page with the cursor of the next page
+     * @throws IllegalArgumentException if the cursor is malformed
+     * @throws UnsupportedOperationException if the backend has no time index
+     */
+    QuotePage<T> findCreatedBetween(byte[] ipAddress, long since, long until, String after, int limit);
+
+    /**
+     * Opens a cursor over all quotes ordered by (quoteNumber, id) and hands it to the writer,
+     * inside whatever transaction the backend needs; the cursor is closed afterwards.
+     * @param writer consumes the quotes; called once
+     * @throws IOException if the writer fails to write
+     */
+    void streamAll(QuoteStreamWriter<T> writer) throws IOException;
+
+    /**
+     * Loads quotes by quote number (one query on the quoteNumber index).
+     * @param quoteNumbers quote numbers, e.g. search hits in rank order
+     * @return the quotes that still exist, in the order of quoteNumbers
+     */
+    List<T> findByQuoteNumbers(int[] quoteNumbers);
+
+    /**
+     * Full-text search delegated to the database's own text index, best matches first.
+     * @param query search terms
+     * @param limit maximum number of quotes returned
+     * @return matching quotes
+     * @throws UnsupportedOperationException if the backend has no text index
+     */
+    List<T> searchText(String query, int limit);
+
+    /**
+     * Deletes a quote.
+     * @param id quote id as given in the URL
+     * @return quote number of the deleted quote, or -1 if there was no quote with this id
+     * @throws IllegalArgumentException if the id is not valid for this backend
+     */
+    int deleteById(String id);
+
+    /**
+     * Returns true if list queries may miss recent writes (e.g. read from a MongoDB secondary), so
+     * their pages must not be cached.
+     * @return whether list reads may lag writes
+     */
+    boolean listsMayLag();
+
+    /**
+     * Counts quotes created outside {@link #save} (bulk and write-behind writes).
+     * @param count number of quotes created
+     */
+    void countCreated(int count);
+
+    /**
+     * Writes a stream of quotes, e.g. to a servlet response.
+     * @param <T> quote entity type
+     */
+    @FunctionalInterface
+    interface QuoteStreamWriter<T> {
+        /**
+         * @param quotes quotes to write
+         * @param afterWrite to be called with each quote once written (releases backend state)
+         * @throws IOException if writing fails
+         */
+        void write(Stream<T> quotes, Consumer<? super T> afterWrite) throws IOException;
+    }
+}
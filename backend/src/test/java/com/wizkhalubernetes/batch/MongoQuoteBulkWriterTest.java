@@ -0,0 +1,77 @@
+package com.wizkhalubernetes.batch;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.wizkhalubernetes.model.QuoteBatchItemResult;
+import com.wizkhalubernetes.model.mongo.QuoteMongo;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import java.net.InetSocketAddress;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * Tests the unordered bulkWrite writer against an in-memory MongoDB server.
+ */
+public class MongoQuoteBulkWriterTest {
+    private MongoServer server;
+    private MongoClient client;
+    private MongoTemplate mongoTemplate;
+
+    @BeforeEach
+    public void startServer() {
+        server = new MongoServer(new MemoryBackend());
+        InetSocketAddress address = server.bind();
+        client = MongoClients.create("mongodb://" + address.getHostString() + ":" + address.getPort());
+        mongoTemplate = new MongoTemplate(client, "wizquotes");
+    }
+
+    @AfterEach
+    public void stopServer() {
+        client.close();
+        server.shutdownNow();
+    }
+
+    @Test
+    public void insertsAllQuotesWithClientAssignedIds() {
+        List<QuoteBatchItemResult> results = new MongoQuoteBulkWriter(mongoTemplate).insertAll(List.of(
+            new NewQuote("one", "t", "10.0.0.1", 1),
+            new NewQuote("two", "t", "10.0.0.1", 2),
+            new NewQuote("three", "t", "10.0.0.1", 3)));
+
+        assertEquals(3, results.size());
+        for (int i = 0; i < 3; i++) {
+            assertEquals(QuoteBatchItemResult.CREATED, results.get(i).getStatus());
+            assertEquals(i + 1, results.get(i).getQuoteNumber());
+            assertNotNull(mongoTemplate.findById(results.get(i).getId(), QuoteMongo.class));
+        }
+    }
+
+    @Test
+    public void unorderedBulkReportsFailuresPerItemAndKeepsTheRest() {
+        mongoTemplate.indexOps(QuoteMongo.class).ensureIndex(new Index("quoteNumber", Sort.Direction.ASC).unique());
+        QuoteMongo existing = new QuoteMongo();
+        existing.setQuote("existing");
+        existing.setQuoteNumber(2);
+        mongoTemplate.save(existing);
+
+        List<QuoteBatchItemResult> results = new MongoQuoteBulkWriter(mongoTemplate).insertAll(List.of(
+            new NewQuote("one", "t", "10.0.0.1", 1),
+            new NewQuote("duplicate", "t", "10.0.0.1", 2),
+            new NewQuote("three", "t", "10.0.0.1", 3)));
+
+        assertEquals(QuoteBatchItemResult.CREATED, results.get(0).getStatus());
+        assertEquals(QuoteBatchItemResult.FAILED, results.get(1).getStatus());
+        assertNotNull(results.get(1).getError());
+        assertEquals(QuoteBatchItemResult.CREATED, results.get(2).getStatus());
+        assertEquals(3, mongoTemplate.count(new org.springframework.data.mongodb.core.query.Query(), QuoteMongo.class));
+    }
+}
@@ -0,0 +1,127 @@
+package com.wizkhalubernetes.batch;
+
+import com.wizkhalubernetes.model.QuoteBatchItemResult;
+import com.wizkhalubernetes.prometheus.QuoteMetricsService;
+import com.wizkhalubernetes.sequence.QuoteNumberAllocator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests micro-batching, backpressure, shutdown drain and failure propagation of the write-behind buffer.
+ */
+public class QuoteWriteBehindBufferTest {
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final QuoteMetricsService metrics = new QuoteMetricsService(registry);
+    private final AtomicLong counter = new AtomicLong();
+    private final QuoteNumberAllocator allocator = new QuoteNumberAllocator(blockSize -> counter.getAndAdd(blockSize) + 1, 50);
+    private final List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+    private QuoteWriteBehindBuffer buffer;
+
+    @AfterEach
+    public void stopBuffer() {
+        if (buffer != null) {
+            buffer.stop();
+        }
+    }
+
+    @Test
+    public void burstIsCoalescedIntoFewBulkWritesWithUniqueNumbers() throws Exception {
+        buffer = new QuoteWriteBehindBuffer(recordingWriter(null), allocator, metrics, 1_000, 100, Duration.ofMillis(20));
+        buffer.start();
+
+        List<CompletableFuture<QuoteBatchItemResult>> futures = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            futures.add(buffer.submit("quote " + i, "t", "10.0.0.1"));
+        }
+        Set<Integer> numbers = ConcurrentHashMap.newKeySet();
+        for (CompletableFuture<QuoteBatchItemResult> future : futures) {
+            QuoteBatchItemResult result = future.get(5, TimeUnit.SECONDS);
+            assertEquals(QuoteBatchItemResult.CREATED, result.getStatus());
+            numbers.add(result.getQuoteNumber());
+        }
+        assertEquals(500, numbers.size());
+        assertTrue(batchSizes.size() < 50, "expected micro-batches, got " + batchSizes.size() + " writes");
+        assertTrue(batchSizes.stream().allMatch(size -> size <= 100));
+        assertEquals(batchSizes.size(), registry.get("quote_write_behind_batch_size").summary().count());
+    }
+
+    @Test
+    public void fullQueueRejectsAndShutdownDrainsQueuedQuotes() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        buffer = new QuoteWriteBehindBuffer(recordingWriter(release), allocator, metrics, 2, 1, Duration.ZERO);
+        buffer.start();
+
+        CompletableFuture<QuoteBatchItemResult> inFlight = buffer.submit("in flight", "t", "10.0.0.1");
+        waitUntil(() -> buffer.queueDepth() == 0);
+        CompletableFuture<QuoteBatchItemResult> queued1 = buffer.submit("queued 1", "t", "10.0.0.1");
+        CompletableFuture<QuoteBatchItemResult> queued2 = buffer.submit("queued 2", "t", "10.0.0.1");
+        assertNotNull(queued2);
+        assertNull(buffer.submit("rejected", "t", "10.0.0.1"));
+        assertEquals(1.0, registry.get("quote_write_behind_rejected_total").counter().count());
+        assertEquals(2.0, registry.get("quote_write_behind_queue_depth").gauge().value());
+
+        release.countDown();
+        buffer.stop();
+        assertTrue(inFlight.isDone() && queued1.isDone() && queued2.isDone());
+        assertEquals(QuoteBatchItemResult.CREATED, queued2.get().getStatus());
+        assertThrows(IllegalStateException.class, () -> buffer.submit("late", "t", "10.0.0.1"));
+    }
+
+    @Test
+    public void writerFailureCompletesEveryCallerExceptionally() {
+        QuoteBulkWriter failing = quotes -> {
+            throw new IllegalStateException("db down");
+        };
+        buffer = new QuoteWriteBehindBuffer(failing, allocator, metrics, 10, 10, Duration.ofMillis(1));
+        buffer.start();
+
+        CompletableFuture<QuoteBatchItemResult> future = buffer.submit("quote", "t", "10.0.0.1");
+        ExecutionException e = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+        assertEquals("db down", e.getCause().getMessage());
+    }
+
+    private QuoteBulkWriter recordingWriter(CountDownLatch release) {
+        return quotes -> {
+            if (release != null) {
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            batchSizes.add(quotes.size());
+            List<QuoteBatchItemResult> results = new ArrayList<>();
+            for (int i = 0; i < quotes.size(); i++) {
+                NewQuote quote = quotes.get(i);
+                results.add(QuoteBatchItemResult.created(i, (long) quote.getQuoteNumber(), quote.getQuoteNumber(), quote));
+            }
+            return results;
+        };
+    }
+
+    private static void waitUntil(java.util.function.BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertTrue(condition.getAsBoolean());
+    }
+}
@@ -0,0 +1,73 @@
+package com.wizkhalubernetes.cache;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.wizkhalubernetes.model.mongo.QuoteMongo;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import java.net.InetSocketAddress;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * Tails the change stream of an in-memory MongoDB server (with oplog enabled) and checks that
+ * inserts and deletes are turned into invalidation events.
+ */
+public class MongoChangeStreamInvalidationBusTest {
+    private MongoServer server;
+    private MongoClient client;
+    private MongoTemplate mongoTemplate;
+    private MongoChangeStreamInvalidationBus bus;
+
+    @BeforeEach
+    public void startServer() {
+        MemoryBackend backend = new MemoryBackend();
+        backend.enableOplog();
+        server = new MongoServer(backend);
+        InetSocketAddress address = server.bind();
+        client = MongoClients.create("mongodb://" + address.getHostString() + ":" + address.getPort());
+        mongoTemplate = new MongoTemplate(client, "wizquotes");
+        bus = new MongoChangeStreamInvalidationBus(mongoTemplate, "quotes");
+    }
+
+    @AfterEach
+    public void stopServer() {
+        bus.stop();
+        client.close();
+        server.shutdownNow();
+    }
+
+    @Test
+    public void insertsAndDeletesBecomeEvents() throws Exception {
+        BlockingQueue<QuoteChangeEvent> events = new LinkedBlockingQueue<>();
+        bus.subscribe(events::add);
+        bus.start();
+        // Give the worker a moment to open the cursor before writing
+        Thread.sleep(300);
+
+        QuoteMongo quote = new QuoteMongo();
+        quote.setQuote("written by another replica");
+        quote.setQuoteNumber(12);
+        QuoteMongo saved = mongoTemplate.save(quote);
+
+        QuoteChangeEvent inserted = events.poll(5, TimeUnit.SECONDS);
+        assertNotNull(inserted, "no insert event received");
+        assertEquals(QuoteChangeEvent.Type.INSERTED, inserted.getType());
+        assertEquals(12, inserted.getQuoteNumber());
+        assertEquals(saved.getId(), inserted.getId());
+
+        mongoTemplate.remove(saved);
+        QuoteChangeEvent deleted = events.poll(5, TimeUnit.SECONDS);
+        assertNotNull(deleted, "no delete event received");
+        assertEquals(QuoteChangeEvent.Type.DELETED, deleted.getType());
+        assertEquals(saved.getId(), deleted.getId());
+    }
+}
@@ -0,0 +1,77 @@
+package com.wizkhalubernetes.cache;
+
+import com.wizkhalubernetes.model.QuotePage;
+import com.wizkhalubernetes.model.h2.QuoteH2;
+import com.wizkhalubernetes.prometheus.QuoteMetricsService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Two "replicas" (caches) share one loopback bus: a write on one must evict the other's entries.
+ */
+public class QuoteCacheCoherenceTest {
+    private MeterRegistry registry;
+    private QuoteCache nodeA;
+    private QuoteCache nodeB;
+    private QuoteCacheCoherence coherenceA;
+
+    @BeforeEach
+    public void createNodes() {
+        registry = new SimpleMeterRegistry();
+        QuoteMetricsService metrics = new QuoteMetricsService(registry);
+        LoopbackQuoteInvalidationBus bus = new LoopbackQuoteInvalidationBus();
+        nodeA = new QuoteCache(metrics, true, 16, Duration.ofMinutes(5));
+        nodeB = new QuoteCache(metrics, true, 16, Duration.ofMinutes(5));
+        coherenceA = new QuoteCacheCoherence(nodeA, bus, metrics);
+        new QuoteCacheCoherence(nodeB, bus, metrics);
+    }
+
+    @Test
+    public void insertOnOneNodeEvictsStaleLatestAndPagesOnTheOther() {
+        QuoteH2 five = quote(5);
+        nodeB.getLatest(() -> five, QuoteH2::getQuoteNumber);
+        nodeB.getPage("null|50", () -> new QuotePage<>(List.of(five), null));
+
+        QuoteH2 six = quote(6);
+        nodeA.onQuoteSaved(six, 6);
+        coherenceA.quoteSaved(6L, 6);
+
+        AtomicInteger loads = new AtomicInteger();
+        assertSame(six, nodeB.getLatest(() -> { loads.incrementAndGet(); return six; }, QuoteH2::getQuoteNumber));
+        assertEquals(1, loads.get());
+        assertEquals(0, nodeB.pageCount());
+        assertEquals(2, registry.get("quote_cache_invalidation_lag").timer().count());
+    }
+
+    @Test
+    public void olderInsertKeepsNewerLatest() {
+        QuoteH2 ten = quote(10);
+        nodeB.getLatest(() -> ten, QuoteH2::getQuoteNumber);
+        coherenceA.quoteSaved(7L, 7);
+        assertSame(ten, nodeB.getLatest(() -> { throw new AssertionError("should stay cached"); }, QuoteH2::getQuoteNumber));
+    }
+
+    @Test
+    public void deleteOnOneNodeEvictsEverythingOnTheOther() {
+        QuoteH2 five = quote(5);
+        nodeB.getLatest(() -> five, QuoteH2::getQuoteNumber);
+        coherenceA.quoteDeleted(5L);
+        AtomicInteger loads = new AtomicInteger();
+        nodeB.getLatest(() -> { loads.incrementAndGet(); return null; }, QuoteH2::getQuoteNumber);
+        assertEquals(1, loads.get());
+    }
+
+    private static QuoteH2 quote(int quoteNumber) {
+        QuoteH2 quote = new QuoteH2();
+        quote.setQuoteNumber(quoteNumber);
+        return quote;
+    }
+}
@@ -0,0 +1,117 @@
+package com.wizkhalubernetes.cache;
+
+import com.wizkhalubernetes.model.QuotePage;
+import com.wizkhalubernetes.model.h2.QuoteH2;
+import com.wizkhalubernetes.prometheus.QuoteMetricsService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Tests read-through, TTL/size eviction and write invalidation of QuoteCache.
+ */
+public class QuoteCacheTest {
+    private final AtomicLong clock = new AtomicLong();
+    private MeterRegistry registry;
+    private QuoteCache cache;
+
+    @BeforeEach
+    public void createCache() {
+        registry = new SimpleMeterRegistry();
+        cache = new QuoteCache(new QuoteMetricsService(registry), true, 2, Duration.ofSeconds(10), clock::get);
+    }
+
+    @Test
+    public void latestIsLoadedOnceUntilTtlExpires() {
+        AtomicInteger loads = new AtomicInteger();
+        QuoteH2 quote = quote(1);
+        for (int i = 0; i < 5; i++) {
+            assertSame(quote, cache.getLatest(() -> { loads.incrementAndGet(); return quote; }, QuoteH2::getQuoteNumber));
+        }
+        assertEquals(1, loads.get());
+        clock.addAndGet(Duration.ofSeconds(11).toNanos());
+        cache.getLatest(() -> { loads.incrementAndGet(); return quote; }, QuoteH2::getQuoteNumber);
+        assertEquals(2, loads.get());
+        assertEquals(4.0, count("quote_cache_hit_total", "latest"));
+        assertEquals(2.0, count("quote_cache_miss_total", "latest"));
+        assertEquals(1.0, count("quote_cache_eviction_total", "latest"));
+    }
+
+    @Test
+    public void emptyResultIsCachedAndReplacedOnSave() {
+        assertNull(cache.getLatest(() -> null, QuoteH2::getQuoteNumber));
+        QuoteH2 saved = quote(1);
+        cache.onQuoteSaved(saved, 1);
+        assertSame(saved, cache.getLatest(() -> { throw new AssertionError("should be served from cache"); }, QuoteH2::getQuoteNumber));
+    }
+
+    @Test
+    public void olderSaveDoesNotReplaceNewerLatest() {
+        QuoteH2 newer = quote(10);
+        cache.getLatest(() -> newer, QuoteH2::getQuoteNumber);
+        cache.onQuoteSaved(quote(5), 5);
+        assertSame(newer, cache.getLatest(() -> null, QuoteH2::getQuoteNumber));
+    }
+
+    @Test
+    public void pagesAreBoundedAndDroppedOnWrite() {
+        cache.getPage("a", () -> page(1));
+        cache.getPage("b", () -> page(2));
+        cache.getPage("a", () -> page(99));
+        cache.getPage("c", () -> page(3));
+        // "b" was least recently used and is evicted to honour max-pages = 2
+        assertEquals(2, cache.pageCount());
+        assertEquals(4, cache.getPage("b", () -> page(4)).getItems().get(0).getQuoteNumber());
+
+        cache.onQuoteSaved(quote(50), 50);
+        assertEquals(0, cache.pageCount());
+        cache.getPage("a", () -> page(5));
+        cache.onQuoteDeleted();
+        assertEquals(0, cache.pageCount());
+        assertEquals(5.0, count("quote_cache_eviction_total", "page"));
+    }
+
+    @Test
+    public void loadRacingWithWriteIsNotCached() {
+        cache.getLatest(() -> {
+            // A write lands while the stale value is being loaded
+            cache.onQuoteDeleted();
+            return quote(3);
+        }, QuoteH2::getQuoteNumber);
+        AtomicInteger loads = new AtomicInteger();
+        cache.getLatest(() -> { loads.incrementAndGet(); return quote(4); }, QuoteH2::getQuoteNumber);
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    public void disabledCacheAlwaysLoads() {
+        QuoteCache disabled = new QuoteCache(new QuoteMetricsService(registry), false, 2, Duration.ofSeconds(10), clock::get);
+        AtomicInteger loads = new AtomicInteger();
+        disabled.getLatest(() -> { loads.incrementAndGet(); return null; }, QuoteH2::getQuoteNumber);
+        disabled.getLatest(() -> { loads.incrementAndGet(); return null; }, QuoteH2::getQuoteNumber);
+        assertEquals(2, loads.get());
+    }
+
+    private double count(String name, String region) {
+        return registry.get(name).tag("region", region).counter().count();
+    }
+
+    private static QuotePage<QuoteH2> page(int quoteNumber) {
+        return new QuotePage<>(List.of(quote(quoteNumber)), null);
+    }
+
+    private static QuoteH2 quote(int quoteNumber) {
+        QuoteH2 quote = new QuoteH2();
+        quote.setQuoteNumber(quoteNumber);
+        return quote;
+    }
+}
@@ -0,0 +1,85 @@
+package com.wizkhalubernetes.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import com.wizkhalubernetes.model.h2.QuoteH2;
+import com.wizkhalubernetes.prometheus.QuoteMetricsService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests that QuoteJsonCache returns the mapper's encoding, reuses it, drops it on delete and
+ * stays within its byte budget.
+ */
+public class QuoteJsonCacheTest {
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new BlackbirdModule());
+
+    @Test
+    public void encodesOnceAndMatchesTheObjectMapper() throws Exception {
+        MeterRegistry registry = new SimpleMeterRegistry();
+        QuoteJsonCache cache = new QuoteJsonCache(objectMapper, new QuoteMetricsService(registry),
+            new LoopbackQuoteInvalidationBus(), true, DataSize.ofMegabytes(1));
+        QuoteH2 quote = quote(7, "Quote \"7\" é☃");
+        byte[] first = cache.encode(quote.getId(), quote);
+        assertArrayEquals(new ObjectMapper().writeValueAsBytes(quote), first);
+        assertSame(first, cache.encode(quote.getId(), quote));
+        assertEquals(1.0, registry.get("quote_json_cache_hits_total").functionCounter().count());
+        assertEquals(1.0, registry.get("quote_json_cache_misses_total").functionCounter().count());
+        assertEquals(1.0, registry.get("quote_json_cache_entries").gauge().value());
+        assertEquals(first.length + QuoteJsonCache.ENTRY_OVERHEAD, registry.get("quote_json_cache_bytes").gauge().value());
+    }
+
+    @Test
+    public void deletesOnAnyReplicaDropTheEncoding() throws Exception {
+        LoopbackQuoteInvalidationBus bus = new LoopbackQuoteInvalidationBus();
+        QuoteJsonCache cache = new QuoteJsonCache(objectMapper, new QuoteMetricsService(new SimpleMeterRegistry()),
+            bus, true, DataSize.ofMegabytes(1));
+        QuoteH2 one = quote(1, "one");
+        QuoteH2 two = quote(2, "two");
+        cache.encode(one.getId(), one);
+        cache.encode(two.getId(), two);
+        // Controller path: the path variable is a String, QuoteStore.id a Long
+        cache.evict("1");
+        bus.publish(QuoteChangeEvent.deleted(2L));
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.bytes());
+    }
+
+    @Test
+    public void staysWithinTheByteBudget() throws Exception {
+        long budget = 20 * (QuoteJsonCache.ENTRY_OVERHEAD + 100);
+        QuoteJsonCache cache = new QuoteJsonCache(objectMapper, true, budget);
+        for (int n = 1; n <= 1000; n++) {
+            QuoteH2 quote = quote(n, "quote " + n);
+            assertArrayEquals(objectMapper.writeValueAsBytes(quote), cache.encode(quote.getId(), quote));
+            assertTrue(cache.bytes() <= budget, "over budget after " + n);
+        }
+        assertTrue(cache.size() > 0);
+    }
+
+    @Test
+    public void disabledCacheEncodesEveryTime() throws Exception {
+        QuoteJsonCache cache = new QuoteJsonCache(objectMapper, false, Long.MAX_VALUE);
+        QuoteH2 quote = quote(1, "one");
+        assertNotSame(cache.encode(quote.getId(), quote), cache.encode(quote.getId(), quote));
+        assertEquals(0, cache.size());
+    }
+
+    private static QuoteH2 quote(int n, String text) {
+        QuoteH2 quote = new QuoteH2();
+        quote.setId((long) n);
+        quote.setQuote(text);
+        quote.setTimestamp("2024-01-01T00:00:00Z");
+        quote.setIp("10.0.0." + n);
+        quote.setQuoteNumber(n);
+        return quote;
+    }
+}
@@ -0,0 +1,256 @@
+package com.wizkhalubernetes.concurrency;
+
+import com.wizkhalubernetes.prometheus.DbTimingPostProcessor;
+import com.wizkhalubernetes.prometheus.QuoteMetricsService;
+import com.wizkhalubernetes.prometheus.QuoteTimingMetrics;
+import com.wizkhalubernetes.repository.mmap.QuoteMmapRepository;
+import com.wizkhalubernetes.store.MmapQuoteStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests that the DB concurrency filter caps in-flight quote requests, lets a bounded number of them
+ * wait briefly, sheds the excess by priority, and adapts the cap to the latency of an artificially slowed repository.
+ */
+public class DbConcurrencyLimitFilterTest {
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final QuoteMetricsService metrics = new QuoteMetricsService(registry);
+
+    @Test
+    public void requestBeyondPoolSizeIsShedWith503() throws Exception {
+        DbConcurrencyLimiter limiter = new DbConcurrencyLimiter(1);
+        DbConcurrencyLimitFilter filter = new DbConcurrencyLimitFilter(limiter, metrics);
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<MockHttpServletResponse> slow = CompletableFuture.supplyAsync(() -> {
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            try {
+                filter.doFilter(new MockHttpServletRequest("GET", "/api/quotes"), response, (req, res) -> {
+                    entered.countDown();
+                    try {
+                        release.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+            return response;
+        });
+        assertTrue(entered.await(5, TimeUnit.SECONDS));
+        assertEquals(1, limiter.getInFlight());
+
+        MockHttpServletResponse shed = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/quotes/latest"), shed, (req, res) -> { });
+        assertEquals(503, shed.getStatus());
+        assertEquals("1", shed.getHeader("Retry-After"));
+        assertEquals(1.0, registry.get("quote_db_limiter_rejected_total").tag("priority", "high").counter().count());
+
+        MockHttpServletResponse unlimited = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/nodeinfo"), unlimited, (req, res) -> { });
+        assertEquals(200, unlimited.getStatus());
+        MockHttpServletResponse dbStatus = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/dbstatus"), dbStatus, (req, res) -> { });
+        assertEquals(200, dbStatus.getStatus());
+        MockHttpServletResponse stream = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/quotes/stream"), stream, (req, res) -> { });
+        assertEquals(200, stream.getStatus());
+
+        release.countDown();
+        assertEquals(200, slow.get(5, TimeUnit.SECONDS).getStatus());
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    public void requestsOverTheCapWaitBrieflyWhileTheQueueHasRoom() throws Exception {
+        DbConcurrencyLimiter limiter = new DbConcurrencyLimiter(1, 1, 1.0, Duration.ofSeconds(5), 1);
+        assertTrue(limiter.tryAcquire(DbConcurrencyLimiter.Priority.HIGH));
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Boolean> waiter = executor.submit(() -> {
+                boolean acquired = limiter.tryAcquire(DbConcurrencyLimiter.Priority.HIGH);
+                if (acquired) {
+                    limiter.release();
+                }
+                return acquired;
+            });
+            while (limiter.getWaiting() == 0) {
+                Thread.sleep(5);
+            }
+            // The only queue slot is taken: shed at once
+            assertFalse(limiter.tryAcquire(DbConcurrencyLimiter.Priority.HIGH));
+            limiter.release();
+            assertTrue(waiter.get(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(0, limiter.getInFlight());
+
+        DbConcurrencyLimiter shortWait = new DbConcurrencyLimiter(1, 1, 1.0, Duration.ofMillis(50), 1);
+        assertTrue(shortWait.tryAcquire(DbConcurrencyLimiter.Priority.HIGH));
+        long start = System.nanoTime();
+        assertFalse(shortWait.tryAcquire(DbConcurrencyLimiter.Priority.HIGH));
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(50));
+        assertEquals(0, shortWait.getWaiting());
+    }
+
+    @Test
+    public void lowPriorityRequestsAreShedFirst() {
+        DbConcurrencyLimiter limiter = new DbConcurrencyLimiter(4, 4, 0.5);
+        assertTrue(limiter.tryAcquire(DbConcurrencyLimiter.Priority.LOW));
+        assertTrue(limiter.tryAcquire(DbConcurrencyLimiter.Priority.HIGH));
+        // Two of four permits taken: the low-priority share is used up, cheap reads still get in
+        assertFalse(limiter.tryAcquire(DbConcurrencyLimiter.Priority.LOW));
+        assertTrue(limiter.tryAcquire(DbConcurrencyLimiter.Priority.HIGH));
+        assertTrue(limiter.tryAcquire(DbConcurrencyLimiter.Priority.HIGH));
+        assertFalse(limiter.tryAcquire(DbConcurrencyLimiter.Priority.HIGH));
+        for (int i = 0; i < 4; i++) {
+            limiter.release();
+        }
+        assertEquals(0, limiter.getInFlight());
+
+        assertEquals(DbConcurrencyLimiter.Priority.LOW, priority("GET", "/api/quotes"));
+        assertEquals(DbConcurrencyLimiter.Priority.LOW, priority("GET", "/api/quotes?format=ndjson&limit=10"));
+        assertEquals(DbConcurrencyLimiter.Priority.LOW, priority("POST", "/api/quotes/batch"));
+        assertEquals(DbConcurrencyLimiter.Priority.LOW, priority("DELETE", "/api/quotes/42"));
+        assertEquals(DbConcurrencyLimiter.Priority.HIGH, priority("GET", "/api/quotes?limit=20"));
+        assertEquals(DbConcurrencyLimiter.Priority.HIGH, priority("GET", "/api/quotes?since=2024-01-01T00:00:00Z"));
+        assertEquals(DbConcurrencyLimiter.Priority.HIGH, priority("GET", "/api/quotes/latest"));
+        assertEquals(DbConcurrencyLimiter.Priority.HIGH, priority("GET", "/api/quotes/search?q=cloud"));
+    }
+
+    @Test
+    public void lowPriorityRequestsStillGetTheOnlyPermitOfALimitOfOne() {
+        DbConcurrencyLimiter limiter = new DbConcurrencyLimiter(1, 1, 0.75);
+        assertTrue(limiter.tryAcquire(DbConcurrencyLimiter.Priority.LOW));
+        assertFalse(limiter.tryAcquire(DbConcurrencyLimiter.Priority.LOW));
+        assertFalse(limiter.tryAcquire(DbConcurrencyLimiter.Priority.HIGH));
+        limiter.release();
+        assertTrue(limiter.tryAcquire(DbConcurrencyLimiter.Priority.HIGH));
+        limiter.release();
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    public void limitShrinksWhileTheRepositoryIsSlowAndRecoversAfter() throws Exception {
+        // Local mmap repository stand-in whose calls take as long as the test says
+        AtomicLong delayMillis = new AtomicLong(1);
+        QuoteMmapRepository slowRepository = mock(QuoteMmapRepository.class);
+        when(slowRepository.findLatest()).thenAnswer(invocation -> {
+            Thread.sleep(delayMillis.get());
+            return Optional.empty();
+        });
+        QuoteTimingMetrics timings = new QuoteTimingMetrics(registry, "local-mmap");
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerSingleton("quoteTimingMetrics", timings);
+        QuoteMmapRepository timed = (QuoteMmapRepository) new DbTimingPostProcessor(
+            beanFactory.getBeanProvider(QuoteTimingMetrics.class)).postProcessAfterInitialization(slowRepository, "repo");
+        MmapQuoteStore store = new MmapQuoteStore(timed, metrics);
+
+        DbConcurrencyLimiter limiter = new DbConcurrencyLimiter(2, 16, 0.75);
+        timings.setDbCallListener(limiter);
+        DbConcurrencyLimitFilter filter = new DbConcurrencyLimitFilter(limiter, metrics);
+
+        Load fast = runClients(filter, store, limiter, 16, 500);
+        assertTrue(fast.minLimit.get() >= 12, "limit went down to " + fast.minLimit.get() + " on a fast repository");
+        assertEquals(16, limiter.getLimit());
+
+        delayMillis.set(30);
+        Load slow = runClients(filter, store, limiter, 16, 1500);
+        assertTrue(slow.minLimit.get() <= 10, "limit only went down to " + slow.minLimit.get());
+        assertTrue(slow.shed.sum() > 0);
+        // Shed requests fail at once instead of waiting for the slow repository
+        long averageShedMillis = TimeUnit.NANOSECONDS.toMillis(slow.shedNanos.sum() / slow.shed.sum());
+        assertTrue(averageShedMillis < 10, "shedding took " + averageShedMillis + "ms on average");
+
+        delayMillis.set(1);
+        Load recovered = runClients(filter, store, limiter, 16, 1000);
+        assertEquals(16, limiter.getLimit());
+        assertEquals(fast.shed.sum() + slow.shed.sum() + recovered.shed.sum(),
+            registry.get("quote_db_limiter_rejected_total").tag("priority", "high").counter().count());
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    /**
+     * Outcome of one load phase.
+     */
+    private static final class Load {
+        final LongAdder shed = new LongAdder();
+        final LongAdder shedNanos = new LongAdder();
+        final AtomicInteger minLimit = new AtomicInteger(Integer.MAX_VALUE);
+    }
+
+    /**
+     * Runs clients that request the latest quote back to back for a while; a shed client backs off
+     * for a millisecond, as it would for Retry-After.
+     */
+    private static Load runClients(DbConcurrencyLimitFilter filter, MmapQuoteStore store, DbConcurrencyLimiter limiter,
+                                   int clients, long millis) throws Exception {
+        Load load = new Load();
+        long end = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis);
+        ExecutorService executor = Executors.newFixedThreadPool(clients);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < clients; i++) {
+                futures.add(executor.submit(() -> {
+                    while (System.nanoTime() < end) {
+                        MockHttpServletResponse response = new MockHttpServletResponse();
+                        long start = System.nanoTime();
+                        filter.doFilter(new MockHttpServletRequest("GET", "/api/quotes/latest"), response,
+                            (req, res) -> store.findLatest());
+                        load.minLimit.accumulateAndGet(limiter.getLimit(), Math::min);
+                        if (response.getStatus() == 503) {
+                            load.shedNanos.add(System.nanoTime() - start);
+                            load.shed.increment();
+                            Thread.sleep(1);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(millis + 5000, TimeUnit.MILLISECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return load;
+    }
+
+    private static DbConcurrencyLimiter.Priority priority(String method, String uri) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, uri);
+        int query = uri.indexOf('?');
+        if (query >= 0) {
+            request.setRequestURI(uri.substring(0, query));
+            for (String parameter : uri.substring(query + 1).split("&")) {
+                String[] pair = parameter.split("=", 2);
+                request.addParameter(pair[0], pair[1]);
+            }
+        }
+        return DbConcurrencyLimitFilter.priority(request);
+    }
+}
@@ -0,0 +1,75 @@
+package com.wizkhalubernetes.config;
+
+import com.mongodb.client.MongoClient;
+import com.wizkhalubernetes.WizKhalubernetesApplication;
+import com.wizkhalubernetes.store.QuoteStore;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.Banner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.actuate.health.HealthEndpoint;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.StandardEnvironment;
+import javax.sql.DataSource;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the per-mode auto-configuration exclusions and that the fast-startup profile defers only
+ * the beans off the quote request path.
+ */
+public class FastStartupProfileTest {
+
+    @Test
+    public void excludesTheUnusedDbStackPerMode() {
+        List<String> h2 = exclusions("false");
+        assertTrue(h2.containsAll(DbModeEnvironmentPostProcessor.MONGO_AUTO_CONFIGURATION));
+        assertFalse(h2.contains(DbModeEnvironmentPostProcessor.JPA_AUTO_CONFIGURATION.get(0)));
+
+        List<String> mongo = exclusions("true");
+        assertTrue(mongo.containsAll(DbModeEnvironmentPostProcessor.JPA_AUTO_CONFIGURATION));
+        assertFalse(mongo.contains(DbModeEnvironmentPostProcessor.MONGO_AUTO_CONFIGURATION.get(0)));
+
+        List<String> mmap = exclusions("local-mmap");
+        assertTrue(mmap.containsAll(DbModeEnvironmentPostProcessor.JPA_AUTO_CONFIGURATION));
+        assertTrue(mmap.containsAll(DbModeEnvironmentPostProcessor.MONGO_AUTO_CONFIGURATION));
+        // Exclusions configured elsewhere are kept
+        assertEquals("com.example.Configured", mmap.get(0));
+    }
+
+    @Test
+    public void lazyProfileKeepsTheQuoteStoreEagerAndLoadsNoDbStack(@TempDir Path dir) {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(WizKhalubernetesApplication.class)
+                .web(WebApplicationType.NONE)
+                .bannerMode(Banner.Mode.OFF)
+                .run("--REMOTE_DB=local-mmap", "--spring.profiles.active=fast-startup",
+                    "--quotes.mmap.path=" + dir.resolve("quotes.qlog"), "--quotes.search.index.enabled=false")) {
+            assertEquals(0, context.getBeanNamesForType(DataSource.class).length);
+            assertEquals(0, context.getBeanNamesForType(MongoClient.class).length);
+
+            String store = context.getBeanNamesForType(QuoteStore.class)[0];
+            String endpoint = context.getBeanNamesForType(HealthEndpoint.class)[0];
+            assertTrue(context.getBeanFactory().containsSingleton(store));
+            assertFalse(context.getBeanFactory().containsSingleton(endpoint));
+            context.getBean(HealthEndpoint.class);
+            assertTrue(context.getBeanFactory().containsSingleton(endpoint));
+        }
+    }
+
+    private static List<String> exclusions(String remoteDb) {
+        StandardEnvironment environment = new StandardEnvironment();
+        environment.getPropertySources().addFirst(new MapPropertySource("test", Map.of("REMOTE_DB", remoteDb,
+            DbModeEnvironmentPostProcessor.EXCLUDE, "com.example.Configured")));
+        new DbModeEnvironmentPostProcessor().postProcessEnvironment(environment, new SpringApplication());
+        return Arrays.asList(environment.getProperty(DbModeEnvironmentPostProcessor.EXCLUDE, String[].class));
+    }
+}
@@ -0,0 +1,60 @@
+package com.wizkhalubernetes.config.h2;
+
+import com.wizkhalubernetes.WizKhalubernetesApplication;
+import com.wizkhalubernetes.model.h2.QuoteH2;
+import com.wizkhalubernetes.repository.h2.QuoteH2Repository;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.Banner;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Starts the application twice with the perf profile and file-backed H2, shutting the database
+ * down in between like a pod restart, and checks that quotes survive.
+ */
+public class H2PerformanceProfileTest {
+
+    @Test
+    public void fileBackedDatabaseSurvivesRestart(@TempDir Path dir) {
+        String path = dir.resolve("wizquotes").toString();
+        try (ConfigurableApplicationContext context = start(path)) {
+            HikariDataSource dataSource = context.getBean(HikariDataSource.class);
+            assertEquals("quotes-h2", dataSource.getPoolName());
+            assertEquals(8, dataSource.getMaximumPoolSize());
+            assertTrue(dataSource.getJdbcUrl().startsWith("jdbc:h2:file:" + path + ";"));
+            assertTrue(dataSource.getJdbcUrl().contains("QUERY_CACHE_SIZE=64"));
+
+            QuoteH2 quote = new QuoteH2();
+            quote.setQuote("still here after a restart");
+            quote.setQuoteNumber(7);
+            context.getBean(QuoteH2Repository.class).save(quote);
+            // DB_CLOSE_DELAY=-1 keeps the database open for the JVM; close it as a pod stop would
+            context.getBean(JdbcTemplate.class).execute("SHUTDOWN");
+        }
+        assertTrue(Files.exists(dir.resolve("wizquotes.mv.db")));
+
+        try (ConfigurableApplicationContext context = start(path)) {
+            QuoteH2Repository repository = context.getBean(QuoteH2Repository.class);
+            assertEquals(1, repository.count());
+            assertEquals("still here after a restart", repository.findTopByOrderByQuoteNumberDesc().orElseThrow().getQuote());
+            context.getBean(JdbcTemplate.class).execute("SHUTDOWN");
+        }
+    }
+
+    private static ConfigurableApplicationContext start(String path) {
+        return new SpringApplicationBuilder(WizKhalubernetesApplication.class)
+            .web(WebApplicationType.NONE)
+            .bannerMode(Banner.Mode.OFF)
+            .run("--REMOTE_DB=false", "--spring.profiles.active=h2,perf",
+                "--quotes.h2.mode=file", "--quotes.h2.path=" + path);
+    }
+}
@@ -0,0 +1,88 @@
+package com.wizkhalubernetes.config.mongo;
+
+import com.mongodb.ConnectionString;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.MongoCompressor;
+import com.mongodb.ReadPreference;
+import com.mongodb.WriteConcern;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests that quotes.mongo.client.* settings reach the driver and that the pool metrics are exported.
+ */
+public class MongoClientSettingsFactoryTest {
+
+    @Test
+    public void appliesPropertiesToTheDriverSettings() {
+        MongoClientProperties properties = new MongoClientProperties();
+        properties.getPool().setMaxSize(40);
+        properties.getPool().setMaxWaitTime(Duration.ofMillis(750));
+        properties.setReadTimeout(Duration.ofSeconds(3));
+        properties.setCompressors(List.of("snappy", "zlib"));
+        properties.setReadPreference("secondaryPreferred");
+        properties.setWriteConcern("majority");
+
+        MongoClientSettings settings = MongoClientSettingsFactory.create(
+            new ConnectionString("mongodb://localhost:27017/wizquotes"), properties, null);
+
+        assertEquals(40, settings.getConnectionPoolSettings().getMaxSize());
+        assertEquals(750, settings.getConnectionPoolSettings().getMaxWaitTime(TimeUnit.MILLISECONDS));
+        assertEquals(3000, settings.getSocketSettings().getReadTimeout(TimeUnit.MILLISECONDS));
+        assertEquals(List.of("snappy", "zlib"), settings.getCompressorList().stream().map(MongoCompressor::getName).toList());
+        assertEquals(ReadPreference.secondaryPreferred(), settings.getReadPreference());
+        assertEquals(WriteConcern.MAJORITY, settings.getWriteConcern());
+    }
+
+    @Test
+    public void uriOptionsOverrideProperties() {
+        MongoClientSettings settings = MongoClientSettingsFactory.create(
+            new ConnectionString("mongodb://localhost:27017/wizquotes?maxPoolSize=7&compressors=zlib&readPreference=nearest"),
+            new MongoClientProperties(), null);
+
+        assertEquals(7, settings.getConnectionPoolSettings().getMaxSize());
+        assertEquals(List.of("zlib"), settings.getCompressorList().stream().map(MongoCompressor::getName).toList());
+        assertEquals(ReadPreference.nearest(), settings.getReadPreference());
+    }
+
+    @Test
+    public void rejectsUnknownCompressor() {
+        MongoClientProperties properties = new MongoClientProperties();
+        properties.setCompressors(List.of("lz4"));
+        assertThrows(IllegalArgumentException.class, () -> MongoClientSettingsFactory.create(
+            new ConnectionString("mongodb://localhost:27017/wizquotes"), properties, null));
+    }
+
+    @Test
+    public void exportsPoolMetrics() {
+        MongoServer server = new MongoServer(new MemoryBackend());
+        InetSocketAddress address = server.bind();
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        MongoClientSettings settings = MongoClientSettingsFactory.create(
+            new ConnectionString("mongodb://" + address.getHostString() + ":" + address.getPort() + "/wizquotes"),
+            new MongoClientProperties(), registry);
+        try (MongoClient client = MongoClients.create(settings)) {
+            client.getDatabase("wizquotes").getCollection("quotes").insertOne(new Document("quote", "pooled"));
+
+            assertEquals(1.0, registry.get("mongodb.driver.pool.size").gauge().value());
+            assertEquals(0.0, registry.get("mongodb.driver.pool.checkedout").gauge().value());
+            assertEquals(0.0, registry.get("mongodb.driver.pool.waitqueuesize").gauge().value());
+            assertTrue(registry.get("mongodb.driver.pool.wait").tag("outcome", "acquired").timer().count() >= 1);
+        } finally {
+            server.shutdownNow();
+        }
+    }
+}
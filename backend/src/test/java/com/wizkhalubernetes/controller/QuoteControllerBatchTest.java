@@ -0,0 +1,147 @@
+package com.wizkhalubernetes.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wizkhalubernetes.batch.NewQuote;
+import com.wizkhalubernetes.batch.QuoteBulkWriter;
+import com.wizkhalubernetes.cache.LoopbackQuoteInvalidationBus;
+import com.wizkhalubernetes.cache.QuoteCache;
+import com.wizkhalubernetes.cache.QuoteCacheCoherence;
+import com.wizkhalubernetes.events.QuoteEventBroadcaster;
+import com.wizkhalubernetes.model.QuoteBatchItemResult;
+import com.wizkhalubernetes.prometheus.QuoteMetricsService;
+import com.wizkhalubernetes.ratelimit.ClientAddressResolver;
+import com.wizkhalubernetes.repository.h2.QuoteH2Repository;
+import com.wizkhalubernetes.search.QuoteSearchService;
+import com.wizkhalubernetes.sequence.QuoteNumberAllocator;
+import com.wizkhalubernetes.store.H2QuoteStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Tests body parsing, validation and per-item results of POST /api/quotes/batch.
+ */
+public class QuoteControllerBatchTest {
+    private QuoteController controller;
+    private final AtomicLong counter = new AtomicLong();
+    private final List<List<NewQuote>> writes = new ArrayList<>();
+    private final AtomicInteger reservations = new AtomicInteger();
+
+    @BeforeEach
+    public void setUp() {
+        QuoteNumberAllocator allocator = allocator(50);
+        QuoteBulkWriter writer = quotes -> {
+            writes.add(quotes);
+            List<QuoteBatchItemResult> results = new ArrayList<>();
+            for (int i = 0; i < quotes.size(); i++) {
+                results.add(QuoteBatchItemResult.created(i, (long) quotes.get(i).getQuoteNumber(),
+                    quotes.get(i).getQuoteNumber(), quotes.get(i)));
+            }
+            return results;
+        };
+        QuoteMetricsService metrics = new QuoteMetricsService(new SimpleMeterRegistry());
+        QuoteCache cache = new QuoteCache(metrics, true, 16, Duration.ofSeconds(30));
+
+        controller = new QuoteController();
+        ReflectionTestUtils.setField(controller, "quoteNumberAllocator", allocator);
+        ReflectionTestUtils.setField(controller, "quoteBulkWriter", writer);
+        ReflectionTestUtils.setField(controller, "maxBatchItems", 3);
+        ReflectionTestUtils.setField(controller, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(controller, "quoteStore", new H2QuoteStore(mock(QuoteH2Repository.class), null, null, metrics));
+        ReflectionTestUtils.setField(controller, "quoteCache", cache);
+        ReflectionTestUtils.setField(controller, "quoteCacheCoherence",
+            new QuoteCacheCoherence(cache, new LoopbackQuoteInvalidationBus(), metrics));
+        ReflectionTestUtils.setField(controller, "quoteEventBroadcaster", mock(QuoteEventBroadcaster.class));
+        ReflectionTestUtils.setField(controller, "quoteSearchService", mock(QuoteSearchService.class));
+        ReflectionTestUtils.setField(controller, "clientAddressResolver", new ClientAddressResolver(""));
+    }
+
+    @Test
+    public void jsonArrayIsNumberedInOneReservationAndWrittenInOneBulk() {
+        ResponseEntity<?> response = controller.addQuotes(request("[{\"quote\":\"a\"},{\"quote\":\"b\"},{\"quote\":\"c\"}]"));
+
+        assertEquals(200, response.getStatusCode().value());
+        assertEquals(1, reservations.get());
+        assertEquals(1, writes.size());
+        assertEquals(List.of(1, 2, 3), writes.get(0).stream().map(NewQuote::getQuoteNumber).toList());
+        assertEquals(3, body(response).get("created"));
+    }
+
+    @Test
+    public void batchLargerThanABlockTakesWholeBlocks() {
+        ReflectionTestUtils.setField(controller, "quoteNumberAllocator", allocator(2));
+        controller.addQuotes(request("[{\"quote\":\"a\"},{\"quote\":\"b\"},{\"quote\":\"c\"}]"));
+        controller.addQuotes(request("[{\"quote\":\"d\"}]"));
+
+        assertEquals(List.of(1, 2, 3), writes.get(0).stream().map(NewQuote::getQuoteNumber).toList());
+        assertEquals(List.of(5), writes.get(1).stream().map(NewQuote::getQuoteNumber).toList());
+        assertEquals(3, reservations.get());
+    }
+
+    @Test
+    public void ndjsonItemsAreValidatedIndividually() {
+        ResponseEntity<?> response = controller.addQuotes(request("{\"quote\":\"a\"}\n{\"text\":\"b\"}\n{\"quote\":\"c\"}\n"));
+
+        assertEquals(207, response.getStatusCode().value());
+        @SuppressWarnings("unchecked")
+        List<QuoteBatchItemResult> results = (List<QuoteBatchItemResult>) body(response).get("results");
+        assertEquals(List.of("created", "rejected", "created"), results.stream().map(QuoteBatchItemResult::getStatus).toList());
+        assertEquals(List.of(0, 1, 2), results.stream().map(QuoteBatchItemResult::getIndex).toList());
+        assertEquals(2, writes.get(0).size());
+        assertEquals(1, body(response).get("failed"));
+    }
+
+    @Test
+    public void storedIpIsTheResolvedClientAddress() {
+        MockHttpServletRequest direct = request("[{\"quote\":\"a\"}]");
+        direct.addHeader("X-Forwarded-For", "192.0.2.1");
+        controller.addQuotes(direct);
+        MockHttpServletRequest proxied = request("[{\"quote\":\"b\"}]");
+        proxied.setRemoteAddr("127.0.0.1");
+        proxied.addHeader("X-Forwarded-For", "192.0.2.1, 203.0.113.7");
+        controller.addQuotes(proxied);
+
+        assertEquals("10.0.0.1", writes.get(0).get(0).getIp());
+        assertEquals("203.0.113.7", writes.get(1).get(0).getIp());
+    }
+
+    @Test
+    public void oversizedAndMalformedBodiesAreRefused() {
+        assertEquals(413, controller.addQuotes(request("[{\"quote\":\"a\"},{\"quote\":\"b\"},{\"quote\":\"c\"},{\"quote\":\"d\"}]"))
+            .getStatusCode().value());
+        assertEquals(400, controller.addQuotes(request("[{\"quote\":\"a\"}, {")).getStatusCode().value());
+        assertEquals(0, writes.size());
+    }
+
+    private QuoteNumberAllocator allocator(int blockSize) {
+        return new QuoteNumberAllocator(size -> {
+            reservations.incrementAndGet();
+            return counter.getAndAdd(size) + 1;
+        }, blockSize);
+    }
+
+    private static MockHttpServletRequest request(String body) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/quotes/batch");
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        request.setRemoteAddr("10.0.0.1");
+        return request;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> body(ResponseEntity<?> response) {
+        return (Map<String, Object>) response.getBody();
+    }
+}
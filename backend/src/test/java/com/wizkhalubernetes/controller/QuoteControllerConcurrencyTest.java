@@ -0,0 +1,101 @@
+package com.wizkhalubernetes.controller;
+
+import com.wizkhalubernetes.cache.LoopbackQuoteInvalidationBus;
+import com.wizkhalubernetes.cache.QuoteCache;
+import com.wizkhalubernetes.cache.QuoteCacheCoherence;
+import com.wizkhalubernetes.events.QuoteEventBroadcaster;
+import com.wizkhalubernetes.model.h2.QuoteH2;
+import com.wizkhalubernetes.prometheus.QuoteMetricsService;
+import com.wizkhalubernetes.ratelimit.ClientAddressResolver;
+import com.wizkhalubernetes.repository.h2.QuoteH2Repository;
+import com.wizkhalubernetes.search.QuoteSearchService;
+import com.wizkhalubernetes.sequence.QuoteNumberAllocator;
+import com.wizkhalubernetes.store.H2QuoteStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Fires thousands of parallel addQuote calls and checks every quote gets a unique number
+ * without the controller ever issuing a count query.
+ */
+public class QuoteControllerConcurrencyTest {
+    private static final int REQUESTS = 5_000;
+    private static final int THREADS = 32;
+    private static final int BLOCK_SIZE = 50;
+
+    @Test
+    public void parallelAddQuoteAssignsUniqueNumbersWithoutCount() throws Exception {
+        QuoteH2Repository repository = mock(QuoteH2Repository.class);
+        when(repository.save(any(QuoteH2.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        AtomicLong counter = new AtomicLong();
+        AtomicInteger reservations = new AtomicInteger();
+        QuoteNumberAllocator allocator = new QuoteNumberAllocator(blockSize -> {
+            reservations.incrementAndGet();
+            return counter.getAndAdd(blockSize) + 1;
+        }, BLOCK_SIZE);
+
+        QuoteController controller = new QuoteController();
+        ReflectionTestUtils.setField(controller, "quoteNumberAllocator", allocator);
+        QuoteMetricsService metrics = new QuoteMetricsService(new SimpleMeterRegistry());
+        QuoteCache cache = new QuoteCache(metrics, true, 16, Duration.ofSeconds(30));
+        ReflectionTestUtils.setField(controller, "quoteStore", new H2QuoteStore(repository, null, null, metrics));
+        ReflectionTestUtils.setField(controller, "quoteCache", cache);
+        ReflectionTestUtils.setField(controller, "quoteCacheCoherence",
+            new QuoteCacheCoherence(cache, new LoopbackQuoteInvalidationBus(), metrics));
+        ReflectionTestUtils.setField(controller, "quoteEventBroadcaster", mock(QuoteEventBroadcaster.class));
+        ReflectionTestUtils.setField(controller, "quoteSearchService", mock(QuoteSearchService.class));
+        ReflectionTestUtils.setField(controller, "clientAddressResolver", new ClientAddressResolver(""));
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        Set<Integer> numbers = ConcurrentHashMap.newKeySet();
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < REQUESTS; i++) {
+                int n = i;
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    MockHttpServletRequest request = new MockHttpServletRequest();
+                    request.setRemoteAddr("10.0.0." + (n % 250));
+                    ResponseEntity<?> response = controller.addQuote(Map.of("quote", "quote " + n), request);
+                    assertEquals(200, response.getStatusCode().value());
+                    assertTrue(numbers.add(((QuoteH2) response.getBody()).getQuoteNumber()), "duplicate quote number");
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals(REQUESTS, numbers.size());
+        assertEquals(REQUESTS / BLOCK_SIZE, reservations.get());
+        verify(repository, never()).count();
+    }
+}
@@ -0,0 +1,105 @@
+package com.wizkhalubernetes.controller;
+
+import com.wizkhalubernetes.batch.QuoteBulkWriter;
+import com.wizkhalubernetes.batch.QuoteWriteBehindBuffer;
+import com.wizkhalubernetes.cache.QuoteCache;
+import com.wizkhalubernetes.cache.QuoteCacheCoherence;
+import com.wizkhalubernetes.events.QuoteEventBroadcaster;
+import com.wizkhalubernetes.model.QuoteBatchItemResult;
+import com.wizkhalubernetes.prometheus.QuoteMetricsService;
+import com.wizkhalubernetes.ratelimit.ClientAddressResolver;
+import com.wizkhalubernetes.repository.h2.QuoteH2Repository;
+import com.wizkhalubernetes.search.QuoteSearchService;
+import com.wizkhalubernetes.sequence.QuoteNumberAllocator;
+import com.wizkhalubernetes.store.H2QuoteStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Tests POST /api/quotes in write-behind mode: slow flushes, DB outages and the post-write bookkeeping.
+ */
+public class QuoteControllerWriteBehindTest {
+    private final QuoteMetricsService metrics = new QuoteMetricsService(new SimpleMeterRegistry());
+    private final QuoteEventBroadcaster broadcaster = mock(QuoteEventBroadcaster.class);
+    private final QuoteSearchService searchService = mock(QuoteSearchService.class);
+    private QuoteWriteBehindBuffer buffer;
+
+    @AfterEach
+    public void stopBuffer() {
+        buffer.stop();
+    }
+
+    @Test
+    public void slowFlushAnswers202AndStillPublishesTheQuote() {
+        CountDownLatch release = new CountDownLatch(1);
+        QuoteController controller = controller(quotes -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            List<QuoteBatchItemResult> results = new ArrayList<>();
+            for (int i = 0; i < quotes.size(); i++) {
+                results.add(QuoteBatchItemResult.created(i, (long) i, quotes.get(i).getQuoteNumber(), quotes.get(i)));
+            }
+            return results;
+        });
+
+        ResponseEntity<?> response = controller.addQuote(Map.of("quote", "slow"), request());
+        release.countDown();
+
+        assertEquals(202, response.getStatusCode().value());
+        verify(searchService, timeout(5_000)).quoteSaved(1, "slow");
+        verify(broadcaster, timeout(5_000)).quoteCreated(any());
+    }
+
+    @Test
+    public void dbOutageDuringFlushAnswers503() {
+        QuoteController controller = controller(quotes -> {
+            throw new DataAccessResourceFailureException("connection refused");
+        });
+
+        assertEquals(503, controller.addQuote(Map.of("quote", "lost"), request()).getStatusCode().value());
+    }
+
+    private QuoteController controller(QuoteBulkWriter writer) {
+        AtomicLong counter = new AtomicLong();
+        QuoteNumberAllocator allocator = new QuoteNumberAllocator(blockSize -> counter.getAndAdd(blockSize) + 1, 50);
+        buffer = new QuoteWriteBehindBuffer(writer, allocator, metrics, 100, 10, Duration.ofMillis(1));
+        buffer.start();
+
+        QuoteController controller = new QuoteController();
+        ReflectionTestUtils.setField(controller, "quoteStore", new H2QuoteStore(mock(QuoteH2Repository.class), null, null, metrics));
+        ReflectionTestUtils.setField(controller, "quoteWriteBehindBuffer", buffer);
+        ReflectionTestUtils.setField(controller, "writeBehindTimeout", Duration.ofMillis(100));
+        ReflectionTestUtils.setField(controller, "quoteCache", mock(QuoteCache.class));
+        ReflectionTestUtils.setField(controller, "quoteCacheCoherence", mock(QuoteCacheCoherence.class));
+        ReflectionTestUtils.setField(controller, "quoteSearchService", searchService);
+        ReflectionTestUtils.setField(controller, "quoteEventBroadcaster", broadcaster);
+        ReflectionTestUtils.setField(controller, "clientAddressResolver", new ClientAddressResolver(""));
+        return controller;
+    }
+
+    private static MockHttpServletRequest request() {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/quotes");
+        request.setRemoteAddr("10.0.0.1");
+        return request;
+    }
+}
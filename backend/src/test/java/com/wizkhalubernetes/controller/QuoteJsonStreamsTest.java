@@ -0,0 +1,70 @@
+package com.wizkhalubernetes.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wizkhalubernetes.model.QuotePage;
+import com.wizkhalubernetes.model.mongo.QuoteMongo;
+import org.junit.jupiter.api.Test;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests that the list, NDJSON and page responses assembled from per-quote encodings are
+ * byte-for-byte what Jackson writes for the same values.
+ */
+public class QuoteJsonStreamsTest {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final QuoteJsonStreams.Encoder<QuoteMongo> encoder = objectMapper::writeValueAsBytes;
+
+    @Test
+    public void arrayMatchesJackson() throws Exception {
+        for (int size : new int[]{0, 1, 600}) {
+            List<QuoteMongo> quotes = quotes(size);
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            List<QuoteMongo> written = new ArrayList<>();
+            QuoteJsonStreams.write(encoder, quotes.stream(), out, false, written::add);
+            assertArrayEquals(objectMapper.writeValueAsBytes(quotes), out.toByteArray());
+            assertEquals(quotes, written);
+        }
+    }
+
+    @Test
+    public void ndjsonHasOneQuotePerLine() throws Exception {
+        List<QuoteMongo> quotes = quotes(3);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        QuoteJsonStreams.write(encoder, quotes.stream(), out, true, quote -> { });
+        StringBuilder expected = new StringBuilder();
+        for (QuoteMongo quote : quotes) {
+            expected.append(objectMapper.writeValueAsString(quote)).append('\n');
+        }
+        assertEquals(expected.toString(), out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void pageMatchesJackson() throws Exception {
+        for (QuotePage<QuoteMongo> page : List.of(new QuotePage<>(quotes(2), "2:abc"),
+                new QuotePage<>(quotes(0), null))) {
+            byte[] json = QuoteJsonStreams.page(encoder, page.getItems(),
+                objectMapper.writeValueAsBytes(page.getNextCursor()));
+            assertArrayEquals(objectMapper.writeValueAsBytes(page), json);
+        }
+    }
+
+    private static List<QuoteMongo> quotes(int count) {
+        return IntStream.rangeClosed(1, count).mapToObj(n -> {
+            QuoteMongo quote = new QuoteMongo();
+            quote.setId("65f0a1b2c3d4e5f6a7b8" + String.format("%04x", n));
+            quote.setQuote("Quote " + n + " \"quoted\" é");
+            quote.setTimestamp("2024-01-01T00:00:00Z");
+            quote.setIp("10.0.0." + (n % 250));
+            quote.setQuoteNumber(n);
+            return quote;
+        }).collect(Collectors.toList());
+    }
+}
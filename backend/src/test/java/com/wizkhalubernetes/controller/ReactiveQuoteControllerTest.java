@@ -0,0 +1,176 @@
+package com.wizkhalubernetes.controller;
+
+import com.mongodb.reactivestreams.client.MongoClient;
+import com.mongodb.reactivestreams.client.MongoClients;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wizkhalubernetes.events.QuoteEventBroadcaster;
+import com.wizkhalubernetes.model.mongo.QuoteMongo;
+import com.wizkhalubernetes.nodeinfo.NodeInfoSampler;
+import com.wizkhalubernetes.prometheus.QuoteMetricsService;
+import com.wizkhalubernetes.ratelimit.ClientAddressResolver;
+import com.wizkhalubernetes.repository.reactive.QuoteReactiveMongoRepository;
+import com.wizkhalubernetes.sequence.QuoteNumberAllocator;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.repository.support.ReactiveMongoRepositoryFactory;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.boot.web.reactive.context.AnnotationConfigReactiveWebApplicationContext;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.reactive.config.EnableWebFlux;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Exercises the WebFlux quote API against an in-memory MongoDB server and checks the response
+ * shapes match the servlet controller's.
+ */
+public class ReactiveQuoteControllerTest {
+    private MongoServer server;
+    private MongoClient client;
+    private AnnotationConfigReactiveWebApplicationContext context;
+    private WebTestClient webClient;
+
+    @BeforeEach
+    public void setUp() {
+        server = new MongoServer(new MemoryBackend());
+        InetSocketAddress address = server.bind();
+        client = MongoClients.create("mongodb://" + address.getHostString() + ":" + address.getPort());
+        ReactiveMongoTemplate template = new ReactiveMongoTemplate(client, "wizquotes");
+        QuoteReactiveMongoRepository repository =
+            new ReactiveMongoRepositoryFactory(template).getRepository(QuoteReactiveMongoRepository.class);
+        AtomicLong counter = new AtomicLong();
+
+        context = new AnnotationConfigReactiveWebApplicationContext();
+        context.registerBean(QuoteReactiveMongoRepository.class, () -> repository);
+        context.registerBean(QuoteMetricsService.class, () -> new QuoteMetricsService(new SimpleMeterRegistry()));
+        context.registerBean(QuoteNumberAllocator.class,
+            () -> new QuoteNumberAllocator(blockSize -> counter.getAndAdd(blockSize) + 1, 10));
+        context.registerBean(NodeInfoSampler.class, () -> new NodeInfoSampler(new ObjectMapper(), Duration.ofMinutes(1)));
+        context.registerBean(QuoteEventBroadcaster.class, () -> new QuoteEventBroadcaster(new ObjectMapper(),
+            context.getBean(NodeInfoSampler.class), context.getBean(QuoteMetricsService.class),
+            32, 1, Duration.ofMinutes(1), Duration.ofMinutes(30), Duration.ofSeconds(5)));
+        context.registerBean(ClientAddressResolver.class, () -> new ClientAddressResolver(""));
+        context.register(WebFluxConfig.class, ReactiveQuoteController.class);
+        context.refresh();
+        webClient = WebTestClient.bindToApplicationContext(context).build();
+    }
+
+    @Configuration
+    @EnableWebFlux
+    static class WebFluxConfig {
+    }
+
+    @AfterEach
+    public void tearDown() {
+        context.close();
+        client.close();
+        server.shutdownNow();
+    }
+
+    @Test
+    public void addListPageAndDeleteKeepServletResponseShapes() {
+        for (String text : List.of("one", "two", "three")) {
+            webClient.post().uri("/api/quotes").contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("quote", text))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.quote").isEqualTo(text)
+                .jsonPath("$.id").exists()
+                .jsonPath("$.timestamp").exists()
+                .jsonPath("$.ip").exists();
+        }
+
+        webClient.get().uri("/api/quotes/latest").exchange()
+            .expectStatus().isOk()
+            .expectBody().jsonPath("$.quoteNumber").isEqualTo(3);
+
+        List<QuoteMongo> all = webClient.get().uri("/api/quotes").exchange()
+            .expectStatus().isOk()
+            .expectHeader().contentType(MediaType.APPLICATION_JSON)
+            .expectBodyList(QuoteMongo.class).returnResult().getResponseBody();
+        assertEquals(List.of(1, 2, 3), all.stream().map(QuoteMongo::getQuoteNumber).toList());
+
+        String ndjson = webClient.get().uri("/api/quotes?format=ndjson").exchange()
+            .expectStatus().isOk()
+            .expectBody(String.class).returnResult().getResponseBody();
+        assertEquals(3, ndjson.trim().split("\n").length);
+
+        String cursor = "2:" + all.get(1).getId();
+        webClient.get().uri("/api/quotes?limit=2").exchange()
+            .expectStatus().isOk()
+            .expectBody()
+            .jsonPath("$.items.length()").isEqualTo(2)
+            .jsonPath("$.nextCursor").isEqualTo(cursor);
+        webClient.get().uri("/api/quotes?limit=2&after=" + cursor).exchange()
+            .expectBody()
+            .jsonPath("$.items[0].quote").isEqualTo("three")
+            .jsonPath("$.nextCursor").doesNotExist();
+        webClient.get().uri("/api/quotes?after=garbage").exchange()
+            .expectStatus().isBadRequest()
+            .expectBody().jsonPath("$.error").isEqualTo("Invalid cursor: garbage");
+
+        webClient.delete().uri("/api/quotes/" + all.get(2).getId()).exchange()
+            .expectStatus().isOk()
+            .expectBody(String.class).isEqualTo("Deleted");
+        webClient.get().uri("/api/quotes/latest").exchange()
+            .expectBody().jsonPath("$.quoteNumber").isEqualTo(2);
+    }
+
+    @Test
+    public void eventStreamPushesCreatedAndDeletedQuotes() {
+        Flux<ServerSentEvent<String>> events = webClient.get().uri("/api/quotes/stream")
+            .accept(MediaType.TEXT_EVENT_STREAM)
+            .exchange()
+            .expectStatus().isOk()
+            .expectHeader().valueEquals("X-Accel-Buffering", "no")
+            .returnResult(new ParameterizedTypeReference<ServerSentEvent<String>>() { })
+            .getResponseBody();
+
+        StepVerifier.create(events)
+            .assertNext(event -> assertEquals("nodeinfo", event.event()))
+            .assertNext(event -> {
+                assertEquals("dbstatus", event.event());
+                assertTrue(event.data().contains("\"connected\":\"true\""));
+            })
+            .then(() -> webClient.post().uri("/api/quotes").contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("quote", "pushed")).exchange().expectStatus().isOk())
+            .assertNext(event -> {
+                assertEquals("quote-created", event.event());
+                assertTrue(event.data().contains("\"quote\":\"pushed\""));
+            })
+            .then(() -> webClient.delete().uri("/api/quotes/abc123").exchange())
+            .assertNext(event -> assertEquals("{\"id\":\"abc123\"}", event.data()))
+            .thenCancel()
+            .verify(Duration.ofSeconds(10));
+    }
+
+    @Test
+    public void statusEndpointsMatchServletContract() {
+        webClient.get().uri("/api/dbstatus").exchange()
+            .expectStatus().isOk()
+            .expectBody()
+            .jsonPath("$.type").isEqualTo("MongoDB")
+            .jsonPath("$.connected").isEqualTo("true");
+        Map<?, ?> info = webClient.get().uri("/api/nodeinfo").exchange()
+            .expectStatus().isOk()
+            .expectBody(Map.class).returnResult().getResponseBody();
+        assertTrue(info.keySet().containsAll(List.of("hostname", "app", "availableProcessors", "timestamp")));
+    }
+}
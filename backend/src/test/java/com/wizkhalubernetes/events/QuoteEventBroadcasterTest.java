@@ -0,0 +1,197 @@
+package com.wizkhalubernetes.events;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wizkhalubernetes.nodeinfo.NodeInfoSampler;
+import com.wizkhalubernetes.nodeinfo.NodeInfoSnapshot;
+import com.wizkhalubernetes.prometheus.QuoteMetricsService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests event fan-out, slow- and stalled-subscriber eviction and the nodeinfo/dbstatus change events.
+ */
+public class QuoteEventBroadcasterTest {
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final NodeInfoSampler sampler = mock(NodeInfoSampler.class);
+    private QuoteEventBroadcaster broadcaster;
+
+    private QuoteEventBroadcaster broadcaster(int bufferSize, Map<String, Object> nodeInfo) {
+        return broadcaster(bufferSize, nodeInfo, Duration.ofMinutes(1));
+    }
+
+    private QuoteEventBroadcaster broadcaster(int bufferSize, Map<String, Object> nodeInfo, Duration writeTimeout) {
+        NodeInfoSnapshot snapshot = mock(NodeInfoSnapshot.class);
+        when(snapshot.info()).thenReturn(nodeInfo);
+        when(sampler.current()).thenReturn(snapshot);
+        broadcaster = new QuoteEventBroadcaster(new ObjectMapper(), sampler, new QuoteMetricsService(registry),
+            bufferSize, 2, Duration.ofMinutes(1), Duration.ofMinutes(30), writeTimeout);
+        return broadcaster;
+    }
+
+    @AfterEach
+    public void tearDown() throws InterruptedException {
+        broadcaster.destroy();
+    }
+
+    @Test
+    public void fansEachEventOutToEverySubscriberInOrder() throws Exception {
+        broadcaster(8, Map.of("hostname", "node-1"));
+        broadcaster.setDbStatusSource(() -> Map.of("type", "H2", "connected", "true"));
+        RecordingSink first = new RecordingSink();
+        RecordingSink second = new RecordingSink();
+        broadcaster.subscribe(first);
+        QuoteEventSubscription cancelled = broadcaster.subscribe(second);
+
+        broadcaster.quoteCreated(Map.of("id", 1, "quote", "hello"));
+        broadcaster.quoteDeleted("1");
+        awaitTrue(() -> first.events.size() == 4 && second.events.size() == 4);
+
+        assertEquals(List.of("nodeinfo", "dbstatus", "quote-created", "quote-deleted"),
+            first.events.stream().map(QuoteEvent::name).toList());
+        // Published events are the same shared instances for every subscriber
+        assertEquals(first.events.subList(2, 4), second.events.subList(2, 4));
+        QuoteEvent deleted = first.events.get(3);
+        assertEquals("id:" + deleted.id() + "\nevent:quote-deleted\ndata:{\"id\":\"1\"}\n\n", deleted.frame());
+        assertEquals(2.0, registry.get("quote_events_subscribers").gauge().value());
+
+        cancelled.cancel();
+        awaitTrue(() -> second.closed.getCount() == 0);
+        assertEquals(1, broadcaster.subscriberCount());
+    }
+
+    @Test
+    public void evictsSubscriberWhoseMailboxFillsWithoutStallingOthers() throws Exception {
+        broadcaster(2, Map.of("hostname", "node-1"));
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingSink stalled = new RecordingSink() {
+            @Override
+            public void send(QuoteEvent event) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                super.send(event);
+            }
+        };
+        RecordingSink fast = new RecordingSink();
+        broadcaster.subscribe(stalled);
+        broadcaster.subscribe(fast);
+
+        for (int i = 0; i < 5; i++) {
+            broadcaster.quoteCreated(Map.of("n", i));
+            // Let the fast client keep up with its two-event mailbox
+            int expected = i + 2;
+            awaitTrue(() -> fast.events.size() == expected);
+        }
+        assertEquals(1, broadcaster.subscriberCount());
+        assertEquals(1.0, registry.get("quote_events_evicted_total").counter().count());
+
+        release.countDown();
+        assertTrue(stalled.closed.await(5, TimeUnit.SECONDS));
+        // Only the event in flight when it fell behind reached the evicted client
+        assertEquals(List.of("nodeinfo"), stalled.events.stream().map(QuoteEvent::name).toList());
+    }
+
+    @Test
+    public void evictsSubscribersBlockedInSendAndKeepsServingTheOthers() throws Exception {
+        broadcaster(32, Map.of("hostname", "node-1"), Duration.ofMillis(50));
+        broadcaster.start();
+        CountDownLatch release = new CountDownLatch(1);
+        List<RecordingSink> stalled = new ArrayList<>();
+        // More blocked clients than writer threads
+        for (int i = 0; i < 3; i++) {
+            RecordingSink sink = new RecordingSink() {
+                @Override
+                public void send(QuoteEvent event) {
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    super.send(event);
+                }
+            };
+            stalled.add(sink);
+            broadcaster.subscribe(sink);
+        }
+        RecordingSink fast = new RecordingSink();
+        broadcaster.subscribe(fast);
+
+        broadcaster.quoteCreated(Map.of("n", 1));
+        awaitTrue(() -> fast.events.size() == 2);
+        awaitTrue(() -> registry.get("quote_events_evicted_total").counter().count() == 3.0);
+        assertEquals(1, broadcaster.subscriberCount());
+        broadcaster.quoteCreated(Map.of("n", 2));
+        awaitTrue(() -> fast.events.size() == 3);
+
+        release.countDown();
+        for (RecordingSink sink : stalled) {
+            assertTrue(sink.closed.await(5, TimeUnit.SECONDS));
+            assertEquals(List.of("nodeinfo"), sink.events.stream().map(QuoteEvent::name).toList());
+        }
+        broadcaster.stop();
+    }
+
+    @Test
+    public void statusTickPublishesOnlyWhatChanged() throws Exception {
+        broadcaster(8, Map.of("hostname", "node-1", "freeMemoryMB", 100L));
+        AtomicBoolean connected = new AtomicBoolean(true);
+        broadcaster.setDbStatusSource(() -> Map.of("connected", Boolean.toString(connected.get())));
+        broadcaster.publishStatus();
+        RecordingSink sink = new RecordingSink();
+        broadcaster.subscribe(sink);
+
+        NodeInfoSnapshot next = mock(NodeInfoSnapshot.class);
+        when(next.info()).thenReturn(Map.of("hostname", "node-1", "freeMemoryMB", 90L));
+        when(sampler.current()).thenReturn(next);
+        broadcaster.publishStatus();
+        broadcaster.publishStatus();
+        connected.set(false);
+        broadcaster.publishStatus();
+        awaitTrue(() -> sink.events.size() == 4);
+
+        assertEquals(List.of("nodeinfo", "dbstatus", "nodeinfo", "dbstatus"),
+            sink.events.stream().map(QuoteEvent::name).toList());
+        assertEquals("{\"freeMemoryMB\":90}", sink.events.get(2).data());
+        assertEquals("{\"connected\":\"false\"}", sink.events.get(3).data());
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "condition not met within 5s");
+            Thread.sleep(5);
+        }
+    }
+
+    private static class RecordingSink implements QuoteEventSink {
+        final List<QuoteEvent> events = new CopyOnWriteArrayList<>();
+        final CountDownLatch closed = new CountDownLatch(1);
+
+        @Override
+        public void send(QuoteEvent event) {
+            events.add(event);
+        }
+
+        @Override
+        public void close() {
+            closed.countDown();
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.wizkhalubernetes.events;
+
+import com.sun.management.UnixOperatingSystemMXBean;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.OperatingSystemMXBean;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Holds 10,000 concurrent GET /api/quotes/stream subscribers against the servlet stack (Tomcat NIO,
+ * H2 mode) and reports heap and threads per open stream, plus how long one event takes to reach
+ * all of them. Clients are raw non-blocking sockets drained by a single selector thread, so the
+ * client side adds no threads; its sockets do count towards the heap figure, which is therefore an
+ * upper bound for the server. Each stream uses two file descriptors in this JVM, so the subscriber
+ * count is capped by the open-files limit (printed when it applies).
+ * Run with: mvn test -Pbenchmark -Dtest=QuoteEventStreamBenchmarkTest
+ */
+@Tag("benchmark")
+// MetricsConfig builds the Prometheus registry itself, so metrics export stays on as in production
+@AutoConfigureObservability(tracing = false)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+    "REMOTE_DB=false",
+    "server.tomcat.max-connections=20000",
+    "server.tomcat.accept-count=1000",
+    "quotes.events.status-interval=1h"
+})
+public class QuoteEventStreamBenchmarkTest {
+    private static final int TARGET_SUBSCRIBERS = 10_000;
+    private static final int FD_HEADROOM = 200;
+    private static final int CONNECT_BATCH = 500;
+
+    @LocalServerPort
+    private int port;
+    @Autowired
+    private QuoteEventBroadcaster broadcaster;
+
+    @Test
+    public void holdsTenThousandSubscribersAndFansOutToAll() throws Exception {
+        int subscribers = subscriberLimit();
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        int threadsBefore = ManagementFactory.getThreadMXBean().getThreadCount();
+        long heapBefore = usedHeapAfterGc(memory);
+
+        byte[] request = ("GET /api/quotes/stream HTTP/1.1\r\nHost: localhost\r\n"
+            + "Accept: text/event-stream\r\n\r\n").getBytes(StandardCharsets.US_ASCII);
+        List<Client> clients = new ArrayList<>(subscribers);
+        long connectStart = System.nanoTime();
+        try (Selector selector = Selector.open()) {
+            while (clients.size() < subscribers) {
+                int batch = Math.min(CONNECT_BATCH, subscribers - clients.size());
+                for (int i = 0; i < batch; i++) {
+                    SocketChannel channel = SocketChannel.open(new InetSocketAddress("127.0.0.1", port));
+                    channel.write(ByteBuffer.wrap(request));
+                    channel.configureBlocking(false);
+                    Client client = new Client(channel);
+                    channel.register(selector, SelectionKey.OP_READ, client);
+                    clients.add(client);
+                }
+                drain(selector, 0);
+            }
+            // Every stream starts with the full nodeinfo and the current dbstatus
+            awaitEvents(selector, clients, 2, 120);
+            long connectMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - connectStart);
+            assertEquals(subscribers, broadcaster.subscriberCount());
+
+            long heapAfter = usedHeapAfterGc(memory);
+            int threadsAfter = ManagementFactory.getThreadMXBean().getThreadCount();
+
+            long publishStart = System.nanoTime();
+            broadcaster.quoteCreated(Map.of("id", 1, "quote", "pushed to everyone", "quoteNumber", 1));
+            awaitEvents(selector, clients, 3, 60);
+            long fanOutMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - publishStart);
+
+            System.out.println("subscribers\tconnect_ms\theap_per_stream_bytes\tthreads_added\tfan_out_ms");
+            System.out.println(subscribers + "\t" + connectMillis + "\t" + (heapAfter - heapBefore) / subscribers
+                + "\t" + (threadsAfter - threadsBefore) + "\t" + fanOutMillis);
+            // Streams hold no thread each: only the fixed writer pool and Tomcat's workers
+            assertTrue(threadsAfter - threadsBefore < 300, "threads grew with subscribers: " + (threadsAfter - threadsBefore));
+        } finally {
+            for (Client client : clients) {
+                client.channel.close();
+            }
+        }
+    }
+
+    /**
+     * Returns 10,000, or fewer when the open-files limit cannot fit two descriptors per stream.
+     */
+    private static int subscriberLimit() {
+        OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+        if (!(os instanceof UnixOperatingSystemMXBean unix)) {
+            return TARGET_SUBSCRIBERS;
+        }
+        long available = (unix.getMaxFileDescriptorCount() - unix.getOpenFileDescriptorCount() - FD_HEADROOM) / 2;
+        if (available < TARGET_SUBSCRIBERS) {
+            System.out.println("Open-files limit " + unix.getMaxFileDescriptorCount()
+                + " fits " + available + " subscribers (raise ulimit -n for " + TARGET_SUBSCRIBERS + ")");
+            return (int) available;
+        }
+        return TARGET_SUBSCRIBERS;
+    }
+
+    private static void awaitEvents(Selector selector, List<Client> clients, int events, int timeoutSeconds)
+            throws IOException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(timeoutSeconds);
+        while (clients.stream().anyMatch(client -> client.events < events)) {
+            assertTrue(System.nanoTime() < deadline, "not every subscriber received " + events + " events");
+            drain(selector, 100);
+        }
+    }
+
+    private static void drain(Selector selector, long timeoutMillis) throws IOException {
+        if (timeoutMillis == 0 ? selector.selectNow() == 0 : selector.select(timeoutMillis) == 0) {
+            return;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(16 * 1024);
+        for (SelectionKey key : selector.selectedKeys()) {
+            ((Client) key.attachment()).read(buffer);
+        }
+        selector.selectedKeys().clear();
+    }
+
+    private static long usedHeapAfterGc(MemoryMXBean memory) throws InterruptedException {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(200);
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+
+    /**
+     * One subscriber connection. Counts SSE events by their terminating blank line ("\n\n");
+     * the chunked transfer encoding and the HTTP headers only contain CRLF line breaks.
+     */
+    private static final class Client {
+        final SocketChannel channel;
+        int events;
+        byte last;
+
+        Client(SocketChannel channel) {
+            this.channel = channel;
+        }
+
+        void read(ByteBuffer buffer) throws IOException {
+            buffer.clear();
+            if (channel.read(buffer) < 0) {
+                throw new IOException("Server closed a subscriber stream");
+            }
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                byte b = buffer.get();
+                if (b == '\n' && last == '\n') {
+                    events++;
+                }
+                last = b;
+            }
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.wizkhalubernetes.health;
+
+import com.wizkhalubernetes.prometheus.QuoteMetricsService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DuplicateKeyException;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests the MongoDB circuit breaker state machine with a fake clock, and the release of a reactive
+ * trial call that is cancelled.
+ */
+public class MongoCircuitBreakerTest {
+    private final AtomicLong clock = new AtomicLong();
+    private SimpleMeterRegistry registry;
+    private MongoCircuitBreaker breaker;
+
+    @BeforeEach
+    public void setUp() {
+        registry = new SimpleMeterRegistry();
+        breaker = new MongoCircuitBreaker(3, Duration.ofSeconds(10), Duration.ofMillis(500),
+            new QuoteMetricsService(registry), clock::get);
+    }
+
+    @Test
+    public void opensAfterConsecutiveConnectivityFailuresAndRejectsWithRetryAfter() {
+        DataAccessResourceFailureException down = new DataAccessResourceFailureException("timed out");
+        breaker.onError(down);
+        breaker.onError(down);
+        breaker.onSuccess(TimeUnit.MILLISECONDS.toNanos(5));
+        breaker.onError(down);
+        breaker.onError(down);
+        assertEquals(MongoCircuitBreaker.State.CLOSED, breaker.state());
+        breaker.onError(down);
+        assertEquals(MongoCircuitBreaker.State.OPEN, breaker.state());
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(4));
+        MongoUnavailableException rejected = assertThrows(MongoUnavailableException.class, breaker::acquire);
+        assertEquals(6, rejected.getRetryAfterSeconds());
+        assertEquals(1.0, registry.get("mongo_circuit_breaker_rejected_total").counter().count());
+        assertEquals(1.0, registry.get("mongo_circuit_breaker_opened_total").counter().count());
+        assertEquals(2.0, registry.get("mongo_circuit_breaker_state").gauge().value());
+    }
+
+    @Test
+    public void errorsTheDatabaseAnsweredDoNotCount() {
+        for (int i = 0; i < 10; i++) {
+            breaker.onError(new DuplicateKeyException("dup"));
+        }
+        assertEquals(MongoCircuitBreaker.State.CLOSED, breaker.state());
+    }
+
+    @Test
+    public void slowCallsCountAsFailures() {
+        for (int i = 0; i < 3; i++) {
+            breaker.onSuccess(TimeUnit.SECONDS.toNanos(1));
+        }
+        assertEquals(MongoCircuitBreaker.State.OPEN, breaker.state());
+    }
+
+    @Test
+    public void halfOpenAdmitsOneTrialThatClosesOrReopens() {
+        breaker.probeFailed("test");
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(10));
+
+        assertDoesNotThrow(breaker::acquire);
+        assertEquals(MongoCircuitBreaker.State.HALF_OPEN, breaker.state());
+        assertThrows(MongoUnavailableException.class, breaker::acquire);
+        breaker.onError(new DataAccessResourceFailureException("still down"));
+        assertEquals(MongoCircuitBreaker.State.OPEN, breaker.state());
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(10));
+        assertDoesNotThrow(breaker::acquire);
+        breaker.onSuccess(TimeUnit.MILLISECONDS.toNanos(5));
+        assertEquals(MongoCircuitBreaker.State.CLOSED, breaker.state());
+        assertDoesNotThrow(breaker::acquire);
+    }
+
+    @Test
+    public void cancelledReactiveTrialReleasesHalfOpen() {
+        ProxyFactory factory = new ProxyFactory(new PendingRepository());
+        factory.addAdvice(new MongoCircuitBreakerInterceptor(() -> breaker));
+        Repository repository = (Repository) factory.getProxy();
+        breaker.probeFailed("test");
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(10));
+
+        Disposable trial = repository.find().subscribe();
+        assertEquals(MongoCircuitBreaker.State.HALF_OPEN, breaker.state());
+        assertThrows(MongoUnavailableException.class, breaker::acquire);
+        trial.dispose();
+        // The next call is the trial now, e.g. a stream a client stops reading early
+        assertEquals(List.of("a"), repository.findAll().take(1).collectList().block());
+        assertEquals(MongoCircuitBreaker.State.HALF_OPEN, breaker.state());
+        assertDoesNotThrow(breaker::acquire);
+    }
+
+    @Test
+    public void healthyProbeClosesTheBreaker() {
+        breaker.probeFailed("test");
+        assertThrows(MongoUnavailableException.class, breaker::acquire);
+        breaker.probeSucceeded();
+        assertEquals(MongoCircuitBreaker.State.CLOSED, breaker.state());
+        assertDoesNotThrow(breaker::acquire);
+    }
+
+    interface Repository {
+        Mono<String> find();
+
+        Flux<String> findAll();
+    }
+
+    static class PendingRepository implements Repository {
+        @Override
+        public Mono<String> find() {
+            return Mono.never();
+        }
+
+        @Override
+        public Flux<String> findAll() {
+            return Flux.just("a", "b").concatWith(Flux.never());
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.wizkhalubernetes.health;
+
+import com.mongodb.ConnectionString;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.wizkhalubernetes.model.mongo.QuoteMongo;
+import com.wizkhalubernetes.prometheus.QuoteMetricsService;
+import com.wizkhalubernetes.repository.mongo.QuoteMongoRepository;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.repository.support.MongoRepositoryFactory;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Fault injection against an in-memory MongoDB server: the server is stopped and restarted on the
+ * same port while a guarded repository and the health prober talk to it.
+ */
+public class MongoHealthProberTest {
+    private MongoServer server;
+    private InetSocketAddress address;
+    private MongoClient client;
+    private MongoCircuitBreaker breaker;
+    private MongoHealthProber prober;
+    private QuoteMongoRepository repository;
+
+    @BeforeEach
+    public void startServer() {
+        server = new MongoServer(new MemoryBackend());
+        address = server.bind();
+        client = MongoClients.create(MongoClientSettings.builder()
+            .applyConnectionString(new ConnectionString("mongodb://" + address.getHostString() + ":" + address.getPort()))
+            .applyToClusterSettings(cluster -> cluster.serverSelectionTimeout(300, TimeUnit.MILLISECONDS))
+            .applyToSocketSettings(socket -> socket.connectTimeout(300, TimeUnit.MILLISECONDS)
+                .readTimeout(300, TimeUnit.MILLISECONDS))
+            .build());
+        MongoTemplate mongoTemplate = new MongoTemplate(client, "wizquotes");
+        QuoteMetricsService metrics = new QuoteMetricsService(new SimpleMeterRegistry());
+        breaker = new MongoCircuitBreaker(3, Duration.ofMinutes(1), Duration.ofSeconds(2), metrics);
+        prober = new MongoHealthProber(mongoTemplate, breaker, metrics, Duration.ofMinutes(1), Duration.ofSeconds(1));
+        MongoRepositoryFactory factory = new MongoRepositoryFactory(mongoTemplate);
+        MongoCircuitBreakerInterceptor interceptor = new MongoCircuitBreakerInterceptor(() -> breaker);
+        factory.addRepositoryProxyPostProcessor((proxyFactory, information) -> proxyFactory.addAdvice(0, interceptor));
+        repository = factory.getRepository(QuoteMongoRepository.class);
+    }
+
+    @AfterEach
+    public void stopServer() {
+        prober.stop();
+        client.close();
+        server.shutdownNow();
+    }
+
+    @Test
+    public void breakerOpensWhileMongoIsDownAndClosesWhenItIsBack() {
+        prober.probe();
+        assertTrue(prober.isUp());
+        repository.save(quote(1));
+        assertEquals(1, repository.findTopByOrderByQuoteNumberDesc().orElseThrow().getQuoteNumber());
+
+        server.shutdownNow();
+        for (int i = 0; i < 3; i++) {
+            DataAccessResourceFailureException e = assertThrows(DataAccessResourceFailureException.class,
+                () -> repository.findTopByOrderByQuoteNumberDesc());
+            assertFalse(e instanceof MongoUnavailableException);
+        }
+        assertEquals(MongoCircuitBreaker.State.OPEN, breaker.state());
+        long start = System.nanoTime();
+        assertThrows(MongoUnavailableException.class, () -> repository.findTopByOrderByQuoteNumberDesc());
+        assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(100), "open breaker must fail fast");
+
+        prober.probe();
+        assertFalse(prober.isUp());
+        assertEquals("DOWN", prober.details().get("status"));
+
+        server = new MongoServer(new MemoryBackend());
+        server.bind(address.getHostString(), address.getPort());
+        // The driver rediscovers the server on its next heartbeat; the scheduler would keep probing
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        do {
+            prober.probe();
+        } while (!prober.isUp() && System.nanoTime() < deadline);
+        assertTrue(prober.isUp());
+        assertEquals(MongoCircuitBreaker.State.CLOSED, breaker.state());
+        repository.save(quote(2));
+        assertEquals(2, repository.findTopByOrderByQuoteNumberDesc().orElseThrow().getQuoteNumber());
+    }
+
+    @Test
+    public void failedProbeOpensTheBreakerBeforeAnyCallFails() {
+        server.shutdownNow();
+        prober.probe();
+        assertFalse(prober.isUp());
+        assertEquals(MongoCircuitBreaker.State.OPEN, breaker.state());
+        assertThrows(MongoUnavailableException.class, () -> repository.count());
+    }
+
+    private static QuoteMongo quote(int number) {
+        QuoteMongo quote = new QuoteMongo();
+        quote.setQuote("quote " + number);
+        quote.setQuoteNumber(number);
+        return quote;
+    }
+}
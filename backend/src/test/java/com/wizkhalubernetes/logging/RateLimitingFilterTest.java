@@ -0,0 +1,38 @@
+package com.wizkhalubernetes.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.core.spi.FilterReply;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests the per-template log rate limit.
+ */
+public class RateLimitingFilterTest {
+    private final LoggerContext context = new LoggerContext();
+
+    @Test
+    public void dropsEventsOverTheLimitPerTemplateAndSecond() {
+        RateLimitingFilter filter = new RateLimitingFilter();
+        filter.setMaxPerSecond(3);
+        filter.start();
+        long suppressedBefore = RateLimitingFilter.suppressedCount();
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(FilterReply.NEUTRAL, filter.decide(event("DB down: {}", 5_000)));
+        }
+        assertEquals(FilterReply.DENY, filter.decide(event("DB down: {}", 5_999)));
+        assertEquals(FilterReply.NEUTRAL, filter.decide(event("Other template", 5_999)));
+        assertEquals(FilterReply.NEUTRAL, filter.decide(event("DB down: {}", 6_000)));
+        assertEquals(1, RateLimitingFilter.suppressedCount() - suppressedBefore);
+    }
+
+    private LoggingEvent event(String template, long timestamp) {
+        LoggingEvent event = new LoggingEvent("test", context.getLogger("test"), Level.ERROR, template, null, new Object[]{"x"});
+        event.setTimeStamp(timestamp);
+        return event;
+    }
+}
@@ -0,0 +1,74 @@
+package com.wizkhalubernetes.migration;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import java.time.Instant;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Tests the H2 storage migration against an embedded H2 database holding rows of the old text schema.
+ */
+public class H2QuoteStorageMigrationTest {
+    private EmbeddedDatabase database;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    public void createDatabase() {
+        database = new EmbeddedDatabaseBuilder().setType(EmbeddedDatabaseType.H2).generateUniqueName(true).build();
+        jdbcTemplate = new JdbcTemplate(database);
+        jdbcTemplate.execute("CREATE TABLE quotes (id BIGINT PRIMARY KEY, quote VARCHAR(255), timestamp VARCHAR(255),"
+            + " ip VARCHAR(255), created_at BIGINT, ip_addr VARBINARY(16), quote_number INT)");
+    }
+
+    @AfterEach
+    public void dropDatabase() {
+        database.shutdown();
+    }
+
+    @Test
+    public void rewritesLegacyRowsInBatches() {
+        for (long id = 1; id <= 7; id++) {
+            jdbcTemplate.update("INSERT INTO quotes (id, quote, timestamp, ip, quote_number) VALUES (?, ?, ?, ?, ?)",
+                id, "quote " + id, "2024-05-01T10:00:0" + id + ".123456Z", "10.0.0." + id, (int) id);
+        }
+        QuoteStorageMigration migration = new H2QuoteStorageMigration(jdbcTemplate);
+        assertEquals(3, migration.migrateNext(3));
+        assertEquals(3, migration.migrateNext(3));
+        assertEquals(1, migration.migrateNext(3));
+        assertEquals(-1, migration.migrateNext(3));
+
+        Map<String, Object> row = jdbcTemplate.queryForMap("SELECT * FROM quotes WHERE id = 4");
+        assertEquals(Instant.parse("2024-05-01T10:00:04.123Z").toEpochMilli(), row.get("created_at"));
+        assertArrayEquals(new byte[]{10, 0, 0, 4}, (byte[]) row.get("ip_addr"));
+        assertNull(row.get("timestamp"));
+        assertNull(row.get("ip"));
+        assertEquals(0, jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM quotes WHERE timestamp IS NOT NULL OR ip IS NOT NULL", Integer.class));
+    }
+
+    @Test
+    public void keepsTextThatCannotBeTyped() {
+        jdbcTemplate.update("INSERT INTO quotes (id, quote, timestamp, ip, quote_number) VALUES (1, 'a', 'yesterday', '1.2.3.4', 1)");
+        jdbcTemplate.update("INSERT INTO quotes (id, quote, timestamp, ip, quote_number) VALUES (2, 'b', 'yesterday', 'unknown', 2)");
+        QuoteStorageMigration migration = new H2QuoteStorageMigration(jdbcTemplate);
+        assertEquals(1, migration.migrateNext(10));
+        assertEquals(-1, migration.migrateNext(10));
+
+        Map<String, Object> typedIp = jdbcTemplate.queryForMap("SELECT * FROM quotes WHERE id = 1");
+        assertEquals("yesterday", typedIp.get("timestamp"));
+        assertNull(typedIp.get("created_at"));
+        assertArrayEquals(new byte[]{1, 2, 3, 4}, (byte[]) typedIp.get("ip_addr"));
+        Map<String, Object> untouched = jdbcTemplate.queryForMap("SELECT * FROM quotes WHERE id = 2");
+        assertEquals("unknown", untouched.get("ip"));
+        assertEquals("yesterday", untouched.get("timestamp"));
+    }
+}
@@ -0,0 +1,96 @@
+package com.wizkhalubernetes.migration;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.client.MongoCollection;
+import com.wizkhalubernetes.config.mongo.MongoConfig;
+import com.wizkhalubernetes.model.mongo.QuoteMongo;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import org.bson.Document;
+import org.bson.types.Binary;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.SimpleMongoClientDatabaseFactory;
+import org.springframework.data.mongodb.core.convert.DefaultDbRefResolver;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Tests the MongoDB storage migration against an in-memory MongoDB server holding documents of the
+ * old string schema, including the _class key the previous converter wrote.
+ */
+public class MongoQuoteStorageMigrationTest {
+    private MongoServer server;
+    private MongoClient client;
+    private MongoTemplate mongoTemplate;
+    private MongoCollection<Document> quotes;
+
+    @BeforeEach
+    public void startServer() {
+        server = new MongoServer(new MemoryBackend());
+        InetSocketAddress address = server.bind();
+        client = MongoClients.create("mongodb://" + address.getHostString() + ":" + address.getPort());
+        SimpleMongoClientDatabaseFactory factory = new SimpleMongoClientDatabaseFactory(client, "wizquotes");
+        mongoTemplate = new MongoTemplate(factory, MongoConfig.mappingConverter(new DefaultDbRefResolver(factory)));
+        quotes = mongoTemplate.getCollection("quotes");
+    }
+
+    @AfterEach
+    public void stopServer() {
+        client.close();
+        server.shutdownNow();
+    }
+
+    @Test
+    public void rewritesLegacyDocumentsWithoutChangingTheApiView() {
+        List<Document> legacy = new ArrayList<>();
+        for (int n = 1; n <= 5; n++) {
+            legacy.add(new Document("quote", "quote " + n).append("timestamp", "2024-05-01T10:00:0" + n + "Z")
+                .append("ip", "2001:db8:0:0:0:0:0:" + n).append("quoteNumber", n)
+                .append("_class", "com.wizkhalubernetes.model.mongo.QuoteMongo"));
+        }
+        quotes.insertMany(legacy);
+        QuoteMongo before = mongoTemplate.findOne(Query.query(Criteria.where("quoteNumber").is(3)), QuoteMongo.class);
+
+        QuoteStorageMigration migration = new MongoQuoteStorageMigration(mongoTemplate, "quotes");
+        assertEquals(2, migration.migrateNext(2));
+        assertEquals(2, migration.migrateNext(2));
+        assertEquals(1, migration.migrateNext(2));
+        assertEquals(-1, migration.migrateNext(2));
+
+        Document migrated = quotes.find(new Document("quoteNumber", 3)).first();
+        assertEquals(1714557603000L, migrated.getLong("ts"));
+        assertEquals(16, migrated.get("addr", Binary.class).length());
+        assertFalse(migrated.containsKey("timestamp"));
+        assertFalse(migrated.containsKey("ip"));
+        assertFalse(migrated.containsKey("_class"));
+
+        QuoteMongo after = mongoTemplate.findById(before.getId(), QuoteMongo.class);
+        assertEquals("2024-05-01T10:00:03Z", after.getTimestamp());
+        assertEquals("2001:db8:0:0:0:0:0:3", after.getIp());
+        assertEquals(before.getTimestamp(), after.getTimestamp());
+        assertEquals(before.getIp(), after.getIp());
+    }
+
+    @Test
+    public void keepsTextThatCannotBeTyped() {
+        quotes.insertOne(new Document("quote", "a").append("timestamp", "yesterday").append("ip", "unknown")
+            .append("quoteNumber", 1));
+        QuoteStorageMigration migration = new MongoQuoteStorageMigration(mongoTemplate, "quotes");
+        assertEquals(0, migration.migrateNext(10));
+        assertEquals(-1, migration.migrateNext(10));
+
+        QuoteMongo quote = mongoTemplate.findAll(QuoteMongo.class).get(0);
+        assertEquals("yesterday", quote.getTimestamp());
+        assertEquals("unknown", quote.getIp());
+    }
+}
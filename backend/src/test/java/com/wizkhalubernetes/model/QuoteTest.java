@@ -0,0 +1,64 @@
+package com.wizkhalubernetes.model;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wizkhalubernetes.model.h2.QuoteH2;
+import com.wizkhalubernetes.model.mongo.QuoteMongo;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Tests the mapping between the typed storage fields of {@link Quote} and its unchanged API view.
+ */
+public class QuoteTest {
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    @Test
+    public void storesTypedValuesAndKeepsTheJsonShape() throws Exception {
+        QuoteH2 quote = new QuoteH2();
+        quote.setId(7L);
+        quote.setQuote("Young, wild & free");
+        quote.setTimestamp("2024-05-01T12:34:56.789Z");
+        quote.setIp("10.1.2.3");
+        quote.setQuoteNumber(42);
+
+        assertEquals(1714566896789L, quote.getCreatedAt());
+        assertArrayEquals(new byte[]{10, 1, 2, 3}, quote.getIpAddress());
+        assertEquals("{\"id\":7,\"quote\":\"Young, wild & free\",\"timestamp\":\"2024-05-01T12:34:56.789Z\","
+            + "\"ip\":\"10.1.2.3\",\"quoteNumber\":42}", objectMapper.writeValueAsString(quote));
+    }
+
+    @Test
+    public void truncatesTimestampsToMilliseconds() {
+        QuoteMongo quote = new QuoteMongo();
+        quote.setTimestamp("2024-05-01T12:34:56.789123Z");
+        assertEquals("2024-05-01T12:34:56.789Z", quote.getTimestamp());
+        quote.setTimestamp("2024-05-01T12:34:56Z");
+        assertEquals("2024-05-01T12:34:56Z", quote.getTimestamp());
+    }
+
+    @Test
+    public void keepsTextThatCannotBeTyped() {
+        QuoteMongo quote = new QuoteMongo();
+        quote.setTimestamp("yesterday");
+        quote.setIp("203.0.113.9, 10.0.0.1");
+        assertNull(quote.getCreatedAt());
+        assertNull(quote.getIpAddress());
+        assertEquals("yesterday", quote.getTimestamp());
+        assertEquals("203.0.113.9, 10.0.0.1", quote.getIp());
+    }
+
+    @Test
+    public void packsOnlyLiteralsThatRoundTrip() {
+        assertEquals(16, QuoteCodec.pack("0:0:0:0:0:0:0:1").length);
+        assertEquals("0:0:0:0:0:0:0:1", QuoteCodec.unpack(QuoteCodec.pack("0:0:0:0:0:0:0:1")));
+        assertNull(QuoteCodec.pack("::1"));
+        assertNull(QuoteCodec.pack("010.0.0.1"));
+        assertNull(QuoteCodec.pack("256.0.0.1"));
+        assertNull(QuoteCodec.pack("localhost"));
+        assertNull(QuoteCodec.pack(""));
+    }
+}
@@ -0,0 +1,64 @@
+package com.wizkhalubernetes.nodeinfo;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests the node info snapshot, its ETag handling and background refresh.
+ */
+public class NodeInfoSamplerTest {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    public void servesPreSerializedSnapshotAndAnswersMatchingEtagWith304() throws Exception {
+        NodeInfoSampler sampler = new NodeInfoSampler(objectMapper, Duration.ofMinutes(1));
+        NodeInfoSnapshot snapshot = sampler.current();
+
+        ResponseEntity<byte[]> full = sampler.response(null);
+        assertEquals(200, full.getStatusCode().value());
+        assertSame(snapshot.json(), full.getBody());
+        assertEquals(MediaType.APPLICATION_JSON, full.getHeaders().getContentType());
+        assertEquals(snapshot.etag(), full.getHeaders().getETag());
+        assertEquals("no-cache", full.getHeaders().getCacheControl());
+        Map<?, ?> info = objectMapper.readValue(full.getBody(), Map.class);
+        assertTrue(info.keySet().containsAll(List.of("hostname", "app", "availableProcessors", "timestamp")));
+
+        ResponseEntity<byte[]> notModified = sampler.response(snapshot.etag());
+        assertEquals(304, notModified.getStatusCode().value());
+        assertNull(notModified.getBody());
+        assertEquals(snapshot.etag(), notModified.getHeaders().getFirst(HttpHeaders.ETAG));
+
+        assertTrue(snapshot.matches("\"other\", W/" + snapshot.etag()));
+        assertTrue(snapshot.matches("*"));
+        assertFalse(snapshot.matches("\"other\""));
+        assertEquals(200, sampler.response("\"other\"").getStatusCode().value());
+    }
+
+    @Test
+    public void refreshPublishesANewSnapshot() throws Exception {
+        NodeInfoSampler sampler = new NodeInfoSampler(objectMapper, Duration.ofMinutes(1));
+        NodeInfoSnapshot first = sampler.current();
+        Thread.sleep(2);
+        sampler.refresh();
+        NodeInfoSnapshot second = sampler.current();
+
+        assertNotSame(first, second);
+        // The timestamp changes between samples, so the ETag does too
+        assertFalse(second.matches(first.etag()));
+        assertArrayEquals(objectMapper.writeValueAsBytes(second.info()), second.json());
+    }
+}
@@ -0,0 +1,126 @@
+package com.wizkhalubernetes.prometheus;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.wizkhalubernetes.model.mongo.QuoteMongo;
+import com.wizkhalubernetes.repository.mongo.QuoteMongoRepository;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import com.sun.management.ThreadMXBean;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.repository.support.MongoRepositoryFactoryBean;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests the API endpoint timers, the repository timing interceptor and that recording does not
+ * allocate on the hot path.
+ */
+public class QuoteTimingMetricsTest {
+
+    static class SampleController {
+        @PostMapping("/api/quotes")
+        public String addQuote() { return "ok"; }
+        @GetMapping("/api/quotes/latest")
+        public String getLatestQuote() { return "ok"; }
+    }
+
+    @Test
+    public void endpointFilterRecordsPerOpAndOutcome() throws Exception {
+        PrometheusMeterRegistry registry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+        QuoteTimingMetrics metrics = new QuoteTimingMetrics(registry, "false");
+        EndpointTimingFilter filter = new EndpointTimingFilter(metrics, SampleController.class);
+        HandlerMethod addQuote = new HandlerMethod(new SampleController(), "addQuote");
+
+        for (int status : new int[]{200, 200, 400}) {
+            MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/quotes");
+            request.setContent("{\"quote\":\"hello\"}".getBytes());
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            filter.doFilter(request, response, (req, res) -> {
+                req.setAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE, addQuote);
+                ((MockHttpServletResponse) res).setStatus(status);
+            });
+        }
+        // No handler (e.g. shed by an earlier filter): not timed
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/quotes"), new MockHttpServletResponse(), (req, res) -> { });
+
+        assertEquals(2, registry.get("quote_api_request").tags("backend", "h2", "op", "addQuote", "outcome", "success").timer().count());
+        assertEquals(1, registry.get("quote_api_request").tags("op", "addQuote", "outcome", "client_error").timer().count());
+        assertEquals(0, registry.get("quote_api_request").tags("op", "getLatestQuote", "outcome", "success").timer().count());
+        assertEquals(3, registry.get("quote_api_request_payload").tags("op", "addQuote").summary().count());
+        assertEquals(17.0, registry.get("quote_api_request_payload").tags("op", "addQuote").summary().max());
+        assertNull(registry.find("quote_api_request_payload").tags("op", "getLatestQuote").summary());
+        assertTrue(registry.scrape().contains("quote_api_request_seconds_bucket{backend=\"h2\",op=\"addQuote\",outcome=\"success\""));
+    }
+
+    @Test
+    public void repositoryCallsAreTimedWithResultSizes() {
+        PrometheusMeterRegistry registry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+        QuoteTimingMetrics metrics = new QuoteTimingMetrics(registry, "true");
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerSingleton("quoteTimingMetrics", metrics);
+        DbTimingPostProcessor postProcessor =
+            new DbTimingPostProcessor(beanFactory.getBeanProvider(QuoteTimingMetrics.class));
+
+        MongoServer server = new MongoServer(new MemoryBackend());
+        InetSocketAddress address = server.bind();
+        try (MongoClient client = MongoClients.create("mongodb://" + address.getHostString() + ":" + address.getPort())) {
+            MongoRepositoryFactoryBean<QuoteMongoRepository, QuoteMongo, String> factoryBean =
+                new MongoRepositoryFactoryBean<>(QuoteMongoRepository.class);
+            factoryBean.setMongoOperations(new MongoTemplate(client, "wizquotes"));
+            factoryBean.setBeanFactory(beanFactory);
+            postProcessor.postProcessBeforeInitialization(factoryBean, "mongoQuoteRepository");
+            factoryBean.afterPropertiesSet();
+            QuoteMongoRepository repository = factoryBean.getObject();
+
+            for (int n = 1; n <= 3; n++) {
+                QuoteMongo quote = new QuoteMongo();
+                quote.setQuote("quote " + n);
+                quote.setQuoteNumber(n);
+                repository.save(quote);
+            }
+            assertEquals(3, repository.findTopByOrderByQuoteNumberDesc().orElseThrow().getQuoteNumber());
+            assertEquals(3, repository.findAll().size());
+        } finally {
+            server.shutdownNow();
+        }
+
+        assertEquals(3, registry.get("quote_db_operation").tags("backend", "mongo", "op", "save", "outcome", "success").timer().count());
+        assertEquals(1, registry.get("quote_db_operation").tags("op", "find_latest", "outcome", "success").timer().count());
+        assertEquals(3.0, registry.get("quote_db_result_size").tags("op", "find_all").summary().totalAmount());
+    }
+
+    @Test
+    public void recordingDoesNotAllocate() {
+        PrometheusMeterRegistry registry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+        QuoteTimingMetrics metrics = new QuoteTimingMetrics(registry, "false");
+        QuoteTimingMetrics.EndpointMeters endpoint = metrics.registerEndpoint("getLatestQuote", false);
+        ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        for (int i = 0; i < 20_000; i++) {
+            metrics.recordDb(DbOperation.FIND_LATEST, System.nanoTime() - 1_000_000, 1);
+            endpoint.record(200, 2_000_000, -1);
+        }
+        long before = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < 100_000; i++) {
+            metrics.recordDb(DbOperation.FIND_LATEST, System.nanoTime() - 1_000_000, 1);
+            endpoint.record(200, 2_000_000, -1);
+        }
+        long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+        System.out.println("bytes allocated for 100k DB + endpoint recordings: " + allocated);
+        assertTrue(allocated < 100_000, "recording allocated " + allocated + " bytes");
+    }
+}
@@ -0,0 +1,31 @@
+package com.wizkhalubernetes.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests which address headers the client address resolver trusts.
+ */
+public class ClientAddressResolverTest {
+
+    @Test
+    public void headersAreUsedOnlyFromTrustedProxies() {
+        ClientAddressResolver resolver = new ClientAddressResolver("");
+
+        assertEquals("198.51.100.9", resolver.resolve("198.51.100.9", "10.9.9.9", "10.9.9.1"));
+        assertEquals("203.0.113.7", resolver.resolve("127.0.0.1", null, "10.9.9.3, 203.0.113.7 "));
+        assertEquals("203.0.113.8", resolver.resolve("::1", " 203.0.113.8", "203.0.113.7"));
+        assertEquals("127.0.0.1", resolver.resolve("127.0.0.1", null, "10.9.9.3, "));
+        assertEquals("127.0.0.1", resolver.resolve("127.0.0.1", "", null));
+        assertEquals("unknown", resolver.resolve(null, "203.0.113.8", null));
+    }
+
+    @Test
+    public void trustedProxiesAreConfigurable() {
+        ClientAddressResolver resolver = new ClientAddressResolver("10\\.0\\.0\\.\\d+");
+
+        assertEquals("203.0.113.7", resolver.resolve("10.0.0.5", null, "203.0.113.7"));
+        assertEquals("127.0.0.1", resolver.resolve("127.0.0.1", null, "203.0.113.7"));
+    }
+}
@@ -0,0 +1,146 @@
+package com.wizkhalubernetes.ratelimit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests the per-client rate limit: buckets, eviction from a full table, and the filter's 429.
+ */
+public class ClientRateLimitFilterTest {
+    private final AtomicLong clock = new AtomicLong(TimeUnit.SECONDS.toNanos(1000));
+
+    @Test
+    public void writesBeyondTheBurstGet429UntilTheBucketRefills() throws Exception {
+        ClientRateLimiter limiter = new ClientRateLimiter(2, 3, 1024, clock::get);
+        ClientRateLimitFilter filter = new ClientRateLimitFilter(limiter, new ClientAddressResolver(""));
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(200, post(filter, "/api/quotes", "10.0.0.1").getStatus());
+        }
+        MockHttpServletResponse rejected = post(filter, "/api/quotes/batch", "10.0.0.1");
+        assertEquals(429, rejected.getStatus());
+        assertEquals("1", rejected.getHeader("Retry-After"));
+        assertEquals(ClientRateLimitFilter.REJECTED_BODY, rejected.getContentAsString());
+        assertEquals(1, limiter.rejected().sum());
+
+        // Other clients and reads are not affected
+        assertEquals(200, post(filter, "/api/quotes", "10.0.0.2").getStatus());
+        MockHttpServletRequest read = new MockHttpServletRequest("GET", "/api/quotes/latest");
+        read.setRemoteAddr("10.0.0.1");
+        MockHttpServletResponse readResponse = new MockHttpServletResponse();
+        filter.doFilter(read, readResponse, (req, res) -> { });
+        assertEquals(200, readResponse.getStatus());
+
+        // One token back every 500ms
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(500));
+        assertEquals(200, post(filter, "/api/quotes", "10.0.0.1").getStatus());
+        assertEquals(429, post(filter, "/api/quotes", "10.0.0.1").getStatus());
+        // 10.0.0.2 took one token 500ms ago and is full again
+        assertEquals(1, limiter.activeClients());
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(2));
+        assertEquals(0, limiter.activeClients());
+    }
+
+    @Test
+    public void rotatingForwardedForFromAClientStillGets429() throws Exception {
+        ClientRateLimiter limiter = new ClientRateLimiter(1, 1, 1024, clock::get);
+        ClientRateLimitFilter filter = new ClientRateLimitFilter(limiter, new ClientAddressResolver(""));
+
+        // Straight to the backend port: the headers are the client's own and are ignored
+        assertEquals(200, post(filter, "198.51.100.9", null, "10.9.9.1").getStatus());
+        assertEquals(429, post(filter, "198.51.100.9", "10.9.9.9", "10.9.9.2").getStatus());
+
+        // Through nginx, which appends the real address to whatever the client sent
+        assertEquals(200, post(filter, "127.0.0.1", null, "10.9.9.3, 203.0.113.7").getStatus());
+        assertEquals(429, post(filter, "127.0.0.1", null, "10.9.9.4 , 203.0.113.7 ").getStatus());
+        assertEquals(429, post(filter, "127.0.0.1", "203.0.113.7", "10.9.9.5, 203.0.113.7").getStatus());
+
+        // Other clients behind the proxy, and the proxy itself without headers, have their own buckets
+        assertEquals(200, post(filter, "127.0.0.1", "203.0.113.8", "203.0.113.7").getStatus());
+        assertEquals(200, post(filter, "127.0.0.1", null, "203.0.113.9").getStatus());
+        assertEquals(200, post(filter, "127.0.0.1", null, null).getStatus());
+    }
+
+    @Test
+    public void fullTableEvictsOnlyRefillingBucketsClosestToFull() {
+        // One stripe of 8 slots
+        ClientRateLimiter limiter = new ClientRateLimiter(1, 2, 8, clock::get);
+        assertEquals(8, limiter.capacity());
+        for (int i = 0; i < 8; i++) {
+            assertEquals(0, limiter.tryAcquire("10.0.0." + i));
+            clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(10));
+        }
+        assertEquals(8, limiter.activeClients());
+        assertEquals(0, limiter.tryAcquire("10.0.1.0"));
+        assertEquals(1, limiter.evicted().sum());
+        assertEquals(8, limiter.activeClients());
+
+        // 10.0.0.0 was refilling for longest, so its bucket was the one dropped
+        assertEquals(0, limiter.tryAcquire("10.0.0.0"));
+        assertEquals(0, limiter.tryAcquire("10.0.0.0"));
+        assertTrue(limiter.tryAcquire("10.0.0.0") > 0);
+
+        // Once the buckets are full again their slots are free, and reusing them evicts nothing
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(3));
+        assertEquals(0, limiter.activeClients());
+        long evicted = limiter.evicted().sum();
+        for (int i = 0; i < 8; i++) {
+            assertEquals(0, limiter.tryAcquire("10.0.2." + i));
+        }
+        assertEquals(evicted, limiter.evicted().sum());
+    }
+
+    @Test
+    public void acquiringForManyClientsAllocatesNothing() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        ClientRateLimiter limiter = new ClientRateLimiter(10, 20, 262144);
+        String[] addresses = new String[100_000];
+        for (int i = 0; i < addresses.length; i++) {
+            addresses[i] = "10." + (i >>> 16) + "." + (i >>> 8 & 0xff) + "." + (i & 0xff);
+        }
+        for (String address : addresses) {
+            limiter.tryAcquire(address);
+        }
+
+        long before = threads.getCurrentThreadAllocatedBytes();
+        for (int round = 0; round < 3; round++) {
+            for (String address : addresses) {
+                limiter.tryAcquire(address);
+            }
+        }
+        long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+        // 300k acquisitions; anything per call would be megabytes
+        assertTrue(allocated < 64 * 1024, "allocated " + allocated + " bytes");
+    }
+
+    private static MockHttpServletResponse post(ClientRateLimitFilter filter, String uri, String remoteAddr)
+            throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", uri);
+        request.setRemoteAddr(remoteAddr);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, (req, res) -> { });
+        return response;
+    }
+
+    private static MockHttpServletResponse post(ClientRateLimitFilter filter, String remoteAddr, String realIp,
+                                                String forwardedFor) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/quotes");
+        request.setRemoteAddr(remoteAddr);
+        if (realIp != null) {
+            request.addHeader("X-Real-IP", realIp);
+        }
+        if (forwardedFor != null) {
+            request.addHeader("X-Forwarded-For", forwardedFor);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, (req, res) -> { });
+        return response;
+    }
+}
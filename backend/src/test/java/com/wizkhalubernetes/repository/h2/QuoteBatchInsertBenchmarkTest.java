@@ -0,0 +1,92 @@
+package com.wizkhalubernetes.repository.h2;
+
+import com.wizkhalubernetes.batch.H2QuoteBulkWriter;
+import com.wizkhalubernetes.batch.NewQuote;
+import com.wizkhalubernetes.model.h2.QuoteH2;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Throughput benchmark for batch ingestion against embedded H2.
+ * Compares one save() per quote (what N calls to POST /api/quotes do) with the bulk writer
+ * behind POST /api/quotes/batch (saveAll + JDBC batches).
+ * Run with: mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+@DataJpaTest(showSql = false)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class QuoteBatchInsertBenchmarkTest {
+    private static final int QUOTES = 20_000;
+    private static final int BATCH_SIZE = 1_000;
+
+    @Autowired
+    private QuoteH2Repository repository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    public void cleanUp() {
+        jdbcTemplate.update("DELETE FROM quotes");
+    }
+
+    @Test
+    public void batchInsertOutperformsSingleInserts() {
+        H2QuoteBulkWriter writer = new H2QuoteBulkWriter(repository);
+        // Warm up both paths
+        singleInserts(0, 2_000);
+        batchInserts(writer, 2_000, 2_000);
+        cleanUp();
+
+        long start = System.nanoTime();
+        singleInserts(0, QUOTES);
+        long singleNanos = System.nanoTime() - start;
+        cleanUp();
+
+        start = System.nanoTime();
+        batchInserts(writer, 0, QUOTES);
+        long batchNanos = System.nanoTime() - start;
+
+        assertEquals(QUOTES, repository.count());
+        long singleRate = QUOTES * 1_000_000_000L / singleNanos;
+        long batchRate = QUOTES * 1_000_000_000L / batchNanos;
+        System.out.println("mode\tquotes\tquotes_per_sec");
+        System.out.println("single\t" + QUOTES + "\t" + singleRate);
+        System.out.println("batch\t" + QUOTES + "\t" + batchRate);
+        assertTrue(batchRate > singleRate, "batch inserts should outrun single inserts");
+    }
+
+    private void singleInserts(int from, int count) {
+        String timestamp = Instant.now().toString();
+        for (int n = from + 1; n <= from + count; n++) {
+            QuoteH2 quote = new QuoteH2();
+            quote.setQuote("Benchmark quote #" + n);
+            quote.setTimestamp(timestamp);
+            quote.setIp("127.0.0.1");
+            quote.setQuoteNumber(n);
+            repository.save(quote);
+        }
+    }
+
+    private static void batchInserts(H2QuoteBulkWriter writer, int from, int count) {
+        String timestamp = Instant.now().toString();
+        for (int offset = 0; offset < count; offset += BATCH_SIZE) {
+            List<NewQuote> batch = new ArrayList<>(BATCH_SIZE);
+            for (int n = from + offset + 1; n <= from + Math.min(offset + BATCH_SIZE, count); n++) {
+                batch.add(new NewQuote("Benchmark quote #" + n, timestamp, "127.0.0.1", n));
+            }
+            writer.insertAll(batch);
+        }
+    }
+}
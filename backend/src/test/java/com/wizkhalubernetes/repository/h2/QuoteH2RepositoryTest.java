@@ -0,0 +1,128 @@
+package com.wizkhalubernetes.repository.h2;
+
+import com.wizkhalubernetes.model.QuotePage;
+import com.wizkhalubernetes.model.h2.QuoteH2;
+import com.wizkhalubernetes.store.QuoteCursors;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Window;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests the latest-quote, keyset page, streaming, quote number, time window and delete queries of QuoteH2Repository
+ * on embedded H2.
+ */
+@DataJpaTest(showSql = false)
+public class QuoteH2RepositoryTest {
+    @Autowired
+    private QuoteH2Repository repository;
+
+    @BeforeEach
+    public void seed() {
+        // Quote numbers 1..20 with a duplicate 10, as produced by the old count()+1 numbering
+        List<QuoteH2> quotes = new ArrayList<>();
+        for (int n = 1; n <= 20; n++) {
+            quotes.add(quote(n));
+        }
+        quotes.add(quote(10));
+        repository.saveAll(quotes);
+    }
+
+    @Test
+    public void findsLatestByQuoteNumber() {
+        assertEquals(20, repository.findTopByOrderByQuoteNumberDesc().orElseThrow().getQuoteNumber());
+    }
+
+    @Test
+    public void keysetPagesVisitEveryRowOnce() {
+        List<Integer> seen = new ArrayList<>();
+        int afterNumber = 0;
+        long afterId = 0L;
+        while (true) {
+            List<QuoteH2> page = repository.findPageAfter(afterNumber, afterId, PageRequest.of(0, 4));
+            page.forEach(q -> seen.add(q.getQuoteNumber()));
+            if (page.size() < 4) {
+                break;
+            }
+            QuoteH2 last = page.get(page.size() - 1);
+            afterNumber = last.getQuoteNumber();
+            afterId = last.getId();
+        }
+        assertEquals(21, seen.size());
+        assertEquals(List.of(9, 10, 10, 11), seen.subList(8, 12));
+    }
+
+    @Test
+    public void streamsInQuoteNumberOrder() {
+        List<Integer> numbers;
+        try (Stream<QuoteH2> stream = repository.streamAllByOrderByQuoteNumberAscIdAsc()) {
+            numbers = stream.map(QuoteH2::getQuoteNumber).collect(Collectors.toList());
+        }
+        assertEquals(21, numbers.size());
+        assertEquals(1, numbers.get(0));
+        assertEquals(20, numbers.get(20));
+    }
+
+    @Test
+    public void findsByQuoteNumbers() {
+        List<Integer> numbers = repository.findByQuoteNumberIn(List.of(3, 10, 42)).stream()
+            .map(QuoteH2::getQuoteNumber).sorted().collect(Collectors.toList());
+        assertEquals(List.of(3, 10, 10), numbers);
+    }
+
+    @Test
+    public void timeWindowsVisitEveryQuoteInRangeOnce() {
+        assertEquals(List.of(1, 5, 9, 13, 17, 2, 6, 10, 10, 14, 18, 3, 7, 11, 15, 19), scrollTimeRange(null));
+        assertEquals(List.of(2, 6, 10, 10, 14, 18), scrollTimeRange(new byte[]{127, 0, 0, 1}));
+    }
+
+    private List<Integer> scrollTimeRange(byte[] ipAddress) {
+        long since = Instant.parse("2024-01-01T00:00:01Z").toEpochMilli();
+        long until = Instant.parse("2024-01-01T00:00:04Z").toEpochMilli();
+        List<Integer> seen = new ArrayList<>();
+        String cursor = null;
+        do {
+            KeysetScrollPosition position = QuoteCursors.timePosition(cursor, Long::parseLong);
+            Window<QuoteH2> window = ipAddress == null
+                ? repository.findByCreatedAtGreaterThanEqualAndCreatedAtLessThanOrderByCreatedAtAscQuoteNumberAscIdAsc(
+                    since, until, position, Limit.of(4))
+                : repository.findByIpAddressAndCreatedAtGreaterThanEqualAndCreatedAtLessThanOrderByCreatedAtAscQuoteNumberAscIdAsc(
+                    ipAddress, since, until, position, Limit.of(4));
+            QuotePage<QuoteH2> page = QuoteCursors.timePage(window);
+            page.getItems().forEach(q -> seen.add(q.getQuoteNumber()));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        return seen;
+    }
+
+    @Test
+    public void deleteReturnsTheDeletedQuote() {
+        QuoteH2 latest = repository.findTopByOrderByQuoteNumberDesc().orElseThrow();
+        List<QuoteH2> deleted = repository.deleteQuoteById(latest.getId());
+        assertEquals(1, deleted.size());
+        assertEquals(20, deleted.get(0).getQuoteNumber());
+        assertEquals(19, repository.findTopByOrderByQuoteNumberDesc().orElseThrow().getQuoteNumber());
+        assertEquals(0, repository.deleteQuoteById(latest.getId()).size());
+    }
+
+    private static QuoteH2 quote(int quoteNumber) {
+        QuoteH2 quote = new QuoteH2();
+        quote.setQuote("quote " + quoteNumber);
+        // Four distinct submission times, so the time windows below have ties on createdAt
+        quote.setTimestamp("2024-01-01T00:00:0" + quoteNumber % 4 + "Z");
+        quote.setIp(quoteNumber % 2 == 0 ? "127.0.0.1" : "10.0.0.1");
+        quote.setQuoteNumber(quoteNumber);
+        return quote;
+    }
+}
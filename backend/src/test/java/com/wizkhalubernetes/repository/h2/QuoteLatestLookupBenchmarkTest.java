@@ -0,0 +1,87 @@
+package com.wizkhalubernetes.repository.h2;
+
+import com.wizkhalubernetes.model.h2.QuoteH2;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Benchmark for the latest-quote lookup against embedded H2.
+ * Compares the indexed top-1 query with the old findAll().stream().max() scan as the table grows.
+ * Runs outside a test transaction so each call gets a fresh persistence context.
+ * Run with: mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+@DataJpaTest(showSql = false)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class QuoteLatestLookupBenchmarkTest {
+    private static final int[] SIZES = {1_000, 10_000, 100_000};
+    private static final int ITERATIONS = 50;
+
+    @Autowired
+    private QuoteH2Repository repository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    public void cleanUp() {
+        jdbcTemplate.update("DELETE FROM quotes");
+    }
+
+    @Test
+    public void latestLookupStaysFlatAsTableGrows() {
+        int seeded = 0;
+        long topAtLargest = 0;
+        long scanAtLargest = 0;
+        System.out.println("rows\ttop1_median_us\tscan_median_us");
+        for (int size : SIZES) {
+            seed(seeded, size);
+            seeded = size;
+            long top = medianMicros(() -> repository.findTopByOrderByQuoteNumberDesc().orElseThrow(), ITERATIONS);
+            long scan = medianMicros(() -> repository.findAll().stream()
+                .max((a, b) -> Integer.compare(a.getQuoteNumber(), b.getQuoteNumber()))
+                .orElseThrow(), size >= 100_000 ? 5 : 20);
+            System.out.println(size + "\t" + top + "\t" + scan);
+            assertEquals(size, repository.findTopByOrderByQuoteNumberDesc().map(QuoteH2::getQuoteNumber).orElse(0));
+            topAtLargest = top;
+            scanAtLargest = scan;
+        }
+        assertTrue(topAtLargest < scanAtLargest, "indexed lookup should beat a full scan at " + seeded + " rows");
+    }
+
+    private void seed(int from, int to) {
+        long createdAt = Instant.now().toEpochMilli();
+        byte[] ip = {127, 0, 0, 1};
+        List<Object[]> rows = new ArrayList<>(to - from);
+        for (int n = from + 1; n <= to; n++) {
+            rows.add(new Object[]{(long) n, "Benchmark quote #" + n, createdAt, ip, n});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO quotes (id, quote, created_at, ip_addr, quote_number) VALUES (?, ?, ?, ?, ?)", rows);
+    }
+
+    private static long medianMicros(Runnable call, int iterations) {
+        for (int i = 0; i < 3; i++) {
+            call.run();
+        }
+        long[] samples = new long[iterations];
+        for (int i = 0; i < iterations; i++) {
+            long start = System.nanoTime();
+            call.run();
+            samples[i] = (System.nanoTime() - start) / 1_000;
+        }
+        Arrays.sort(samples);
+        return samples[iterations / 2];
+    }
+}
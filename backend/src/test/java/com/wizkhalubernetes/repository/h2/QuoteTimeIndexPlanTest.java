@@ -0,0 +1,115 @@
+package com.wizkhalubernetes.repository.h2;
+
+import com.wizkhalubernetes.model.h2.QuoteH2;
+import com.wizkhalubernetes.store.QuoteCursors;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+import org.springframework.jdbc.core.JdbcTemplate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks with EXPLAIN that the time-range and submitter windows of QuoteH2Repository are answered
+ * from the created_at / ip_addr indexes, in index order, and never scan the table. The plans are
+ * taken for the SQL Hibernate actually generates, first page and keyset continuation alike.
+ */
+@DataJpaTest(showSql = false, properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+    + "com.wizkhalubernetes.repository.h2.QuoteTimeIndexPlanTest$Recorder")
+public class QuoteTimeIndexPlanTest {
+    private static final byte[] IP = {127, 0, 0, 1};
+
+    @Autowired
+    private QuoteH2Repository repository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    public void seed() {
+        List<QuoteH2> quotes = new ArrayList<>();
+        for (int n = 1; n <= 200; n++) {
+            QuoteH2 quote = new QuoteH2();
+            quote.setQuote("quote " + n);
+            quote.setCreatedAt(1_700_000_000_000L + n * 1000L);
+            quote.setIpAddress(n % 2 == 0 ? IP : new byte[]{10, 0, 0, (byte) n});
+            quote.setQuoteNumber(n);
+            quotes.add(quote);
+        }
+        repository.saveAllAndFlush(quotes);
+        Recorder.SQL.clear();
+    }
+
+    @Test
+    public void timeRangeUsesTheCreatedAtIndex() {
+        List<String> plans = plans(null);
+        assertEquals(2, plans.size());
+        for (String plan : plans) {
+            assertTrue(plan.contains("IDX_QUOTES_CREATED_AT"), plan);
+            assertTrue(plan.contains("index sorted"), plan);
+            assertFalse(plan.contains("tableScan"), plan);
+        }
+    }
+
+    @Test
+    public void submitterUsesTheIpAddrIndex() {
+        List<String> plans = plans(IP);
+        assertEquals(2, plans.size());
+        for (String plan : plans) {
+            assertTrue(plan.contains("IDX_QUOTES_IP_ADDR_CREATED_AT"), plan);
+            assertFalse(plan.contains("tableScan"), plan);
+        }
+    }
+
+    /**
+     * Reads a first window and its continuation, then explains the statements Hibernate ran.
+     */
+    private List<String> plans(byte[] ipAddress) {
+        long since = 1_700_000_050_000L;
+        long until = 1_700_000_150_000L;
+        KeysetScrollPosition position = ScrollPosition.keyset();
+        for (int i = 0; i < 2; i++) {
+            long from = QuoteCursors.timeFloor(position, since);
+            Window<QuoteH2> window = ipAddress == null
+                ? repository.findByCreatedAtGreaterThanEqualAndCreatedAtLessThanOrderByCreatedAtAscQuoteNumberAscIdAsc(
+                    from, until, position, Limit.of(10))
+                : repository.findByIpAddressAndCreatedAtGreaterThanEqualAndCreatedAtLessThanOrderByCreatedAtAscQuoteNumberAscIdAsc(
+                    ipAddress, from, until, position, Limit.of(10));
+            assertTrue(window.hasNext());
+            position = QuoteCursors.timePosition(QuoteCursors.timePage(window).getNextCursor(), Long::parseLong);
+        }
+        List<String> plans = new ArrayList<>();
+        for (String sql : Recorder.SQL) {
+            // Bind literals in place of the parameters: the ip_addr one is the address, the rest are numbers
+            String literal = sql.replace("ip_addr=?", "ip_addr=X'7f000001'").replace("?", "1");
+            Map<String, Object> row = jdbcTemplate.queryForMap("EXPLAIN " + literal);
+            plans.add(String.valueOf(row.values().iterator().next()));
+        }
+        return plans;
+    }
+
+    /**
+     * Records the SELECTs on the quotes table that Hibernate sends to H2.
+     */
+    public static class Recorder implements StatementInspector {
+        static final List<String> SQL = new ArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            if (sql.startsWith("select") && sql.contains(" from quotes ")) {
+                SQL.add(sql);
+            }
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,313 @@
+package com.wizkhalubernetes.repository.mmap;
+
+import com.wizkhalubernetes.model.QuoteCodec;
+import com.wizkhalubernetes.model.mmap.QuoteMmap;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DataAccessResourceFailureException;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests the record format, lookups, deletes, compaction and crash recovery of the memory-mapped
+ * quote log. Crashes are simulated by editing the closed file the way an interrupted append or an
+ * out-of-order page writeback would leave it, then reopening it.
+ */
+public class MappedQuoteLogTest {
+    private static final long INITIAL_SIZE = 64 * 1024;
+    private static final String TIMESTAMP = "2024-05-01T12:34:56.789Z";
+
+    @TempDir
+    Path dir;
+
+    private final List<MappedQuoteLog> opened = new ArrayList<>();
+
+    @AfterEach
+    public void closeLogs() {
+        opened.forEach(MappedQuoteLog::close);
+    }
+
+    @Test
+    public void recordsKeepTextTimestampAndIp() {
+        MappedQuoteLog log = open();
+        log.save(new QuoteMmap("Young, wild & free — café", "2024-05-01T12:34:56.789123Z", "10.1.2.3", 1));
+        log.save(new QuoteMmap("", TIMESTAMP, "0:0:0:0:0:0:0:1", 2));
+        log.save(new QuoteMmap(null, null, "203.0.113.9, 10.0.0.1", 3));
+        log.save(new QuoteMmap("no ip", TIMESTAMP, null, 4));
+
+        QuoteMmap first = log.findById(1).orElseThrow();
+        assertEquals("Young, wild & free — café", first.getQuote());
+        // Epoch millis: sub-millisecond digits are dropped
+        assertEquals(TIMESTAMP, first.getTimestamp());
+        assertEquals("10.1.2.3", first.getIp());
+        assertEquals(1L, first.getId());
+        assertEquals("", log.findById(2).orElseThrow().getQuote());
+        assertEquals("0:0:0:0:0:0:0:1", log.findById(2).orElseThrow().getIp());
+        QuoteMmap third = log.findById(3).orElseThrow();
+        assertNull(third.getQuote());
+        assertNull(third.getTimestamp());
+        assertEquals("203.0.113.9, 10.0.0.1", third.getIp());
+        assertNull(log.findById(4).orElseThrow().getIp());
+        assertFalse(log.findById(5).isPresent());
+        assertThrows(IllegalArgumentException.class, () -> log.save(new QuoteMmap("x", "yesterday", null, 6)));
+        assertThrows(IllegalArgumentException.class, () -> log.save(new QuoteMmap("x", TIMESTAMP, null, 0)));
+    }
+
+    @Test
+    public void packsOnlyIpLiteralsThatPrintBackUnchanged() {
+        assertEquals(4, QuoteCodec.pack("192.168.0.255").length);
+        assertEquals(16, QuoteCodec.pack("2001:db8:0:0:0:0:0:1").length);
+        assertNull(QuoteCodec.pack("2001:db8::1"));
+        assertNull(QuoteCodec.pack("::ffff:10.0.0.1"));
+        assertNull(QuoteCodec.pack("010.0.0.1"));
+        assertNull(QuoteCodec.pack("10.0.0.256"));
+        assertNull(QuoteCodec.pack("10.0.0"));
+        assertNull(QuoteCodec.pack("localhost"));
+        assertNull(QuoteCodec.pack("unknown"));
+    }
+
+    @Test
+    public void pagesStreamsAndLooksUpByQuoteNumber() {
+        MappedQuoteLog log = open();
+        log.saveAll(IntStream.rangeClosed(1, 600).mapToObj(MappedQuoteLogTest::quote).collect(Collectors.toList()));
+        log.deleteById(300);
+
+        assertEquals(599, log.count());
+        assertEquals(List.of(298, 299, 301), numbers(log.findPageAfter(297, 3)));
+        assertEquals(List.of(7, 2), numbers(log.findByQuoteNumberIn(new int[]{7, 300, 2, 9999})));
+        try (var quotes = log.streamAll()) {
+            List<Integer> streamed = numbers(quotes.collect(Collectors.toList()));
+            assertEquals(599, streamed.size());
+            assertEquals(1, streamed.get(0));
+            assertEquals(600, streamed.get(598));
+        }
+    }
+
+    @Test
+    public void deletesSurviveReopenAndQuoteNumbersAreNotReused() {
+        MappedQuoteLog log = open();
+        for (int n = 1; n <= 5; n++) {
+            log.save(quote(n));
+        }
+        assertTrue(log.deleteById(5));
+        assertFalse(log.deleteById(5));
+        assertEquals(4, log.findLatest().orElseThrow().getQuoteNumber());
+        close(log);
+
+        MappedQuoteLog reopened = open();
+        assertEquals(4, reopened.count());
+        assertEquals(4, reopened.findLatest().orElseThrow().getQuoteNumber());
+        assertFalse(reopened.findById(5).isPresent());
+        assertEquals(5, reopened.maxQuoteNumber());
+    }
+
+    @Test
+    public void tornLastRecordIsDiscardedAndOverwritten() throws IOException {
+        MappedQuoteLog log = open();
+        for (int n = 1; n <= 10; n++) {
+            log.save(quote(n));
+        }
+        int tenth = (int) (log.usedBytes() - QuoteRecords.encodeQuote(quote(10)).length);
+        close(log);
+        // A page holding part of the last record never reached the disk
+        flipByte(tenth + QuoteRecords.PREFIX + QuoteRecords.IP + 2);
+
+        MappedQuoteLog recovered = open();
+        assertEquals(9, recovered.count());
+        assertEquals(9, recovered.findLatest().orElseThrow().getQuoteNumber());
+        assertEquals(tenth, recovered.usedBytes());
+        recovered.save(new QuoteMmap("short", TIMESTAMP, null, 11));
+        close(recovered);
+
+        // The zeroed tail cannot bring the torn record back behind the new, shorter one
+        MappedQuoteLog again = open();
+        assertEquals(10, again.count());
+        assertFalse(again.findById(10).isPresent());
+        assertEquals("short", again.findById(11).orElseThrow().getQuote());
+    }
+
+    @Test
+    public void appendCutShortBeforeItsLengthIsTheEndOfTheLog() throws IOException {
+        MappedQuoteLog log = open();
+        for (int n = 1; n <= 3; n++) {
+            log.save(quote(n));
+        }
+        int end = (int) log.usedBytes();
+        close(log);
+        // Checksum and payload written, length not: what a crash in the middle of append leaves
+        byte[] record = QuoteRecords.encodeQuote(quote(4));
+        try (RandomAccessFile file = new RandomAccessFile(logFile().toFile(), "rw")) {
+            file.seek(end + 4);
+            file.write(record, 4, record.length - 4);
+        }
+
+        MappedQuoteLog recovered = open();
+        assertEquals(3, recovered.count());
+        assertEquals(end, recovered.usedBytes());
+        assertEquals(3, recovered.maxQuoteNumber());
+    }
+
+    @Test
+    public void laterRecordsAfterATornOneAreDropped() throws IOException {
+        MappedQuoteLog log = open();
+        List<Integer> offsets = new ArrayList<>();
+        for (int n = 1; n <= 6; n++) {
+            offsets.add((int) log.usedBytes());
+            log.save(quote(n));
+        }
+        close(log);
+        // Records 5 and 6 reached the disk, record 4 did not (pages written back out of order)
+        flipByte(offsets.get(3) + 4);
+
+        MappedQuoteLog recovered = open();
+        assertEquals(3, recovered.count());
+        assertEquals(List.of(1, 2, 3), numbers(recovered.findPageAfter(0, 10)));
+    }
+
+    @Test
+    public void fileTruncatedInsideARecordIsRecovered() throws IOException {
+        MappedQuoteLog log = open();
+        for (int n = 1; n <= 4; n++) {
+            log.save(quote(n));
+        }
+        int end = (int) log.usedBytes();
+        close(log);
+        try (RandomAccessFile file = new RandomAccessFile(logFile().toFile(), "rw")) {
+            file.setLength(end - 3);
+        }
+
+        MappedQuoteLog recovered = open();
+        assertEquals(3, recovered.count());
+        assertEquals(INITIAL_SIZE, recovered.fileBytes());
+        recovered.save(quote(5));
+        assertEquals(List.of(1, 2, 3, 5), numbers(recovered.findPageAfter(0, 10)));
+    }
+
+    @Test
+    public void interruptedCompactionLeavesTheOldLog() throws IOException {
+        MappedQuoteLog log = open();
+        for (int n = 1; n <= 3; n++) {
+            log.save(quote(n));
+        }
+        close(log);
+        Path leftover = dir.resolve("quotes.qlog.compact");
+        Files.write(leftover, new byte[]{1, 2, 3});
+
+        MappedQuoteLog recovered = open();
+        assertEquals(3, recovered.count());
+        assertFalse(Files.exists(leftover));
+    }
+
+    @Test
+    public void compactionDropsDeadRecordsAndKeepsConcurrentWrites() throws Exception {
+        MappedQuoteLog log = open();
+        log.saveAll(IntStream.rangeClosed(1, 2000).mapToObj(MappedQuoteLogTest::quote).collect(Collectors.toList()));
+        for (int n = 1; n <= 2000; n += 2) {
+            log.deleteById(n);
+        }
+        log.deleteById(2000);
+        long before = log.usedBytes();
+        assertFalse(log.compactIfNeeded(before, 0.5));
+
+        Thread writer = new Thread(() -> {
+            for (int n = 2001; n <= 2500; n++) {
+                log.save(quote(n));
+                if (n % 10 == 0) {
+                    log.deleteById(n - 1);
+                }
+            }
+        });
+        writer.start();
+        assertTrue(log.compactIfNeeded(0, 0.5));
+        writer.join();
+
+        assertEquals(1, log.compactions());
+        assertTrue(log.usedBytes() < before);
+        assertEquals(999 + 500 - 50, log.count());
+        assertFalse(log.findById(2000).isPresent());
+        assertFalse(log.findById(2009).isPresent());
+        assertEquals("Quote 2010", log.findById(2010).orElseThrow().getQuote());
+        close(log);
+
+        MappedQuoteLog reopened = open();
+        assertEquals(999 + 500 - 50, reopened.count());
+        assertEquals(2500, reopened.maxQuoteNumber());
+        assertEquals(List.of(2, 4, 6), numbers(reopened.findPageAfter(0, 3)));
+        // The compacted log keeps the sequence floor even when the highest quotes are gone
+        reopened.deleteById(2500);
+        reopened.compact();
+        close(reopened);
+        assertEquals(2500, open().maxQuoteNumber());
+    }
+
+    @Test
+    public void aLogIsOpenedByOneOwnerOnly() {
+        open();
+        assertThrows(DataAccessResourceFailureException.class, () -> new MappedQuoteLog(logFile(), INITIAL_SIZE, false));
+    }
+
+    @Test
+    public void rejectsFilesThatAreNotQuoteLogs() throws IOException {
+        Files.write(logFile(), "not a quote log".getBytes());
+        assertThrows(DataAccessResourceFailureException.class, () -> new MappedQuoteLog(logFile(), INITIAL_SIZE, false));
+    }
+
+    @Test
+    public void growsPastItsInitialSize() {
+        MappedQuoteLog log = open();
+        String text = "x".repeat(1000);
+        for (int n = 1; n <= 200; n++) {
+            log.save(new QuoteMmap(text, TIMESTAMP, "10.0.0.1", n));
+        }
+        assertTrue(log.fileBytes() > INITIAL_SIZE);
+        assertEquals(200, log.count());
+        assertArrayEquals(new int[]{1, 200}, log.findByQuoteNumberIn(new int[]{1, 200}).stream()
+            .mapToInt(QuoteMmap::getQuoteNumber).toArray());
+    }
+
+    private MappedQuoteLog open() {
+        MappedQuoteLog log = new MappedQuoteLog(logFile(), INITIAL_SIZE, false);
+        opened.add(log);
+        return log;
+    }
+
+    private void close(MappedQuoteLog log) {
+        log.close();
+        opened.remove(log);
+    }
+
+    private Path logFile() {
+        return dir.resolve("quotes.qlog");
+    }
+
+    private void flipByte(long position) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(logFile().toFile(), "rw")) {
+            file.seek(position);
+            int value = file.read();
+            file.seek(position);
+            file.write(value ^ 0xff);
+        }
+    }
+
+    private static QuoteMmap quote(int n) {
+        return new QuoteMmap("Quote " + n, TIMESTAMP, "10.0." + (n % 256) + ".1", n);
+    }
+
+    private static List<Integer> numbers(List<QuoteMmap> quotes) {
+        return quotes.stream().map(QuoteMmap::getQuoteNumber).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,182 @@
+package com.wizkhalubernetes.repository.mongo;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.wizkhalubernetes.config.mongo.MongoClientProperties;
+import com.wizkhalubernetes.config.mongo.MongoConfig;
+import com.wizkhalubernetes.model.QuotePage;
+import com.wizkhalubernetes.model.mongo.QuoteMongo;
+import com.wizkhalubernetes.prometheus.QuoteMetricsService;
+import com.wizkhalubernetes.store.MongoQuoteStore;
+import com.wizkhalubernetes.store.QuoteCursors;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Range;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.repository.support.MongoRepositoryFactory;
+import org.springframework.data.mongodb.repository.support.MongoRepositoryFactoryBean;
+import java.net.InetSocketAddress;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.AdditionalAnswers.delegatesTo;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Tests the latest-quote, keyset page, streaming, quote number, time window and delete queries of
+ * QuoteMongoRepository against an in-memory MongoDB server, and the listing instance used for
+ * quotes.mongo.client.list-read-preference.
+ */
+public class QuoteMongoRepositoryTest {
+    private MongoServer server;
+    private MongoClient client;
+    private MongoTemplate template;
+    private QuoteMongoRepository repository;
+
+    @BeforeEach
+    public void startServer() {
+        server = new MongoServer(new MemoryBackend());
+        InetSocketAddress address = server.bind();
+        client = MongoClients.create("mongodb://" + address.getHostString() + ":" + address.getPort());
+        template = new MongoTemplate(client, "wizquotes");
+        repository = new MongoRepositoryFactory(template).getRepository(QuoteMongoRepository.class);
+        List<QuoteMongo> quotes = new ArrayList<>();
+        for (int n = 1; n <= 20; n++) {
+            quotes.add(quote(n));
+        }
+        quotes.add(quote(10));
+        repository.saveAll(quotes);
+    }
+
+    @AfterEach
+    public void stopServer() {
+        client.close();
+        server.shutdownNow();
+    }
+
+    @Test
+    public void listQueriesUseTheListingInstanceOnlyWhenConfigured() throws Exception {
+        MongoQuoteStore store = new MongoQuoteStore(repository, new QuoteMetricsService(new SimpleMeterRegistry()));
+        assertFalse(store.listsMayLag());
+
+        MongoClientProperties properties = new MongoClientProperties();
+        properties.setListReadPreference("secondaryPreferred");
+        MongoRepositoryFactoryBean<QuoteMongoRepository, QuoteMongo, String> factory =
+            new MongoConfig().listQuoteRepository(template, properties);
+        factory.afterPropertiesSet();
+        QuoteMongoRepository listing = mock(QuoteMongoRepository.class, delegatesTo(factory.getObject()));
+        store = new MongoQuoteStore(repository, listing, new QuoteMetricsService(new SimpleMeterRegistry()));
+
+        assertTrue(store.listsMayLag());
+        assertEquals(4, store.findPageAfter(null, 4).getItems().size());
+        assertEquals(20, store.findLatest().getQuoteNumber());
+        verify(listing).findPageAfter(anyInt(), any(), any());
+        verify(listing, never()).findTopByOrderByQuoteNumberDesc();
+    }
+
+    @Test
+    public void findsLatestByQuoteNumber() {
+        assertEquals(20, repository.findTopByOrderByQuoteNumberDesc().orElseThrow().getQuoteNumber());
+    }
+
+    @Test
+    public void keysetPagesVisitEveryDocumentOnce() {
+        List<Integer> seen = new ArrayList<>();
+        int afterNumber = 0;
+        ObjectId afterId = new ObjectId("000000000000000000000000");
+        while (true) {
+            List<QuoteMongo> page = repository.findPageAfter(afterNumber, afterId,
+                PageRequest.of(0, 4, Sort.by("quoteNumber", "id")));
+            page.forEach(q -> seen.add(q.getQuoteNumber()));
+            if (page.size() < 4) {
+                break;
+            }
+            QuoteMongo last = page.get(page.size() - 1);
+            afterNumber = last.getQuoteNumber();
+            afterId = new ObjectId(last.getId());
+        }
+        assertEquals(21, seen.size());
+        assertEquals(List.of(9, 10, 10, 11), seen.subList(8, 12));
+    }
+
+    @Test
+    public void streamsInQuoteNumberOrder() {
+        List<Integer> numbers;
+        try (Stream<QuoteMongo> stream = repository.streamAllByOrderByQuoteNumberAscIdAsc()) {
+            numbers = stream.map(QuoteMongo::getQuoteNumber).collect(Collectors.toList());
+        }
+        assertEquals(21, numbers.size());
+        assertEquals(1, numbers.get(0));
+        assertEquals(20, numbers.get(20));
+    }
+
+    @Test
+    public void findsByQuoteNumbers() {
+        List<Integer> numbers = repository.findByQuoteNumberIn(List.of(3, 10, 42)).stream()
+            .map(QuoteMongo::getQuoteNumber).sorted().collect(Collectors.toList());
+        assertEquals(List.of(3, 10, 10), numbers);
+    }
+
+    @Test
+    public void timeWindowsVisitEveryQuoteInRangeOnce() {
+        assertEquals(List.of(1, 5, 9, 13, 17, 2, 6, 10, 10, 14, 18, 3, 7, 11, 15, 19), scrollTimeRange(null));
+        assertEquals(List.of(2, 6, 10, 10, 14, 18), scrollTimeRange(new byte[]{127, 0, 0, 1}));
+    }
+
+    private List<Integer> scrollTimeRange(byte[] ipAddress) {
+        long since = Instant.parse("2024-01-01T00:00:01Z").toEpochMilli();
+        long until = Instant.parse("2024-01-01T00:00:04Z").toEpochMilli();
+        List<Integer> seen = new ArrayList<>();
+        String cursor = null;
+        do {
+            KeysetScrollPosition position = QuoteCursors.timePosition(cursor, ObjectId::new);
+            Window<QuoteMongo> window = ipAddress == null
+                ? repository.findByCreatedAtBetweenOrderByCreatedAtAscQuoteNumberAscIdAsc(
+                    Range.rightOpen(since, until), position, Limit.of(4))
+                : repository.findByIpAddressAndCreatedAtBetweenOrderByCreatedAtAscQuoteNumberAscIdAsc(
+                    ipAddress, Range.rightOpen(since, until), position, Limit.of(4));
+            QuotePage<QuoteMongo> page = QuoteCursors.timePage(window);
+            page.getItems().forEach(q -> seen.add(q.getQuoteNumber()));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        return seen;
+    }
+
+    @Test
+    public void deleteReturnsTheDeletedQuote() {
+        QuoteMongo latest = repository.findTopByOrderByQuoteNumberDesc().orElseThrow();
+        assertEquals(20, repository.deleteQuoteById(latest.getId()).orElseThrow().getQuoteNumber());
+        assertEquals(19, repository.findTopByOrderByQuoteNumberDesc().orElseThrow().getQuoteNumber());
+        assertTrue(repository.deleteQuoteById(latest.getId()).isEmpty());
+    }
+
+    private static QuoteMongo quote(int quoteNumber) {
+        QuoteMongo quote = new QuoteMongo();
+        quote.setQuote("quote " + quoteNumber);
+        // Four distinct submission times, so the time windows below have ties on createdAt
+        quote.setTimestamp("2024-01-01T00:00:0" + quoteNumber % 4 + "Z");
+        quote.setIp(quoteNumber % 2 == 0 ? "127.0.0.1" : "10.0.0.1");
+        quote.setQuoteNumber(quoteNumber);
+        return quote;
+    }
+}
@@ -0,0 +1,146 @@
+package com.wizkhalubernetes.repository.mongo;
+
+import com.mongodb.ConnectionString;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.wizkhalubernetes.config.mongo.MongoConfig;
+import com.wizkhalubernetes.model.mongo.QuoteMongo;
+import com.wizkhalubernetes.store.QuoteCursors;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.bson.json.JsonMode;
+import org.bson.json.JsonWriterSettings;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Range;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.SimpleMongoClientDatabaseFactory;
+import org.springframework.data.mongodb.core.convert.DefaultDbRefResolver;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.repository.support.MongoRepositoryFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks with explain that the time-range and submitter windows of QuoteMongoRepository are answered
+ * from the ts / addr compound indexes and never scan the collection. The plans are taken for the find
+ * commands Spring Data actually sends, first window and keyset continuation alike.
+ * The in-memory test server has no query planner, so this needs a real MongoDB:
+ * mvn test -Dtest=QuoteTimeIndexPlanTest -Dquotes.test.mongo-uri=mongodb://localhost:27017
+ */
+@EnabledIfSystemProperty(named = "quotes.test.mongo-uri", matches = ".+")
+public class QuoteTimeIndexPlanTest {
+    private static final byte[] IP = {127, 0, 0, 1};
+    private static final JsonWriterSettings EXTENDED = JsonWriterSettings.builder().outputMode(JsonMode.EXTENDED).build();
+
+    private final List<BsonDocument> finds = new CopyOnWriteArrayList<>();
+    private MongoClient client;
+    private MongoTemplate mongoTemplate;
+    private QuoteMongoRepository repository;
+
+    @BeforeEach
+    public void seed() {
+        CommandListener recorder = new CommandListener() {
+            @Override
+            public void commandStarted(CommandStartedEvent event) {
+                if ("find".equals(event.getCommandName())) {
+                    // The event's document is a view on a pooled buffer: keep a decoded copy
+                    finds.add(BsonDocument.parse(event.getCommand().toJson(EXTENDED)));
+                }
+            }
+        };
+        client = MongoClients.create(MongoClientSettings.builder()
+            .applyConnectionString(new ConnectionString(System.getProperty("quotes.test.mongo-uri")))
+            .addCommandListener(recorder)
+            .build());
+        SimpleMongoClientDatabaseFactory factory = new SimpleMongoClientDatabaseFactory(client, "quote_plan_test");
+        mongoTemplate = new MongoTemplate(factory, MongoConfig.mappingConverter(new DefaultDbRefResolver(factory)));
+        mongoTemplate.dropCollection(QuoteMongo.class);
+        IndexOperations indexOps = mongoTemplate.indexOps(QuoteMongo.class);
+        new MongoPersistentEntityIndexResolver(mongoTemplate.getConverter().getMappingContext())
+            .resolveIndexFor(QuoteMongo.class)
+            .forEach(indexOps::ensureIndex);
+        repository = new MongoRepositoryFactory(mongoTemplate).getRepository(QuoteMongoRepository.class);
+        List<QuoteMongo> quotes = new ArrayList<>();
+        for (int n = 1; n <= 200; n++) {
+            QuoteMongo quote = new QuoteMongo();
+            quote.setQuote("quote " + n);
+            quote.setCreatedAt(1_700_000_000_000L + n * 1000L);
+            quote.setIpAddress(n % 2 == 0 ? IP : new byte[]{10, 0, 0, (byte) n});
+            quote.setQuoteNumber(n);
+            quotes.add(quote);
+        }
+        repository.saveAll(quotes);
+        finds.clear();
+    }
+
+    @AfterEach
+    public void dropDatabase() {
+        mongoTemplate.getDb().drop();
+        client.close();
+    }
+
+    @Test
+    public void timeRangeUsesTheTsIndex() {
+        List<String> plans = plans(null);
+        assertEquals(2, plans.size());
+        for (String plan : plans) {
+            assertTrue(plan.contains("ts_quoteNumber_id_idx"), plan);
+            assertFalse(plan.contains("COLLSCAN"), plan);
+        }
+    }
+
+    @Test
+    public void submitterUsesTheAddrIndex() {
+        List<String> plans = plans(IP);
+        assertEquals(2, plans.size());
+        for (String plan : plans) {
+            assertTrue(plan.contains("addr_ts_quoteNumber_id_idx"), plan);
+            assertFalse(plan.contains("COLLSCAN"), plan);
+        }
+    }
+
+    /**
+     * Reads a first window and its continuation, then explains the find commands that were sent.
+     */
+    private List<String> plans(byte[] ipAddress) {
+        long since = 1_700_000_050_000L;
+        long until = 1_700_000_150_000L;
+        KeysetScrollPosition position = ScrollPosition.keyset();
+        for (int i = 0; i < 2; i++) {
+            Range<Long> createdAt = Range.rightOpen(QuoteCursors.timeFloor(position, since), until);
+            Window<QuoteMongo> window = ipAddress == null
+                ? repository.findByCreatedAtBetweenOrderByCreatedAtAscQuoteNumberAscIdAsc(createdAt, position, Limit.of(10))
+                : repository.findByIpAddressAndCreatedAtBetweenOrderByCreatedAtAscQuoteNumberAscIdAsc(
+                    ipAddress, createdAt, position, Limit.of(10));
+            assertTrue(window.hasNext());
+            position = QuoteCursors.timePosition(QuoteCursors.timePage(window).getNextCursor(), ObjectId::new);
+        }
+        List<String> plans = new ArrayList<>();
+        for (BsonDocument find : finds) {
+            find.remove("$db");
+            find.remove("lsid");
+            find.remove("$readPreference");
+            Document explain = mongoTemplate.getDb().runCommand(
+                new Document("explain", find).append("verbosity", "queryPlanner"));
+            plans.add(explain.get("queryPlanner", Document.class).get("winningPlan", Document.class).toJson());
+        }
+        return plans;
+    }
+}
@@ -0,0 +1,101 @@
+package com.wizkhalubernetes.search;
+
+import org.junit.jupiter.api.Test;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests tokenization, matching, prefix queries, ranking and deletes of the in-memory search index.
+ */
+public class QuoteSearchIndexTest {
+
+    @Test
+    public void tokenizerNormalizesCaseAccentsAndApostrophes() {
+        assertEquals(List.of("dont", "stop", "cafe", "2024"), QuoteTokenizer.tokens("Don't STOP, Café -- 2024!"));
+        assertEquals(List.of(), QuoteTokenizer.tokens(" ... "));
+    }
+
+    @Test
+    public void allTermsMustMatchAndRankByFrequency() {
+        QuoteSearchIndex index = new QuoteSearchIndex();
+        index.add(1, "Work hard, stay humble");
+        index.add(2, "Work work work, then work some more");
+        index.add(3, "Stay humble and work hard");
+        index.add(4, "Young, wild and free");
+
+        QuoteSearchIndex.Hits hits = index.search("work", 10);
+        assertEquals(3, hits.total());
+        assertArrayEquals(new int[]{2, 3, 1}, hits.quoteNumbers());
+        assertEquals(4, hits.scores()[0]);
+
+        assertArrayEquals(new int[]{3, 1}, index.search("HUMBLE work", 10).quoteNumbers());
+        assertEquals(0, index.search("humble free", 10).total());
+        assertEquals(0, index.search("missing", 10).total());
+    }
+
+    @Test
+    public void prefixQueriesMatchEveryTermWithThePrefix() {
+        QuoteSearchIndex index = new QuoteSearchIndex();
+        index.add(1, "Dreams come true");
+        index.add(2, "Dreamers dream");
+        index.add(3, "Drive slow");
+
+        QuoteSearchIndex.Hits hits = index.search("dream*", 10);
+        assertArrayEquals(new int[]{2, 1}, hits.quoteNumbers());
+        assertEquals(2, hits.scores()[0]);
+        assertArrayEquals(new int[]{1}, index.search("dre* true", 10).quoteNumbers());
+        assertThrows(IllegalArgumentException.class, () -> index.search("d*", 10));
+        assertThrows(IllegalArgumentException.class, () -> index.search(" !? ", 10));
+    }
+
+    @Test
+    public void limitKeepsTheBestHitsNewestFirstOnTies() {
+        QuoteSearchIndex index = new QuoteSearchIndex();
+        for (int n = 1; n <= 50; n++) {
+            index.add(n, n == 7 ? "smoke smoke" : "smoke");
+        }
+        QuoteSearchIndex.Hits hits = index.search("smoke", 3);
+        assertEquals(50, hits.total());
+        assertArrayEquals(new int[]{7, 50, 49}, hits.quoteNumbers());
+    }
+
+    @Test
+    public void deletedQuotesDisappearAndAreNeverReindexed() {
+        QuoteSearchIndex index = new QuoteSearchIndex();
+        index.add(1, "black and yellow");
+        index.add(2, "yellow");
+        assertFalse(index.add(2, "yellow"));
+
+        assertTrue(index.remove(2));
+        assertArrayEquals(new int[]{1}, index.search("yellow", 10).quoteNumbers());
+        assertFalse(index.add(2, "yellow"));
+        assertFalse(index.remove(2));
+        // Deleted before it was indexed, e.g. while the initial build was still streaming
+        assertFalse(index.remove(3));
+        assertFalse(index.add(3, "yellow"));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    public void compactionDropsDeadPostingsAndEmptyTerms() {
+        QuoteSearchIndex index = new QuoteSearchIndex();
+        for (int n = 1; n <= 4000; n++) {
+            index.add(n, n <= 2000 ? "gang term" + n : "gang");
+        }
+        assertEquals(2001, index.termCount());
+        for (int n = 1; n <= 2000; n++) {
+            index.remove(n);
+        }
+        // Compacted once, when 1024 of 4000 quotes were dead; the later deletes are only marked
+        assertEquals(2000, index.size());
+        assertEquals(2001 - 1024, index.termCount());
+        assertEquals(6000 - 2 * 1024, index.postingCount());
+        assertEquals(2000, index.search("gang", 1).total());
+        assertEquals(0, index.search("term5", 1).total());
+    }
+}
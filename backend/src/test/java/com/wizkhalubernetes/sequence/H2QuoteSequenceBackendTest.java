@@ -0,0 +1,102 @@
+package com.wizkhalubernetes.sequence;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests the H2 SEQUENCE backend against an embedded H2 database.
+ */
+public class H2QuoteSequenceBackendTest {
+    private EmbeddedDatabase database;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    public void createDatabase() {
+        database = new EmbeddedDatabaseBuilder().setType(EmbeddedDatabaseType.H2).generateUniqueName(true).build();
+        jdbcTemplate = new JdbcTemplate(database);
+        jdbcTemplate.execute("CREATE TABLE quotes (id BIGINT AUTO_INCREMENT PRIMARY KEY, quote VARCHAR(255), quote_number INT)");
+    }
+
+    @AfterEach
+    public void dropDatabase() {
+        database.shutdown();
+    }
+
+    @Test
+    public void startsAfterHighestExistingQuoteNumber() {
+        jdbcTemplate.update("INSERT INTO quotes (quote, quote_number) VALUES ('existing', 7)");
+        QuoteNumberAllocator allocator = new QuoteNumberAllocator(new H2QuoteSequenceBackend(jdbcTemplate), 5);
+        for (long expected = 8; expected < 20; expected++) {
+            assertEquals(expected, allocator.next());
+        }
+    }
+
+    @Test
+    public void replicasSharingTheSequenceNeverCollide() throws Exception {
+        QuoteNumberAllocator replicaA = new QuoteNumberAllocator(new H2QuoteSequenceBackend(jdbcTemplate), 20);
+        QuoteNumberAllocator replicaB = new QuoteNumberAllocator(new H2QuoteSequenceBackend(jdbcTemplate), 20);
+        Set<Long> numbers = ConcurrentHashMap.newKeySet();
+        runOnEach(replicaA, replicaB, allocator -> {
+            for (int i = 0; i < 500; i++) {
+                numbers.add(allocator.next());
+            }
+        });
+        assertEquals(4_000, numbers.size());
+    }
+
+    @Test
+    public void batchReservationsAndSingleNumbersNeverCollide() throws Exception {
+        QuoteNumberAllocator replicaA = new QuoteNumberAllocator(new H2QuoteSequenceBackend(jdbcTemplate), 20);
+        QuoteNumberAllocator replicaB = new QuoteNumberAllocator(new H2QuoteSequenceBackend(jdbcTemplate), 20);
+        Set<Long> numbers = ConcurrentHashMap.newKeySet();
+        AtomicInteger handedOut = new AtomicInteger();
+        runOnEach(replicaA, replicaB, allocator -> {
+            for (int i = 0; i < 100; i++) {
+                numbers.add(allocator.next());
+                for (long n : allocator.reserve(1 + i % 45)) {
+                    numbers.add(n);
+                }
+                handedOut.addAndGet(2 + i % 45);
+            }
+        });
+        assertEquals(handedOut.get(), numbers.size());
+        assertEquals(20L, jdbcTemplate.queryForObject(
+            "SELECT INCREMENT FROM INFORMATION_SCHEMA.SEQUENCES WHERE SEQUENCE_NAME = 'QUOTE_NUMBER_SEQ'", Long.class));
+    }
+
+    /**
+     * Runs the task on 8 threads, alternating between the two allocators, and fails on any error.
+     */
+    private static void runOnEach(QuoteNumberAllocator replicaA, QuoteNumberAllocator replicaB,
+                                  Consumer<QuoteNumberAllocator> task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                QuoteNumberAllocator allocator = t % 2 == 0 ? replicaA : replicaB;
+                futures.add(executor.submit(() -> task.accept(allocator)));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.wizkhalubernetes.sequence;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.wizkhalubernetes.model.mongo.QuoteMongo;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import java.net.InetSocketAddress;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests the findAndModify counter backend against an in-memory MongoDB server.
+ */
+public class MongoQuoteSequenceBackendTest {
+    private MongoServer server;
+    private MongoClient client;
+    private MongoTemplate mongoTemplate;
+
+    @BeforeEach
+    public void startServer() {
+        server = new MongoServer(new MemoryBackend());
+        InetSocketAddress address = server.bind();
+        client = MongoClients.create("mongodb://" + address.getHostString() + ":" + address.getPort());
+        mongoTemplate = new MongoTemplate(client, "wizquotes");
+    }
+
+    @AfterEach
+    public void stopServer() {
+        client.close();
+        server.shutdownNow();
+    }
+
+    @Test
+    public void seedsFromHighestExistingQuoteNumber() {
+        QuoteMongo existing = new QuoteMongo();
+        existing.setQuote("existing");
+        existing.setQuoteNumber(41);
+        mongoTemplate.save(existing);
+
+        QuoteNumberAllocator allocator = new QuoteNumberAllocator(new MongoQuoteSequenceBackend(mongoTemplate), 10);
+        assertEquals(42, allocator.next());
+        assertEquals(43, allocator.next());
+    }
+
+    @Test
+    public void replicasSharingTheCounterNeverCollide() throws Exception {
+        QuoteNumberAllocator replicaA = new QuoteNumberAllocator(new MongoQuoteSequenceBackend(mongoTemplate), 25);
+        QuoteNumberAllocator replicaB = new QuoteNumberAllocator(new MongoQuoteSequenceBackend(mongoTemplate), 25);
+        Set<Long> numbers = ConcurrentHashMap.newKeySet();
+        Thread[] threads = new Thread[8];
+        for (int t = 0; t < threads.length; t++) {
+            QuoteNumberAllocator allocator = t % 2 == 0 ? replicaA : replicaB;
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 500; i++) {
+                    numbers.add(allocator.next());
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(4_000, numbers.size());
+    }
+}
@@ -40,7 +40,8 @@ const App: React.FC = () => {
       } else {
         setSubmittedQuote(res.data);
         setError(null);
-        setAllQuotes(quotes => [res.data, ...quotes]);
+        // The quote-created event may have added it already
+        setAllQuotes(quotes => [res.data, ...quotes.filter(q => q.id !== res.data.id)]);
       }
     } catch (err) {
       setError('Could not connect to backend or MongoDB.');
@@ -50,27 +51,63 @@ const App: React.FC = () => {
   };
 
   useEffect(() => {
+    const loadQuotes = () => {
+      axios.get('/api/quotes/latest')
+        .then((res: { data: any }) => {
+          if (res.data && !(res.data as any).error) {
+            setLatestQuote(res.data);
+          } else {
+            setLatestQuote(null);
+          }
+        })
+        .catch(() => setLatestQuote(null));
+      axios.get('/api/quotes')
+        .then((res: { data: any[] }) => setAllQuotes(res.data))
+        .catch(() => setAllQuotes([]));
+    };
+
     // Initial load for all data
     axios.get('/api/nodeinfo')
       .then((res: { data: any }) => setNodeInfo(res.data))
       .catch(() => setNodeInfo(null));
-    axios.get('/api/quotes/latest')
-      .then((res: { data: any }) => {
-        if (res.data && !(res.data as any).error) {
-          setLatestQuote(res.data);
-        } else {
-          setLatestQuote(null);
-        }
-      })
-      .catch(() => setLatestQuote(null));
     axios.get('/api/dbstatus')
       .then((res: { data: any }) => setDbStatus(res.data))
       .catch(() => setDbStatus(null));
-    axios.get('/api/quotes')
-      .then((res: { data: any[] }) => setAllQuotes(res.data))
-      .catch(() => setAllQuotes([]));
+    loadQuotes();
+
+    if (typeof EventSource !== 'undefined') {
+      // Server-sent events: the backend pushes quote changes and nodeinfo/dbstatus updates
+      const events = new EventSource('/api/quotes/stream');
+      let connected = false;
+      events.onopen = () => {
+        // After a reconnect, catch up on anything missed while disconnected
+        if (connected) {
+          loadQuotes();
+        }
+        connected = true;
+      };
+      events.addEventListener('quote-created', (e: MessageEvent) => {
+        const created = JSON.parse(e.data);
+        setAllQuotes(quotes => [created, ...quotes.filter(q => q.id !== created.id)]);
+        setLatestQuote((latest: any) =>
+          !latest || created.quoteNumber >= latest.quoteNumber ? created : latest);
+      });
+      events.addEventListener('quote-deleted', (e: MessageEvent) => {
+        const { id } = JSON.parse(e.data);
+        setAllQuotes(quotes => quotes.filter(q => String(q.id) !== id));
+        setLatestQuote((latest: any) => (latest && String(latest.id) === id ? null : latest));
+      });
+      events.addEventListener('quotes-batch-created', () => loadQuotes());
+      // nodeinfo carries the full info on connect, then only the keys that changed
+      events.addEventListener('nodeinfo', (e: MessageEvent) => {
+        const changed = JSON.parse(e.data);
+        setNodeInfo((info: any) => ({ ...(info || {}), ...changed }));
+      });
+      events.addEventListener('dbstatus', (e: MessageEvent) => setDbStatus(JSON.parse(e.data)));
+      return () => events.close();
+    }
 
-    // Poll nodeinfo and dbstatus every 5 seconds (no blink)
+    // No EventSource support: poll nodeinfo and dbstatus every 3 seconds (no blink)
     const interval = setInterval(() => {
       axios.get('/api/nodeinfo')
         .then((res: { data: any }) => setNodeInfo(res.data))